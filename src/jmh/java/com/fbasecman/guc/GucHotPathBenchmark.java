@@ -0,0 +1,100 @@
+package com.fbasecman.guc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试程序热路径微基准：测试值生成、GUC值规范化、后端探测结果解析
+ *
+ * 运行：mvn -Pjmh test-compile exec:exec@jmh -Djmh.args="-prof gc GucHotPathBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GucHotPathBenchmark {
+
+    @Param({"bool", "enum", "integer", "real", "string"})
+    public String vartype;
+
+    private String[][] rows;
+    private ResultSet probeRow;
+
+    @Setup
+    public void setup() {
+        rows = PgSettingsFixture.rowsOfType(vartype);
+        probeRow = stubRow("10.0.0.12", 5432, "18342", "postgres", Boolean.FALSE);
+    }
+
+    /**
+     * 每次调用处理该类型的全部参数行
+     */
+    @Benchmark
+    public void generateTestValue(Blackhole bh) {
+        for (String[] row : rows) {
+            bh.consume(GucParameterList.generateTestValue(row[0], row[1], row[2], row[3], row[4], row[5]));
+        }
+    }
+
+    @Benchmark
+    public void normalizeGucValue(Blackhole bh) {
+        for (String value : PgSettingsFixture.SHOW_VALUES) {
+            bh.consume(GucSyncScenarioTest.normalizeGucValue(value));
+        }
+    }
+
+    @Benchmark
+    public Object backendInfoFromRow() throws SQLException {
+        return GucSyncScenarioTest.BackendInfo.fromRow(probeRow, true);
+    }
+
+    /**
+     * 基线：只读取桩结果集的5列，用于扣除动态代理本身的开销
+     */
+    @Benchmark
+    public void probeRowAccessBaseline(Blackhole bh) throws SQLException {
+        bh.consume(probeRow.getString(1));
+        bh.consume(probeRow.getInt(2));
+        bh.consume(probeRow.getString(3));
+        bh.consume(probeRow.getString(4));
+        bh.consume(probeRow.getBoolean(5));
+    }
+
+    /**
+     * 只支持按列号取值的桩结果集，模拟探测语句返回的一行
+     */
+    static ResultSet stubRow(Object... columns) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getString":
+                            return String.valueOf(columns[(Integer) args[0] - 1]);
+                        case "getInt":
+                            return columns[(Integer) args[0] - 1];
+                        case "getBoolean":
+                            return columns[(Integer) args[0] - 1];
+                        case "next":
+                            return Boolean.TRUE;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package com.fbasecman.guc;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端基准：经连接池执行 SET / SHOW / RESET ALL / 后端探测，对比 Simple 与 Extended 协议
+ *
+ * 每个线程持有一个客户端连接，语句的执行方式与 GucSyncScenarioTest 中的
+ * executeUpdate / getGucValue / getBackendInfo 一致（Simple用Statement，Extended每次新建PreparedStatement）。
+ *
+ * 目标入口默认取 db.properties 的 db.url，可用 -Dguc.bench.url 指定其他入口（如本地直连PostgreSQL作为对照）：
+ * mvn -Pjmh test-compile exec:exec@jmh -Djmh.args="GucRoundTripBenchmark -jvmArgsAppend -Dguc.bench.url=jdbc:postgresql://127.0.0.1:5432/postgres"
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class GucRoundTripBenchmark {
+
+    private static final String PROBE_SQL = "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user";
+
+    @Param({"simple", "extended"})
+    public String protocol;
+
+    private Connection conn;
+    private boolean useExtended;
+
+    @Setup(Level.Trial)
+    public void connect() throws SQLException {
+        useExtended = "extended".equals(protocol);
+        String baseUrl = DatabaseConfig.getProperty("guc.bench.url", DatabaseConfig.getUrl());
+        conn = DriverManager.getConnection(JdbcUrlBuilder.withProtocol(baseUrl, useExtended),
+                DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+        conn.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void disconnect() throws SQLException {
+        if (conn != null) {
+            conn.close();
+        }
+    }
+
+    @Benchmark
+    public void set() throws SQLException {
+        execute("SET extra_float_digits = 3");
+    }
+
+    @Benchmark
+    public String show() throws SQLException {
+        return query("SHOW extra_float_digits");
+    }
+
+    @Benchmark
+    public void resetAll() throws SQLException {
+        execute("RESET ALL");
+    }
+
+    @Benchmark
+    public String backendProbe() throws SQLException {
+        return query(PROBE_SQL);
+    }
+
+    private void execute(String sql) throws SQLException {
+        if (useExtended) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.execute();
+            }
+        } else {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * 返回第一行第一列（探测语句时为 ip），保证结果集被完整读取
+     */
+    private String query(String sql) throws SQLException {
+        if (useExtended) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } else {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * 单客户端：只看单条语句的往返开销
+     */
+    @Threads(1)
+    public static class SingleClient extends GucRoundTripBenchmark {
+    }
+
+    /**
+     * 8个客户端并发：连接池需要同时为多个客户端做后端分配与GUC同步
+     */
+    @Threads(8)
+    public static class ConcurrentClients extends GucRoundTripBenchmark {
+    }
+}
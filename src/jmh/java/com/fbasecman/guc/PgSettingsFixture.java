@@ -0,0 +1,66 @@
+package com.fbasecman.guc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试输入 - 按 pg_settings 真实字段形态整理的参数行
+ * 列：name, setting, unit, min_val, max_val, vartype（与 getGucParametersFromDatabase 的查询一致）
+ */
+final class PgSettingsFixture {
+
+    static final String[][] ROWS = {
+        // bool
+        {"enable_seqscan", "on", null, null, null, "bool"},
+        {"enable_hashjoin", "on", null, null, null, "bool"},
+        {"enable_partitionwise_join", "off", null, null, null, "bool"},
+        {"check_function_bodies", "on", null, null, null, "bool"},
+        {"row_security", "on", null, null, null, "bool"},
+        // enum
+        {"bytea_output", "hex", null, null, null, "enum"},
+        {"constraint_exclusion", "partition", null, null, null, "enum"},
+        {"xmloption", "content", null, null, null, "enum"},
+        {"synchronous_commit", "on", null, null, null, "enum"},
+        {"client_min_messages", "notice", null, null, null, "enum"},
+        // integer
+        {"work_mem", "4096", "kB", "64", "2147483647", "integer"},
+        {"maintenance_work_mem", "65536", "kB", "1024", "2147483647", "integer"},
+        {"extra_float_digits", "1", null, "-15", "3", "integer"},
+        {"temp_buffers", "1024", "8kB", "100", "1073741823", "integer"},
+        {"vacuum_cost_limit", "200", null, "1", "10000", "integer"},
+        {"temp_file_limit", "-1", "kB", "-1", "2147483647", "integer"},
+        // real
+        {"cursor_tuple_fraction", "0.1", null, "0", "1", "real"},
+        {"random_page_cost", "4", null, "0", "1.79769e+308", "real"},
+        {"seq_page_cost", "1", null, "0", "1.79769e+308", "real"},
+        {"geqo_selection_bias", "2", null, "1.5", "2", "real"},
+        {"jit_above_cost", "100000", null, "-1", "1.79769e+308", "real"},
+        // string
+        {"application_name", "", null, null, null, "string"},
+        {"search_path", "\"$user\", public", null, null, null, "string"},
+        {"default_text_search_config", "pg_catalog.english", null, null, null, "string"},
+        {"lc_messages", "en_US.UTF-8", null, null, null, "string"},
+        {"temp_tablespaces", "", null, null, null, "string"},
+    };
+
+    /**
+     * SHOW 返回值和生成的测试值的典型形态，用于 normalizeGucValue
+     */
+    static final String[] SHOW_VALUES = {
+        "on", "ISO, MDY", "'ISO, DMY'", "\"$user\", public", "'myschema, public'",
+        "4MB", "  3  ", "'test_app'", "Asia/Shanghai", "\"quoted\"", "", "'pg_catalog, public'"
+    };
+
+    private PgSettingsFixture() {
+    }
+
+    static String[][] rowsOfType(String vartype) {
+        List<String[]> rows = new ArrayList<>();
+        for (String[] row : ROWS) {
+            if (row[5].equals(vartype)) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray(new String[0][]);
+    }
+}
@@ -0,0 +1,72 @@
+package com.fbasecman.guc.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表格打印宽度计算微基准：纯ASCII、纯中文、中英混排的单元格
+ *
+ * 运行：mvn -Pjmh test-compile exec:exec@jmh -Djmh.args="-prof gc TablePrinterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablePrinterBenchmark {
+
+    @Param({"ascii", "cjk", "mixed"})
+    public String charset;
+
+    // 10: 参数名；30/40: 表格列宽附近；120: 超长需要截断
+    @Param({"10", "40", "120"})
+    public int length;
+
+    private String cell;
+
+    @Setup
+    public void setup() {
+        String unit;
+        switch (charset) {
+            case "ascii":
+                unit = "extra_float_digits ";
+                break;
+            case "cjk":
+                unit = "测试非报告参数同步检测点";
+                break;
+            default:
+                unit = "用例2.6-大量GUC同步（Simple协议）";
+                break;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(unit);
+        }
+        cell = sb.substring(0, length);
+    }
+
+    @Benchmark
+    public int getDisplayWidth() {
+        return TablePrinter.getDisplayWidth(cell);
+    }
+
+    /**
+     * 与汇总表格第二列同宽（40），短串走填充分支，长串走截断分支
+     */
+    @Benchmark
+    public String padString() {
+        return TablePrinter.padString(cell, 40);
+    }
+}
@@ -89,8 +89,8 @@ public class GucParameterList {
      * @param maxVal 最大值（可能为null）
      * @param vartype 参数类型（bool, integer, real, string, enum）
      */
-    private static String generateTestValue(String name, String currentValue, String unit, 
-                                           String minVal, String maxVal, String vartype) {
+    static String generateTestValue(String name, String currentValue, String unit, 
+                                   String minVal, String maxVal, String vartype) {
         // 对于危险参数，保持原值不变（虽然测试值和默认值相同，但避免设置失败）
         if (name.equals("client_encoding") ||  // JDBC驱动强制要求UTF8
             name.equals("DateStyle") ||  // JDBC驱动要求以ISO开头，不允许修改
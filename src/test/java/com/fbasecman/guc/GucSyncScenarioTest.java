@@ -1,14 +1,59 @@
 package com.fbasecman.guc;
 
 import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.load.BackendChurnWorkload;
+import com.fbasecman.guc.load.ConnectStormWorkload;
+import com.fbasecman.guc.load.ErrorStormWorkload;
+import com.fbasecman.guc.load.IdleClientWorkload;
+import com.fbasecman.guc.load.InterleavingWorkload;
+import com.fbasecman.guc.load.LargeValueWorkload;
+import com.fbasecman.guc.load.LoadWorkload;
+import com.fbasecman.guc.load.MatrixShardWorkload;
+import com.fbasecman.guc.load.ParameterStatusWorkload;
+import com.fbasecman.guc.load.PreparedSwitchWorkload;
+import com.fbasecman.guc.load.ReadWriteSplitWorkload;
+import com.fbasecman.guc.load.ResetCostWorkload;
+import com.fbasecman.guc.load.SaturationWorkload;
+import com.fbasecman.guc.load.ScenarioVariantWorkload;
+import com.fbasecman.guc.load.ScheduleReplayWorkload;
+import com.fbasecman.guc.load.ScheduleSoakWorkload;
+import com.fbasecman.guc.load.SetLocalWorkload;
+import com.fbasecman.guc.load.ShardedMatrixWorkload;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.MatrixCellResult;
+import com.fbasecman.guc.model.SyncAmplification;
 import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.CompiledScenario;
+import com.fbasecman.guc.scenario.DocScenarioLoader;
+import com.fbasecman.guc.scenario.ScenarioCatalog;
+import com.fbasecman.guc.scenario.ScenarioEngine;
+import com.fbasecman.guc.scenario.ScenarioOutcome;
+import com.fbasecman.guc.stats.ClientStatementStats;
+import com.fbasecman.guc.stats.StatementKind;
+import com.fbasecman.guc.stats.StatementLatencyStats;
+import com.fbasecman.guc.stats.SyncAmplificationCollector;
+import com.fbasecman.guc.util.ClientConnectionPool;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.LatencyProxy;
 import com.fbasecman.guc.util.TablePrinter;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * GUC参数同步场景测试 - 测试连接复用时的GUC参数同步机制
@@ -27,17 +72,659 @@ public class GucSyncScenarioTest {
     private static final String BLUE = "\u001B[34m";
     private static final String RESET = "\u001B[0m";
     
+    // 检测点/用例分隔线，预先生成避免每个检测点重复构造
+    private static final String CHECKPOINT_LINE = "─".repeat(100);
+    private static final String BANNER_LINE = "=".repeat(100);
+    
+    // 所有控制台输出经由异步日志，安静模式(-Dguc.log.quiet=true)下只保留失败和汇总
+    private static final HarnessLogger LOG = HarnessLogger.get();
+    
     private List<TestResult> testResults = new ArrayList<>();
     
-    public static void main(String[] args) {
+    // 客户端侧发出的语句计数，用于和后端pg_stat_statements对比
+    private final ClientStatementStats clientStats = new ClientStatementStats();
+    
+    // 客户端侧按语句类别统计的往返延迟
+    private final StatementLatencyStats statementLatency = new StatementLatencyStats();
+    
+    // 查询模式矩阵中当前单元格的 preferQueryMode / prepareThreshold，为null时按协议默认
+    private String queryModeOverride;
+    private Integer prepareThresholdOverride;
+    
+    // 差异对比模式中场景连接的入口（直连主库），为null时连接 db.url
+    private Endpoint targetOverride;
+    // 同步放大统计期间为true：客户端连接不执行驱动自带的建连 SET，避免被计为连接池注入
+    private boolean suppressDriverInitSets;
+    
+    // 声明式场景引擎，语句计入上面的客户端统计
+    private final ScenarioEngine scenarioEngine = new ScenarioEngine(this::openConnection, clientStats, statementLatency);
+    
+    /**
+     * 与协议无关的场景入口，对应各个 executeTestCaseXxx(useExtendedProtocol, protocolName)
+     */
+    @FunctionalInterface
+    interface ProtocolScenario {
+        void execute(boolean useExtendedProtocol, String protocolName) throws Exception;
+    }
+    
+    /**
+     * 启动参数：
+     * - 无参数：执行 runAllTests() 中启用的用例
+     * - amplification：两种协议下依次执行所有同步场景，统计连接池注入的同步语句（需配置 db.direct.url）
+     * - querymodes：在 preferQueryMode × prepareThreshold 矩阵的每个单元格中执行所有同步场景
+     * - connectstorm：连接风暴，测量不同启动参数数量下的建连延迟和首次使用的同步开销
+     * - scenarios：两种协议下批量执行预编译的声明式场景变体
+     * - docscenarios：直接执行测试用例文档中的SQL代码块和检测点
+     * - interleave：K个客户端连接随机交错执行会话语句，与参考会话模型比较，失败时缩减为最小复现
+     * - soak：多线程并发压测并录制语句的全局顺序，失败时保存该段调度并立即回放
+     * - replay：按录制文件（-Dguc.replay.file）确定性回放并发调度
+     * - fullmatrix：按 参数类别 × 事务形态 × 事务控制 × 协议 展开场景矩阵，分片到多个子JVM执行后合并报告
+     * - fullmatrix-shard：子JVM中执行场景矩阵的一个分片（由 fullmatrix 启动）
+     * - paramstatus：记录客户端收到的每条 ParameterStatus，后端切换后校验上报值与会话值，统计冗余消息
+     * - preparedswitch：准备数百条服务端命名语句后修改计划相关参数并切换后端，统计语句失效率和切换开销
+     * - setlocal：大量客户端并发执行 SET LOCAL 和保存点内 SET 后回滚，校验事务级参数不泄漏并测量跟踪开销
+     * - resetcost：比较逐个 RESET、RESET ALL、DISCARD ALL 的耗时，以及重置后连接池额外发送的同步语句
+     * - rwsplit：大量客户端按比例交替执行只读 / 读写事务，测量读写切换的路由与参数回放开销，校验节点与参数
+     * - errorstorm：部分客户端不停发送无效 SET，校验错误只归属到发出者，并比较正常客户端的延迟
+     * - churn：通过直连按间隔终止连接池后端，测量客户端恢复时间并校验重建的后端回放了全部会话参数（需配置 db.direct.url）
+     * - largevalue：按 16 B ~ 64 KB 扫描参数值大小，测量长值参数在后端切换时的回放报文、回放延迟和连接池内存
+     * - saturation：客户端数为后端数的 2 / 10 / 100 倍，把每个事务拆成排队+同步与查询两部分
+     * - idleclients：逐级建立 1k ~ 20k 个设置了会话参数的空闲客户端，采样连接池内存并随机唤醒校验参数
+     * - differential：同步场景和负载模式分别经连接池和直连执行，比较参数结果并按语句类别报告连接池开销（需配置 db.direct.url）
+     * - rttsweep：连接池入口经过本机回环上的延迟注入代理，按 RTT 逐级执行同步场景，估算每个场景的往返次数
+     */
+    public static void main(String[] args) throws Exception {
         GucSyncScenarioTest test = new GucSyncScenarioTest();
-        test.runAllTests();
+        String mode = args.length > 0 ? args[0] : "";
+        switch (mode) {
+            case "amplification":
+                test.runAmplificationMode();
+                break;
+            case "querymodes":
+                test.runQueryModeMatrix();
+                break;
+            case "connectstorm":
+                test.runWorkload(new ConnectStormWorkload());
+                break;
+            case "scenarios":
+                test.runWorkload(new ScenarioVariantWorkload());
+                break;
+            case "docscenarios":
+                test.runDocScenarios();
+                break;
+            case "interleave":
+                test.runWorkload(new InterleavingWorkload());
+                break;
+            case "soak":
+                test.runWorkload(new ScheduleSoakWorkload());
+                break;
+            case "replay":
+                test.runWorkload(new ScheduleReplayWorkload());
+                break;
+            case "fullmatrix":
+                test.runWorkload(new ShardedMatrixWorkload(GucSyncScenarioTest.class));
+                break;
+            case ShardedMatrixWorkload.SHARD_MODE:
+                test.runWorkload(new MatrixShardWorkload());
+                break;
+            case "paramstatus":
+                test.runWorkload(new ParameterStatusWorkload());
+                break;
+            case "preparedswitch":
+                test.runWorkload(new PreparedSwitchWorkload());
+                break;
+            case "setlocal":
+                test.runWorkload(new SetLocalWorkload());
+                break;
+            case "resetcost":
+                test.runWorkload(new ResetCostWorkload());
+                break;
+            case "rwsplit":
+                test.runWorkload(new ReadWriteSplitWorkload());
+                break;
+            case "errorstorm":
+                test.runWorkload(new ErrorStormWorkload());
+                break;
+            case "churn":
+                test.runWorkload(new BackendChurnWorkload());
+                break;
+            case "largevalue":
+                test.runWorkload(new LargeValueWorkload());
+                break;
+            case "saturation":
+                test.runWorkload(new SaturationWorkload());
+                break;
+            case "idleclients":
+                test.runWorkload(new IdleClientWorkload());
+                break;
+            case "differential":
+                test.runDifferentialMode();
+                break;
+            case "rttsweep":
+                test.runLatencySweep();
+                break;
+            default:
+                test.runAllTests();
+                break;
+        }
+    }
+    
+    /**
+     * 所有GUC同步场景（不含需要长时间休眠的内存泄漏用例和Pipeline探索用例）
+     */
+    Map<String, ProtocolScenario> syncScenarios() {
+        Map<String, ProtocolScenario> scenarios = new LinkedHashMap<>();
+        scenarios.put("用例1-非report参数同步", this::executeTestCase1);
+        scenarios.put("用例2-DateStyle同步", this::executeTestCase2);
+        scenarios.put("用例2-TimeZone重置", this::executeTestCase2_TimeZone);
+        scenarios.put("用例2.3-多参数RESET ALL", this::executeTestCase2b_MultiParamResetAll);
+        scenarios.put("用例2.4-多参数DISCARD ALL", this::executeTestCase3_MultiParamDiscardAll);
+        scenarios.put("用例2.5-事务中SET", this::executeTestCase2_5_SetGucInTransaction);
+        scenarios.put("用例2.6-大量GUC同步", this::executeTestCase2_6_MassiveGucSync);
+        scenarios.put("用例2.8-读写切换", this::executeTestCase2_8_ReadWriteSwitch);
+        scenarios.put("用例2.8-无效GUC报错", this::executeTestCase2_8_InvalidGucError);
+        scenarios.put("用例2.10-常用GUC读写切换", this::executeTestCase2_10_CommonGucReadWriteSwitch);
+        return scenarios;
+    }
+    
+    /**
+     * 查询模式矩阵：pgjdbc 的 preferQueryMode 与 prepareThreshold 决定SET/SHOW是否走Parse/Bind、
+     * 是否在服务端缓存为命名语句，进而影响连接池切换后端时需要跟踪的状态。
+     * 每个单元格内以 Statement 和 PreparedStatement 两种方式执行所有同步场景，记录正确性和各类语句延迟。
+     *
+     * 可配置（系统属性或db.properties）：
+     * - guc.matrix.queryModes: 默认 simple,extended,extendedForPrepared,extendedCacheEverything
+     * - guc.matrix.prepareThresholds: 默认 0,1,5（0=从不使用服务端命名语句，5=驱动默认值）
+     * - guc.matrix.scenarios: 只执行名称包含该子串的场景，默认全部
+     */
+    public void runQueryModeMatrix() {
+        String[] queryModes = DatabaseConfig.getProperty("guc.matrix.queryModes",
+                "simple,extended,extendedForPrepared,extendedCacheEverything").split(",");
+        String[] thresholds = DatabaseConfig.getProperty("guc.matrix.prepareThresholds", "0,1,5").split(",");
+        String scenarioFilter = DatabaseConfig.getProperty("guc.matrix.scenarios", "");
+        StatementKind[] reportedKinds = {StatementKind.SET, StatementKind.SHOW, StatementKind.SELECT};
+        
+        List<MatrixCellResult> cells = new ArrayList<>();
+        try {
+            for (String queryMode : queryModes) {
+                for (String threshold : thresholds) {
+                    queryModeOverride = queryMode.trim();
+                    prepareThresholdOverride = Integer.valueOf(threshold.trim());
+                    for (boolean useExtended : new boolean[] {false, true}) {
+                        String cellName = queryModeOverride + "/pt=" + prepareThresholdOverride + "/"
+                                + (useExtended ? "PreparedStatement" : "Statement");
+                        MatrixCellResult cell = new MatrixCellResult(cellName);
+                        statementLatency.reset();
+                        
+                        for (Map.Entry<String, ProtocolScenario> entry : syncScenarios().entrySet()) {
+                            if (!entry.getKey().contains(scenarioFilter)) {
+                                continue;
+                            }
+                            LOG.info("\n" + BANNER_LINE);
+                            LOG.info("【查询模式矩阵】" + entry.getKey() + "（" + cellName + "）");
+                            LOG.info(BANNER_LINE + "\n");
+                            cell.recordScenario(entry.getKey(), runScenarioQuietly(entry.getValue(), useExtended, cellName));
+                        }
+                        for (StatementKind kind : reportedKinds) {
+                            cell.addLatency(kind, statementLatency.copyOf(kind));
+                        }
+                        cells.add(cell);
+                    }
+                }
+            }
+        } finally {
+            queryModeOverride = null;
+            prepareThresholdOverride = null;
+            checkClientPoolReuse();
+            TablePrinter.printResults(testResults);
+            TablePrinter.printQueryModeMatrix(cells);
+        }
+    }
+    
+    /**
+     * 执行负载模式，结束后打印正确性结果和压测汇总
+     */
+    public void runWorkload(LoadWorkload workload) throws Exception {
+        LoadReport report = null;
+        LOG.info("连接拓扑：" + Topology.describe());
+        try {
+            report = workload.run(testResults);
+        } finally {
+            TablePrinter.printResults(testResults);
+            if (report != null) {
+                TablePrinter.printLoadReport(report);
+            }
+        }
+    }
+    
+    /**
+     * 文档驱动模式：解析测试用例文档中的SQL代码块与检测点注释，每个小节在两种协议下各执行一次。
+     * 文档新增的用例无需移植为Java即可执行；无法自动执行的小节（如含省略号占位）给出跳过原因，并在结果表中记为失败。
+     *
+     * 可配置：
+     * - guc.doc.path: 文档路径，默认 doc/guc参数测试用例.md
+     * - guc.doc.scenarios: 只执行名称包含该子串的小节，默认全部
+     */
+    public void runDocScenarios() throws IOException {
+        Path path = Paths.get(DatabaseConfig.getProperty("guc.doc.path", DocScenarioLoader.DEFAULT_PATH));
+        String filter = DatabaseConfig.getProperty("guc.doc.scenarios", "");
+        DocScenarioLoader.Result loaded = DocScenarioLoader.load(path);
+        
+        try {
+            for (Map.Entry<String, String> skipped : loaded.getSkipped().entrySet()) {
+                if (!("文档-" + skipped.getKey()).contains(filter)) {
+                    continue;
+                }
+                LOG.warn(YELLOW + "【文档场景】跳过 " + skipped.getKey() + "：" + skipped.getValue() + RESET);
+                testResults.add(new TestResult("文档场景", skipped.getKey(), "可自动执行",
+                        "跳过：" + skipped.getValue(), false, "不支持"));
+            }
+            for (CompiledScenario scenario : loaded.getScenarios()) {
+                if (!scenario.getName().contains(filter)) {
+                    continue;
+                }
+                for (boolean useExtended : new boolean[] {false, true}) {
+                    String protocolName = useExtended ? "Extended协议" : "Simple协议";
+                    LOG.info("\n" + BANNER_LINE);
+                    LOG.info("【" + scenario.getName() + "】（" + protocolName + "）");
+                    LOG.info(BANNER_LINE + "\n");
+                    runScenarioQuietly((ext, name) -> runDeclarative(scenario, ext, name), useExtended, protocolName);
+                }
+            }
+        } finally {
+            TablePrinter.printResults(testResults);
+        }
+    }
+    
+    /**
+     * 执行单个场景，失败时不中断后续场景
+     * @return 场景是否通过（无异常，且本次记录的结果全部通过）
+     */
+    private boolean runScenarioQuietly(ProtocolScenario scenario, boolean useExtended, String protocolName) {
+        int resultIndex = testResults.size();
+        try {
+            scenario.execute(useExtended, protocolName);
+        } catch (Exception e) {
+            LOG.error(RED + "  → 场景执行失败: " + e.getMessage() + RESET);
+            return false;
+        }
+        for (int i = resultIndex; i < testResults.size(); i++) {
+            if (!testResults.get(i).isPassed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 同步放大统计模式：每个场景执行前后通过直连取 pg_stat_statements 快照，
+     * 计算连接池为同步GUC注入的 SET/RESET/DISCARD 数量与耗时
+     */
+    public void runAmplificationMode() throws Exception {
+        List<SyncAmplification> reports = new ArrayList<>();
+        try (SyncAmplificationCollector collector = SyncAmplificationCollector.createIfConfigured()) {
+            if (collector == null) {
+                LOG.error(RED + "未配置 db.direct.url，无法采集后端语句统计" + RESET);
+                return;
+            }
+            suppressDriverInitSets = true;
+            for (boolean useExtended : new boolean[] {false, true}) {
+                String protocolName = useExtended ? "Extended协议" : "Simple协议";
+                for (Map.Entry<String, ProtocolScenario> entry : syncScenarios().entrySet()) {
+                    LOG.info("\n" + BANNER_LINE);
+                    LOG.info("【同步放大统计】" + entry.getKey() + "（" + protocolName + "）");
+                    LOG.info(BANNER_LINE + "\n");
+                    
+                    long[] clientBefore = clientStats.snapshot();
+                    SyncAmplificationCollector.Snapshot before = collector.snapshot();
+                    try {
+                        entry.getValue().execute(useExtended, protocolName);
+                    } catch (Exception e) {
+                        // 单个场景失败不影响后续场景的统计
+                        LOG.error(RED + "  → 场景执行失败: " + e.getMessage() + RESET);
+                    }
+                    SyncAmplificationCollector.Snapshot after = collector.snapshotAfterSettle();
+                    reports.add(SyncAmplificationCollector.compare(entry.getKey(), protocolName,
+                            before, after, clientBefore, clientStats.snapshot()));
+                }
+            }
+        } finally {
+            suppressDriverInitSets = false;
+            TablePrinter.printResults(testResults);
+            TablePrinter.printAmplification(reports);
+        }
+    }
+    
+    /**
+     * 连接池与直连的差异对比：同步场景和负载模式分别经连接池（db.url）和直连主库（db.direct.url）执行，
+     * 比较场景的参数结果，并按协议和语句类别报告延迟、吞吐的差值，把连接池的开销归结为“每条语句平均开销”一个数字。
+     *
+     * 直连时每个客户端连接独占一个后端：声明式场景不检查后端复用关系，只比较参数值和报错；
+     * 手写场景中依赖连接池语义的检测点在直连下会失败，此时结论为不可比。直连的执行结果不计入结果表，
+     * 每个场景 × 协议只记录一行对比结论，经连接池失败而直连通过时判定失败。
+     *
+     * 可配置：
+     * - guc.diff.scenarios: 只执行名称包含该子串的场景，默认全部
+     * - guc.diff.workloads: 两种入口各执行一次的负载模式，逗号分隔，默认 setlocal,resetcost；为 none 时不执行
+     * - guc.diff.maxTaxMillis: 每条语句平均开销的上限（毫秒），超过时判定失败，默认只统计
+     */
+    public void runDifferentialMode() throws Exception {
+        Endpoint direct = Topology.primary();
+        if (direct == null) {
+            LOG.error(RED + "未配置 db.direct.url，无法与直连对比" + RESET);
+            return;
+        }
+        String scenarioFilter = DatabaseConfig.getProperty("guc.diff.scenarios", "");
+        String workloadModes = DatabaseConfig.getProperty("guc.diff.workloads", "setlocal,resetcost");
+        String maxTaxMillis = DatabaseConfig.getProperty("guc.diff.maxTaxMillis", null);
+        LoadReport scenarioReport = new LoadReport("连接池 vs 直连：场景结果与耗时（单位ms）",
+                new String[] {"场景", "协议", "连接池", "直连", "结论", "连接池耗时", "直连耗时", "差值"},
+                new int[] {30, 8, 6, 6, 16, 10, 10, 10});
+        LoadReport kindReport = new LoadReport("连接池 vs 直连：按语句类别（单位ms）",
+                new String[] {"协议", "类别", "连接池条数", "连接池p50", "直连p50", "连接池均值", "直连均值", "每条开销",
+                              "开销比例", "连接池条/秒", "直连条/秒"},
+                new int[] {8, 8, 10, 10, 10, 10, 10, 10, 8, 10, 10});
+        List<LoadReport> workloadReports = new ArrayList<>();
+        // [0] 全部语句，[1] 同步类语句（SET / RESET / DISCARD）：按连接池条数加权的开销合计与条数
+        double[] taxNanos = new double[2];
+        long[] taxCount = new long[2];
+        try {
+            for (boolean useExtended : new boolean[] {false, true}) {
+                String protocol = useExtended ? "Extended" : "Simple";
+                String protocolName = protocol + "协议";
+                DifferentialRun pooled = runScenariosOn(null, useExtended, protocolName, scenarioFilter);
+                DifferentialRun bypass = runScenariosOn(direct, useExtended, protocolName + "/直连", scenarioFilter);
+                for (Map.Entry<String, Boolean> entry : pooled.passed.entrySet()) {
+                    String name = entry.getKey();
+                    boolean pooledPassed = entry.getValue();
+                    boolean directPassed = Boolean.TRUE.equals(bypass.passed.get(name));
+                    String verdict = pooledPassed && directPassed ? "一致"
+                            : directPassed ? "仅经连接池失败" : "不可比（直连失败）";
+                    double pooledMillis = pooled.elapsedNanos.get(name) / 1e6;
+                    double directMillis = bypass.elapsedNanos.getOrDefault(name, 0L) / 1e6;
+                    scenarioReport.addRow(name, protocol, pooledPassed ? "通过" : "失败", directPassed ? "通过" : "失败",
+                            verdict, TablePrinter.millis(pooledMillis), TablePrinter.millis(directMillis),
+                            TablePrinter.millis(pooledMillis - directMillis));
+                    testResults.add(new TestResult("连接池与直连对比", name + "（" + protocolName + "）",
+                            "参数结果与直连一致", verdict, pooledPassed || !directPassed,
+                            pooledPassed || !directPassed ? (directPassed ? "通过" : "不可比") : "失败"));
+                }
+                for (StatementKind kind : StatementKind.all()) {
+                    LatencyHistogram p = pooled.latency[kind.ordinal()];
+                    LatencyHistogram d = bypass.latency[kind.ordinal()];
+                    if (p.getCount() == 0 && d.getCount() == 0) {
+                        continue;
+                    }
+                    boolean comparable = p.getCount() > 0 && d.getCount() > 0;
+                    double overhead = p.getMeanNanos() - d.getMeanNanos();
+                    if (comparable) {
+                        taxNanos[0] += overhead * p.getCount();
+                        taxCount[0] += p.getCount();
+                        if (kind.isSyncKind()) {
+                            taxNanos[1] += overhead * p.getCount();
+                            taxCount[1] += p.getCount();
+                        }
+                    }
+                    kindReport.addRow(protocol, kind, p.getCount(),
+                            TablePrinter.millis(p.getPercentileMillis(50)), TablePrinter.millis(d.getPercentileMillis(50)),
+                            TablePrinter.millis(p.getMeanNanos() / 1e6), TablePrinter.millis(d.getMeanNanos() / 1e6),
+                            comparable ? TablePrinter.millis(overhead / 1e6) : "-",
+                            comparable ? String.format("%.0f%%", overhead * 100 / d.getMeanNanos()) : "-",
+                            p.getCount() == 0 ? "-" : String.format("%.0f", 1e9 / p.getMeanNanos()),
+                            d.getCount() == 0 ? "-" : String.format("%.0f", 1e9 / d.getMeanNanos()));
+                }
+            }
+            
+            Map<String, Function<Endpoint, LoadWorkload>> workloads = differentialWorkloads();
+            for (String mode : workloadModes.split(",")) {
+                mode = mode.trim();
+                if (mode.isEmpty() || "none".equals(mode)) {
+                    continue;
+                }
+                Function<Endpoint, LoadWorkload> workload = workloads.get(mode);
+                if (workload == null) {
+                    LOG.warn("【差异对比】负载模式 " + mode + " 不支持直连对比，可选：" + workloads.keySet());
+                    continue;
+                }
+                for (Endpoint target : new Endpoint[] {null, direct}) {
+                    String label = target == null ? "经连接池" : "直连";
+                    LOG.info("\n" + BANNER_LINE);
+                    LOG.info("【差异对比】负载模式 " + mode + "（" + label + "）");
+                    LOG.info(BANNER_LINE + "\n");
+                    int resultIndex = testResults.size();
+                    long start = System.nanoTime();
+                    String failure = null;
+                    try {
+                        LoadReport report = workload.apply(target).run(testResults);
+                        LoadReport labelled = new LoadReport(report.getTitle() + " - " + label,
+                                report.getHeaders(), report.getWidths());
+                        for (String[] row : report.getRows()) {
+                            labelled.addRow((Object[]) row);
+                        }
+                        for (String note : report.getNotes()) {
+                            labelled.addNote(note);
+                        }
+                        labelled.addNote("总耗时 " + String.format("%.1f", (System.nanoTime() - start) / 1e9) + " 秒");
+                        workloadReports.add(labelled);
+                    } catch (Exception e) {
+                        LOG.error(RED + "  → 负载模式 " + mode + "（" + label + "）执行失败: " + e.getMessage() + RESET, e);
+                        failure = e.getMessage();
+                    }
+                    if (target != null) {
+                        // 直连的校验结果只汇总为一行，不逐条计入结果表
+                        List<TestResult> directResults = testResults.subList(resultIndex, testResults.size());
+                        long failed = directResults.stream().filter(r -> !r.isPassed()).count();
+                        int total = directResults.size();
+                        directResults.clear();
+                        testResults.add(new TestResult("连接池与直连对比", "负载模式 " + mode + "（直连）", "-",
+                                "校验 " + total + " 项，失败 " + failed + " 项", true, "仅统计"));
+                    }
+                    // 负载本身执行失败时两种入口都记一行失败，不因直连结果只做统计而被忽略
+                    if (failure != null) {
+                        testResults.add(new TestResult("连接池与直连对比", "负载模式 " + mode + "（" + label + "）",
+                                "执行完成", "执行失败: " + failure, false, "失败"));
+                    }
+                }
+            }
+        } finally {
+            targetOverride = null;
+            double tax = taxCount[0] == 0 ? Double.NaN : taxNanos[0] / taxCount[0] / 1e6;
+            double syncTax = taxCount[1] == 0 ? Double.NaN : taxNanos[1] / taxCount[1] / 1e6;
+            String taxText = Double.isNaN(tax) ? "-" : TablePrinter.millis(tax);
+            String syncTaxText = Double.isNaN(syncTax) ? "-" : TablePrinter.millis(syncTax);
+            kindReport.addNote("每条开销 = 连接池均值 - 直连均值；条/秒为单连接串行执行时的吞吐（1秒 ÷ 均值）");
+            kindReport.addNote("连接池开销（按连接池条数加权的每条语句平均开销）= " + taxText
+                    + " ms，其中同步类语句（SET / RESET / DISCARD）= " + syncTaxText + " ms");
+            boolean withinLimit = maxTaxMillis == null || Double.isNaN(tax) || tax <= Double.parseDouble(maxTaxMillis);
+            testResults.add(new TestResult("连接池与直连对比", "每条语句平均开销",
+                    maxTaxMillis == null ? "-" : "≤ " + maxTaxMillis + "ms",
+                    taxText + "ms（同步类 " + syncTaxText + "ms）",
+                    withinLimit, maxTaxMillis == null ? "仅统计" : withinLimit ? "通过" : "失败"));
+            TablePrinter.printResults(testResults);
+            TablePrinter.printLoadReport(scenarioReport);
+            TablePrinter.printLoadReport(kindReport);
+            for (LoadReport report : workloadReports) {
+                TablePrinter.printLoadReport(report);
+            }
+        }
+    }
+    
+    /**
+     * 差异对比中一种入口、一种协议下全部场景的执行结果
+     */
+    private static final class DifferentialRun {
+        final Map<String, Boolean> passed = new LinkedHashMap<>();
+        final Map<String, Long> elapsedNanos = new LinkedHashMap<>();
+        final LatencyHistogram[] latency = new LatencyHistogram[StatementKind.all().length];
+    }
+    
+    /**
+     * 在指定入口上执行全部同步场景（target为null时经连接池），直连的结果执行后从结果表中移除
+     */
+    private DifferentialRun runScenariosOn(Endpoint target, boolean useExtended, String protocolName, String filter) {
+        DifferentialRun run = new DifferentialRun();
+        targetOverride = target;
+        statementLatency.reset();
+        try {
+            for (Map.Entry<String, ProtocolScenario> entry : syncScenarios().entrySet()) {
+                if (!entry.getKey().contains(filter)) {
+                    continue;
+                }
+                LOG.info("\n" + BANNER_LINE);
+                LOG.info("【差异对比】" + entry.getKey() + "（" + protocolName + "）");
+                LOG.info(BANNER_LINE + "\n");
+                int resultIndex = testResults.size();
+                long start = System.nanoTime();
+                run.passed.put(entry.getKey(), runScenarioQuietly(entry.getValue(), useExtended, protocolName));
+                run.elapsedNanos.put(entry.getKey(), System.nanoTime() - start);
+                if (target != null) {
+                    testResults.subList(resultIndex, testResults.size()).clear();
+                }
+            }
+            for (StatementKind kind : StatementKind.all()) {
+                run.latency[kind.ordinal()] = statementLatency.copyOf(kind);
+            }
+        } finally {
+            targetOverride = null;
+        }
+        return run;
+    }
+    
+    /**
+     * 可以整体改为直连执行的负载模式（依赖连接池终止后端、读写分离路由的模式除外），
+     * 参数为所有客户端连接的入口，为null时按拓扑经连接池
+     */
+    Map<String, Function<Endpoint, LoadWorkload>> differentialWorkloads() {
+        Map<String, Function<Endpoint, LoadWorkload>> workloads = new LinkedHashMap<>();
+        workloads.put("connectstorm", ConnectStormWorkload::new);
+        workloads.put("preparedswitch", PreparedSwitchWorkload::new);
+        workloads.put("setlocal", SetLocalWorkload::new);
+        workloads.put("resetcost", ResetCostWorkload::new);
+        workloads.put("errorstorm", ErrorStormWorkload::new);
+        workloads.put("largevalue", LargeValueWorkload::new);
+        workloads.put("saturation", SaturationWorkload::new);
+        workloads.put("idleclients", IdleClientWorkload::new);
+        return workloads;
+    }
+    
+    /**
+     * RTT扫描：连接池入口经过本机回环上的延迟注入代理（{@link LatencyProxy}），按 RTT 逐级执行同步场景，
+     * 报告场景耗时随 RTT 增长的情况。耗时增量 ÷ RTT增量 即该场景实际经历的往返次数，
+     * 减去客户端发出的语句数，就是建连（启动、认证）和连接池同步额外带来的往返。
+     *
+     * 每级先用 SELECT 1 测量经代理的实际往返时间，往返次数按实测值换算（运行环境的定时器精度可能使实际 RTT 略大于设定值）。
+     * 代理之后的各级结果只汇总为每级每个协议一行通过数。
+     *
+     * 可配置：
+     * - guc.proxy.sweepRttMillis: 逐级的 RTT（毫秒，两个方向各一半），默认 0,1,2,5
+     * - guc.proxy.sweepRepeat: 每级每个场景的执行次数（取中位数），默认 3
+     * - guc.proxy.sweepScenarios: 只执行名称包含该子串的场景，默认全部
+     * 抖动和带宽沿用 guc.proxy.* 的配置
+     */
+    public void runLatencySweep() throws SQLException {
+        String[] levels = DatabaseConfig.getProperty("guc.proxy.sweepRttMillis", "0,1,2,5").split(",");
+        int repeat = Math.max(1, DatabaseConfig.getInt("guc.proxy.sweepRepeat", 3));
+        String scenarioFilter = DatabaseConfig.getProperty("guc.proxy.sweepScenarios", "");
+        LatencyProxy.Shaping up = LatencyProxy.getDefaultUp();
+        LatencyProxy.Shaping down = LatencyProxy.getDefaultDown();
+        boolean wasEnabled = LatencyProxy.isEnabled();
+        LoadReport report = new LoadReport("RTT扫描：同步场景耗时（单位ms）",
+                new String[] {"设定RTT", "SELECT1往返", "协议", "场景", "客户端语句", "耗时中位数", "较首级增加",
+                              "估算往返", "额外往返"},
+                new int[] {8, 12, 8, 30, 10, 10, 10, 8, 8});
+        Map<String, Double> firstLevelMillis = new HashMap<>();
+        double firstRoundTrip = Double.NaN;
+        LatencyProxy.setEnabled(true);
+        try {
+            for (String level : levels) {
+                double rtt = Double.parseDouble(level.trim());
+                LatencyProxy.setDefaultShaping(up.withLatencyMillis(rtt / 2), down.withLatencyMillis(rtt / 2));
+                double roundTrip = measureRoundTrip();
+                if (Double.isNaN(firstRoundTrip)) {
+                    firstRoundTrip = roundTrip;
+                }
+                double addedRtt = roundTrip - firstRoundTrip;
+                LOG.info("【RTT扫描】设定RTT " + rtt + "ms，经代理 SELECT 1 往返 " + TablePrinter.millis(roundTrip) + "ms");
+                for (boolean useExtended : new boolean[] {false, true}) {
+                    String protocol = useExtended ? "Extended" : "Simple";
+                    String protocolName = protocol + "协议";
+                    int passed = 0;
+                    int total = 0;
+                    for (Map.Entry<String, ProtocolScenario> entry : syncScenarios().entrySet()) {
+                        if (!entry.getKey().contains(scenarioFilter)) {
+                            continue;
+                        }
+                        LOG.info("\n" + BANNER_LINE);
+                        LOG.info("【RTT扫描】" + entry.getKey() + "（" + protocolName + "，RTT " + rtt + "ms）");
+                        LOG.info(BANNER_LINE + "\n");
+                        double[] millis = new double[repeat];
+                        long statements = 0;
+                        for (int r = 0; r < repeat; r++) {
+                            int resultIndex = testResults.size();
+                            long[] before = clientStats.snapshot();
+                            long start = System.nanoTime();
+                            boolean ok = runScenarioQuietly(entry.getValue(), useExtended, protocolName);
+                            millis[r] = (System.nanoTime() - start) / 1e6;
+                            long[] after = clientStats.snapshot();
+                            testResults.subList(resultIndex, testResults.size()).clear();
+                            if (r == 0) {
+                                // 最后一个元素是事务数，不计入语句数
+                                for (int k = 0; k < after.length - 1; k++) {
+                                    statements += after[k] - before[k];
+                                }
+                                total++;
+                                passed += ok ? 1 : 0;
+                            }
+                        }
+                        Arrays.sort(millis);
+                        double median = millis[repeat / 2];
+                        double first = firstLevelMillis.computeIfAbsent(protocol + "/" + entry.getKey(), k -> median);
+                        double increase = median - first;
+                        // 实测RTT增加不到 0.05ms 时无法换算往返次数
+                        boolean measurable = addedRtt > 0.05;
+                        report.addRow(rtt, TablePrinter.millis(roundTrip), protocol, entry.getKey(), statements,
+                                TablePrinter.millis(median), TablePrinter.millis(increase),
+                                measurable ? String.format("%.1f", increase / addedRtt) : "-",
+                                measurable ? String.format("%.1f", increase / addedRtt - statements) : "-");
+                    }
+                    testResults.add(new TestResult("RTT扫描", "RTT " + rtt + "ms（" + protocolName + "）",
+                            "全部场景通过", passed + "/" + total + " 通过", passed == total, passed == total ? "通过" : "失败"));
+                }
+            }
+        } finally {
+            LatencyProxy.setDefaultShaping(up, down);
+            LatencyProxy.setEnabled(wasEnabled);
+            report.addNote("估算往返 = 较首级增加 ÷ (本级 SELECT1往返 - 首级 SELECT1往返)；额外往返 = 估算往返 - 客户端语句，"
+                    + "包含建连（启动、认证）和连接池同步带来的往返");
+            report.addNote("每级每个场景执行 " + repeat + " 次取中位数；代理配置 上行 " + up + "，下行 " + down
+                    + "，其中的延迟被各级RTT的一半替换");
+            TablePrinter.printResults(testResults);
+            TablePrinter.printLoadReport(report);
+        }
+    }
+    
+    /**
+     * 经当前入口执行 SELECT 1 的往返时间中位数（毫秒），预热后取 21 次
+     */
+    private double measureRoundTrip() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(getUrlWithProtocol(false), targetUser(), targetPassword())) {
+            double[] samples = new double[21];
+            for (int i = -5; i < samples.length; i++) {
+                long start = System.nanoTime();
+                JdbcOps.queryString(conn, "SELECT 1", false);
+                if (i >= 0) {
+                    samples[i] = (System.nanoTime() - start) / 1e6;
+                }
+            }
+            Arrays.sort(samples);
+            return samples[samples.length / 2];
+        }
     }
     
     public void runAllTests() {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("开始执行GUC参数同步测试场景");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("开始执行GUC参数同步测试场景");
+        LOG.info(BANNER_LINE + "\n");
         
         for(int i=1; i!=2; ++i) {
             try {
@@ -86,15 +773,31 @@ public class GucSyncScenarioTest {
                 // testCase2_7_MemoryLeakTest_ExtendedProtocol();
                 
             } catch (Exception e) {
-                System.err.println(RED + "\n测试执行失败: " + e.getMessage() + RESET);
-                e.printStackTrace();
+                LOG.error(RED + "\n测试执行失败: " + e.getMessage() + RESET, e);
             } finally {
+                checkClientPoolReuse();
                 // 打印测试结果表格
                 TablePrinter.printResults(testResults);
             }
         }
     }
 
+    /**
+     * 辅助连接池的不变量：一轮场景中借用超过一次时至少应复用一次连接；
+     * 从未复用说明归还时的指纹比较总是失败，辅助查询又退化为每次新建连接
+     */
+    private void checkClientPoolReuse() {
+        ClientConnectionPool pool = ClientConnectionPool.shared();
+        long borrowed = pool.getCreated() + pool.getReused();
+        if (!pool.isReuseEnabled() || borrowed <= 1) {
+            return;
+        }
+        boolean passed = pool.getReused() > 0;
+        testResults.add(new TestResult("辅助连接池", "归还后复用连接", "复用>0",
+                "借用=" + borrowed + ", 复用=" + pool.getReused() + ", 丢弃=" + pool.getDiscarded(),
+                passed, passed ? "通过" : "失败"));
+    }
+
     private String summarizeSqlException(SQLException e) {
         if (e == null) {
             return "";
@@ -111,9 +814,9 @@ public class GucSyncScenarioTest {
      * 使用Statement执行SQL（Simple协议）
      */
     public void testCase1_NonReportParameterSync_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例1-Simple协议】测试非guc report参数同步 (使用Statement - Simple Query Protocol)");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例1-Simple协议】测试非guc report参数同步 (使用Statement - Simple Query Protocol)");
+        LOG.info(BANNER_LINE + "\n");
         
         executeTestCase1(false, "Simple协议");
     }
@@ -123,9 +826,9 @@ public class GucSyncScenarioTest {
      * 使用PreparedStatement执行SQL（Extended协议）
      */
     public void testCase1_NonReportParameterSync_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例1-Extended协议】测试非guc report参数同步 (使用PreparedStatement - Extended Query Protocol)");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例1-Extended协议】测试非guc report参数同步 (使用PreparedStatement - Extended Query Protocol)");
+        LOG.info(BANNER_LINE + "\n");
         
         executeTestCase1(true, "Extended协议");
     }
@@ -135,183 +838,8 @@ public class GucSyncScenarioTest {
      * @param useExtendedProtocol true=使用PreparedStatement(Extended协议), false=使用Statement(Simple协议)
      * @param protocolName 协议名称，用于日志标识
      */
-    private void executeTestCase1(boolean useExtendedProtocol, String protocolName) throws SQLException, InterruptedException, Exception {
-        
-        Connection conn1 = null;
-        Connection conn2 = null;
-        String url = getUrlWithProtocol(useExtendedProtocol);
-        
-        // 记录各个检测点的结果
-        boolean allPassed = true;
-        StringBuilder failureDetails = new StringBuilder();
-        
-        try {
-            // ============ 步骤1：客户端连接1执行 ============
-            System.out.println(YELLOW + "步骤1：客户端连接1开始执行..." + RESET);
-            conn1 = DriverManager.getConnection(
-                    url,
-                    DatabaseConfig.getUser(),
-                    DatabaseConfig.getPassword()
-            );
-            
-            conn1.setAutoCommit(false); // 开启事务
-            
-            // 执行SQL并记录
-            printSql(1, "BEGIN", protocolName);
-            
-            // 获取初始值
-            printSql(1, "SHOW extra_float_digits", protocolName);
-            String initialValue = getGucValue(conn1, "extra_float_digits", useExtendedProtocol);
-            System.out.println(GREEN + "  → 初始值: " + initialValue + RESET);
-            
-            // 设置参数
-            printSql(1, "SET extra_float_digits = 3", protocolName);
-            executeUpdate(conn1, "SET extra_float_digits = 3", useExtendedProtocol);
-            
-            // 获取后端连接信息
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接1信息: " + backend1 + RESET);
-            System.out.println(BLUE + "  → extra_float_digits = " + getGucValue(conn1, "extra_float_digits", useExtendedProtocol) + RESET);
-            
-            // 提交事务
-            printSql(1, "COMMIT", protocolName);
-            conn1.commit();
-            
-            System.out.println(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
-            
-            // 连接commit之后 连接2增加1秒延时，再建立连接
-            Thread.sleep(1000);
-            
-            // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2开始执行..." + RESET);
-            conn2 = DriverManager.getConnection(
-                    url,
-                    DatabaseConfig.getUser(),
-                    DatabaseConfig.getPassword()
-            );
-            
-            conn2.setAutoCommit(false);
-            printSql(2, "BEGIN", protocolName);
-            
-            // 获取后端连接信息
-            printSql(2, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接2信息: " + backend2 + RESET);
-            
-            // 【检测点1】检查是否复用了连接1的后端连接
-            boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】检查后端连接是否复用:");
-            System.out.println("  期望: 连接2应该复用连接1的后端连接 (pid相同)");
-            System.out.println("  实际: 客户端连接1的后端pid=" + backend1.pid + ", 客户端连接2的后端pid=" + backend2.pid);
-            if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点1失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 【检测点2】检查extra_float_digits是否被重置为默认值
-            printSql(2, "SHOW extra_float_digits", protocolName);
-            String valueInConn2 = getGucValue(conn2, "extra_float_digits", useExtendedProtocol);
-            System.out.println(BLUE + "  → 客户端连接2的后端连接中 extra_float_digits=" + valueInConn2 + RESET);
-            
-            boolean isReset = initialValue.equals(valueInConn2);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】检查GUC参数是否同步重置:");
-            System.out.println("  说明: 因为后端连接被复用，应该执行了 RESET extra_float_digits");
-            System.out.println("  期望: extra_float_digits应该是默认值 " + initialValue);
-            System.out.println("  实际: 客户端连接2的后端连接中 extra_float_digits = " + valueInConn2);
-            if (isReset) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - guc参数重置正常" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - GUC参数未正确同步，期望=" + initialValue + ", 实际=" + valueInConn2 + RESET);
-                allPassed = false;
-                failureDetails.append("检测点2失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 注意：连接2的事务不提交，保持后端连接被占用
-            System.out.println(YELLOW + "步骤2完成（注意：连接2的事务不提交，保持后端连接被占用）\n" + RESET);
-            
-            // 等待一小段时间
-            Thread.sleep(100);
-            
-            // ============ 步骤3：连接1继续执行 ============
-            System.out.println(YELLOW + "步骤3：连接1继续执行..." + RESET);
-            conn1.setAutoCommit(false);
-            printSql(1, "BEGIN", protocolName);
-            
-            // 获取后端连接信息
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接信息: " + backend1New + RESET);
-            
-            // 【检测点3】检查是否分配了新的后端连接
-            boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】检查是否分配了新的后端连接:");
-            System.out.println("  说明: 原后端连接被连接2占用，连接1应该获得新的后端连接");
-            System.out.println("  期望: 连接1应该获得新的后端连接");
-            System.out.println("  实际: 客户端连接1原后端pid=" + backend1.pid + ", 客户端连接1新后端pid=" + backend1New.pid);
-            if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新的后端连接" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点3失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 【检测点4】检查extra_float_digits是否恢复为之前设置的值3
-            printSql(1, "SHOW extra_float_digits", protocolName);
-            String valueInConn1New = getGucValue(conn1, "extra_float_digits", useExtendedProtocol);
-            System.out.println(BLUE + "  → 客户端连接1的后端连接中 extra_float_digits=" + valueInConn1New + RESET);
-            
-            boolean isSynced = "3".equals(valueInConn1New);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】检查GUC参数是否同步到新后端:");
-            System.out.println("  说明: 因为获得了新的后端连接，应该执行了 SET extra_float_digits=3");
-            System.out.println("  期望: extra_float_digits应该是3 (连接1之前设置的值)");
-            System.out.println("  实际: 客户端连接1的后端连接中 extra_float_digits = " + valueInConn1New);
-            if (isSynced) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - GUC参数已正确同步到新后端" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - GUC参数未正确同步，期望=3, 实际=" + valueInConn1New + RESET);
-                allPassed = false;
-                failureDetails.append("检测点4失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            conn1.commit();
-            printSql(1, "COMMIT", protocolName);
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
-            
-            // 记录整个用例的测试结果
-            recordResult("测试非guc report参数同步", 
-                        "extra_float_digits参数（" + protocolName + "）", 
-                        "所有检测点通过", 
-                        allPassed ? "所有检测点通过" : failureDetails.toString(), 
-                        allPassed, 
-                        allPassed ? "通过" : "失败");
-            
-        } finally {
-            // 清理资源
-            if (conn1 != null) {
-                try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            }
-            if (conn2 != null) {
-                try { 
-                    // 连接2在测试过程中保持事务未提交，这里关闭连接会自动回滚
-                    conn2.close(); 
-                } catch (SQLException e) { 
-                    e.printStackTrace(); 
-                }
-            }
-        }
+    private void executeTestCase1(boolean useExtendedProtocol, String protocolName) throws Exception {
+        runDeclarative(ScenarioCatalog.extraFloatDigitsSync(), useExtendedProtocol, protocolName);
     }
     
     /**
@@ -319,48 +847,58 @@ public class GucSyncScenarioTest {
      * @param useExtended true=Extended协议, false=Simple协议
      */
     private String getUrlWithProtocol(boolean useExtended) {
-        String baseUrl = DatabaseConfig.getUrl();
-        // 如果URL中已有参数，使用&连接，否则使用?
-        String separator = baseUrl.contains("?") ? "&" : "?";
-        
-        // 添加options参数来固定DateStyle初始值为ISO, MDY
-        String optionsParam = "options=-c%20DateStyle=ISO,MDY";
-        
-        if (useExtended) {
-            // Extended协议：使用extended或extendedForPrepared模式
-            return baseUrl + separator + "preferQueryMode=extended&" + optionsParam;
-        } else {
-            // Simple协议：强制使用simple模式
-            return baseUrl + separator + "preferQueryMode=simple&" + optionsParam;
-        }
+        String url = queryModeOverride != null
+                ? JdbcUrlBuilder.withQueryMode(targetUrl(), queryModeOverride, prepareThresholdOverride)
+                : JdbcUrlBuilder.withProtocol(targetUrl(), useExtended);
+        return suppressDriverInitSets ? JdbcUrlBuilder.withoutDriverInitSets(url) : url;
+    }
+    
+    private String targetUrl() {
+        return targetOverride != null ? targetOverride.getUrl() : DatabaseConfig.getUrl();
+    }
+    
+    private String targetUser() {
+        return targetOverride != null ? targetOverride.getUser() : DatabaseConfig.getUser();
+    }
+    
+    private String targetPassword() {
+        return targetOverride != null ? targetOverride.getPassword() : DatabaseConfig.getPassword();
+    }
+    
+    /**
+     * 按当前协议（及查询模式覆盖）建立客户端连接，供声明式场景引擎使用
+     */
+    private Connection openConnection(boolean useExtended) throws SQLException {
+        return DriverManager.getConnection(getUrlWithProtocol(useExtended), targetUser(), targetPassword());
+    }
+    
+    /**
+     * 执行预编译的声明式场景，并把所有检测点汇总为一行测试结果
+     */
+    private void runDeclarative(CompiledScenario scenario, boolean useExtendedProtocol, String protocolName) throws Exception {
+        // 直连时每个客户端连接独占一个后端，不检查后端复用关系
+        ScenarioOutcome outcome = scenarioEngine.checkBackends(targetOverride == null)
+                .run(scenario, useExtendedProtocol, protocolName);
+        recordResult(scenario.getCategory(), scenario.getParameter() + "（" + protocolName + "）",
+                    "所有检测点通过", outcome.isPassed() ? "所有检测点通过" : outcome.getFailureDetails(),
+                    outcome.isPassed(), outcome.isPassed() ? "通过" : "失败");
     }
     
     /**
      * 打印SQL命令（红色）
      */
     private void printSql(int clientId, String sql, String protocol) {
-        System.out.println(RED + "[客户端连接" + clientId + " - " + protocol + "] SQL: " + sql + RESET);
+        if (LOG.isEnabled(HarnessLogger.Level.DEBUG)) {
+            LOG.debug(RED + "[客户端连接" + clientId + " - " + protocol + "] SQL: " + sql + RESET);
+        }
     }
     
     /**
      * 规范化GUC参数值，用于比较
      * 去除引号（单引号和双引号）和首尾空格
      */
-    private String normalizeGucValue(String value) {
-        if (value == null) {
-            return "";
-        }
-        // 去除首尾空格
-        value = value.trim();
-        // 去除单引号
-        if (value.startsWith("'") && value.endsWith("'") && value.length() >= 2) {
-            value = value.substring(1, value.length() - 1);
-        }
-        // 去除双引号
-        if (value.startsWith("\"") && value.endsWith("\"") && value.length() >= 2) {
-            value = value.substring(1, value.length() - 1);
-        }
-        return value.trim();
+    static String normalizeGucValue(String value) {
+        return GucValues.normalize(value);
     }
     
     /**
@@ -369,25 +907,30 @@ public class GucSyncScenarioTest {
      */
     private String getGucValue(Connection conn, String parameter, boolean useExtended) throws SQLException {
         String sql = "SHOW " + parameter;
-        
-        if (useExtended) {
-            // Extended Query Protocol - 使用PreparedStatement
-            try (PreparedStatement pstmt = conn.prepareStatement(sql);
-                 ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString(1);
+        StatementKind kind = recordStatement(conn, sql);
+        long start = System.nanoTime();
+        try {
+            if (useExtended) {
+                // Extended Query Protocol - 使用PreparedStatement
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getString(1);
+                    }
                 }
-            }
-        } else {
-            // Simple Query Protocol - 使用Statement
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
-                if (rs.next()) {
-                    return rs.getString(1);
+            } else {
+                // Simple Query Protocol - 使用Statement
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next()) {
+                        return rs.getString(1);
+                    }
                 }
             }
+            return null;
+        } finally {
+            statementLatency.record(kind, System.nanoTime() - start);
         }
-        return null;
     }
     
     /**
@@ -395,17 +938,44 @@ public class GucSyncScenarioTest {
      * @param useExtended true=使用PreparedStatement, false=使用Statement
      */
     private void executeUpdate(Connection conn, String sql, boolean useExtended) throws SQLException {
-        if (useExtended) {
-            // Extended Query Protocol - 使用PreparedStatement
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.execute();
-            }
-        } else {
-            // Simple Query Protocol - 使用Statement
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(sql);
+        StatementKind kind = recordStatement(conn, sql);
+        long start = System.nanoTime();
+        try {
+            if (useExtended) {
+                // Extended Query Protocol - 使用PreparedStatement
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.execute();
+                }
+            } else {
+                // Simple Query Protocol - 使用Statement
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sql);
+                }
             }
+        } finally {
+            statementLatency.record(kind, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 记录客户端发出的语句；自动提交模式下每条语句单独算一个事务
+     */
+    private StatementKind recordStatement(Connection conn, String sql) throws SQLException {
+        StatementKind kind = StatementKind.classify(sql);
+        clientStats.record(kind);
+        if (conn.getAutoCommit()) {
+            clientStats.recordTransaction();
         }
+        return kind;
+    }
+    
+    /**
+     * 提交事务并计入客户端事务数
+     */
+    private void commit(Connection conn) throws SQLException {
+        conn.commit();
+        clientStats.record(StatementKind.COMMIT);
+        clientStats.recordTransaction();
     }
     
     /**
@@ -414,37 +984,30 @@ public class GucSyncScenarioTest {
      */
     private BackendInfo getBackendInfoWithRecovery(Connection conn, boolean useExtended) throws SQLException {
         String sql = "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user, pg_is_in_recovery()";
-        
-        if (useExtended) {
-            // Extended Query Protocol - 使用PreparedStatement
-            try (PreparedStatement pstmt = conn.prepareStatement(sql);
-                 ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new BackendInfo(
-                        rs.getString(1),  // ip
-                        rs.getInt(2),     // port
-                        rs.getString(3),  // pid
-                        rs.getString(4),  // user
-                        rs.getBoolean(5)  // isInRecovery
-                    );
+        StatementKind kind = recordStatement(conn, sql);
+        long start = System.nanoTime();
+        try {
+            if (useExtended) {
+                // Extended Query Protocol - 使用PreparedStatement
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return BackendInfo.fromRow(rs, true);
+                    }
                 }
-            }
-        } else {
-            // Simple Query Protocol - 使用Statement
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
-                if (rs.next()) {
-                    return new BackendInfo(
-                        rs.getString(1),  // ip
-                        rs.getInt(2),     // port
-                        rs.getString(3),  // pid
-                        rs.getString(4),  // user
-                        rs.getBoolean(5)  // isInRecovery
-                    );
+            } else {
+                // Simple Query Protocol - 使用Statement
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next()) {
+                        return BackendInfo.fromRow(rs, true);
+                    }
                 }
             }
+            return null;
+        } finally {
+            statementLatency.record(kind, System.nanoTime() - start);
         }
-        return null;
     }
     
     /**
@@ -453,35 +1016,30 @@ public class GucSyncScenarioTest {
      */
     private BackendInfo getBackendInfo(Connection conn, boolean useExtended) throws SQLException {
         String sql = "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user";
-        
-        if (useExtended) {
-            // Extended Query Protocol - 使用PreparedStatement
-            try (PreparedStatement pstmt = conn.prepareStatement(sql);
-                 ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new BackendInfo(
-                        rs.getString(1),  // ip
-                        rs.getInt(2),     // port
-                        rs.getString(3),  // pid
-                        rs.getString(4)   // user
-                    );
+        StatementKind kind = recordStatement(conn, sql);
+        long start = System.nanoTime();
+        try {
+            if (useExtended) {
+                // Extended Query Protocol - 使用PreparedStatement
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return BackendInfo.fromRow(rs, false);
+                    }
                 }
-            }
-        } else {
-            // Simple Query Protocol - 使用Statement
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
-                if (rs.next()) {
-                    return new BackendInfo(
-                        rs.getString(1),  // ip
-                        rs.getInt(2),     // port
-                        rs.getString(3),  // pid
-                        rs.getString(4)   // user
-                    );
+            } else {
+                // Simple Query Protocol - 使用Statement
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next()) {
+                        return BackendInfo.fromRow(rs, false);
+                    }
                 }
             }
+            return null;
+        } finally {
+            statementLatency.record(kind, System.nanoTime() - start);
         }
-        return null;
     }
     
     /**
@@ -496,13 +1054,13 @@ public class GucSyncScenarioTest {
         
         // 如果测试失败，立即抛出异常
         if (!passed) {
-            System.err.println(RED + "\n" + "=".repeat(100));
-            System.err.println("❌ 测试用例 [" + parameter + "] 失败，停止执行后续测试用例！");
-            System.err.println("测试类别: " + testCase);
-            System.err.println("期望结果: " + expected);
-            System.err.println("实际结果: " + actual);
-            System.err.println("备注信息: " + remark);
-            System.err.println("=".repeat(100) + RESET + "\n");
+            LOG.error(RED + "\n" + BANNER_LINE);
+            LOG.error("❌ 测试用例 [" + parameter + "] 失败，停止执行后续测试用例！");
+            LOG.error("测试类别: " + testCase);
+            LOG.error("期望结果: " + expected);
+            LOG.error("实际结果: " + actual);
+            LOG.error("备注信息: " + remark);
+            LOG.error(BANNER_LINE + RESET + "\n");
             throw new Exception("测试用例失败: " + parameter);
         }
     }
@@ -533,6 +1091,20 @@ public class GucSyncScenarioTest {
             this.isInRecovery = isInRecovery;
         }
         
+        /**
+         * 从探测语句的当前行解析后端信息
+         * 列顺序：inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user[, pg_is_in_recovery()]
+         */
+        static BackendInfo fromRow(ResultSet rs, boolean withRecovery) throws SQLException {
+            return new BackendInfo(
+                rs.getString(1),  // ip
+                rs.getInt(2),     // port
+                rs.getString(3),  // pid
+                rs.getString(4),  // user
+                withRecovery && rs.getBoolean(5)  // isInRecovery
+            );
+        }
+        
         @Override
         public String toString() {
             return String.format("ip=%s, port=%d, pid=%s, user=%s, isInRecovery=%s", ip, port, pid, user, isInRecovery);
@@ -542,425 +1114,56 @@ public class GucSyncScenarioTest {
     // ==================== 测试用例2：DateStyle参数同步 ====================
     
     public void testCase2_DateStyleSync_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2-Simple协议】测试DateStyle参数同步");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2-Simple协议】测试DateStyle参数同步");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2(false, "Simple协议");
     }
     
     public void testCase2_DateStyleSync_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2-Extended协议】测试DateStyle参数同步");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2-Extended协议】测试DateStyle参数同步");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2(true, "Extended协议");
     }
     
-    private void executeTestCase2(boolean useExtendedProtocol, String protocolName) throws SQLException, InterruptedException, Exception {
-        Connection conn1 = null;
-        Connection conn2 = null;
-        boolean allPassed = true;
-        StringBuilder failureDetails = new StringBuilder();
-        
-        try {
-            // 步骤1：客户端连接1执行（事务外执行）
-            System.out.println(YELLOW + "步骤1：客户端连接1开始执行（事务外）..." + RESET);
-            String url = getUrlWithProtocol(useExtendedProtocol);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
-            conn1.setAutoCommit(true); // 事务外执行
-            
-            // 检测点1：获取初始DateStyle值
-            printSql(1, "SHOW DateStyle", protocolName);
-            String initialDateStyle = getGucValue(conn1, "DateStyle", useExtendedProtocol);
-            
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】记录初始DateStyle:");
-            System.out.println("  期望: ISO, MDY");
-            System.out.println("  实际: " + initialDateStyle);
-            if (initialDateStyle.contains("ISO") && initialDateStyle.contains("MDY")) {
-                System.out.println(GREEN + "  结果: ✓ 通过" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点1失败(期望:ISO, MDY, 实际:" + initialDateStyle + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点2：设置DateStyle
-            printSql(1, "SET DateStyle = ISO, DMY", protocolName);
-            executeUpdate(conn1, "SET DateStyle = ISO, DMY", useExtendedProtocol);
-            
-            // 检测点3：记录后端连接信息
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
-            String dateStyleAfterSet = getGucValue(conn1, "DateStyle", useExtendedProtocol);
-            
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】记录后端连接标识与DateStyle:");
-            System.out.println("  后端连接1: " + backend1);
-            System.out.println("  DateStyle: " + dateStyleAfterSet);
-            System.out.println(GREEN + "  结果: ✓ 通过 - 已记录" + RESET);
-            System.out.println("─".repeat(100) + "\n");
-            
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
-            Thread.sleep(100);
-            
-            // 步骤2：客户端连接2执行
-            System.out.println(YELLOW + "步骤2：客户端连接2开始执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
-            conn2.setAutoCommit(false);
-            printSql(2, "BEGIN", protocolName);
-            
-            // 检测点4：确认复用后端连接
-            printSql(2, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
-            
-            boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】确认复用客户端1的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
-            if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点4失败(pid1=" + backend1.pid + ", pid2=" + backend2.pid + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点5：检查DateStyle是否恢复默认值
-            printSql(2, "SHOW DateStyle", protocolName);
-            String dateStyleInConn2 = getGucValue(conn2, "DateStyle", useExtendedProtocol);
-            
-            boolean isReset = initialDateStyle.equals(dateStyleInConn2);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】期望返回默认值 ISO, MDY:");
-            System.out.println("  期望: " + initialDateStyle);
-            System.out.println("  实际: " + dateStyleInConn2);
-            if (isReset) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - DateStyle已恢复默认值" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - DateStyle未恢复默认值" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点5失败(期望:" + initialDateStyle + ", 实际:" + dateStyleInConn2 + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交）\n" + RESET);
-            Thread.sleep(100);
-            
-            // 步骤3：连接1再次执行
-            System.out.println(YELLOW + "步骤3：连接1再次执行..." + RESET);
-            conn1.setAutoCommit(false);
-            printSql(1, "BEGIN", protocolName);
-            
-            // 检测点6：应分配新后端连接
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
-            
-            boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点6】应分配新的后端连接:");
-            System.out.println("  期望: 分配新后端连接 (pid不同)");
-            System.out.println("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
-            if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点6失败(原pid=" + backend1.pid + ", 新pid=" + backend1New.pid + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点7：检查DateStyle是否同步为ISO, DMY
-            printSql(1, "SHOW DateStyle", protocolName);
-            String dateStyleSynced = getGucValue(conn1, "DateStyle", useExtendedProtocol);
-            
-            boolean isSynced = dateStyleSynced.contains("ISO") && dateStyleSynced.contains("DMY");
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点7】期望返回 ISO, DMY:");
-            System.out.println("  期望: ISO, DMY");
-            System.out.println("  实际: " + dateStyleSynced);
-            if (isSynced) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - DateStyle已同步" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - DateStyle未同步" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点7失败(期望:ISO, DMY, 实际:" + dateStyleSynced + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            printSql(1, "COMMIT", protocolName);
-            conn1.commit();
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
-            
-            // 步骤4：连接2收尾
-            System.out.println(YELLOW + "步骤4：连接2收尾..." + RESET);
-            
-            // 检测点8：仍应为 ISO, DMY
-            printSql(2, "SHOW DateStyle", protocolName);
-            String finalDateStyle = getGucValue(conn2, "DateStyle", useExtendedProtocol);
-            
-            boolean isFinalCorrect = finalDateStyle.contains("ISO") && finalDateStyle.contains("MDY");
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点8】仍应为 ISO, MDY:");
-            System.out.println("  期望: ISO, MDY");
-            System.out.println("  实际: " + finalDateStyle);
-            if (isFinalCorrect) {
-                System.out.println(GREEN + "  结果: ✓ 通过" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点8失败(期望:ISO, MDY, 实际:" + finalDateStyle + "); ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成\n" + RESET);
-            
-            recordResult("guc report参数同步", "DateStyle参数（" + protocolName + "）", 
-                        "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
-                        allPassed, allPassed ? "通过" : "失败");
-                        
-        } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
-        }
+    private void executeTestCase2(boolean useExtendedProtocol, String protocolName) throws Exception {
+        runDeclarative(ScenarioCatalog.dateStyleSync(), useExtendedProtocol, protocolName);
     }
     
     // ==================== 测试用例2：TimeZone参数——RESET 恢复默认值 ====================
     
     public void testCase2_TimeZoneReset_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2-Simple协议】测试TimeZone参数——RESET 恢复默认值");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2-Simple协议】测试TimeZone参数——RESET 恢复默认值");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_TimeZone(false, "Simple协议");
     }
     
     public void testCase2_TimeZoneReset_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2-Extended协议】测试TimeZone参数——RESET 恢复默认值");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2-Extended协议】测试TimeZone参数——RESET 恢复默认值");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_TimeZone(true, "Extended协议");
     }
     
-    private void executeTestCase2_TimeZone(boolean useExtendedProtocol, String protocolName) throws SQLException, InterruptedException, Exception {
-        Connection conn1 = null;
-        Connection conn2 = null;
-        boolean allPassed = true;
-        StringBuilder failureDetails = new StringBuilder();
-        
-        try {
-            String url = getUrlWithProtocol(useExtendedProtocol);
-            
-            // ============ 步骤1：客户端连接1执行（事务外SET，才能同步）============
-            System.out.println(YELLOW + "步骤1：客户端连接1执行（事务外SET）..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
-            conn1.setAutoCommit(true); // 使用autocommit模式，SET在事务外才能同步
-            
-            // 检测点1：记录默认值
-            printSql(1, "SHOW TimeZone", protocolName);
-            String defaultTimeZone = getGucValue(conn1, "TimeZone", useExtendedProtocol);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】记录默认TimeZone值:");
-            System.out.println("  默认值: " + defaultTimeZone + " (以实际环境为准，如 Asia/Shanghai 或 UTC)");
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点2：设置新值（事务外执行，可以同步）
-            printSql(1, "SET TimeZone = UTC", protocolName);
-            executeUpdate(conn1, "SET TimeZone = UTC", useExtendedProtocol);
-            
-            printSql(1, "SHOW TimeZone", protocolName);
-            String timeZoneAfterSet = getGucValue(conn1, "TimeZone", useExtendedProtocol);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】设置TimeZone=UTC并输出SQL日志:");
-            System.out.println("  设置后TimeZone: " + timeZoneAfterSet);
-            boolean isSetSuccess = "UTC".equals(timeZoneAfterSet);
-            if (isSetSuccess) {
-                System.out.println(GREEN + "  结果: ✓ 设置成功" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 设置失败，期望=UTC, 实际=" + timeZoneAfterSet + RESET);
-                allPassed = false;
-                failureDetails.append("检测点2失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点3：记录后端连接标识
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】记录后端连接标识与TimeZone=UTC:");
-            System.out.println("  后端连接1: " + backend1);
-            System.out.println("  TimeZone: UTC");
-            System.out.println("─".repeat(100) + "\n");
-            
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
-            Thread.sleep(100);
-            
-            // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
-            conn2.setAutoCommit(false);
-            printSql(2, "BEGIN", protocolName);
-            
-            // 检测点4：确认复用步骤(1)的后端连接
-            printSql(2, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
-            
-            boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】确认复用步骤(1)的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: 客户端连接1的后端pid=" + backend1.pid + ", 客户端连接2的后端pid=" + backend2.pid);
-            if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点4失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            // 检测点5：期望默认值Asia/Shanghai
-            printSql(2, "SHOW TimeZone", protocolName);
-            String timeZoneInConn2 = getGucValue(conn2, "TimeZone", useExtendedProtocol);
-            
-            boolean isDefaultInConn2 = defaultTimeZone.equals(timeZoneInConn2);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】期望默认值" + defaultTimeZone + ":");
-            System.out.println("  说明: 连接池在发放后端连接前执行了RESET/ParameterStatus");
-            System.out.println("  期望: " + defaultTimeZone);
-            System.out.println("  实际: " + timeZoneInConn2);
-            if (isDefaultInConn2) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - TimeZone已恢复默认值" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - TimeZone未恢复默认值" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点5失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
-            Thread.sleep(100);
-            
-            // ============ 步骤3：客户端连接1再次执行 ============
-            System.out.println(YELLOW + "步骤3：客户端连接1再次执行..." + RESET);
-            conn1.setAutoCommit(false);
-            printSql(1, "BEGIN", protocolName);
-            
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接: " + backend1New + " (应该是新分配的后端连接)" + RESET);
-            
-            // 检测点6：期望值依然是UTC（因为步骤1在事务外SET，会同步到新后端）
-            printSql(1, "SHOW TimeZone", protocolName);
-            String timeZoneInConn1 = getGucValue(conn1, "TimeZone", useExtendedProtocol);
-            
-            boolean isUTC = "UTC".equals(timeZoneInConn1);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点6】期望值依然是UTC:");
-            System.out.println("  说明: 验证缓存同步逻辑会对新后端执行SET TimeZone=UTC");
-            System.out.println("  期望: UTC");
-            System.out.println("  实际: " + timeZoneInConn1);
-            if (isUTC) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - TimeZone已正确同步到新后端" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - TimeZone未正确同步" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点6失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            printSql(1, "COMMIT", protocolName);
-            conn1.commit();
-            
-            // 在事务外执行RESET（才能同步）
-            conn1.setAutoCommit(true);
-            printSql(1, "RESET TimeZone", protocolName);
-            executeUpdate(conn1, "RESET TimeZone", useExtendedProtocol);
-            
-            // 检测点7：恢复默认值
-            printSql(1, "SHOW TimeZone", protocolName);
-            String timeZoneAfterReset = getGucValue(conn1, "TimeZone", useExtendedProtocol);
-            
-            boolean isResetToDefault = defaultTimeZone.equals(timeZoneAfterReset);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点7】恢复默认值" + defaultTimeZone + ":");
-            System.out.println("  期望: " + defaultTimeZone);
-            System.out.println("  实际: " + timeZoneAfterReset);
-            if (isResetToDefault) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - RESET成功恢复默认值" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败 - RESET未恢复默认值" + RESET);
-                allPassed = false;
-                failureDetails.append("检测点7失败; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
-            Thread.sleep(100);
-            
-            // ============ 步骤4：客户端连接2收尾 ============
-            System.out.println(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
-            printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
-            Thread.sleep(100);
-            
-            // ============ 步骤5：客户端连接1再次执行 ============
-            System.out.println(YELLOW + "步骤5：客户端连接1再次执行..." + RESET);
-            conn1.setAutoCommit(false);
-            printSql(1, "BEGIN", protocolName);
-            
-            // 检测点8：应该复用客户端连接2的后端连接，TimeZone还是默认值
-            printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
-            BackendInfo backend1Final = getBackendInfo(conn1, useExtendedProtocol);
-            
-            printSql(1, "SHOW TimeZone", protocolName);
-            String timeZoneFinal = getGucValue(conn1, "TimeZone", useExtendedProtocol);
-            
-            boolean isReusedFromConn2 = backend2.pid.equals(backend1Final.pid);
-            boolean isDefaultFinal = defaultTimeZone.equals(timeZoneFinal);
-            
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点8】应该复用客户端连接2的后端连接，TimeZone还是默认值" + defaultTimeZone + ":");
-            System.out.println("  期望: 复用连接2的后端 (pid=" + backend2.pid + ") 且 TimeZone=" + defaultTimeZone);
-            System.out.println("  实际: 后端pid=" + backend1Final.pid + ", TimeZone=" + timeZoneFinal);
-            if (isReusedFromConn2 && isDefaultFinal) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接复用正确且TimeZone为默认值" + RESET);
-            } else {
-                System.out.println(RED + "  结果: ✗ 失败" + RESET);
-                allPassed = false;
-                if (!isReusedFromConn2) failureDetails.append("检测点8-后端连接未复用; ");
-                if (!isDefaultFinal) failureDetails.append("检测点8-TimeZone不是默认值; ");
-            }
-            System.out.println("─".repeat(100) + "\n");
-            
-            printSql(1, "COMMIT", protocolName);
-            conn1.commit();
-            System.out.println(YELLOW + "步骤5完成\n" + RESET);
-            
-            recordResult("guc report参数同步", "TimeZone参数——RESET恢复默认值（" + protocolName + "）", 
-                        "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
-                        allPassed, allPassed ? "通过" : "失败");
-                        
-        } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
-        }
+    private void executeTestCase2_TimeZone(boolean useExtendedProtocol, String protocolName) throws Exception {
+        runDeclarative(ScenarioCatalog.timeZoneReset(), useExtendedProtocol, protocolName);
     }
 
     // ==================== 测试用例2b：多参数同步与 RESET ALL ====================
     
     public void testCase2b_MultiParamResetAll_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2b-Simple协议】多参数同步与 RESET ALL");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2b-Simple协议】多参数同步与 RESET ALL");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2b_MultiParamResetAll(false, "Simple协议");
     }
     
     public void testCase2b_MultiParamResetAll_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2b-Extended协议】多参数同步与 RESET ALL");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2b-Extended协议】多参数同步与 RESET ALL");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2b_MultiParamResetAll(true, "Extended协议");
     }
     
@@ -978,8 +1181,8 @@ public class GucSyncScenarioTest {
             String url = getUrlWithProtocol(useExtendedProtocol);
             
             // ============ 步骤1：客户端连接1执行（事务外SET+RESET ALL）============
-            System.out.println(YELLOW + "步骤1：客户端连接1设置多个参数并执行RESET ALL..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤1：客户端连接1设置多个参数并执行RESET ALL..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 事务外执行，才能同步
             
             // 记录默认值
@@ -998,7 +1201,7 @@ public class GucSyncScenarioTest {
             printSql(1, "SHOW statement_timeout", protocolName);
             String defaultStatementTimeout = getGucValue(conn1, "statement_timeout", useExtendedProtocol);
             
-            System.out.println(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle + 
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits +
@@ -1024,38 +1227,38 @@ public class GucSyncScenarioTest {
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】日志中记录所有已修改的参数和值:");
-            System.out.println("  后端连接1: " + backend1);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】日志中记录所有已修改的参数和值:");
+            LOG.info("  后端连接1: " + backend1);
             
             printSql(1, "SHOW standard_conforming_strings", protocolName);
-            System.out.println("  standard_conforming_strings: " + getGucValue(conn1, "standard_conforming_strings", useExtendedProtocol));
+            LOG.info("  standard_conforming_strings: " + getGucValue(conn1, "standard_conforming_strings", useExtendedProtocol));
             
             printSql(1, "SHOW IntervalStyle", protocolName);
-            System.out.println("  IntervalStyle: " + getGucValue(conn1, "IntervalStyle", useExtendedProtocol));
+            LOG.info("  IntervalStyle: " + getGucValue(conn1, "IntervalStyle", useExtendedProtocol));
             
             printSql(1, "SHOW DateStyle", protocolName);
-            System.out.println("  DateStyle: " + getGucValue(conn1, "DateStyle", useExtendedProtocol));
+            LOG.info("  DateStyle: " + getGucValue(conn1, "DateStyle", useExtendedProtocol));
             
             printSql(1, "SHOW extra_float_digits", protocolName);
-            System.out.println("  extra_float_digits: " + getGucValue(conn1, "extra_float_digits", useExtendedProtocol));
+            LOG.info("  extra_float_digits: " + getGucValue(conn1, "extra_float_digits", useExtendedProtocol));
             
             printSql(1, "SHOW statement_timeout", protocolName);
-            System.out.println("  statement_timeout: " + getGucValue(conn1, "statement_timeout", useExtendedProtocol));
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info("  statement_timeout: " + getGucValue(conn1, "statement_timeout", useExtendedProtocol));
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 执行RESET ALL
             printSql(1, "RESET ALL", protocolName);
             executeUpdate(conn1, "RESET ALL", useExtendedProtocol);
             
             // 关闭连接1，让后端连接返回连接池
-            System.out.println(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
             conn1.close();
             Thread.sleep(100);
             
             // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤2：客户端连接2执行..." + RESET);
+            conn2 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn2.setAutoCommit(false);
             printSql(2, "BEGIN", protocolName);
             
@@ -1064,18 +1267,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
             
             boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】确认复用步骤(1)的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】确认复用步骤(1)的后端连接:");
+            LOG.info("  期望: 复用后端连接 (pid相同)");
+            LOG.info("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
             if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点3：下列数值应全为默认值
             printSql(2, "SHOW standard_conforming_strings", protocolName);
@@ -1099,32 +1302,32 @@ public class GucSyncScenarioTest {
                                 defaultExtraFloatDigits.equals(extraFloatDigitsConn2) &&
                                 defaultStatementTimeout.equals(statementTimeoutConn2);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】下列数值应全为默认值:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】下列数值应全为默认值:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits +
                              ", statement_timeout=" + defaultStatementTimeout);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
                              ", IntervalStyle=" + intervalStyleConn2 +
                              ", DateStyle=" + dateStyleConn2 +
                              ", extra_float_digits=" + extraFloatDigitsConn2 +
                              ", statement_timeout=" + statementTimeoutConn2);
             if (allDefault) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数已恢复默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数已恢复默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
             Thread.sleep(100);
             
             // ============ 步骤3：重新创建客户端连接1并执行 ============
-            System.out.println(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 不开启事务
             
             // 检测点4：应分配新的后端连接
@@ -1132,18 +1335,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
             
             boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】应分配新的后端连接:");
-            System.out.println("  期望: 分配新后端连接 (pid不同)");
-            System.out.println("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】应分配新的后端连接:");
+            LOG.info("  期望: 分配新后端连接 (pid不同)");
+            LOG.info("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
             if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点5：下列数值应全为默认值（RESET ALL后）
             printSql(1, "SHOW standard_conforming_strings", protocolName);
@@ -1167,50 +1370,50 @@ public class GucSyncScenarioTest {
                                      defaultExtraFloatDigits.equals(extraFloatDigitsConn1) &&
                                      defaultStatementTimeout.equals(statementTimeoutConn1);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】下列数值应全为默认值（RESET ALL后）:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点5】下列数值应全为默认值（RESET ALL后）:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits +
                              ", statement_timeout=" + defaultStatementTimeout);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
                              ", IntervalStyle=" + intervalStyleConn1 +
                              ", DateStyle=" + dateStyleConn1 +
                              ", extra_float_digits=" + extraFloatDigitsConn1 +
                              ", statement_timeout=" + statementTimeoutConn1);
             if (allDefaultConn1) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数为默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数为默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点5失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
             
             // ============ 步骤4：客户端连接2收尾 ============
-            System.out.println(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
+            LOG.info(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
             printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
+            commit(conn2);
+            LOG.info(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
             
             recordResult("多参数同步与RESET ALL", "多参数同步与RESET ALL（" + protocolName + "）", 
                         "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
                         allPassed, allPassed ? "通过" : "失败");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
+            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { LOG.error("关闭连接2失败", e); }
         }
     }
 
     // ==================== 测试用例3：多参数同步与 DISCARD ALL (仅Simple协议) ====================
     
     public void testCase3_MultiParamDiscardAll_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例3-Simple协议】多参数同步与 DISCARD ALL");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例3-Simple协议】多参数同步与 DISCARD ALL");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase3_MultiParamDiscardAll(false, "Simple协议");
     }
     
@@ -1229,8 +1432,8 @@ public class GucSyncScenarioTest {
             String url = getUrlWithProtocol(useExtendedProtocol);
             
             // ============ 步骤1：客户端连接1执行（事务外SET+DISCARD ALL）============
-            System.out.println(YELLOW + "步骤1：客户端连接1设置多个参数并执行DISCARD ALL..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤1：客户端连接1设置多个参数并执行DISCARD ALL..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 事务外执行，才能同步
             
             // 记录默认值
@@ -1246,7 +1449,7 @@ public class GucSyncScenarioTest {
             printSql(1, "SHOW extra_float_digits", protocolName);
             String defaultExtraFloatDigits = getGucValue(conn1, "extra_float_digits", useExtendedProtocol);
             
-            System.out.println(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle + 
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits + RESET);
@@ -1268,35 +1471,35 @@ public class GucSyncScenarioTest {
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】日志中记录所有已修改的参数和值:");
-            System.out.println("  后端连接1: " + backend1);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】日志中记录所有已修改的参数和值:");
+            LOG.info("  后端连接1: " + backend1);
             
             printSql(1, "SHOW standard_conforming_strings", protocolName);
-            System.out.println("  standard_conforming_strings: " + getGucValue(conn1, "standard_conforming_strings", useExtendedProtocol));
+            LOG.info("  standard_conforming_strings: " + getGucValue(conn1, "standard_conforming_strings", useExtendedProtocol));
             
             printSql(1, "SHOW IntervalStyle", protocolName);
-            System.out.println("  IntervalStyle: " + getGucValue(conn1, "IntervalStyle", useExtendedProtocol));
+            LOG.info("  IntervalStyle: " + getGucValue(conn1, "IntervalStyle", useExtendedProtocol));
             
             printSql(1, "SHOW DateStyle", protocolName);
-            System.out.println("  DateStyle: " + getGucValue(conn1, "DateStyle", useExtendedProtocol));
+            LOG.info("  DateStyle: " + getGucValue(conn1, "DateStyle", useExtendedProtocol));
             
             printSql(1, "SHOW extra_float_digits", protocolName);
-            System.out.println("  extra_float_digits: " + getGucValue(conn1, "extra_float_digits", useExtendedProtocol));
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info("  extra_float_digits: " + getGucValue(conn1, "extra_float_digits", useExtendedProtocol));
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 执行DISCARD ALL
             printSql(1, "DISCARD ALL", protocolName);
             executeUpdate(conn1, "DISCARD ALL", useExtendedProtocol);
             
             // 关闭连接1，让后端连接返回连接池
-            System.out.println(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
             conn1.close();
             Thread.sleep(100);
             
             // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤2：客户端连接2执行..." + RESET);
+            conn2 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn2.setAutoCommit(false);
             printSql(2, "BEGIN", protocolName);
             
@@ -1305,18 +1508,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
             
             boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】确认复用步骤(1)的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】确认复用步骤(1)的后端连接:");
+            LOG.info("  期望: 复用后端连接 (pid相同)");
+            LOG.info("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
             if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点3：下列数值应全为默认值
             printSql(2, "SHOW standard_conforming_strings", protocolName);
@@ -1336,30 +1539,30 @@ public class GucSyncScenarioTest {
                                 defaultDateStyle.equals(dateStyleConn2) &&
                                 defaultExtraFloatDigits.equals(extraFloatDigitsConn2);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】下列数值应全为默认值:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】下列数值应全为默认值:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
                              ", IntervalStyle=" + intervalStyleConn2 +
                              ", DateStyle=" + dateStyleConn2 +
                              ", extra_float_digits=" + extraFloatDigitsConn2);
             if (allDefault) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数已恢复默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数已恢复默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
             Thread.sleep(100);
             
             // ============ 步骤3：重新创建客户端连接1并执行 ============
-            System.out.println(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 不开启事务
             
             // 检测点4：应分配新的后端连接
@@ -1367,18 +1570,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
             
             boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】应分配新的后端连接:");
-            System.out.println("  期望: 分配新后端连接 (pid不同)");
-            System.out.println("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】应分配新的后端连接:");
+            LOG.info("  期望: 分配新后端连接 (pid不同)");
+            LOG.info("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
             if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点5：下列数值应全为默认值（DISCARD ALL后）
             printSql(1, "SHOW standard_conforming_strings", protocolName);
@@ -1398,55 +1601,55 @@ public class GucSyncScenarioTest {
                                      defaultDateStyle.equals(dateStyleConn1) &&
                                      defaultExtraFloatDigits.equals(extraFloatDigitsConn1);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】下列数值应全为默认值（DISCARD ALL后）:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点5】下列数值应全为默认值（DISCARD ALL后）:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
                              ", IntervalStyle=" + intervalStyleConn1 +
                              ", DateStyle=" + dateStyleConn1 +
                              ", extra_float_digits=" + extraFloatDigitsConn1);
             if (allDefaultConn1) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数为默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数为默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点5失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
             
             // ============ 步骤4：客户端连接2收尾 ============
-            System.out.println(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
+            LOG.info(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
             printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
+            commit(conn2);
+            LOG.info(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
             
             recordResult("多参数同步与DISCARD ALL", "多参数同步与DISCARD ALL（" + protocolName + "）", 
                         "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
                         allPassed, allPassed ? "通过" : "失败");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
+            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { LOG.error("关闭连接2失败", e); }
         }
     }
 
     // ==================== 测试用例2.5：事务中set guc ====================
     
     public void testCase2_5_SetGucInTransaction_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.5-Simple协议】事务中set guc");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.5-Simple协议】事务中set guc");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_5_SetGucInTransaction(false, "Simple协议");
     }
     
     public void testCase2_5_SetGucInTransaction_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.5-Extended协议】事务中set guc");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.5-Extended协议】事务中set guc");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_5_SetGucInTransaction(true, "Extended协议");
     }
     
@@ -1464,8 +1667,8 @@ public class GucSyncScenarioTest {
             String url = getUrlWithProtocol(useExtendedProtocol);
             
             // ============ 步骤1：客户端连接1在事务中执行SET ============
-            System.out.println(YELLOW + "步骤1：客户端连接1在事务中设置多个参数..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤1：客户端连接1在事务中设置多个参数..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(false); // 开启事务
             printSql(1, "BEGIN", protocolName);
             
@@ -1482,7 +1685,7 @@ public class GucSyncScenarioTest {
             printSql(1, "SHOW extra_float_digits", protocolName);
             String defaultExtraFloatDigits = getGucValue(conn1, "extra_float_digits", useExtendedProtocol);
             
-            System.out.println(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info(GREEN + "  → 记录默认值: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle + 
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits + RESET);
@@ -1504,39 +1707,39 @@ public class GucSyncScenarioTest {
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】日志中记录所有已修改的参数和值:");
-            System.out.println("  后端连接1: " + backend1);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】日志中记录所有已修改的参数和值:");
+            LOG.info("  后端连接1: " + backend1);
             
             printSql(1, "SHOW standard_conforming_strings", protocolName);
             String scsInTxn = getGucValue(conn1, "standard_conforming_strings", useExtendedProtocol);
-            System.out.println("  standard_conforming_strings: " + scsInTxn);
+            LOG.info("  standard_conforming_strings: " + scsInTxn);
             
             printSql(1, "SHOW IntervalStyle", protocolName);
             String intervalInTxn = getGucValue(conn1, "IntervalStyle", useExtendedProtocol);
-            System.out.println("  IntervalStyle: " + intervalInTxn);
+            LOG.info("  IntervalStyle: " + intervalInTxn);
             
             printSql(1, "SHOW DateStyle", protocolName);
             String dateInTxn = getGucValue(conn1, "DateStyle", useExtendedProtocol);
-            System.out.println("  DateStyle: " + dateInTxn);
+            LOG.info("  DateStyle: " + dateInTxn);
             
             printSql(1, "SHOW extra_float_digits", protocolName);
             String extraInTxn = getGucValue(conn1, "extra_float_digits", useExtendedProtocol);
-            System.out.println("  extra_float_digits: " + extraInTxn);
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info("  extra_float_digits: " + extraInTxn);
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 提交事务
             printSql(1, "COMMIT", protocolName);
-            conn1.commit();
+            commit(conn1);
             
             // 关闭连接1，让后端连接返回连接池
-            System.out.println(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成，关闭连接1，让后端连接返回连接池\n" + RESET);
             conn1.close();
             Thread.sleep(100);
             
             // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤2：客户端连接2执行..." + RESET);
+            conn2 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn2.setAutoCommit(false);
             printSql(2, "BEGIN", protocolName);
             
@@ -1545,18 +1748,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
             
             boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】确认复用步骤(1)的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】确认复用步骤(1)的后端连接:");
+            LOG.info("  期望: 复用后端连接 (pid相同)");
+            LOG.info("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
             if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点3：下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）
             printSql(2, "SHOW standard_conforming_strings", protocolName);
@@ -1576,30 +1779,30 @@ public class GucSyncScenarioTest {
                                 defaultDateStyle.equals(dateStyleConn2) &&
                                 defaultExtraFloatDigits.equals(extraFloatDigitsConn2);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn2 +
                              ", IntervalStyle=" + intervalStyleConn2 +
                              ", DateStyle=" + dateStyleConn2 +
                              ", extra_float_digits=" + extraFloatDigitsConn2);
             if (allDefault) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数为默认值（事务中SET未同步）" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数为默认值（事务中SET未同步）" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
             Thread.sleep(100);
             
             // ============ 步骤3：重新创建客户端连接1并执行 ============
-            System.out.println(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤3：重新创建客户端连接1并执行..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 不开启事务
             
             // 检测点4：应分配新的后端连接
@@ -1607,18 +1810,18 @@ public class GucSyncScenarioTest {
             BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
             
             boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】应分配新的后端连接:");
-            System.out.println("  期望: 分配新后端连接 (pid不同)");
-            System.out.println("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】应分配新的后端连接:");
+            LOG.info("  期望: 分配新后端连接 (pid不同)");
+            LOG.info("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
             if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点5：下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）
             printSql(1, "SHOW standard_conforming_strings", protocolName);
@@ -1638,55 +1841,55 @@ public class GucSyncScenarioTest {
                                      defaultDateStyle.equals(dateStyleConn1) &&
                                      defaultExtraFloatDigits.equals(extraFloatDigitsConn1);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）:");
-            System.out.println("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点5】下列数值应全为默认值（因为步骤1中修改的值在事务中，没同步）:");
+            LOG.info("  期望: standard_conforming_strings=" + defaultStandardConformingStrings +
                              ", IntervalStyle=" + defaultIntervalStyle +
                              ", DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits);
-            System.out.println("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
+            LOG.info("  实际: standard_conforming_strings=" + standardConformingStringsConn1 +
                              ", IntervalStyle=" + intervalStyleConn1 +
                              ", DateStyle=" + dateStyleConn1 +
                              ", extra_float_digits=" + extraFloatDigitsConn1);
             if (allDefaultConn1) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有参数为默认值（事务中SET未同步）" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有参数为默认值（事务中SET未同步）" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数不是默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点5失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
             
             // ============ 步骤4：客户端连接2收尾 ============
-            System.out.println(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
+            LOG.info(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
             printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
+            commit(conn2);
+            LOG.info(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
             
             recordResult("事务中set guc", "事务中set guc（" + protocolName + "）", 
                         "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
                         allPassed, allPassed ? "通过" : "失败");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
+            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { LOG.error("关闭连接2失败", e); }
         }
     }
 
     // ==================== 测试用例2.6：测试大量guc参数同步 ====================
     
     public void testCase2_6_MassiveGucSync_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.6-Simple协议】测试大量guc参数同步（100个参数）");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.6-Simple协议】测试大量guc参数同步（100个参数）");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_6_MassiveGucSync(false, "Simple协议");
     }
     
     public void testCase2_6_MassiveGucSync_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.6-Extended协议】测试大量guc参数同步（100个参数）");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.6-Extended协议】测试大量guc参数同步（100个参数）");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_6_MassiveGucSync(true, "Extended协议");
     }
     
@@ -1703,47 +1906,50 @@ public class GucSyncScenarioTest {
         Map<String, String[]> gucParams = null;
         int paramCount = 0;
         
-        System.out.println(BLUE + "正在从数据库获取可设置的GUC参数..." + RESET);
+        LOG.info(BLUE + "正在从数据库获取可设置的GUC参数..." + RESET);
         
         try {
             String url = getUrlWithProtocol(useExtendedProtocol);
             
-            // 先建立连接，从数据库获取参数列表
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
-            conn1.setAutoCommit(true); // 事务外执行，才能同步
-            
-            // 从数据库动态获取100个可设置的GUC参数
-            try {
-                gucParams = GucParameterList.getGucParametersFromDatabase(conn1, 100);
+            // 从数据库动态获取100个可设置的GUC参数。目录连接与场景的其他连接走同一入口（差异对比的直连时为直连），
+            // 查询计入客户端语句数；不借用辅助连接池，它的 RESET ALL 和指纹查询不计入客户端语句数，会被同步放大统计误算为连接池注入
+            try (Connection catalog = DriverManager.getConnection(url, targetUser(), targetPassword())) {
+                catalog.setAutoCommit(true);
+                clientStats.record(StatementKind.SELECT);
+                clientStats.recordTransaction();
+                gucParams = GucParameterList.getGucParametersFromDatabase(catalog, 100);
                 paramCount = gucParams.size();
-                System.out.println(GREEN + "  → 成功从数据库获取 " + paramCount + " 个GUC参数" + RESET);
+                LOG.info(GREEN + "  → 成功从数据库获取 " + paramCount + " 个GUC参数" + RESET);
             } catch (Exception e) {
-                System.out.println(YELLOW + "  → 警告: 无法从数据库获取参数，使用静态参数列表: " + e.getMessage() + RESET);
+                LOG.warn(YELLOW + "  → 警告: 无法从数据库获取参数，使用静态参数列表: " + e.getMessage() + RESET);
                 gucParams = GucParameterList.getGucParameters();
                 paramCount = gucParams.size();
             }
             
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
+            conn1.setAutoCommit(true); // 事务外执行，才能同步
+            
             // ============ 步骤1：客户端连接1设置大量GUC参数 ============
-            System.out.println(YELLOW + "步骤1：客户端连接1设置" + paramCount + "个GUC参数..." + RESET);
+            LOG.info(YELLOW + "步骤1：客户端连接1设置" + paramCount + "个GUC参数..." + RESET);
             
             // 从gucParams中获取默认值（数据库查询时的setting字段），不执行SHOW命令
             Map<String, String> defaultValues = new LinkedHashMap<>();
             String[] sampleParams = {"extra_float_digits", "work_mem", "statement_timeout", "enable_seqscan", "application_name"};
             
-            System.out.println(GREEN + "  → 记录代表性参数的默认值（从数据库查询结果获取，不执行SHOW）..." + RESET);
+            LOG.info(GREEN + "  → 记录代表性参数的默认值（从数据库查询结果获取，不执行SHOW）..." + RESET);
             for (String paramName : sampleParams) {
                 if (gucParams.containsKey(paramName)) {
                     String defaultValue = gucParams.get(paramName)[0]; // 第一个元素是默认值
                     defaultValues.put(paramName, defaultValue);
-                    System.out.println("    " + paramName + " = " + defaultValue);
+                    LOG.info("    " + paramName + " = " + defaultValue);
                 }
             }
-            System.out.println(GREEN + "  → 成功记录 " + defaultValues.size() + " 个代表性参数的默认值" + RESET);
+            LOG.info(GREEN + "  → 成功记录 " + defaultValues.size() + " 个代表性参数的默认值" + RESET);
             
             // 设置所有参数为测试值
             int successCount = 0;
             int failCount = 0;
-            System.out.println(GREEN + "  → 开始设置参数..." + RESET);
+            LOG.info(GREEN + "  → 开始设置参数..." + RESET);
             
             for (Map.Entry<String, String[]> entry : gucParams.entrySet()) {
                 String paramName = entry.getKey();
@@ -1756,30 +1962,30 @@ public class GucSyncScenarioTest {
                     successCount++;
                 } catch (Exception e) {
                     failCount++;
-                    System.out.println(YELLOW + "  → 警告: 无法设置参数 " + paramName + " = " + testValue + ": " + e.getMessage() + RESET);
+                    LOG.warn(YELLOW + "  → 警告: 无法设置参数 " + paramName + " = " + testValue + ": " + e.getMessage() + RESET);
                 }
             }
             
-            System.out.println(GREEN + "  → 参数设置完成: 成功=" + successCount + ", 失败=" + failCount + RESET);
+            LOG.info(GREEN + "  → 参数设置完成: 成功=" + successCount + ", 失败=" + failCount + RESET);
             
             // 检测点1：记录后端连接信息和已修改的参数值
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】记录后端连接标识与已设置的参数:");
-            System.out.println("  后端连接1: " + backend1);
-            System.out.println("  成功设置参数数量: " + successCount);
-            System.out.println(YELLOW + "  注意: 不在此处验证每个参数，避免执行100次SHOW导致超时" + RESET);
-            System.out.println(YELLOW + "  测试重点是后续步骤中的参数同步机制" + RESET);
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】记录后端连接标识与已设置的参数:");
+            LOG.info("  后端连接1: " + backend1);
+            LOG.info("  成功设置参数数量: " + successCount);
+            LOG.info(YELLOW + "  注意: 不在此处验证每个参数，避免执行100次SHOW导致超时" + RESET);
+            LOG.info(YELLOW + "  测试重点是后续步骤中的参数同步机制" + RESET);
+            LOG.info(CHECKPOINT_LINE + "\n");
             
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成\n" + RESET);
             Thread.sleep(100);
             
             // ============ 步骤2：客户端连接2执行 ============
-            System.out.println(YELLOW + "步骤2：客户端连接2执行..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤2：客户端连接2执行..." + RESET);
+            conn2 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn2.setAutoCommit(false);
             printSql(2, "BEGIN", protocolName);
             
@@ -1788,29 +1994,29 @@ public class GucSyncScenarioTest {
             BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
             
             boolean isReused = backend1.pid.equals(backend2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】确认复用步骤(1)的后端连接:");
-            System.out.println("  期望: 复用后端连接 (pid相同)");
-            System.out.println("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】确认复用步骤(1)的后端连接:");
+            LOG.info("  期望: 复用后端连接 (pid相同)");
+            LOG.info("  实际: pid1=" + backend1.pid + ", pid2=" + backend2.pid);
             if (isReused) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接已复用" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 后端连接未复用" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点3：检查代表性参数是否恢复默认值
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】检查代表性GUC参数是否恢复默认值:");
-            System.out.println("  说明: 只检查代表性参数，避免执行过多SHOW命令导致超时");
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】检查代表性GUC参数是否恢复默认值:");
+            LOG.info("  说明: 只检查代表性参数，避免执行过多SHOW命令导致超时");
             
             int checkCount = 0;
             int resetCorrect = 0;
             int resetIncorrect = 0;
             
-            System.out.println("  开始检查代表性参数...");
+            LOG.info("  开始检查代表性参数...");
             for (Map.Entry<String, String> entry : defaultValues.entrySet()) {
                 String paramName = entry.getKey();
                 String expectedDefault = entry.getValue();
@@ -1826,33 +2032,33 @@ public class GucSyncScenarioTest {
                     
                     if (isDefault) {
                         resetCorrect++;
-                        System.out.println(GREEN + "  ✓ " + paramName + ": " + actualValue + " (已恢复默认值)" + RESET);
+                        LOG.info(GREEN + "  ✓ " + paramName + ": " + actualValue + " (已恢复默认值)" + RESET);
                     } else {
                         resetIncorrect++;
-                        System.out.println(RED + "  ✗ " + paramName + ": " + actualValue + " (期望默认值: " + expectedDefault + ")" + RESET);
+                        LOG.error(RED + "  ✗ " + paramName + ": " + actualValue + " (期望默认值: " + expectedDefault + ")" + RESET);
                     }
                 } catch (Exception e) {
                     checkCount++;
-                    System.out.println(YELLOW + "  ? " + paramName + ": 无法检查 - " + e.getMessage() + RESET);
+                    LOG.info(YELLOW + "  ? " + paramName + ": 无法检查 - " + e.getMessage() + RESET);
                 }
             }
             
             boolean resetSuccess = resetIncorrect == 0;
-            System.out.println("  检查结果: 正确=" + resetCorrect + ", 错误=" + resetIncorrect + ", 总计=" + checkCount);
+            LOG.info("  检查结果: 正确=" + resetCorrect + ", 错误=" + resetIncorrect + ", 总计=" + checkCount);
             if (resetSuccess) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 代表性参数已恢复默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 代表性参数已恢复默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 有 " + resetIncorrect + " 个参数未恢复默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 有 " + resetIncorrect + " 个参数未恢复默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败(" + resetIncorrect + "个参数未恢复); ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
-            System.out.println(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
+            LOG.info(YELLOW + "步骤2完成（保持事务未提交，继续占用后端连接）\n" + RESET);
             Thread.sleep(100);
             
             // ============ 步骤3：连接1继续执行 ============
-            System.out.println(YELLOW + "步骤3：连接1继续执行..." + RESET);
+            LOG.info(YELLOW + "步骤3：连接1继续执行..." + RESET);
             conn1.setAutoCommit(false);
             printSql(1, "BEGIN", protocolName);
             
@@ -1861,29 +2067,29 @@ public class GucSyncScenarioTest {
             BackendInfo backend1New = getBackendInfo(conn1, useExtendedProtocol);
             
             boolean isNewBackend = !backend1.pid.equals(backend1New.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】应分配新的后端连接:");
-            System.out.println("  期望: 分配新后端连接 (pid不同)");
-            System.out.println("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】应分配新的后端连接:");
+            LOG.info("  期望: 分配新后端连接 (pid不同)");
+            LOG.info("  实际: 原pid=" + backend1.pid + ", 新pid=" + backend1New.pid);
             if (isNewBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配新后端连接" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 仍是原后端连接" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 检测点5：检查代表性参数是否同步到新后端
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点5】检查代表性GUC参数是否同步到新后端:");
-            System.out.println("  说明: 只检查代表性参数，避免执行过多SHOW命令导致超时");
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点5】检查代表性GUC参数是否同步到新后端:");
+            LOG.info("  说明: 只检查代表性参数，避免执行过多SHOW命令导致超时");
             
             int syncCheckCount = 0;
             int syncCorrect = 0;
             int syncIncorrect = 0;
             
-            System.out.println("  开始检查代表性参数...");
+            LOG.info("  开始检查代表性参数...");
             for (String paramName : sampleParams) {
                 if (gucParams.containsKey(paramName)) {
                     String expectedValue = gucParams.get(paramName)[1]; // 测试值
@@ -1899,62 +2105,62 @@ public class GucSyncScenarioTest {
                         
                         if (isSynced) {
                             syncCorrect++;
-                            System.out.println(GREEN + "  ✓ " + paramName + ": " + actualValue + " (已同步)" + RESET);
+                            LOG.info(GREEN + "  ✓ " + paramName + ": " + actualValue + " (已同步)" + RESET);
                         } else {
                             syncIncorrect++;
-                            System.out.println(RED + "  ✗ " + paramName + ": " + actualValue + " (期望: " + expectedValue + ")" + RESET);
+                            LOG.error(RED + "  ✗ " + paramName + ": " + actualValue + " (期望: " + expectedValue + ")" + RESET);
                         }
                     } catch (Exception e) {
                         syncCheckCount++;
-                        System.out.println(YELLOW + "  ? " + paramName + ": 无法检查 - " + e.getMessage() + RESET);
+                        LOG.info(YELLOW + "  ? " + paramName + ": 无法检查 - " + e.getMessage() + RESET);
                     }
                 }
             }
             
             boolean syncSuccess = syncIncorrect == 0;
-            System.out.println("  检查结果: 正确=" + syncCorrect + ", 错误=" + syncIncorrect + ", 总计=" + syncCheckCount);
+            LOG.info("  检查结果: 正确=" + syncCorrect + ", 错误=" + syncIncorrect + ", 总计=" + syncCheckCount);
             if (syncSuccess) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 代表性参数已同步到新后端" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 代表性参数已同步到新后端" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 有 " + syncIncorrect + " 个参数未同步" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 有 " + syncIncorrect + " 个参数未同步" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点5失败(" + syncIncorrect + "个参数未同步); ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             printSql(1, "COMMIT", protocolName);
-            conn1.commit();
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            commit(conn1);
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
             
             // ============ 步骤4：客户端连接2收尾 ============
-            System.out.println(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
+            LOG.info(YELLOW + "步骤4：客户端连接2收尾..." + RESET);
             printSql(2, "COMMIT", protocolName);
-            conn2.commit();
-            System.out.println(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
+            commit(conn2);
+            LOG.info(YELLOW + "步骤4完成（释放后端连接）\n" + RESET);
             
             recordResult("测试大量guc参数同步", "测试" + paramCount + "个GUC参数同步（" + protocolName + "）", 
                         "所有检测点通过", allPassed ? "所有检测点通过" : failureDetails.toString(), 
                         allPassed, allPassed ? "通过" : "失败");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
+            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { LOG.error("关闭连接2失败", e); }
         }
     }
     
     // ==================== 测试用例2.8：测试读写前后换，GUC参数的同步 ====================
 
     public void testCase2_8_ReadWriteSwitch_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.8-Simple协议】测试读写前后换，GUC参数的同步");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.8-Simple协议】测试读写前后换，GUC参数的同步");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_8_ReadWriteSwitch(false, "Simple协议");
     }
 
     public void testCase2_8_ReadWriteSwitch_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.8-Extended协议】测试读写前后换，GUC参数的同步");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.8-Extended协议】测试读写前后换，GUC参数的同步");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_8_ReadWriteSwitch(true, "Extended协议");
     }
 
@@ -1969,30 +2175,30 @@ public class GucSyncScenarioTest {
 
         try {
             String url = getUrlWithProtocol(useExtendedProtocol);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 事务外执行
 
             // ============ 步骤1：首次连接分配的是写节点 ============
-            System.out.println(YELLOW + "步骤1：首次连接分配写节点..." + RESET);
+            LOG.info(YELLOW + "步骤1：首次连接分配写节点..." + RESET);
 
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user, pg_is_in_recovery()", protocolName);
             BackendInfo backend1 = getBackendInfoWithRecovery(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接1信息: " + backend1 + RESET);
+            LOG.info(BLUE + "  → 后端连接1信息: " + backend1 + RESET);
 
             // 检测点1：首次连接分配的是写节点，pg_is_in_recovery = f
             boolean isWriteNode = !backend1.isInRecovery;
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】检查首次连接是否分配到写节点:");
-            System.out.println("  期望: pg_is_in_recovery = false (写节点)");
-            System.out.println("  实际: pg_is_in_recovery = " + backend1.isInRecovery);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】检查首次连接是否分配到写节点:");
+            LOG.info("  期望: pg_is_in_recovery = false (写节点)");
+            LOG.info("  实际: pg_is_in_recovery = " + backend1.isInRecovery);
             if (isWriteNode) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配到写节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配到写节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 未分配到写节点" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 未分配到写节点" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点1失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
             // 记录默认值
             printSql(1, "SHOW DateStyle", protocolName);
@@ -2002,7 +2208,7 @@ public class GucSyncScenarioTest {
             printSql(1, "SHOW search_path", protocolName);
             String defaultSearchPath = getGucValue(conn1, "search_path", useExtendedProtocol);
 
-            System.out.println(GREEN + "  → 记录默认值: DateStyle=" + defaultDateStyle +
+            LOG.info(GREEN + "  → 记录默认值: DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=" + defaultExtraFloatDigits +
                              ", search_path=" + defaultSearchPath + RESET);
 
@@ -2016,33 +2222,33 @@ public class GucSyncScenarioTest {
             printSql(1, "SET search_path = 'myschema, public'", protocolName);
             executeUpdate(conn1, "SET search_path = 'myschema, public'", useExtendedProtocol);
 
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成\n" + RESET);
             Thread.sleep(100);
 
             // ============ 步骤2：切换到读节点 ============
-            System.out.println(YELLOW + "步骤2：切换到读节点..." + RESET);
+            LOG.info(YELLOW + "步骤2：切换到读节点..." + RESET);
 
             printSql(1, "SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY", protocolName);
             executeUpdate(conn1, "SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY", useExtendedProtocol);
 
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user, pg_is_in_recovery()", protocolName);
             BackendInfo backend2 = getBackendInfoWithRecovery(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接信息: " + backend2 + RESET);
+            LOG.info(BLUE + "  → 后端连接信息: " + backend2 + RESET);
 
             // 检测点2：连接切换，且 pg_is_in_recovery = t 或 port=25432（多活场景下读节点端口为25432）
             boolean switchedToRead = backend2.isInRecovery || backend2.port == 25432;
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】检查是否切换到读节点:");
-            System.out.println("  期望: pg_is_in_recovery = true 或 port = 25432 (读节点)");
-            System.out.println("  实际: pg_is_in_recovery = " + backend2.isInRecovery + ", port = " + backend2.port);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】检查是否切换到读节点:");
+            LOG.info("  期望: pg_is_in_recovery = true 或 port = 25432 (读节点)");
+            LOG.info("  实际: pg_is_in_recovery = " + backend2.isInRecovery + ", port = " + backend2.port);
             if (switchedToRead) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已切换到读节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已切换到读节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 未切换到读节点" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 未切换到读节点" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
             // 检测点3：检查参数值是否正确同步
             printSql(1, "SHOW DateStyle", protocolName);
@@ -2057,26 +2263,26 @@ public class GucSyncScenarioTest {
                                    normalizeGucValue(extraFloatDigitsAfterSwitch).equals("2") &&
                                    normalizeGucValue(searchPathAfterSwitch).equals("myschema, public");
 
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】检查参数值是否正确同步:");
-            System.out.println("  期望: DateStyle=ISO, DMY, extra_float_digits=2, search_path=myschema, public");
-            System.out.println("  实际: DateStyle=" + dateStyleAfterSwitch +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】检查参数值是否正确同步:");
+            LOG.info("  期望: DateStyle=ISO, DMY, extra_float_digits=2, search_path=myschema, public");
+            LOG.info("  实际: DateStyle=" + dateStyleAfterSwitch +
                              ", extra_float_digits=" + extraFloatDigitsAfterSwitch +
                              ", search_path=" + searchPathAfterSwitch);
             if (paramsCorrect) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 参数已正确同步到读节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 参数已正确同步到读节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 参数未正确同步" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 参数未正确同步" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
-            System.out.println(YELLOW + "步骤2完成\n" + RESET);
+            LOG.info(YELLOW + "步骤2完成\n" + RESET);
             Thread.sleep(100);
 
             // ============ 步骤3：RESET ALL并切换回写节点 ============
-            System.out.println(YELLOW + "步骤3：RESET ALL并切换回写节点..." + RESET);
+            LOG.info(YELLOW + "步骤3：RESET ALL并切换回写节点..." + RESET);
 
             printSql(1, "RESET ALL", protocolName);
             executeUpdate(conn1, "RESET ALL", useExtendedProtocol);
@@ -2098,24 +2304,24 @@ public class GucSyncScenarioTest {
                                  normalizeGucValue(extraFloatDigitsAfterReset).equals("1") &&
                                  normalizeGucValue(searchPathAfterReset).equals(normalizeGucValue(defaultSearchPath));
 
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】检查参数值是否恢复默认值:");
-            System.out.println("  期望: DateStyle=" + defaultDateStyle +
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】检查参数值是否恢复默认值:");
+            LOG.info("  期望: DateStyle=" + defaultDateStyle +
                              ", extra_float_digits=1" +
                              ", search_path=" + defaultSearchPath);
-            System.out.println("  实际: DateStyle=" + dateStyleAfterReset +
+            LOG.info("  实际: DateStyle=" + dateStyleAfterReset +
                              ", extra_float_digits=" + extraFloatDigitsAfterReset +
                              ", search_path=" + searchPathAfterReset);
             if (paramsReset) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 参数已恢复默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 参数已恢复默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 参数未恢复默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 参数未恢复默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
 
             // 记录测试结果
             recordResult("测试读写前后换，GUC参数的同步", "读写切换GUC同步（" + protocolName + "）",
@@ -2124,7 +2330,7 @@ public class GucSyncScenarioTest {
 
         } finally {
             if (conn1 != null) {
-                try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
+                try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
             }
         }
     }
@@ -2132,16 +2338,16 @@ public class GucSyncScenarioTest {
     // ==================== 测试用例2.10：测试常用guc参数读写切换 ====================
 
     public void testCase2_10_CommonGucReadWriteSwitch_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.10-Simple协议】测试常用guc参数读写切换");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.10-Simple协议】测试常用guc参数读写切换");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_10_CommonGucReadWriteSwitch(false, "Simple协议");
     }
 
     public void testCase2_10_CommonGucReadWriteSwitch_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.10-Extended协议】测试常用guc参数读写切换");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.10-Extended协议】测试常用guc参数读写切换");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_10_CommonGucReadWriteSwitch(true, "Extended协议");
     }
 
@@ -2157,33 +2363,33 @@ public class GucSyncScenarioTest {
 
         try {
             String url = getUrlWithProtocol(useExtendedProtocol);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 事务外执行
 
             // ============ 步骤1：首次连接分配的是写节点 ============
-            System.out.println(YELLOW + "步骤1：首次连接分配写节点..." + RESET);
+            LOG.info(YELLOW + "步骤1：首次连接分配写节点..." + RESET);
 
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user, pg_is_in_recovery()", protocolName);
             BackendInfo backend1 = getBackendInfoWithRecovery(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接1信息: " + backend1 + RESET);
+            LOG.info(BLUE + "  → 后端连接1信息: " + backend1 + RESET);
 
             // 检测点1：首次连接分配的是写节点，pg_is_in_recovery = f
             boolean isWriteNode = !backend1.isInRecovery;
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点1】检查首次连接是否分配到写节点:");
-            System.out.println("  期望: pg_is_in_recovery = false (写节点)");
-            System.out.println("  实际: pg_is_in_recovery = " + backend1.isInRecovery);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点1】检查首次连接是否分配到写节点:");
+            LOG.info("  期望: pg_is_in_recovery = false (写节点)");
+            LOG.info("  实际: pg_is_in_recovery = " + backend1.isInRecovery);
             if (isWriteNode) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已分配到写节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已分配到写节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 未分配到写节点" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 未分配到写节点" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点1失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
             // 记录默认值 - 19个参数 (排除client_encoding因为有限制，排除transaction_isolation和transaction_read_only因为是事务级别参数)
-            System.out.println(GREEN + "  → 开始记录19个GUC参数的默认值..." + RESET);
+            LOG.info(GREEN + "  → 开始记录19个GUC参数的默认值..." + RESET);
             
             printSql(1, "SHOW default_transaction_read_only", protocolName);
             String defaultTransactionReadOnly = getGucValue(conn1, "default_transaction_read_only", useExtendedProtocol);
@@ -2239,10 +2445,10 @@ public class GucSyncScenarioTest {
             printSql(1, "SHOW enable_seqscan", protocolName);
             String defaultEnableSeqscan = getGucValue(conn1, "enable_seqscan", useExtendedProtocol);
 
-            System.out.println(GREEN + "  → 记录19个GUC参数默认值完成" + RESET);
+            LOG.info(GREEN + "  → 记录19个GUC参数默认值完成" + RESET);
 
             // 设置19个GUC参数
-            System.out.println(GREEN + "  → 开始设置19个GUC参数..." + RESET);
+            LOG.info(GREEN + "  → 开始设置19个GUC参数..." + RESET);
             
             // 注意: default_transaction_read_only, session_authorization, client_encoding 通常不能在普通会话中修改
             // transaction_isolation 和 transaction_read_only 是事务级别参数，不适合此测试
@@ -2299,38 +2505,38 @@ public class GucSyncScenarioTest {
             printSql(1, "SET enable_seqscan = off", protocolName);
             executeUpdate(conn1, "SET enable_seqscan = off", useExtendedProtocol);
             
-            System.out.println(GREEN + "  → 19个GUC参数设置完成" + RESET);
+            LOG.info(GREEN + "  → 19个GUC参数设置完成" + RESET);
 
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成\n" + RESET);
             Thread.sleep(100);
 
             // ============ 步骤2：切换到读节点 ============
-            System.out.println(YELLOW + "步骤2：切换到读节点..." + RESET);
+            LOG.info(YELLOW + "步骤2：切换到读节点..." + RESET);
 
             printSql(1, "SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY", protocolName);
             executeUpdate(conn1, "SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY", useExtendedProtocol);
 
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user, pg_is_in_recovery()", protocolName);
             BackendInfo backend2 = getBackendInfoWithRecovery(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接信息: " + backend2 + RESET);
+            LOG.info(BLUE + "  → 后端连接信息: " + backend2 + RESET);
 
             // 检测点2：连接切换，且 pg_is_in_recovery = t 或 port=25432（多活场景下读节点端口为25432）
             boolean switchedToRead = backend2.isInRecovery || backend2.port == 25432;
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点2】检查是否切换到读节点:");
-            System.out.println("  期望: pg_is_in_recovery = true 或 port = 25432 (读节点)");
-            System.out.println("  实际: pg_is_in_recovery = " + backend2.isInRecovery + ", port = " + backend2.port);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点2】检查是否切换到读节点:");
+            LOG.info("  期望: pg_is_in_recovery = true 或 port = 25432 (读节点)");
+            LOG.info("  实际: pg_is_in_recovery = " + backend2.isInRecovery + ", port = " + backend2.port);
             if (switchedToRead) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 已切换到读节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 已切换到读节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 未切换到读节点" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 未切换到读节点" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点2失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
             // 检测点3：检查19个参数值是否正确同步
-            System.out.println(GREEN + "  → 开始检查19个GUC参数是否同步..." + RESET);
+            LOG.info(GREEN + "  → 开始检查19个GUC参数是否同步..." + RESET);
             
             printSql(1, "SHOW default_transaction_read_only", protocolName);
             String defaultTxnReadOnlyAfterSwitch = getGucValue(conn1, "default_transaction_read_only", useExtendedProtocol);
@@ -2408,41 +2614,41 @@ public class GucSyncScenarioTest {
                                    normalizeGucValue(xmloptionAfterSwitch).equals("content") &&
                                    normalizeGucValue(enableSeqscanAfterSwitch).equals("off");
 
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点3】检查19个常用GUC参数值是否正确同步:");
-            System.out.println("  期望: default_transaction_read_only=" + defaultTransactionReadOnly + " (不变)");
-            System.out.println("        standard_conforming_strings=off, DateStyle=ISO, DMY");
-            System.out.println("        TimeZone=UTC, application_name=test_app, IntervalStyle=sql_standard");
-            System.out.println("        work_mem=8MB, maintenance_work_mem=16MB, temp_buffers=16MB");
-            System.out.println("        logical_decoding_work_mem=128MB");
-            System.out.println("        statement_timeout=30s, lock_timeout=10s, idle_in_transaction_session_timeout=1min");
-            System.out.println("        search_path=myschema, public");
-            System.out.println("        extra_float_digits=2, bytea_output=escape, xmloption=content, enable_seqscan=off");
-            System.out.println("  实际: default_transaction_read_only=" + defaultTxnReadOnlyAfterSwitch);
-            System.out.println("        standard_conforming_strings=" + scsAfterSwitch);
-            System.out.println("        DateStyle=" + dateStyleAfterSwitch + ", TimeZone=" + timeZoneAfterSwitch);
-            System.out.println("        application_name=" + appNameAfterSwitch + ", IntervalStyle=" + intervalStyleAfterSwitch);
-            System.out.println("        work_mem=" + workMemAfterSwitch + ", maintenance_work_mem=" + maintenanceWorkMemAfterSwitch);
-            System.out.println("        temp_buffers=" + tempBuffersAfterSwitch + ", logical_decoding_work_mem=" + logicalDecodingWorkMemAfterSwitch);
-            System.out.println("        statement_timeout=" + stmtTimeoutAfterSwitch + ", lock_timeout=" + lockTimeoutAfterSwitch);
-            System.out.println("        idle_in_transaction_session_timeout=" + idleTimeoutAfterSwitch);
-            System.out.println("        search_path=" + searchPathAfterSwitch);
-            System.out.println("        extra_float_digits=" + extraFloatDigitsAfterSwitch + ", bytea_output=" + byteaOutputAfterSwitch);
-            System.out.println("        xmloption=" + xmloptionAfterSwitch + ", enable_seqscan=" + enableSeqscanAfterSwitch);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点3】检查19个常用GUC参数值是否正确同步:");
+            LOG.info("  期望: default_transaction_read_only=" + defaultTransactionReadOnly + " (不变)");
+            LOG.info("        standard_conforming_strings=off, DateStyle=ISO, DMY");
+            LOG.info("        TimeZone=UTC, application_name=test_app, IntervalStyle=sql_standard");
+            LOG.info("        work_mem=8MB, maintenance_work_mem=16MB, temp_buffers=16MB");
+            LOG.info("        logical_decoding_work_mem=128MB");
+            LOG.info("        statement_timeout=30s, lock_timeout=10s, idle_in_transaction_session_timeout=1min");
+            LOG.info("        search_path=myschema, public");
+            LOG.info("        extra_float_digits=2, bytea_output=escape, xmloption=content, enable_seqscan=off");
+            LOG.info("  实际: default_transaction_read_only=" + defaultTxnReadOnlyAfterSwitch);
+            LOG.info("        standard_conforming_strings=" + scsAfterSwitch);
+            LOG.info("        DateStyle=" + dateStyleAfterSwitch + ", TimeZone=" + timeZoneAfterSwitch);
+            LOG.info("        application_name=" + appNameAfterSwitch + ", IntervalStyle=" + intervalStyleAfterSwitch);
+            LOG.info("        work_mem=" + workMemAfterSwitch + ", maintenance_work_mem=" + maintenanceWorkMemAfterSwitch);
+            LOG.info("        temp_buffers=" + tempBuffersAfterSwitch + ", logical_decoding_work_mem=" + logicalDecodingWorkMemAfterSwitch);
+            LOG.info("        statement_timeout=" + stmtTimeoutAfterSwitch + ", lock_timeout=" + lockTimeoutAfterSwitch);
+            LOG.info("        idle_in_transaction_session_timeout=" + idleTimeoutAfterSwitch);
+            LOG.info("        search_path=" + searchPathAfterSwitch);
+            LOG.info("        extra_float_digits=" + extraFloatDigitsAfterSwitch + ", bytea_output=" + byteaOutputAfterSwitch);
+            LOG.info("        xmloption=" + xmloptionAfterSwitch + ", enable_seqscan=" + enableSeqscanAfterSwitch);
             if (paramsCorrect) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有19个常用GUC参数已正确同步到读节点" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有19个常用GUC参数已正确同步到读节点" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数未正确同步" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数未正确同步" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点3失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
-            System.out.println(YELLOW + "步骤2完成\n" + RESET);
+            LOG.info(YELLOW + "步骤2完成\n" + RESET);
             Thread.sleep(100);
 
             // ============ 步骤3：RESET ALL并切换回写节点 ============
-            System.out.println(YELLOW + "步骤3：RESET ALL并切换回写节点..." + RESET);
+            LOG.info(YELLOW + "步骤3：RESET ALL并切换回写节点..." + RESET);
 
             printSql(1, "RESET ALL", protocolName);
             executeUpdate(conn1, "RESET ALL", useExtendedProtocol);
@@ -2451,7 +2657,7 @@ public class GucSyncScenarioTest {
             executeUpdate(conn1, "SET SESSION CHARACTERISTICS AS TRANSACTION READ WRITE", useExtendedProtocol);
 
             // 检测点4：检查19个参数值是否都恢复默认值
-            System.out.println(GREEN + "  → 开始检查19个GUC参数是否恢复默认值..." + RESET);
+            LOG.info(GREEN + "  → 开始检查19个GUC参数是否恢复默认值..." + RESET);
             
             printSql(1, "SHOW default_transaction_read_only", protocolName);
             String defaultTxnReadOnlyAfterReset = getGucValue(conn1, "default_transaction_read_only", useExtendedProtocol);
@@ -2497,31 +2703,31 @@ public class GucSyncScenarioTest {
                                  normalizeGucValue(xmloptionAfterReset).equals(normalizeGucValue(defaultXmloption)) &&
                                  normalizeGucValue(enableSeqscanAfterReset).equals(normalizeGucValue(defaultEnableSeqscan));
 
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【检测点4】检查19个常用GUC参数值是否恢复默认值:");
-            System.out.println("  期望: default_transaction_read_only=" + defaultTransactionReadOnly);
-            System.out.println("        standard_conforming_strings=" + defaultStandardConformingStrings);
-            System.out.println("        DateStyle=" + defaultDateStyle + ", TimeZone=" + defaultTimeZone);
-            System.out.println("        IntervalStyle=" + defaultIntervalStyle + ", search_path=" + defaultSearchPath);
-            System.out.println("        extra_float_digits=1, bytea_output=" + defaultByteaOutput);
-            System.out.println("        xmloption=" + defaultXmloption + ", enable_seqscan=" + defaultEnableSeqscan);
-            System.out.println("        (内存/超时参数已恢复默认值)");
-            System.out.println("  实际: default_transaction_read_only=" + defaultTxnReadOnlyAfterReset);
-            System.out.println("        standard_conforming_strings=" + scsAfterReset);
-            System.out.println("        DateStyle=" + dateStyleAfterReset + ", TimeZone=" + timeZoneAfterReset);
-            System.out.println("        IntervalStyle=" + intervalStyleAfterReset + ", search_path=" + searchPathAfterReset);
-            System.out.println("        extra_float_digits=" + extraFloatDigitsAfterReset + ", bytea_output=" + byteaOutputAfterReset);
-            System.out.println("        xmloption=" + xmloptionAfterReset + ", enable_seqscan=" + enableSeqscanAfterReset);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【检测点4】检查19个常用GUC参数值是否恢复默认值:");
+            LOG.info("  期望: default_transaction_read_only=" + defaultTransactionReadOnly);
+            LOG.info("        standard_conforming_strings=" + defaultStandardConformingStrings);
+            LOG.info("        DateStyle=" + defaultDateStyle + ", TimeZone=" + defaultTimeZone);
+            LOG.info("        IntervalStyle=" + defaultIntervalStyle + ", search_path=" + defaultSearchPath);
+            LOG.info("        extra_float_digits=1, bytea_output=" + defaultByteaOutput);
+            LOG.info("        xmloption=" + defaultXmloption + ", enable_seqscan=" + defaultEnableSeqscan);
+            LOG.info("        (内存/超时参数已恢复默认值)");
+            LOG.info("  实际: default_transaction_read_only=" + defaultTxnReadOnlyAfterReset);
+            LOG.info("        standard_conforming_strings=" + scsAfterReset);
+            LOG.info("        DateStyle=" + dateStyleAfterReset + ", TimeZone=" + timeZoneAfterReset);
+            LOG.info("        IntervalStyle=" + intervalStyleAfterReset + ", search_path=" + searchPathAfterReset);
+            LOG.info("        extra_float_digits=" + extraFloatDigitsAfterReset + ", bytea_output=" + byteaOutputAfterReset);
+            LOG.info("        xmloption=" + xmloptionAfterReset + ", enable_seqscan=" + enableSeqscanAfterReset);
             if (paramsReset) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有19个常用GUC参数已恢复默认值" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有19个常用GUC参数已恢复默认值" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 部分参数未恢复默认值" + RESET);
                 allPassed = false;
                 failureDetails.append("检测点4失败; ");
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
 
-            System.out.println(YELLOW + "步骤3完成\n" + RESET);
+            LOG.info(YELLOW + "步骤3完成\n" + RESET);
 
             // 记录测试结果
             recordResult("测试常用guc参数读写切换", "常用GUC参数读写切换（" + protocolName + "）",
@@ -2530,7 +2736,7 @@ public class GucSyncScenarioTest {
 
         } finally {
             if (conn1 != null) {
-                try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
+                try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
             }
         }
     }
@@ -2538,16 +2744,16 @@ public class GucSyncScenarioTest {
     // ==================== 测试用例2.8：无效GUC参数错误信息 ====================
 
     public void testCase2_8_InvalidGucError_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.8-Simple协议】无效GUC参数错误信息测试");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.8-Simple协议】无效GUC参数错误信息测试");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_8_InvalidGucError(false, "Simple协议");
     }
 
     public void testCase2_8_InvalidGucError_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.8-Extended协议】无效GUC参数错误信息测试");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.8-Extended协议】无效GUC参数错误信息测试");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_8_InvalidGucError(true, "Extended协议");
     }
 
@@ -2565,26 +2771,26 @@ public class GucSyncScenarioTest {
 
         try {
             String url = getUrlWithProtocol(useExtendedProtocol);
-            conn = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn.setAutoCommit(true);
 
-            System.out.println(YELLOW + "步骤1：客户端连接1设置无效的GUC参数..." + RESET);
+            LOG.info(YELLOW + "步骤1：客户端连接1设置无效的GUC参数..." + RESET);
             printSql(1, "SET A = 1", protocolName);
 
             try {
                 executeUpdate(conn, "SET A = 1", useExtendedProtocol);
-                System.out.println(YELLOW + "  → SET命令未立即抛出错误，准备执行后续查询触发同步" + RESET);
+                LOG.info(YELLOW + "  → SET命令未立即抛出错误，准备执行后续查询触发同步" + RESET);
             } catch (SQLException e) {
                 errorCaptured = true;
                 errorStage = "SET";
                 sqlState = e.getSQLState();
                 errorCode = e.getErrorCode();
                 errorMessage = e.getMessage();
-                System.out.println(GREEN + "  → 捕获到错误: " + summarizeSqlException(e) + RESET);
+                LOG.info(GREEN + "  → 捕获到错误: " + summarizeSqlException(e) + RESET);
             }
 
             if (!errorCaptured) {
-                System.out.println(YELLOW + "步骤2：执行SELECT 2触发GUC同步..." + RESET);
+                LOG.info(YELLOW + "步骤2：执行SELECT 2触发GUC同步..." + RESET);
                 printSql(1, "SELECT 2", protocolName);
                 try {
                     if (useExtendedProtocol) {
@@ -2596,14 +2802,14 @@ public class GucSyncScenarioTest {
                             stmt.executeQuery("SELECT 2");
                         }
                     }
-                    System.out.println(RED + "  → 未捕获到预期错误" + RESET);
+                    LOG.error(RED + "  → 未捕获到预期错误" + RESET);
                 } catch (SQLException e) {
                     errorCaptured = true;
                     errorStage = "SELECT";
                     sqlState = e.getSQLState();
                     errorCode = e.getErrorCode();
                     errorMessage = e.getMessage();
-                    System.out.println(GREEN + "  → 捕获到错误: " + summarizeSqlException(e) + RESET);
+                    LOG.info(GREEN + "  → 捕获到错误: " + summarizeSqlException(e) + RESET);
                 }
             }
 
@@ -2618,9 +2824,9 @@ public class GucSyncScenarioTest {
             }
 
             if (!passed) {
-                System.out.println(RED + "【检测点】未能捕获到错误信息" + RESET);
+                LOG.error(RED + "【检测点】未能捕获到错误信息" + RESET);
             } else {
-                System.out.println(GREEN + "【检测点】已成功捕获错误信息" + RESET);
+                LOG.info(GREEN + "【检测点】已成功捕获错误信息" + RESET);
             }
 
             recordResult("GUC参数错误信息", "无效参数错误（" + protocolName + "）", expected, actual, passed, passed ? "通过" : "失败");
@@ -2629,7 +2835,7 @@ public class GucSyncScenarioTest {
                 try {
                     conn.close();
                 } catch (SQLException e) {
-                    e.printStackTrace();
+                    LOG.error("关闭连接失败", e);
                 }
             }
         }
@@ -2642,9 +2848,9 @@ public class GucSyncScenarioTest {
      * 目标：反复执行SET RESET SET RESET ALL，看是否有内存泄漏
      */
     public void testCase2_7_MemoryLeakTest_SimpleProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.7-Simple协议】内存泄漏测试 - 循环1000次执行SET/RESET操作");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.7-Simple协议】内存泄漏测试 - 循环1000次执行SET/RESET操作");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_7_MemoryLeak(false, "Simple协议");
     }
     
@@ -2653,9 +2859,9 @@ public class GucSyncScenarioTest {
      * 目标：反复执行SET RESET SET RESET ALL，看是否有内存泄漏
      */
     public void testCase2_7_MemoryLeakTest_ExtendedProtocol() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【用例2.7-Extended协议】内存泄漏测试 - 循环1000次执行SET/RESET操作");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【用例2.7-Extended协议】内存泄漏测试 - 循环1000次执行SET/RESET操作");
+        LOG.info(BANNER_LINE + "\n");
         executeTestCase2_7_MemoryLeak(true, "Extended协议");
     }
     
@@ -2675,15 +2881,15 @@ public class GucSyncScenarioTest {
             String url = getUrlWithProtocol(useExtendedProtocol);
             
             // ============ 步骤1：客户端连接1循环执行1000次 ============
-            System.out.println(YELLOW + "步骤1：客户端连接1开始循环执行SET/RESET操作（共1000次）..." + RESET);
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤1：客户端连接1开始循环执行SET/RESET操作（共1000次）..." + RESET);
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true); // 事务外执行
             
             // 获取后端连接信息
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend1 = getBackendInfo(conn1, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接: " + backend1 + RESET);
-            System.out.println(YELLOW + "  → 开始循环执行..." + RESET);
+            LOG.info(BLUE + "  → 后端连接: " + backend1 + RESET);
+            LOG.info(YELLOW + "  → 开始循环执行..." + RESET);
             
             long startTime = System.currentTimeMillis();
             int loopCount = 1000;
@@ -2706,15 +2912,15 @@ public class GucSyncScenarioTest {
                     
                     // 每100次打印一次进度
                     if (i % 100 == 0) {
-                        System.out.println(GREEN + "  → 已完成 " + i + "/" + loopCount + " 次循环" + RESET);
+                        LOG.info(GREEN + "  → 已完成 " + i + "/" + loopCount + " 次循环" + RESET);
                     }
                     
                 } catch (SQLException e) {
                     errorCount++;
-                    System.err.println(RED + "  → 第 " + i + " 次循环出错: " + e.getMessage() + RESET);
+                    LOG.error(RED + "  → 第 " + i + " 次循环出错: " + e.getMessage() + RESET);
                     if (errorCount > 10) {
                         // 如果错误超过10次，停止测试
-                        System.err.println(RED + "  → 错误次数过多，停止测试" + RESET);
+                        LOG.error(RED + "  → 错误次数过多，停止测试" + RESET);
                         allPassed = false;
                         failureDetails.append("循环执行出错次数过多(>" + errorCount + "); ");
                         break;
@@ -2725,52 +2931,52 @@ public class GucSyncScenarioTest {
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【测试总结】内存泄漏测试完成:");
-            System.out.println("  循环次数: " + loopCount);
-            System.out.println("  错误次数: " + errorCount);
-            System.out.println("  执行时间: " + duration + " ms");
-            System.out.println("  平均每次: " + (duration * 1.0 / loopCount) + " ms");
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【测试总结】内存泄漏测试完成:");
+            LOG.info("  循环次数: " + loopCount);
+            LOG.info("  错误次数: " + errorCount);
+            LOG.info("  执行时间: " + duration + " ms");
+            LOG.info("  平均每次: " + (duration * 1.0 / loopCount) + " ms");
             
             if (errorCount == 0) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有循环执行成功，无错误" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有循环执行成功，无错误" + RESET);
             } else if (errorCount <= 10) {
-                System.out.println(YELLOW + "  结果: ⚠ 警告 - 有 " + errorCount + " 次执行出错，但在可接受范围内" + RESET);
+                LOG.warn(YELLOW + "  结果: ⚠ 警告 - 有 " + errorCount + " 次执行出错，但在可接受范围内" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 错误次数过多" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 错误次数过多" + RESET);
                 allPassed = false;
             }
-            System.out.println("  说明: 此测试主要用于观察内存使用情况，需要通过外部工具监控内存");
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info("  说明: 此测试主要用于观察内存使用情况，需要通过外部工具监控内存");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 验证连接仍然可用
             printSql(1, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backendFinal = getBackendInfo(conn1, useExtendedProtocol);
             
             boolean sameBackend = backend1.pid.equals(backendFinal.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【连接验证】验证后端连接是否稳定:");
-            System.out.println("  期望: 使用同一个后端连接 (pid相同)");
-            System.out.println("  实际: 初始pid=" + backend1.pid + ", 最终pid=" + backendFinal.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【连接验证】验证后端连接是否稳定:");
+            LOG.info("  期望: 使用同一个后端连接 (pid相同)");
+            LOG.info("  实际: 初始pid=" + backend1.pid + ", 最终pid=" + backendFinal.pid);
             if (sameBackend) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接稳定" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接稳定" + RESET);
             } else {
-                System.out.println(YELLOW + "  结果: ⚠ 警告 - 后端连接发生了变化" + RESET);
+                LOG.warn(YELLOW + "  结果: ⚠ 警告 - 后端连接发生了变化" + RESET);
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
-            System.out.println(YELLOW + "步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "步骤1完成\n" + RESET);
             
             // ============ 步骤2：客户端连接2循环执行1000次（命令不同） ============
-            System.out.println(YELLOW + "步骤2：客户端连接2开始循环执行SET/RESET操作（共1000次）..." + RESET);
-            conn2 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            LOG.info(YELLOW + "步骤2：客户端连接2开始循环执行SET/RESET操作（共1000次）..." + RESET);
+            conn2 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn2.setAutoCommit(true); // 事务外执行
             
             // 获取后端连接信息
             printSql(2, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backend2 = getBackendInfo(conn2, useExtendedProtocol);
-            System.out.println(BLUE + "  → 后端连接2: " + backend2 + RESET);
-            System.out.println(YELLOW + "  → 开始循环执行..." + RESET);
+            LOG.info(BLUE + "  → 后端连接2: " + backend2 + RESET);
+            LOG.info(YELLOW + "  → 开始循环执行..." + RESET);
             
             long startTime2 = System.currentTimeMillis();
             int errorCount2 = 0;
@@ -2789,15 +2995,15 @@ public class GucSyncScenarioTest {
                     
                     // 每100次打印一次进度
                     if (i % 100 == 0) {
-                        System.out.println(GREEN + "  → 已完成 " + i + "/" + loopCount + " 次循环" + RESET);
+                        LOG.info(GREEN + "  → 已完成 " + i + "/" + loopCount + " 次循环" + RESET);
                     }
                     
                 } catch (SQLException e) {
                     errorCount2++;
-                    System.err.println(RED + "  → 第 " + i + " 次循环出错: " + e.getMessage() + RESET);
+                    LOG.error(RED + "  → 第 " + i + " 次循环出错: " + e.getMessage() + RESET);
                     if (errorCount2 > 10) {
                         // 如果错误超过10次，停止测试
-                        System.err.println(RED + "  → 错误次数过多，停止测试" + RESET);
+                        LOG.error(RED + "  → 错误次数过多，停止测试" + RESET);
                         allPassed = false;
                         failureDetails.append("连接2循环执行出错次数过多(>" + errorCount2 + "); ");
                         break;
@@ -2808,40 +3014,40 @@ public class GucSyncScenarioTest {
             long endTime2 = System.currentTimeMillis();
             long duration2 = endTime2 - startTime2;
             
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【测试总结-连接2】内存泄漏测试完成:");
-            System.out.println("  循环次数: " + loopCount);
-            System.out.println("  错误次数: " + errorCount2);
-            System.out.println("  执行时间: " + duration2 + " ms");
-            System.out.println("  平均每次: " + (duration2 * 1.0 / loopCount) + " ms");
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【测试总结-连接2】内存泄漏测试完成:");
+            LOG.info("  循环次数: " + loopCount);
+            LOG.info("  错误次数: " + errorCount2);
+            LOG.info("  执行时间: " + duration2 + " ms");
+            LOG.info("  平均每次: " + (duration2 * 1.0 / loopCount) + " ms");
             
             if (errorCount2 == 0) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 所有循环执行成功，无错误" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 所有循环执行成功，无错误" + RESET);
             } else if (errorCount2 <= 10) {
-                System.out.println(YELLOW + "  结果: ⚠ 警告 - 有 " + errorCount2 + " 次执行出错，但在可接受范围内" + RESET);
+                LOG.warn(YELLOW + "  结果: ⚠ 警告 - 有 " + errorCount2 + " 次执行出错，但在可接受范围内" + RESET);
             } else {
-                System.out.println(RED + "  结果: ✗ 失败 - 错误次数过多" + RESET);
+                LOG.error(RED + "  结果: ✗ 失败 - 错误次数过多" + RESET);
                 allPassed = false;
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
             // 验证连接2仍然可用
             printSql(2, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user", protocolName);
             BackendInfo backendFinal2 = getBackendInfo(conn2, useExtendedProtocol);
             
             boolean sameBackend2 = backend2.pid.equals(backendFinal2.pid);
-            System.out.println("\n" + "─".repeat(100));
-            System.out.println("【连接验证-连接2】验证后端连接是否稳定:");
-            System.out.println("  期望: 使用同一个后端连接 (pid相同)");
-            System.out.println("  实际: 初始pid=" + backend2.pid + ", 最终pid=" + backendFinal2.pid);
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【连接验证-连接2】验证后端连接是否稳定:");
+            LOG.info("  期望: 使用同一个后端连接 (pid相同)");
+            LOG.info("  实际: 初始pid=" + backend2.pid + ", 最终pid=" + backendFinal2.pid);
             if (sameBackend2) {
-                System.out.println(GREEN + "  结果: ✓ 通过 - 后端连接稳定" + RESET);
+                LOG.info(GREEN + "  结果: ✓ 通过 - 后端连接稳定" + RESET);
             } else {
-                System.out.println(YELLOW + "  结果: ⚠ 警告 - 后端连接发生了变化" + RESET);
+                LOG.warn(YELLOW + "  结果: ⚠ 警告 - 后端连接发生了变化" + RESET);
             }
-            System.out.println("─".repeat(100) + "\n");
+            LOG.info(CHECKPOINT_LINE + "\n");
             
-            System.out.println(YELLOW + "步骤2完成\n" + RESET);
+            LOG.info(YELLOW + "步骤2完成\n" + RESET);
             
             // 记录测试结果
             String resultDetail = "连接1: 循环=" + loopCount + ", 错误=" + errorCount + ", 时间=" + duration + "ms; " +
@@ -2853,64 +3059,64 @@ public class GucSyncScenarioTest {
                         (allPassed && errorCount == 0 && errorCount2 == 0) ? "通过" : ((errorCount <= 10 && errorCount2 <= 10) ? "警告" : "失败"));
             
             // ============ 保持2个连接10分钟，用于观察内存情况 ============
-            System.out.println("\n" + "=".repeat(100));
-            System.out.println(YELLOW + "【内存观察期】保持2个连接打开，休眠10分钟以便观察内存使用情况..." + RESET);
-            System.out.println("  后端连接1: " + backendFinal);
-            System.out.println("  后端连接2: " + backendFinal2);
-            System.out.println("  建议：使用 jmap、jvisualvm 等工具监控 JVM 内存");
-            System.out.println("  建议：在数据库端监控连接的内存占用");
-            System.out.println("  休眠开始时间: " + new java.util.Date());
-            System.out.println("=".repeat(100));
+            LOG.info("\n" + BANNER_LINE);
+            LOG.info(YELLOW + "【内存观察期】保持2个连接打开，休眠10分钟以便观察内存使用情况..." + RESET);
+            LOG.info("  后端连接1: " + backendFinal);
+            LOG.info("  后端连接2: " + backendFinal2);
+            LOG.info("  建议：使用 jmap、jvisualvm 等工具监控 JVM 内存");
+            LOG.info("  建议：在数据库端监控连接的内存占用");
+            LOG.info("  休眠开始时间: " + new java.util.Date());
+            LOG.info(BANNER_LINE);
             
             for (int i = 1; i <= 10; i++) {
                 Thread.sleep(60000); // 休眠1分钟
-                System.out.println(GREEN + "  → 已等待 " + i + "/10 分钟，连接保持打开状态..." + RESET);
+                LOG.info(GREEN + "  → 已等待 " + i + "/10 分钟，连接保持打开状态..." + RESET);
             }
             
-            System.out.println("\n" + "=".repeat(100));
-            System.out.println(YELLOW + "【内存观察期结束】休眠结束时间: " + new java.util.Date() + RESET);
-            System.out.println("  即将关闭2个连接（连接1和连接2）...");
-            System.out.println("=".repeat(100) + "\n");
+            LOG.info("\n" + BANNER_LINE);
+            LOG.info(YELLOW + "【内存观察期结束】休眠结束时间: " + new java.util.Date() + RESET);
+            LOG.info("  即将关闭2个连接（连接1和连接2）...");
+            LOG.info(BANNER_LINE + "\n");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
-            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
+            if (conn2 != null) try { conn2.close(); } catch (SQLException e) { LOG.error("关闭连接2失败", e); }
         }
     }
 
     // ==================== 测试用例：Pipeline模式测试（使用QueryExecutor反射） ====================
     
     public void testCase_SimpleTest() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【Pipeline模式测试】客户端连接后10秒倒计时，使用Pipeline方式执行SQL");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【Pipeline模式测试】客户端连接后10秒倒计时，使用Pipeline方式执行SQL");
+        LOG.info(BANNER_LINE + "\n");
         
         Connection conn1 = null;
         
         try {
             // 步骤1：客户端连接1执行
-            System.out.println(YELLOW + "步骤1：客户端连接1开始执行..." + RESET);
+            LOG.info(YELLOW + "步骤1：客户端连接1开始执行..." + RESET);
             String url = getUrlWithProtocol(false); // 使用Simple协议
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true);
             
             // 连接后等10秒，每过一秒屏幕打印倒计时
-            System.out.println(GREEN + "  → 连接成功，开始10秒倒计时..." + RESET);
+            LOG.info(GREEN + "  → 连接成功，开始10秒倒计时..." + RESET);
             for (int i = 10; i > 0; i--) {
-                System.out.println("  倒计时: " + i + " 秒");
+                LOG.info("  倒计时: " + i + " 秒");
                 Thread.sleep(1000);
             }
             
             // 开始执行前打印开始执行
-            System.out.println(GREEN + "  → 开始执行SQL语句（Pipeline模式）..." + RESET);
+            LOG.info(GREEN + "  → 开始执行SQL语句（Pipeline模式）..." + RESET);
             
             // 尝试使用反射访问QueryExecutor实现Pipeline
             try {
-                System.out.println(BLUE + "\n=== 尝试使用QueryExecutor实现Pipeline ===" + RESET);
+                LOG.info(BLUE + "\n=== 尝试使用QueryExecutor实现Pipeline ===" + RESET);
                 
                 // 获取底层的PgConnection
                 Connection unwrapped = conn1.unwrap(Connection.class);
-                System.out.println(BLUE + "  → 连接类型: " + unwrapped.getClass().getName() + RESET);
+                LOG.info(BLUE + "  → 连接类型: " + unwrapped.getClass().getName() + RESET);
                 
                 // 尝试反射获取queryExecutor字段
                 Class<?> connClass = unwrapped.getClass();
@@ -2928,28 +3134,28 @@ public class GucSyncScenarioTest {
                 if (queryExecutorField != null) {
                     queryExecutorField.setAccessible(true);
                     Object queryExecutor = queryExecutorField.get(unwrapped);
-                    System.out.println(GREEN + "  → 成功获取QueryExecutor: " + queryExecutor.getClass().getName() + RESET);
+                    LOG.info(GREEN + "  → 成功获取QueryExecutor: " + queryExecutor.getClass().getName() + RESET);
                     
                     // 查看QueryExecutor的方法
-                    System.out.println(BLUE + "  → QueryExecutor可用方法:" + RESET);
+                    LOG.info(BLUE + "  → QueryExecutor可用方法:" + RESET);
                     for (java.lang.reflect.Method method : queryExecutor.getClass().getMethods()) {
                         if (method.getName().contains("send") || method.getName().contains("execute")) {
-                            System.out.println("     - " + method.getName() + "()");
+                            LOG.info("     - " + method.getName() + "()");
                         }
                     }
                     
-                    System.out.println(YELLOW + "\n  注意：QueryExecutor的sendQuery()方法需要特定的参数类型" + RESET);
-                    System.out.println(YELLOW + "  由于API复杂度，这里改用标准JDBC方式演示" + RESET);
+                    LOG.info(YELLOW + "\n  注意：QueryExecutor的sendQuery()方法需要特定的参数类型" + RESET);
+                    LOG.info(YELLOW + "  由于API复杂度，这里改用标准JDBC方式演示" + RESET);
                 } else {
-                    System.out.println(YELLOW + "  → 未找到queryExecutor字段，使用标准JDBC方式" + RESET);
+                    LOG.info(YELLOW + "  → 未找到queryExecutor字段，使用标准JDBC方式" + RESET);
                 }
                 
             } catch (Exception e) {
-                System.out.println(YELLOW + "  → 反射访问失败: " + e.getMessage() + RESET);
-                System.out.println(YELLOW + "  → 改用标准JDBC方式" + RESET);
+                LOG.info(YELLOW + "  → 反射访问失败: " + e.getMessage() + RESET);
+                LOG.info(YELLOW + "  → 改用标准JDBC方式" + RESET);
             }
             
-            System.out.println(BLUE + "\n=== 使用标准JDBC执行（作为对比） ===" + RESET);
+            LOG.info(BLUE + "\n=== 使用标准JDBC执行（作为对比） ===" + RESET);
             
             // 执行SQL语句
             printSql(1, "SET DateStyle = ISO, DMY", "Pipeline模式");
@@ -2960,20 +3166,20 @@ public class GucSyncScenarioTest {
             
             printSql(1, "SHOW DateStyle", "Pipeline模式");
             String dateStyleValue = getGucValue(conn1, "DateStyle", false);
-            System.out.println(GREEN + "  → DateStyle: " + dateStyleValue + RESET);
+            LOG.info(GREEN + "  → DateStyle: " + dateStyleValue + RESET);
             
             printSql(1, "SET extra_float_digits = 3", "Pipeline模式");
             executeUpdate(conn1, "SET extra_float_digits = 3", false);
             
-            System.out.println(YELLOW + "\n步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "\n步骤1完成\n" + RESET);
             
-            System.out.println(BLUE + "=".repeat(100));
-            System.out.println("【总结】");
-            System.out.println("1. PostgreSQL JDBC驱动的QueryExecutor确实存在");
-            System.out.println("2. 但其sendQuery()方法需要复杂的参数（Query对象等）");
-            System.out.println("3. 标准JDBC API不直接支持真正的pipeline模式");
-            System.out.println("4. 建议使用JDBC Batch API作为替代方案");
-            System.out.println("=".repeat(100) + RESET);
+            LOG.info(BLUE + BANNER_LINE);
+            LOG.info("【总结】");
+            LOG.info("1. PostgreSQL JDBC驱动的QueryExecutor确实存在");
+            LOG.info("2. 但其sendQuery()方法需要复杂的参数（Query对象等）");
+            LOG.info("3. 标准JDBC API不直接支持真正的pipeline模式");
+            LOG.info("4. 建议使用JDBC Batch API作为替代方案");
+            LOG.info(BANNER_LINE + RESET);
             
             // 记录测试结果
             recordResult("Pipeline模式测试", "客户端连接后10秒倒计时执行SQL（探索QueryExecutor）", 
@@ -2981,37 +3187,37 @@ public class GucSyncScenarioTest {
                         true, "通过");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
         }
     }
     
     // ==================== 测试用例：Pipeline模式测试（使用JDBC Batch） ====================
     
     public void testCase_PipelineMode_Batch() throws SQLException, InterruptedException, Exception {
-        System.out.println("\n" + "=".repeat(100));
-        System.out.println("【Pipeline模式测试 - JDBC Batch方案】客户端连接后10秒倒计时，使用Batch批量执行SQL");
-        System.out.println("=".repeat(100) + "\n");
+        LOG.info("\n" + BANNER_LINE);
+        LOG.info("【Pipeline模式测试 - JDBC Batch方案】客户端连接后10秒倒计时，使用Batch批量执行SQL");
+        LOG.info(BANNER_LINE + "\n");
         
         Connection conn1 = null;
         
         try {
             // 步骤1：客户端连接1执行
-            System.out.println(YELLOW + "步骤1：客户端连接1开始执行..." + RESET);
+            LOG.info(YELLOW + "步骤1：客户端连接1开始执行..." + RESET);
             String url = getUrlWithProtocol(false); // 使用Simple协议
-            conn1 = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn1 = DriverManager.getConnection(url, targetUser(), targetPassword());
             conn1.setAutoCommit(true);
             
             // 连接后等10秒，每过一秒屏幕打印倒计时
-            System.out.println(GREEN + "  → 连接成功，开始10秒倒计时..." + RESET);
+            LOG.info(GREEN + "  → 连接成功，开始10秒倒计时..." + RESET);
             for (int i = 10; i > 0; i--) {
-                System.out.println("  倒计时: " + i + " 秒");
+                LOG.info("  倒计时: " + i + " 秒");
                 Thread.sleep(1000);
             }
             
             // 开始执行前打印开始执行
-            System.out.println(GREEN + "  → 开始执行SQL语句（JDBC Batch Pipeline模式）..." + RESET);
+            LOG.info(GREEN + "  → 开始执行SQL语句（JDBC Batch Pipeline模式）..." + RESET);
             
-            System.out.println(BLUE + "\n=== 使用JDBC Batch实现Pipeline ===" + RESET);
+            LOG.info(BLUE + "\n=== 使用JDBC Batch实现Pipeline ===" + RESET);
             
             // 准备SQL语句
             String[] queries = {
@@ -3023,46 +3229,46 @@ public class GucSyncScenarioTest {
             // 使用Batch批量发送
             Statement stmt = conn1.createStatement();
             
-            System.out.println(BLUE + "  → 添加SQL到Batch（模拟连续发送，不等待响应）:" + RESET);
+            LOG.info(BLUE + "  → 添加SQL到Batch（模拟连续发送，不等待响应）:" + RESET);
             for (String query : queries) {
                 printSql(1, query, "Batch Pipeline模式");
                 stmt.addBatch(query);
-                System.out.println(GREEN + "     ✓ 已添加到Batch，未发送" + RESET);
+                LOG.info(GREEN + "     ✓ 已添加到Batch，未发送" + RESET);
             }
             
-            System.out.println(BLUE + "\n  → 执行Batch（一次性发送所有SQL）..." + RESET);
+            LOG.info(BLUE + "\n  → 执行Batch（一次性发送所有SQL）..." + RESET);
             long startTime = System.currentTimeMillis();
             int[] results = stmt.executeBatch();
             long endTime = System.currentTimeMillis();
             
-            System.out.println(GREEN + "  → Batch执行完成，耗时: " + (endTime - startTime) + "ms" + RESET);
-            System.out.println(BLUE + "  → Batch执行结果:" + RESET);
+            LOG.info(GREEN + "  → Batch执行完成，耗时: " + (endTime - startTime) + "ms" + RESET);
+            LOG.info(BLUE + "  → Batch执行结果:" + RESET);
             for (int i = 0; i < results.length; i++) {
-                System.out.println("     SQL[" + i + "]: " + queries[i] + " -> 结果: " + results[i]);
+                LOG.info("     SQL[" + i + "]: " + queries[i] + " -> 结果: " + results[i]);
             }
             
             // 验证结果
-            System.out.println(BLUE + "\n  → 验证GUC参数值:" + RESET);
+            LOG.info(BLUE + "\n  → 验证GUC参数值:" + RESET);
             printSql(1, "SHOW DateStyle", "验证");
             String dateStyleValue = getGucValue(conn1, "DateStyle", false);
-            System.out.println(GREEN + "     DateStyle = " + dateStyleValue + RESET);
+            LOG.info(GREEN + "     DateStyle = " + dateStyleValue + RESET);
             
             printSql(1, "SHOW extra_float_digits", "验证");
             String extraFloatValue = getGucValue(conn1, "extra_float_digits", false);
-            System.out.println(GREEN + "     extra_float_digits = " + extraFloatValue + RESET);
+            LOG.info(GREEN + "     extra_float_digits = " + extraFloatValue + RESET);
             
             stmt.close();
             
-            System.out.println(YELLOW + "\n步骤1完成\n" + RESET);
+            LOG.info(YELLOW + "\n步骤1完成\n" + RESET);
             
-            System.out.println(BLUE + "=".repeat(100));
-            System.out.println("【总结 - JDBC Batch方案】");
-            System.out.println("1. ✓ 使用addBatch()可以连续添加多个SQL，不立即执行");
-            System.out.println("2. ✓ 使用executeBatch()一次性发送所有SQL到服务器");
-            System.out.println("3. ✓ 这种方式接近Pipeline的效果：批量发送，批量接收");
-            System.out.println("4. ✓ 优点：标准JDBC API，兼容性好，代码简洁");
-            System.out.println("5. ⚠ 限制：仍然是同步的，需要等待所有结果返回");
-            System.out.println("=".repeat(100) + RESET);
+            LOG.info(BLUE + BANNER_LINE);
+            LOG.info("【总结 - JDBC Batch方案】");
+            LOG.info("1. ✓ 使用addBatch()可以连续添加多个SQL，不立即执行");
+            LOG.info("2. ✓ 使用executeBatch()一次性发送所有SQL到服务器");
+            LOG.info("3. ✓ 这种方式接近Pipeline的效果：批量发送，批量接收");
+            LOG.info("4. ✓ 优点：标准JDBC API，兼容性好，代码简洁");
+            LOG.info("5. ⚠ 限制：仍然是同步的，需要等待所有结果返回");
+            LOG.info(BANNER_LINE + RESET);
             
             // 记录测试结果
             recordResult("Pipeline模式测试(Batch)", "使用JDBC Batch批量执行SQL", 
@@ -3070,7 +3276,7 @@ public class GucSyncScenarioTest {
                         true, "通过");
                         
         } finally {
-            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (conn1 != null) try { conn1.close(); } catch (SQLException e) { LOG.error("关闭连接1失败", e); }
         }
     }
 }
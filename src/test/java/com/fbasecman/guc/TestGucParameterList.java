@@ -1,8 +1,8 @@
 package com.fbasecman.guc;
 
 import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.util.ClientConnectionPool;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.util.Map;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
@@ -31,9 +31,9 @@ public class TestGucParameterList {
             System.out.println("数据库连接URL: " + DatabaseConfig.getUrl());
             System.out.println();
 
-            // 建立数据库连接
-            try (Connection conn = DriverManager.getConnection(
-                    DatabaseConfig.getUrl(), DatabaseConfig.getUser(), DatabaseConfig.getPassword())) {
+            // 从辅助连接池借用连接（只读目录，不需要新的客户端连接）
+            try (ClientConnectionPool.Lease lease = ClientConnectionPool.shared().borrow()) {
+                Connection conn = lease.connection();
 
                 System.out.println("✓ 数据库连接成功");
                 System.out.println();
@@ -1,41 +1,113 @@
 package com.fbasecman.guc.config;
 
+import com.fbasecman.guc.util.ForkedJvm;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.LatencyProxy;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
 /**
  * 数据库配置类 - 支持从配置文件加载DSN信息
+ *
+ * 多个连接池入口、租户和直连备库见 {@link Topology}；db.url / db.user / db.password 是未配置拓扑时的唯一入口，
+ * 也是拓扑中各入口用户和密码的默认值。
  */
 public class DatabaseConfig {
     private static final Properties props = new Properties();
     
+    private static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/postgres";
+    private static final String DEFAULT_USER = "postgres";
+    private static final String DEFAULT_PASSWORD = "postgres";
+    
     static {
+        // 作为 fullmatrix 的子JVM启动时，密码类属性经环境变量传入，先还原为系统属性
+        ForkedJvm.loadInheritedSecrets();
+        boolean loaded = false;
         try (InputStream input = DatabaseConfig.class.getClassLoader()
                 .getResourceAsStream("db.properties")) {
-            if (input == null) {
-                // 使用默认配置
-                props.setProperty("db.url", "jdbc:postgresql://localhost:5432/postgres");
-                props.setProperty("db.user", "postgres");
-                props.setProperty("db.password", "postgres");
-            } else {
+            if (input != null) {
                 props.load(input);
+                loaded = true;
             }
         } catch (IOException ex) {
             throw new RuntimeException("加载数据库配置失败", ex);
         }
+        if (getProperty("db.url", null) == null && getProperty("db.endpoints", null) == null) {
+            // 不再静默回退：连到了意料之外的库时，结果会被误当作连接池的行为
+            HarnessLogger.get().warn("【配置】" + (loaded ? "" : "未找到 db.properties 且")
+                    + "未配置 db.url，使用默认入口 " + DEFAULT_URL + "（用户 " + DEFAULT_USER + "）");
+        }
     }
     
+    /**
+     * 连接池入口URL，系统属性 -Ddb.url 优先；未配置时为本机默认入口（启动时给出警告）。
+     * 启用延迟注入代理时返回指向本机代理的URL，见 {@link LatencyProxy}
+     */
     public static String getUrl() {
-        return props.getProperty("db.url");
+        String url = getProperty("db.url", DEFAULT_URL);
+        return LatencyProxy.isEnabled() ? LatencyProxy.route(url) : url;
     }
     
     public static String getUser() {
-        return props.getProperty("db.user");
+        return getProperty("db.user", DEFAULT_USER);
     }
     
+    /**
+     * 密码允许为空字符串（如 trust 认证），因此不按 {@link #getProperty} 把空值视为未配置
+     */
     public static String getPassword() {
-        return props.getProperty("db.password");
+        return System.getProperty("db.password", props.getProperty("db.password", DEFAULT_PASSWORD));
+    }
+    
+    /**
+     * 直连PostgreSQL（不经过连接池）的URL，用于带外统计查询；未配置时返回null
+     */
+    public static String getDirectUrl() {
+        return getProperty("db.direct.url", null);
+    }
+    
+    public static String getDirectUser() {
+        return getProperty("db.direct.user", getUser());
+    }
+    
+    public static String getDirectPassword() {
+        return getProperty("db.direct.password", getPassword());
+    }
+    
+    /**
+     * 读取配置项，系统属性(-Dkey=value)优先于db.properties
+     */
+    public static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = props.getProperty(key);
+        }
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+    
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)));
+    }
+    
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(getProperty(key, String.valueOf(defaultValue)));
+    }
+    
+    public static double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(getProperty(key, String.valueOf(defaultValue)));
+    }
+    
+    /**
+     * 逗号分隔的整数列表，如 guc.storm.optionCounts=0,1,10,50
+     */
+    public static int[] getIntList(String key, String defaultValue) {
+        String[] parts = getProperty(key, defaultValue).split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
     }
 }
-
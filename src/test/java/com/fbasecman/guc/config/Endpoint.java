@@ -0,0 +1,54 @@
+package com.fbasecman.guc.config;
+
+/**
+ * 一个连接入口：连接池实例、直连的主库 / 备库，或按租户（用户 + 库）改写后的连接池入口
+ */
+public final class Endpoint {
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int weight;
+
+    public Endpoint(String name, String url, String user, String password, int weight) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("连接入口 " + name + " 未配置 url");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("连接入口 " + name + " 的权重必须为正数: " + weight);
+        }
+        this.name = name;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.weight = weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * 名称、用户和URL（不含密码），用于日志
+     */
+    @Override
+    public String toString() {
+        return name + "(" + user + "@" + url + ")";
+    }
+}
@@ -0,0 +1,290 @@
+package com.fbasecman.guc.config;
+
+import com.fbasecman.guc.util.LatencyProxy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 连接拓扑：多个连接池入口（带权重）、多个租户（用户 + 库），以及绕过连接池的直连主库 / 备库。
+ *
+ * 负载模式按客户端序号取入口，客户端在各连接池实例间按权重平滑交错分布、在各租户间轮转；
+ * 校验和带外统计查询走直连入口，不经过连接池。未配置拓扑时只有 db.url 一个入口，行为与原来一致。
+ * 启用延迟注入代理（guc.proxy.enabled）时，连接池入口经过代理，直连入口不经过。
+ *
+ * 配置（db.properties 或 -D 系统属性）：
+ * - db.endpoints: 连接池入口名称，逗号分隔；未配置时只使用 db.url
+ * - db.endpoint.&lt;名称&gt;.url / user / password / weight: 入口的URL、用户（默认 db.user）、
+ *   密码（默认 db.password）、权重（默认 1）
+ * - db.tenants: 租户名称，逗号分隔；未配置时所有客户端使用入口自身的用户和库
+ * - db.tenant.&lt;名称&gt;.user / password / database: 租户的用户（默认 db.user）、密码（默认 db.password）、
+ *   库（默认沿用入口URL中的库）
+ * - db.direct.url / user / password: 直连主库（见 {@link DatabaseConfig#getDirectUrl()}）
+ * - db.replicas: 直连备库名称，逗号分隔；db.replica.&lt;名称&gt;.url / user / password，用户和密码默认同直连主库
+ *
+ * 列出的入口和备库缺少 url、或权重不是正整数时，加载拓扑即抛出 IllegalArgumentException，消息中给出出错的属性名。
+ */
+public final class Topology {
+
+    private static final List<Endpoint> POOLERS = Collections.unmodifiableList(loadPoolers());
+    private static final List<Tenant> TENANTS = loadTenants();
+    private static final int[] SLOTS = weightedSlots(POOLERS);
+    // 按 [连接池入口][租户] 预先生成的客户端入口，同一组合总是同一个对象
+    private static final Endpoint[][] ROUTES = buildRoutes();
+    private static final Endpoint PRIMARY = loadPrimary();
+    private static final List<Endpoint> REPLICAS = Collections.unmodifiableList(loadReplicas());
+
+    /**
+     * 租户：客户端使用的用户和库
+     */
+    private static final class Tenant {
+        final String name;
+        final String user;
+        final String password;
+        final String database;
+
+        Tenant(String name, String user, String password, String database) {
+            this.name = name;
+            this.user = user;
+            this.password = password;
+            this.database = database;
+        }
+    }
+
+    private Topology() {
+    }
+
+    /**
+     * 全部连接池入口（未按租户改写）
+     */
+    public static List<Endpoint> poolers() {
+        return POOLERS;
+    }
+
+    /**
+     * 第 clientIndex 个客户端应连接的入口：相邻序号先在租户间轮转，再按权重在连接池实例间交错，
+     * 同一序号总是得到同一个入口
+     */
+    public static Endpoint client(int clientIndex) {
+        int tenants = Math.max(1, TENANTS.size());
+        int tenant = Math.floorMod(clientIndex, tenants);
+        int slot = Math.floorMod(Math.floorDiv(clientIndex, tenants), SLOTS.length);
+        return ROUTES[SLOTS[slot]][tenant];
+    }
+
+    /**
+     * 全部客户端入口（连接池入口 × 租户），按连接池入口在前排列。
+     * 不同入口使用不同的连接池实例或用户 / 库，通常不共享后端，可作为互不干扰的隔离单元
+     */
+    public static List<Endpoint> routes() {
+        List<Endpoint> routes = new ArrayList<>();
+        for (Endpoint[] byTenant : ROUTES) {
+            Collections.addAll(routes, byTenant);
+        }
+        return routes;
+    }
+
+    /**
+     * 客户端会使用的全部用户名，用于在直连上筛选连接池建立的后端
+     */
+    public static Set<String> clientUsers() {
+        Set<String> users = new TreeSet<>();
+        for (Endpoint[] routes : ROUTES) {
+            for (Endpoint route : routes) {
+                users.add(route.getUser());
+            }
+        }
+        return users;
+    }
+
+    /**
+     * 直连主库，未配置 db.direct.url 时返回null
+     */
+    public static Endpoint primary() {
+        return PRIMARY;
+    }
+
+    /**
+     * 直连备库，未配置时为空列表
+     */
+    public static List<Endpoint> replicas() {
+        return REPLICAS;
+    }
+
+    /**
+     * 全部直连入口（主库在前），未配置直连时为空列表
+     */
+    public static List<Endpoint> directEndpoints() {
+        List<Endpoint> direct = new ArrayList<>();
+        if (PRIMARY != null) {
+            direct.add(PRIMARY);
+        }
+        direct.addAll(REPLICAS);
+        return direct;
+    }
+
+    /**
+     * 拓扑概要，用于日志和报告说明
+     */
+    public static String describe() {
+        StringBuilder sb = new StringBuilder("连接池入口 ");
+        for (int i = 0; i < POOLERS.size(); i++) {
+            Endpoint pooler = POOLERS.get(i);
+            sb.append(i == 0 ? "" : ", ").append(pooler.getName()).append("×").append(pooler.getWeight());
+        }
+        if (!TENANTS.isEmpty()) {
+            sb.append("；租户 ");
+            for (int i = 0; i < TENANTS.size(); i++) {
+                sb.append(i == 0 ? "" : ", ").append(TENANTS.get(i).name);
+            }
+        }
+        sb.append("；直连 ").append(PRIMARY == null ? "未配置" : "主库");
+        if (!REPLICAS.isEmpty()) {
+            sb.append(" + ").append(REPLICAS.size()).append(" 个备库");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 替换 JDBC URL 中的库名（主机列表之后、参数之前的部分），URL中没有库名时补上
+     */
+    static String withDatabase(String url, String database) {
+        int hosts = url.indexOf("//");
+        int path = url.indexOf('/', hosts < 0 ? 0 : hosts + 2);
+        int query = url.indexOf('?');
+        if (path < 0 || (query >= 0 && path > query)) {
+            int at = query < 0 ? url.length() : query;
+            return url.substring(0, at) + "/" + database + url.substring(at);
+        }
+        return url.substring(0, path + 1) + database + (query < 0 ? "" : url.substring(query));
+    }
+
+    private static List<Endpoint> loadPoolers() {
+        List<Endpoint> poolers = new ArrayList<>();
+        for (String name : names("db.endpoints")) {
+            String prefix = "db.endpoint." + name + ".";
+            String url = requiredUrl(prefix + "url");
+            poolers.add(new Endpoint(name,
+                    LatencyProxy.isEnabled() ? LatencyProxy.route(url) : url,
+                    DatabaseConfig.getProperty(prefix + "user", DatabaseConfig.getUser()),
+                    DatabaseConfig.getProperty(prefix + "password", DatabaseConfig.getPassword()),
+                    weight(prefix + "weight")));
+        }
+        if (poolers.isEmpty()) {
+            poolers.add(new Endpoint("default", DatabaseConfig.getUrl(), DatabaseConfig.getUser(),
+                    DatabaseConfig.getPassword(), 1));
+        }
+        return poolers;
+    }
+
+    private static List<Tenant> loadTenants() {
+        List<Tenant> tenants = new ArrayList<>();
+        for (String name : names("db.tenants")) {
+            String prefix = "db.tenant." + name + ".";
+            tenants.add(new Tenant(name,
+                    DatabaseConfig.getProperty(prefix + "user", DatabaseConfig.getUser()),
+                    DatabaseConfig.getProperty(prefix + "password", DatabaseConfig.getPassword()),
+                    DatabaseConfig.getProperty(prefix + "database", null)));
+        }
+        return tenants;
+    }
+
+    private static Endpoint[][] buildRoutes() {
+        Endpoint[][] routes = new Endpoint[POOLERS.size()][Math.max(1, TENANTS.size())];
+        for (int p = 0; p < POOLERS.size(); p++) {
+            Endpoint pooler = POOLERS.get(p);
+            if (TENANTS.isEmpty()) {
+                routes[p][0] = pooler;
+                continue;
+            }
+            for (int t = 0; t < TENANTS.size(); t++) {
+                Tenant tenant = TENANTS.get(t);
+                String url = tenant.database == null ? pooler.getUrl() : withDatabase(pooler.getUrl(), tenant.database);
+                routes[p][t] = new Endpoint(pooler.getName() + "/" + tenant.name, url, tenant.user, tenant.password,
+                        pooler.getWeight());
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * 平滑加权轮询：权重 3,1 得到 0,0,1,0，各入口在序列中尽量均匀交错
+     */
+    private static int[] weightedSlots(List<Endpoint> endpoints) {
+        int total = 0;
+        for (Endpoint endpoint : endpoints) {
+            total += endpoint.getWeight();
+        }
+        int[] slots = new int[total];
+        int[] current = new int[endpoints.size()];
+        for (int s = 0; s < total; s++) {
+            int best = 0;
+            for (int i = 0; i < current.length; i++) {
+                current[i] += endpoints.get(i).getWeight();
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            slots[s] = best;
+        }
+        return slots;
+    }
+
+    private static Endpoint loadPrimary() {
+        String url = DatabaseConfig.getDirectUrl();
+        return url == null ? null
+                : new Endpoint("primary", url, DatabaseConfig.getDirectUser(), DatabaseConfig.getDirectPassword(), 1);
+    }
+
+    private static List<Endpoint> loadReplicas() {
+        List<Endpoint> replicas = new ArrayList<>();
+        for (String name : names("db.replicas")) {
+            String prefix = "db.replica." + name + ".";
+            replicas.add(new Endpoint(name,
+                    requiredUrl(prefix + "url"),
+                    DatabaseConfig.getProperty(prefix + "user", DatabaseConfig.getDirectUser()),
+                    DatabaseConfig.getProperty(prefix + "password", DatabaseConfig.getDirectPassword()),
+                    1));
+        }
+        return replicas;
+    }
+
+    private static String requiredUrl(String key) {
+        String url = DatabaseConfig.getProperty(key, null);
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException(key + " 未配置");
+        }
+        return url.trim();
+    }
+
+    /**
+     * 入口权重，未配置时为 1；非整数或小于 1 时报错（权重为 0 或负数会使加权轮询的槽位为空或越界）
+     */
+    private static int weight(String key) {
+        String value = DatabaseConfig.getProperty(key, "1").trim();
+        int weight;
+        try {
+            weight = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " 必须是正整数: " + value, e);
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException(key + " 必须 >= 1: " + weight);
+        }
+        return weight;
+    }
+
+    private static List<String> names(String key) {
+        List<String> names = new ArrayList<>();
+        for (String name : DatabaseConfig.getProperty(key, "").split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+}
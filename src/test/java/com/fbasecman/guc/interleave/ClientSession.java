@@ -0,0 +1,82 @@
+package com.fbasecman.guc.interleave;
+
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.JdbcOps;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 并发调度中的一个客户端连接及其参考会话模型，只由一个线程使用
+ */
+public final class ClientSession {
+
+    public static final String OK = "OK";
+    public static final String ERROR_PREFIX = "ERROR: ";
+
+    private final int client;
+    private final Connection conn;
+    private final boolean useExtended;
+    private final SessionModel model;
+
+    public ClientSession(int client, Connection conn, boolean useExtended, GucBaseline baseline)
+            throws SQLException {
+        this.client = client;
+        this.conn = conn;
+        this.useExtended = useExtended;
+        this.model = new SessionModel(baseline);
+        conn.setAutoCommit(true);
+    }
+
+    public int getClient() { return client; }
+
+    /**
+     * 按模型此刻应当得到的结果
+     */
+    public String expected(Op op) {
+        return op.kind == OpKind.PROBE ? model.expected(op.parameter.name) : OK;
+    }
+
+    /**
+     * 执行一步并更新模型
+     * @return PROBE 为 SHOW 的结果，其余为 OK；报错时为 ERROR: 加单行错误信息
+     */
+    public String execute(Op op) {
+        try {
+            if (op.kind == OpKind.CLOSE) {
+                conn.close();
+            } else if (op.kind == OpKind.PROBE) {
+                return JdbcOps.queryString(conn, op.getSql(), useExtended);
+            } else {
+                JdbcOps.execute(conn, op.getSql(), useExtended);
+                model.apply(op);
+            }
+            return OK;
+        } catch (SQLException e) {
+            return ERROR_PREFIX + String.valueOf(e.getMessage()).replaceAll("\\s+", " ");
+        }
+    }
+
+    /**
+     * 执行结果是否与模型一致（SHOW 按参数值的规范形式比较）
+     */
+    public static boolean matches(Op op, String expected, String actual) {
+        if (op.kind == OpKind.PROBE) {
+            return actual != null && !actual.startsWith(ERROR_PREFIX) && GucValues.equivalent(expected, actual);
+        }
+        return expected.equals(actual);
+    }
+
+    /**
+     * 关闭连接并把 CLOSE 记入录制，回放时连接在同一位置关闭（未结束的事务在此回滚、释放后端）
+     */
+    public void close(ScheduleRecorder recorder) {
+        Op op = new Op(client, OpKind.CLOSE, null, null);
+        long startSeq = recorder.enter();
+        recorder.leave(startSeq, op, execute(op));
+    }
+
+    public void closeQuietly() {
+        JdbcOps.closeQuietly(conn);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fbasecman.guc.interleave;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 参考模型的起点：每个参数在新连接上看到的初始值，以及 RESET / RESET ALL / DISCARD ALL 之后应恢复的值。
+ *
+ * 两者不一定相同：pgjdbc 建连后执行 SET extra_float_digits = 3 和 SET application_name，
+ * 新连接上 SHOW 得到的是驱动设置的值，RESET 之后恢复的却是服务端默认值（或启动包中的值）。
+ */
+public final class GucBaseline {
+
+    private final Map<String, String> initial;
+    private final Map<String, String> reset;
+    private final boolean resetRecorded;
+
+    /**
+     * @param reset 缺少的参数按初始值处理（兼容只记录了初始值的旧录制文件）
+     */
+    public GucBaseline(Map<String, String> initial, Map<String, String> reset) {
+        this.initial = Collections.unmodifiableMap(new LinkedHashMap<>(initial));
+        Map<String, String> resetValues = new LinkedHashMap<>(initial);
+        resetValues.putAll(reset);
+        this.reset = Collections.unmodifiableMap(resetValues);
+        this.resetRecorded = !reset.isEmpty();
+    }
+
+    public Map<String, String> getInitial() { return initial; }
+    public Map<String, String> getReset() { return reset; }
+
+    /**
+     * 是否记录了恢复值；旧录制文件中没有，此时恢复值只是初始值的副本
+     */
+    public boolean isResetRecorded() { return resetRecorded; }
+
+    public String initial(String parameter) {
+        return initial.get(parameter);
+    }
+
+    public String reset(String parameter) {
+        return reset.get(parameter);
+    }
+}
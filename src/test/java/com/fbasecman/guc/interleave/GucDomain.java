@@ -0,0 +1,59 @@
+package com.fbasecman.guc.interleave;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 交错测试使用的参数及取值范围。取值均为 SHOW 返回的规范形式，SET 时加单引号，
+ * 因此模型中的值可以直接与 SHOW 的结果比较
+ */
+public final class GucDomain {
+
+    public static final class Parameter {
+        final String name;
+        final String[] values;
+
+        Parameter(String name, String... values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        public String getName() { return name; }
+    }
+
+    private static final List<Parameter> PARAMETERS = Collections.unmodifiableList(Arrays.asList(
+        // report 参数
+        // pgjdbc 要求 DateStyle 以 ISO 开头，否则会关闭连接
+        new Parameter("DateStyle", "ISO, MDY", "ISO, DMY", "ISO, YMD"),
+        new Parameter("IntervalStyle", "postgres", "iso_8601", "sql_standard"),
+        new Parameter("TimeZone", "UTC", "Asia/Tokyo", "America/New_York"),
+        new Parameter("application_name", "interleave_a", "interleave_b", "interleave_c"),
+        // 非 report 参数
+        new Parameter("extra_float_digits", "0", "1", "2", "3"),
+        new Parameter("work_mem", "4MB", "8MB", "16MB"),
+        new Parameter("statement_timeout", "0", "5s", "10min"),
+        new Parameter("enable_seqscan", "on", "off"),
+        new Parameter("bytea_output", "hex", "escape")
+    ));
+
+    private GucDomain() {
+    }
+
+    public static List<Parameter> parameters() {
+        return PARAMETERS;
+    }
+
+    public static Parameter byName(String name) {
+        for (Parameter parameter : PARAMETERS) {
+            if (parameter.name.equalsIgnoreCase(name)) {
+                return parameter;
+            }
+        }
+        throw new IllegalArgumentException("交错测试不支持的参数: " + name);
+    }
+
+    static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,52 @@
+package com.fbasecman.guc.interleave;
+
+/**
+ * 轨迹中的一步：哪个客户端连接、执行什么操作
+ */
+public final class Op {
+    /** 客户端连接下标（从0开始） */
+    final int client;
+    final OpKind kind;
+    /** GUC 参数（SET / SET_LOCAL / RESET / PROBE），其余为null */
+    final GucDomain.Parameter parameter;
+    /** SHOW 形式的取值（SET / SET_LOCAL） */
+    final String value;
+    private final String sql;
+
+    Op(int client, OpKind kind, GucDomain.Parameter parameter, String value) {
+        this.client = client;
+        this.kind = kind;
+        this.parameter = parameter;
+        this.value = value;
+        this.sql = buildSql();
+    }
+
+    private String buildSql() {
+        switch (kind) {
+            case SET:
+                return "SET " + parameter.name + " = " + GucDomain.literal(value);
+            case SET_LOCAL:
+                return "SET LOCAL " + parameter.name + " = " + GucDomain.literal(value);
+            case RESET:
+                return "RESET " + parameter.name;
+            case RESET_ALL:
+                return "RESET ALL";
+            case DISCARD_ALL:
+                return "DISCARD ALL";
+            case PROBE:
+                return "SHOW " + parameter.name;
+            default:
+                // BEGIN / COMMIT / ROLLBACK
+                return kind.name();
+        }
+    }
+
+    public int getClient() { return client; }
+    public OpKind getKind() { return kind; }
+    public String getSql() { return sql; }
+
+    @Override
+    public String toString() {
+        return "客户端" + (client + 1) + ": " + sql;
+    }
+}
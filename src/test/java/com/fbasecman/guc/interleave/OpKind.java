@@ -0,0 +1,10 @@
+package com.fbasecman.guc.interleave;
+
+/**
+ * 交错测试中客户端可执行的操作
+ */
+public enum OpKind {
+    SET, SET_LOCAL, RESET, RESET_ALL, DISCARD_ALL, BEGIN, COMMIT, ROLLBACK, PROBE,
+    /** 关闭客户端连接，只出现在录制的并发调度中（未结束的事务随之回滚） */
+    CLOSE
+}
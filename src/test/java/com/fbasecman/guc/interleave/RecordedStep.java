@@ -0,0 +1,32 @@
+package com.fbasecman.guc.interleave;
+
+/**
+ * 录制调度中的一步：操作本身、发送前和收到结果后取得的全局序号，以及录制时的执行结果
+ *
+ * 语句在服务端的实际执行区间一定落在 [startSeq, endSeq] 之内，
+ * 回放时按序号重建这些区间的先后关系即可得到与录制时相同的可观察顺序。
+ */
+public final class RecordedStep {
+    final long startSeq;
+    final long endSeq;
+    final Op op;
+    /** PROBE 为 SHOW 的结果，其余为 OK，报错时以 ERROR: 开头 */
+    final String outcome;
+
+    RecordedStep(long startSeq, long endSeq, Op op, String outcome) {
+        this.startSeq = startSeq;
+        this.endSeq = endSeq;
+        this.op = op;
+        this.outcome = outcome;
+    }
+
+    public long getStartSeq() { return startSeq; }
+    public long getEndSeq() { return endSeq; }
+    public Op getOp() { return op; }
+    public String getOutcome() { return outcome; }
+
+    @Override
+    public String toString() {
+        return "#" + startSeq + "-" + endSeq + " " + op + " => " + outcome;
+    }
+}
@@ -0,0 +1,195 @@
+package com.fbasecman.guc.interleave;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一段录制的并发调度：生成操作所用的种子、客户端数、协议、录制时的参数初始值，
+ * 以及按全局序号排列的所有步骤。以制表符分隔的文本文件保存，便于附在问题单上和手工删减。
+ *
+ * 文件格式：
+ * <pre>
+ * # 注释
+ * seed=12345
+ * epoch=7
+ * clients=8
+ * protocol=simple
+ * failure=1024              （录制时第一个失败步的开始序号，没有失败时为 -1）
+ * default.TimeZone=UTC      （模型中的参数初始值）
+ * reset.TimeZone=UTC        （RESET 之后的恢复值；旧文件中没有时按初始值处理）
+ * 开始序号 \t 结束序号 \t 客户端 \t 操作 \t 参数 \t 取值 \t 结果
+ * </pre>
+ * 参数、取值为空时写 "-"。
+ */
+public final class Schedule {
+
+    private static final String NONE = "-";
+
+    private final long seed;
+    private final int epoch;
+    private final int clients;
+    private final boolean useExtended;
+    private final long failureSeq;
+    private final GucBaseline baseline;
+    private final List<RecordedStep> steps;
+
+    public Schedule(long seed, int epoch, int clients, boolean useExtended, long failureSeq,
+                    GucBaseline baseline, List<RecordedStep> steps) {
+        this.seed = seed;
+        this.epoch = epoch;
+        this.clients = clients;
+        this.useExtended = useExtended;
+        this.failureSeq = failureSeq;
+        this.baseline = baseline;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    public long getSeed() { return seed; }
+    public int getEpoch() { return epoch; }
+    public int getClients() { return clients; }
+    public boolean isExtended() { return useExtended; }
+    public long getFailureSeq() { return failureSeq; }
+    public GucBaseline getBaseline() { return baseline; }
+    public List<RecordedStep> getSteps() { return steps; }
+
+    /**
+     * 相同的步骤，替换模型起点
+     */
+    public Schedule withBaseline(GucBaseline baseline) {
+        return new Schedule(seed, epoch, clients, useExtended, failureSeq, baseline, steps);
+    }
+
+    /**
+     * 第 client 个客户端在该段中使用的操作流种子
+     */
+    public static long clientSeed(long seed, int epoch, int clients, int client) {
+        return seed + (long) epoch * clients + client;
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# GUC同步并发调度录制，客户端c的操作流种子为 seed + epoch*clients + c\n");
+            writer.write("seed=" + seed + "\n");
+            writer.write("epoch=" + epoch + "\n");
+            writer.write("clients=" + clients + "\n");
+            writer.write("protocol=" + (useExtended ? "extended" : "simple") + "\n");
+            writer.write("failure=" + failureSeq + "\n");
+            for (Map.Entry<String, String> entry : baseline.getInitial().entrySet()) {
+                writer.write("default." + entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+            for (Map.Entry<String, String> entry : baseline.getReset().entrySet()) {
+                writer.write("reset." + entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+            for (RecordedStep step : steps) {
+                Op op = step.op;
+                writer.write(step.startSeq + "\t" + step.endSeq + "\t" + op.client + "\t" + op.kind + "\t"
+                        + (op.parameter != null ? op.parameter.name : NONE) + "\t"
+                        + (op.value != null ? op.value : NONE) + "\t" + step.outcome + "\n");
+            }
+        }
+    }
+
+    public static Schedule read(Path path) throws IOException {
+        long seed = 0;
+        int epoch = 0;
+        int clients = 0;
+        boolean useExtended = false;
+        long failureSeq = -1;
+        Map<String, String> defaults = new LinkedHashMap<>();
+        Map<String, String> resets = new LinkedHashMap<>();
+        List<RecordedStep> steps = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.indexOf('\t') < 0) {
+                    int eq = line.indexOf('=');
+                    if (eq < 0) {
+                        throw new IOException(path + " 第" + lineNo + "行无法解析: " + line);
+                    }
+                    String key = line.substring(0, eq);
+                    String value = line.substring(eq + 1);
+                    if (key.startsWith("default.")) {
+                        defaults.put(key.substring("default.".length()), value);
+                    } else if (key.startsWith("reset.")) {
+                        resets.put(key.substring("reset.".length()), value);
+                    } else if (key.equals("seed")) {
+                        seed = Long.parseLong(value);
+                    } else if (key.equals("epoch")) {
+                        epoch = Integer.parseInt(value);
+                    } else if (key.equals("clients")) {
+                        clients = Integer.parseInt(value);
+                    } else if (key.equals("protocol")) {
+                        useExtended = value.equalsIgnoreCase("extended");
+                    } else if (key.equals("failure")) {
+                        failureSeq = Long.parseLong(value);
+                    }
+                    continue;
+                }
+                String[] cols = line.split("\t", 7);
+                if (cols.length != 7) {
+                    throw new IOException(path + " 第" + lineNo + "行应有7列: " + line);
+                }
+                GucDomain.Parameter parameter = NONE.equals(cols[4]) ? null : GucDomain.byName(cols[4]);
+                Op op = new Op(Integer.parseInt(cols[2]), OpKind.valueOf(cols[3]), parameter,
+                        NONE.equals(cols[5]) ? null : cols[5]);
+                steps.add(new RecordedStep(Long.parseLong(cols[0]), Long.parseLong(cols[1]), op, cols[6]));
+            }
+        }
+        long[] seqs = sortedSequence(path, steps);
+        if (!isContiguous(seqs)) {
+            // 手工删减步骤后序号不连续，按原有先后关系重新编号
+            for (int k = 0; k < steps.size(); k++) {
+                RecordedStep step = steps.get(k);
+                steps.set(k, new RecordedStep(Arrays.binarySearch(seqs, step.startSeq),
+                        Arrays.binarySearch(seqs, step.endSeq), step.op, step.outcome));
+            }
+            int failureIndex = Arrays.binarySearch(seqs, failureSeq);
+            failureSeq = failureIndex >= 0 ? failureIndex : -1;
+        }
+        return new Schedule(seed, epoch, clients, useExtended, failureSeq, new GucBaseline(defaults, resets), steps);
+    }
+
+    /**
+     * 所有开始、结束序号排序后的数组；回放要求序号从0开始连续无缺口
+     */
+    private static long[] sortedSequence(Path path, List<RecordedStep> steps) throws IOException {
+        long[] seqs = new long[steps.size() * 2];
+        int i = 0;
+        for (RecordedStep step : steps) {
+            if (step.endSeq <= step.startSeq) {
+                throw new IOException(path + " 中 " + step + " 的结束序号不大于开始序号");
+            }
+            seqs[i++] = step.startSeq;
+            seqs[i++] = step.endSeq;
+        }
+        Arrays.sort(seqs);
+        for (int k = 1; k < seqs.length; k++) {
+            if (seqs[k] == seqs[k - 1]) {
+                throw new IOException(path + " 中序号 " + seqs[k] + " 重复");
+            }
+        }
+        return seqs;
+    }
+
+    private static boolean isContiguous(long[] seqs) {
+        return seqs.length == 0 || seqs[seqs.length - 1] == seqs.length - 1;
+    }
+}
@@ -0,0 +1,40 @@
+package com.fbasecman.guc.interleave;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并发执行时记录各客户端语句的全局顺序：发送前和收到结果后各取一个全局序号。
+ * 热路径上只有一次原子自增和一次无锁入队，不改变被测的线程时序。
+ */
+public class ScheduleRecorder {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<RecordedStep> steps = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 发送语句前调用，返回开始序号
+     */
+    public long enter() {
+        return sequence.getAndIncrement();
+    }
+
+    /**
+     * 收到结果后调用，必须与 enter 成对（报错时同样调用）
+     */
+    public void leave(long startSeq, Op op, String outcome) {
+        steps.add(new RecordedStep(startSeq, sequence.getAndIncrement(), op, outcome));
+    }
+
+    /**
+     * 按开始序号排序的录制结果
+     */
+    public List<RecordedStep> steps() {
+        List<RecordedStep> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingLong(RecordedStep::getStartSeq));
+        return sorted;
+    }
+}
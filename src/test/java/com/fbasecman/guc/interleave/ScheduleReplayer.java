@@ -0,0 +1,187 @@
+package com.fbasecman.guc.interleave;
+
+import com.fbasecman.guc.scenario.ConnectionSource;
+import com.fbasecman.guc.util.HarnessLogger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按录制的全局序号确定性地回放并发调度。
+ *
+ * 每个客户端一个线程，所有线程共用一个序号游标：客户端在发送语句前等待游标走到该步的开始序号，
+ * 收到结果后等待游标走到结束序号再继续。录制时被阻塞的语句（例如等待另一个客户端的事务释放后端）
+ * 在回放时同样先发出、等其他客户端按序推进到 COMMIT 后才返回，因此持有事务的交错点也按原样重现。
+ * 不再有录制时的随机间隔，长时间压测中的一段调度可以在几秒内回放完。
+ *
+ * 某个客户端在 stallTimeoutMillis 内没有推进游标（回放时被阻塞的位置与录制时不同）即判定为调度偏离并中止。
+ */
+public class ScheduleReplayer {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 一次回放的结果
+     */
+    public static final class Result {
+        long steps;
+        long divergences;
+        String firstDivergence;
+        /** 第一个与模型不一致的步骤的开始序号，没有时为 -1 */
+        long failureSeq = -1;
+        String failure;
+        String stalled;
+        long elapsedNanos;
+
+        public long getSteps() { return steps; }
+        /** 执行结果与录制结果不同的步数 */
+        public long getDivergences() { return divergences; }
+        public String getFirstDivergence() { return firstDivergence; }
+        public long getFailureSeq() { return failureSeq; }
+        public String getFailure() { return failure; }
+        /** 回放中止的原因，正常结束时为null */
+        public String getStalled() { return stalled; }
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+
+    private final ConnectionSource connectionSource;
+    private final long stallTimeoutMillis;
+
+    private final Object lock = new Object();
+    private long cursor;
+    private boolean aborted;
+
+    public ScheduleReplayer(ConnectionSource connectionSource, long stallTimeoutMillis) {
+        this.connectionSource = connectionSource;
+        this.stallTimeoutMillis = stallTimeoutMillis;
+    }
+
+    public Result replay(Schedule schedule) throws SQLException, InterruptedException {
+        int clients = schedule.getClients();
+        List<List<RecordedStep>> perClient = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            perClient.add(new ArrayList<>());
+        }
+        for (RecordedStep step : schedule.getSteps()) {
+            perClient.get(step.op.client).add(step);
+        }
+
+        // 客户端连接按编号顺序建立，与录制时一致
+        ClientSession[] sessions = new ClientSession[clients];
+        try {
+            for (int c = 0; c < clients; c++) {
+                sessions[c] = new ClientSession(c, connectionSource.open(schedule.isExtended()),
+                        schedule.isExtended(), schedule.getBaseline());
+            }
+            synchronized (lock) {
+                cursor = 0;
+                aborted = false;
+            }
+            Result result = new Result();
+            Thread[] threads = new Thread[clients];
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                final ClientSession session = sessions[c];
+                final List<RecordedStep> steps = perClient.get(c);
+                threads[c] = new Thread(() -> replayClient(session, steps, result), "guc-replay-" + c);
+                threads[c].start();
+            }
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    thread.join(200);
+                    if (isAborted()) {
+                        // 中止后仍阻塞在语句上的线程只能靠关闭连接唤醒
+                        closeAll(sessions);
+                    }
+                }
+            }
+            result.elapsedNanos = System.nanoTime() - start;
+            return result;
+        } finally {
+            closeAll(sessions);
+        }
+    }
+
+    private static void closeAll(ClientSession[] sessions) {
+        for (ClientSession session : sessions) {
+            if (session != null) {
+                session.closeQuietly();
+            }
+        }
+    }
+
+    private boolean isAborted() {
+        synchronized (lock) {
+            return aborted;
+        }
+    }
+
+    private void replayClient(ClientSession session, List<RecordedStep> steps, Result result) {
+        try {
+            for (RecordedStep step : steps) {
+                if (!awaitTurn(step.startSeq, step, result)) {
+                    return;
+                }
+                String expected = session.expected(step.op);
+                String actual = session.execute(step.op);
+                if (!awaitTurn(step.endSeq, step, result)) {
+                    return;
+                }
+                synchronized (lock) {
+                    result.steps++;
+                    if (!actual.equals(step.outcome)) {
+                        result.divergences++;
+                        if (result.firstDivergence == null) {
+                            result.firstDivergence = step + "，回放结果=" + actual;
+                        }
+                    }
+                    if (result.failure == null && !ClientSession.matches(step.op, expected, actual)) {
+                        result.failureSeq = step.startSeq;
+                        result.failure = step.op + " 期望=" + expected + ", 实际=" + actual;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort("回放线程被中断");
+        }
+    }
+
+    /**
+     * 等待游标走到 seq 后把游标加一
+     * @return 回放已中止时返回false
+     */
+    private boolean awaitTurn(long seq, RecordedStep step, Result result) throws InterruptedException {
+        synchronized (lock) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+            while (cursor != seq) {
+                if (aborted) {
+                    return false;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    result.stalled = "等待序号" + seq + "（" + step + "）超时，游标停在" + cursor
+                            + "，回放时的阻塞位置与录制时不同";
+                    LOG.warn("【调度回放】" + result.stalled);
+                    aborted = true;
+                    lock.notifyAll();
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            cursor++;
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    private void abort(String reason) {
+        synchronized (lock) {
+            aborted = true;
+            lock.notifyAll();
+        }
+        LOG.warn("【调度回放】" + reason);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fbasecman.guc.interleave;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个客户端会话的参考模型：按PostgreSQL会话语义计算每个参数此刻应当看到的值
+ *
+ * - 事务外 SET / RESET / RESET ALL / DISCARD ALL 直接修改会话值
+ * - 事务内 SET / RESET / RESET ALL 在 COMMIT 后保留、ROLLBACK 后撤销
+ * - SET LOCAL 只在当前事务内可见；事务外执行无效果（服务端只给出警告）
+ * - 同一事务中 SET LOCAL 之后的 SET / RESET 覆盖 LOCAL 值
+ * - RESET 恢复为 {@link GucBaseline#reset} 的值，而不是新连接上的初始值
+ */
+final class SessionModel {
+
+    private final GucBaseline baseline;
+    // 当前会话层的值（事务中包含未提交的修改）
+    private Map<String, String> current = new HashMap<>();
+    // BEGIN 时的会话层快照，ROLLBACK 时恢复
+    private Map<String, String> snapshot;
+    private final Map<String, String> locals = new HashMap<>();
+
+    SessionModel(GucBaseline baseline) {
+        this.baseline = baseline;
+    }
+
+    boolean inTransaction() {
+        return snapshot != null;
+    }
+
+    void apply(Op op) {
+        switch (op.kind) {
+            case SET:
+                locals.remove(op.parameter.name);
+                current.put(op.parameter.name, op.value);
+                break;
+            case SET_LOCAL:
+                if (inTransaction()) {
+                    locals.put(op.parameter.name, op.value);
+                }
+                break;
+            case RESET:
+                locals.remove(op.parameter.name);
+                current.put(op.parameter.name, baseline.reset(op.parameter.name));
+                break;
+            case RESET_ALL:
+            case DISCARD_ALL:
+                locals.clear();
+                current = new HashMap<>(baseline.getReset());
+                break;
+            case BEGIN:
+                snapshot = new HashMap<>(current);
+                break;
+            case COMMIT:
+                snapshot = null;
+                locals.clear();
+                break;
+            case ROLLBACK:
+                current = snapshot;
+                snapshot = null;
+                locals.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 当前应当看到的值：SET LOCAL > 会话层 > 新连接上的初始值
+     */
+    String expected(String parameter) {
+        String value = locals.get(parameter);
+        if (value == null) {
+            value = current.get(parameter);
+        }
+        return value != null ? value : baseline.initial(parameter);
+    }
+}
@@ -0,0 +1,103 @@
+package com.fbasecman.guc.interleave;
+
+import com.fbasecman.guc.scenario.ConnectionSource;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在单个线程中按轨迹顺序驱动K个客户端连接，每一步同时更新参考模型，
+ * SHOW 的结果与模型不一致或语句报错即判定失败。
+ * BEGIN / COMMIT / ROLLBACK 以语句形式在自动提交模式下发送，保证连接池看到的语句顺序与轨迹完全一致。
+ */
+public class TraceExecutor {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final ConnectionSource connectionSource;
+    private final boolean useExtended;
+    private long steps;
+    private long probes;
+
+    public TraceExecutor(ConnectionSource connectionSource, boolean useExtended) {
+        this.connectionSource = connectionSource;
+        this.useExtended = useExtended;
+    }
+
+    /**
+     * 用一个新连接记录所有参数的初始值，再执行 RESET ALL 记录恢复值，作为模型的起点
+     */
+    public GucBaseline captureBaseline() throws SQLException {
+        Map<String, String> initial = new HashMap<>();
+        Map<String, String> reset = new HashMap<>();
+        Connection conn = connectionSource.open(useExtended);
+        try {
+            for (GucDomain.Parameter parameter : GucDomain.parameters()) {
+                initial.put(parameter.name, JdbcOps.show(conn, parameter.name, useExtended));
+            }
+            JdbcOps.execute(conn, "RESET ALL", useExtended);
+            for (GucDomain.Parameter parameter : GucDomain.parameters()) {
+                reset.put(parameter.name, JdbcOps.show(conn, parameter.name, useExtended));
+            }
+        } finally {
+            JdbcOps.closeQuietly(conn);
+        }
+        return new GucBaseline(initial, reset);
+    }
+
+    /**
+     * 执行轨迹，客户端连接在第一次使用时建立，结束时全部关闭（未结束的事务随之回滚）
+     * @return 第一个失败，全部通过时返回null
+     */
+    public TraceFailure execute(List<Op> trace, int clients, GucBaseline baseline) {
+        Connection[] conns = new Connection[clients];
+        SessionModel[] models = new SessionModel[clients];
+        boolean traceEnabled = LOG.isEnabled(HarnessLogger.Level.TRACE);
+        try {
+            for (int i = 0; i < trace.size(); i++) {
+                Op op = trace.get(i);
+                int c = op.client;
+                if (models[c] == null) {
+                    models[c] = new SessionModel(baseline);
+                }
+                try {
+                    if (conns[c] == null) {
+                        conns[c] = connectionSource.open(useExtended);
+                        conns[c].setAutoCommit(true);
+                    }
+                    if (traceEnabled) {
+                        LOG.trace("[交错] " + op);
+                    }
+                    steps++;
+                    if (op.kind == OpKind.PROBE) {
+                        probes++;
+                        String actual = JdbcOps.queryString(conns[c], op.getSql(), useExtended);
+                        String expected = models[c].expected(op.parameter.name);
+                        if (!GucValues.equivalent(expected, actual)) {
+                            return new TraceFailure(i, op, expected, actual);
+                        }
+                    } else {
+                        JdbcOps.execute(conns[c], op.getSql(), useExtended);
+                        models[c].apply(op);
+                    }
+                } catch (SQLException e) {
+                    return new TraceFailure(i, op, "执行成功", "报错: " + e.getMessage());
+                }
+            }
+            return null;
+        } finally {
+            for (Connection conn : conns) {
+                JdbcOps.closeQuietly(conn);
+            }
+        }
+    }
+
+    public long getSteps() { return steps; }
+    public long getProbes() { return probes; }
+}
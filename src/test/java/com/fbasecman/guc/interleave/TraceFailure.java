@@ -0,0 +1,29 @@
+package com.fbasecman.guc.interleave;
+
+/**
+ * 轨迹执行失败的位置与原因
+ */
+public class TraceFailure {
+    private final int index;
+    private final Op op;
+    private final String expected;
+    private final String actual;
+
+    TraceFailure(int index, Op op, String expected, String actual) {
+        this.index = index;
+        this.op = op;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /** 失败操作在轨迹中的下标 */
+    public int getIndex() { return index; }
+    public Op getOp() { return op; }
+    public String getExpected() { return expected; }
+    public String getActual() { return actual; }
+
+    @Override
+    public String toString() {
+        return "第" + (index + 1) + "步 [" + op + "] 期望=" + expected + ", 实际=" + actual;
+    }
+}
@@ -0,0 +1,149 @@
+package com.fbasecman.guc.interleave;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 随机生成K个客户端连接之间的交错轨迹。生成时跟踪每个客户端的事务状态，只生成合法的操作：
+ * 事务内不执行 BEGIN / DISCARD ALL，事务外不执行 COMMIT / ROLLBACK / SET LOCAL，
+ * 同时打开的事务数不超过 maxOpenTransactions（避免占满连接池导致单线程驱动互相等待）。
+ * 相同的种子生成相同的轨迹。
+ */
+public class TraceGenerator {
+
+    private final int clients;
+    private final int maxOpenTransactions;
+
+    public TraceGenerator(int clients, int maxOpenTransactions) {
+        this.clients = clients;
+        this.maxOpenTransactions = maxOpenTransactions;
+    }
+
+    public List<Op> generate(long seed, int length) {
+        Random random = new Random(seed);
+        boolean[] inTransaction = new boolean[clients];
+        int openTransactions = 0;
+        List<Op> trace = new ArrayList<>(length);
+
+        while (trace.size() < length) {
+            int client = random.nextInt(clients);
+            Op op = choose(random, client, inTransaction[client], openTransactions < maxOpenTransactions);
+            if (op == null) {
+                continue;
+            }
+            if (op.kind == OpKind.BEGIN) {
+                inTransaction[client] = true;
+                openTransactions++;
+            } else if (op.kind == OpKind.COMMIT || op.kind == OpKind.ROLLBACK) {
+                inTransaction[client] = false;
+                openTransactions--;
+            }
+            trace.add(op);
+        }
+        return trace;
+    }
+
+    /**
+     * 单个客户端的无限操作流，供每个客户端一个线程的并发压测使用。
+     * 各客户端独立决定是否开启事务，不受 maxOpenTransactions 限制（并发线程之间不会互相阻塞驱动）
+     */
+    public ClientStream streamFor(int client, long seed) {
+        return new ClientStream(client, seed);
+    }
+
+    public final class ClientStream {
+        private final int client;
+        private final Random random;
+        private boolean inTransaction;
+
+        private ClientStream(int client, long seed) {
+            this.client = client;
+            this.random = new Random(seed);
+        }
+
+        public Op next() {
+            while (true) {
+                Op op = choose(random, client, inTransaction, true);
+                if (op == null) {
+                    continue;
+                }
+                if (op.kind == OpKind.BEGIN) {
+                    inTransaction = true;
+                } else if (op.kind == OpKind.COMMIT || op.kind == OpKind.ROLLBACK) {
+                    inTransaction = false;
+                }
+                return op;
+            }
+        }
+    }
+
+    /**
+     * 按权重随机选择一个操作，在当前事务状态下不合法时返回null由调用方重新抽取
+     */
+    private static Op choose(Random random, int client, boolean inTransaction, boolean mayBegin) {
+        List<GucDomain.Parameter> parameters = GucDomain.parameters();
+        GucDomain.Parameter parameter = parameters.get(random.nextInt(parameters.size()));
+        String value = parameter.values[random.nextInt(parameter.values.length)];
+        int roll = random.nextInt(100);
+        if (roll < 35) {
+            return new Op(client, OpKind.PROBE, parameter, null);
+        } else if (roll < 55) {
+            return new Op(client, OpKind.SET, parameter, value);
+        } else if (roll < 62) {
+            return new Op(client, inTransaction ? OpKind.SET_LOCAL : OpKind.SET, parameter, value);
+        } else if (roll < 70) {
+            return new Op(client, OpKind.RESET, parameter, null);
+        } else if (roll < 73) {
+            return new Op(client, OpKind.RESET_ALL, null, null);
+        } else if (roll < 75) {
+            return inTransaction ? null : new Op(client, OpKind.DISCARD_ALL, null, null);
+        } else if (roll < 87) {
+            return inTransaction || !mayBegin ? null : new Op(client, OpKind.BEGIN, null, null);
+        } else {
+            if (!inTransaction) {
+                return null;
+            }
+            return new Op(client, roll < 94 ? OpKind.COMMIT : OpKind.ROLLBACK, null, null);
+        }
+    }
+
+    /**
+     * 删除操作后修复轨迹：去掉在当前事务状态下不合法的操作（如没有 BEGIN 的 COMMIT、事务中的 DISCARD ALL），
+     * 以及超出同时打开事务数上限的 BEGIN。事务外残留的 SET LOCAL 保留，服务端只给出警告
+     */
+    public List<Op> repair(List<Op> trace) {
+        boolean[] inTransaction = new boolean[clients];
+        int openTransactions = 0;
+        List<Op> repaired = new ArrayList<>(trace.size());
+        for (Op op : trace) {
+            int c = op.client;
+            switch (op.kind) {
+                case BEGIN:
+                    if (inTransaction[c] || openTransactions >= maxOpenTransactions) {
+                        continue;
+                    }
+                    inTransaction[c] = true;
+                    openTransactions++;
+                    break;
+                case COMMIT:
+                case ROLLBACK:
+                    if (!inTransaction[c]) {
+                        continue;
+                    }
+                    inTransaction[c] = false;
+                    openTransactions--;
+                    break;
+                case DISCARD_ALL:
+                    if (inTransaction[c]) {
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            repaired.add(op);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fbasecman.guc.interleave;
+
+import com.fbasecman.guc.util.GucValues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 把失败的轨迹缩减为最小复现：先截断到失败步，再按块大小从 1/2 逐级减半尝试删除连续的操作，
+ * 删除后经 {@link TraceGenerator#repair} 修复事务配对，重新执行仍以同一种方式失败才保留删除：
+ * 失败在同一个客户端连接、同一种操作、同一个参数上，且失败类别相同（报错 / 值回到默认值 / 其他不一致值），
+ * 避免缩减过程漂移到另一个不相关的问题上。执行次数受 maxAttempts 限制。
+ */
+public class TraceShrinker {
+
+    private final TraceExecutor executor;
+    private final TraceGenerator generator;
+    private final int clients;
+    private final GucBaseline baseline;
+    private final int maxAttempts;
+    private int attempts;
+
+    public TraceShrinker(TraceExecutor executor, TraceGenerator generator, int clients,
+                         GucBaseline baseline, int maxAttempts) {
+        this.executor = executor;
+        this.generator = generator;
+        this.clients = clients;
+        this.baseline = baseline;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public List<Op> shrink(List<Op> trace, TraceFailure failure) {
+        List<Op> current = new ArrayList<>(trace.subList(0, failure.getIndex() + 1));
+        int chunk = Math.max(1, current.size() / 2);
+        attempts = 0;
+        while (attempts < maxAttempts) {
+            boolean removed = false;
+            int start = 0;
+            while (start < current.size() && attempts < maxAttempts) {
+                List<Op> candidate = new ArrayList<>(current.subList(0, start));
+                candidate.addAll(current.subList(Math.min(current.size(), start + chunk), current.size()));
+                candidate = generator.repair(candidate);
+                if (candidate.isEmpty() || candidate.size() >= current.size()) {
+                    start += chunk;
+                    continue;
+                }
+                attempts++;
+                TraceFailure again = executor.execute(candidate, clients, baseline);
+                if (again != null && sameFailure(failure, again)) {
+                    current = new ArrayList<>(candidate.subList(0, again.getIndex() + 1));
+                    removed = true;
+                } else {
+                    start += chunk;
+                }
+            }
+            if (!removed) {
+                if (chunk == 1) {
+                    break;
+                }
+                chunk = Math.max(1, chunk / 2);
+            }
+        }
+        return current;
+    }
+
+    public int getAttempts() { return attempts; }
+
+    private boolean sameFailure(TraceFailure original, TraceFailure again) {
+        Op a = original.getOp();
+        Op b = again.getOp();
+        return a.client == b.client && a.kind == b.kind
+                && Objects.equals(parameterName(a), parameterName(b))
+                && outcomeClass(original).equals(outcomeClass(again));
+    }
+
+    private static String parameterName(Op op) {
+        return op.parameter == null ? null : op.parameter.name;
+    }
+
+    /**
+     * 失败类别：语句报错、SHOW 得到该参数的默认值（SET 丢失或被重置）、SHOW 得到其他值（串值或残留）
+     */
+    private String outcomeClass(TraceFailure failure) {
+        if (failure.getActual() != null && failure.getActual().startsWith("报错")) {
+            return "报错";
+        }
+        String name = parameterName(failure.getOp());
+        if (name != null && (GucValues.equivalent(baseline.reset(name), failure.getActual())
+                || GucValues.equivalent(baseline.initial(name), failure.getActual()))) {
+            return "默认值";
+        }
+        return "其他值";
+    }
+}
@@ -0,0 +1,299 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 后端频繁退出：在客户端持续带着大量会话参数运行的同时，通过直连（db.direct.url，以及 db.replicas 配置的备库，
+ * 依次轮流）按固定间隔 pg_terminate_backend 随机一个连接池后端，模拟 OOM、空闲回收等导致后端退出的情况，
+ * 考察连接池重建后端时是否完整回放客户端的会话参数。
+ *
+ * 每个客户端连接设置 application_name 和 N 个自定义参数（guc_churn.p0 ...，值按客户端区分），
+ * 之后在自动提交模式下循环：每 10 次操作修改其中一个参数，每次操作查询 pg_backend_pid() 和全部参数并与期望比较。
+ * - 语句失败计为失败语句；客户端连接被关闭时重新建连并重新设置全部参数（客户端重连）
+ * - 从第一次失败到下一次成功查询的时间记为一次恢复时间
+ * - 第一次终止之后首次出现的后端进程为重建的后端，在它上面的查询单独统计参数是否完整
+ *
+ * 可配置：
+ * - guc.churn.clients: 客户端连接数（每个一个线程），默认 32
+ * - guc.churn.durationSeconds: 持续时间，默认 60
+ * - guc.churn.warmupSeconds: 开始终止后端之前的预热时间，默认 3
+ * - guc.churn.killIntervalMillis: 两次终止之间的间隔，默认 500
+ * - guc.churn.gucs: 每个客户端设置的自定义参数数，默认 20
+ * - guc.churn.queryMode: simple / extended，默认 simple
+ * - guc.churn.maxReports: 最多逐条报告的不一致数，默认 5
+ */
+public class BackendChurnWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int clients = DatabaseConfig.getInt("guc.churn.clients", 32);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.churn.durationSeconds", 60);
+    private final long warmupSeconds = DatabaseConfig.getLong("guc.churn.warmupSeconds", 3);
+    private final long killIntervalMillis = DatabaseConfig.getLong("guc.churn.killIntervalMillis", 500);
+    private final int gucs = DatabaseConfig.getInt("guc.churn.gucs", 20);
+    private final String queryMode = DatabaseConfig.getProperty("guc.churn.queryMode", "simple");
+    private final int maxReports = DatabaseConfig.getInt("guc.churn.maxReports", 5);
+
+    /**
+     * 单个客户端线程的统计
+     */
+    private static final class WorkerStats {
+        final LatencyHistogram recovery = new LatencyHistogram();
+        long checks;
+        long failedStatements;
+        long clientReconnects;
+        long mismatches;
+        long newBackendChecks;
+        long newBackendMismatches;
+        String lastError;
+
+        void merge(WorkerStats other) {
+            recovery.merge(other.recovery);
+            checks += other.checks;
+            failedStatements += other.failedStatements;
+            clientReconnects += other.clientReconnects;
+            mismatches += other.mismatches;
+            newBackendChecks += other.newBackendChecks;
+            newBackendMismatches += other.newBackendMismatches;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        LoadReport report = new LoadReport("后端终止与参数重放（恢复时间单位ms）",
+                new String[] {"终止次数", "查询数", "失败语句", "客户端重连", "恢复次数", "恢复p50", "恢复p99", "恢复最大",
+                              "新后端查询", "新后端参数缺失"},
+                new int[] {8, 10, 8, 10, 8, 8, 8, 8, 10, 14});
+        List<Endpoint> direct = Topology.directEndpoints();
+        if (direct.isEmpty()) {
+            LOG.error("【后端终止】未配置 db.direct.url，无法终止连接池后端");
+            report.addNote("未配置 db.direct.url，未执行");
+            return report;
+        }
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null);
+        String checkSql = checkSql();
+        LOG.info("【后端终止】客户端连接数=" + clients + "，" + durationSeconds + "秒，每" + killIntervalMillis
+                + "ms终止一个后端，每个客户端" + gucs + "个自定义参数");
+
+        Set<String> seenPids = ConcurrentHashMap.newKeySet();
+        AtomicLong kills = new AtomicLong();
+        AtomicLong killMisses = new AtomicLong();
+        AtomicLong reported = new AtomicLong();
+        WorkerStats[] perWorker = new WorkerStats[clients];
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+
+        // 最后一个线程通过直连终止后端，其余为客户端
+        List<Throwable> failures = LoadRunner.runWorkers("backend-churn", clients + 1, workerId -> {
+            if (workerId == clients) {
+                killBackends(direct, deadline, kills, killMisses);
+                return;
+            }
+            WorkerStats stats = new WorkerStats();
+            perWorker[workerId] = stats;
+            boolean useExtended = !"simple".equals(queryMode);
+            String[] values = new String[gucs];
+            for (int i = 0; i < gucs; i++) {
+                values[i] = "c" + workerId + "_" + i + "_v0";
+            }
+            Connection conn = null;
+            try {
+                long failingSince = 0;
+                long ops = 0;
+                while (System.nanoTime() < deadline) {
+                    ops++;
+                    try {
+                        if (conn == null) {
+                            conn = connect(router, workerId, values, useExtended);
+                        }
+                        if (ops % 10 == 0) {
+                            int i = (int) (ops / 10 % gucs);
+                            String value = "c" + workerId + "_" + i + "_v" + ops;
+                            JdbcOps.execute(conn, "SET " + gucName(i) + " = '" + value + "'", useExtended);
+                            values[i] = value;
+                        }
+                        String[] row = JdbcOps.queryRow(conn, checkSql, useExtended);
+                        stats.checks++;
+                        if (failingSince != 0) {
+                            stats.recovery.record(System.nanoTime() - failingSince);
+                            failingSince = 0;
+                        }
+                        boolean newBackend = row != null && seenPids.add(row[0]) && kills.get() > 0;
+                        String expected = expectedSettings(workerId, values);
+                        boolean matched = row != null && expected.equals(row[1]);
+                        if (newBackend) {
+                            stats.newBackendChecks++;
+                        }
+                        if (!matched) {
+                            stats.mismatches++;
+                            if (newBackend) {
+                                stats.newBackendMismatches++;
+                            }
+                            report(results, reported, workerId, newBackend, expected, row);
+                        }
+                    } catch (SQLException e) {
+                        stats.failedStatements++;
+                        stats.lastError = e.getMessage();
+                        if (failingSince == 0) {
+                            failingSince = System.nanoTime();
+                        }
+                        if (conn == null) {
+                            // 建连失败，稍后重试
+                            TimeUnit.MILLISECONDS.sleep(100);
+                        } else if (conn.isClosed() || (e.getSQLState() != null && e.getSQLState().startsWith("08"))) {
+                            // 客户端连接被关闭，下一次循环重新建连并重新设置全部参数
+                            JdbcOps.closeQuietly(conn);
+                            conn = null;
+                            stats.clientReconnects++;
+                        }
+                    }
+                }
+            } finally {
+                JdbcOps.closeQuietly(conn);
+            }
+        });
+
+        WorkerStats total = new WorkerStats();
+        for (WorkerStats stats : perWorker) {
+            if (stats != null) {
+                total.merge(stats);
+            }
+        }
+        if (!failures.isEmpty() && total.lastError == null) {
+            total.lastError = String.valueOf(failures.get(0).getMessage());
+        }
+        report.addRow(kills.get(), total.checks, total.failedStatements, total.clientReconnects,
+                total.recovery.getCount(),
+                TablePrinter.millis(total.recovery.getPercentileMillis(50)),
+                TablePrinter.millis(total.recovery.getPercentileMillis(99)),
+                TablePrinter.millis(total.recovery.getMaxNanos() / 1e6),
+                total.newBackendChecks, total.newBackendMismatches);
+        report.addNote("恢复时间 = 客户端第一次失败到下一次成功查询；新后端 = 第一次终止之后首次出现的后端进程");
+        report.addNote("未找到可终止后端的次数=" + killMisses.get() + "，全部查询中参数不一致=" + total.mismatches
+                + "，线程异常=" + failures.size() + (total.lastError != null ? "，最后错误：" + total.lastError : ""));
+
+        boolean replayed = total.mismatches == 0 && failures.isEmpty();
+        results.add(new TestResult("后端终止", "重建后端完整回放会话参数",
+                "参数不一致=0（新后端上查询>0）",
+                "参数不一致=" + total.mismatches + "，其中新后端=" + total.newBackendMismatches
+                        + "/" + total.newBackendChecks,
+                replayed && total.newBackendChecks > 0,
+                !replayed ? "失败" : total.newBackendChecks > 0 ? "通过" : "未观察到重建的后端"));
+        results.add(new TestResult("后端终止", "后端终止后的失败语句", "-",
+                "终止=" + kills.get() + ", 失败语句=" + total.failedStatements + ", 客户端重连=" + total.clientReconnects,
+                true, "仅统计"));
+        return report;
+    }
+
+    /**
+     * 预热后每隔 killIntervalMillis 终止一个属于客户端用户的后端（不含直连自身），各直连节点依次轮流
+     */
+    private void killBackends(List<Endpoint> direct, long deadline, AtomicLong kills, AtomicLong killMisses)
+            throws SQLException, InterruptedException {
+        StringBuilder users = new StringBuilder();
+        for (String user : Topology.clientUsers()) {
+            users.append(users.length() == 0 ? "'" : ", '").append(user.replace("'", "''")).append('\'');
+        }
+        String sql = "SELECT pg_terminate_backend(pid) FROM ("
+                + "SELECT pid FROM pg_stat_activity WHERE backend_type = 'client backend' "
+                + "AND datname = current_database() AND usename IN (" + users + ") AND pid <> pg_backend_pid() "
+                + "ORDER BY random() LIMIT 1) t";
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        List<Connection> nodes = new ArrayList<>();
+        try {
+            for (Endpoint endpoint : direct) {
+                Connection node = DriverManager.getConnection(endpoint.getUrl(), endpoint.getUser(),
+                        endpoint.getPassword());
+                nodes.add(node);
+                node.setAutoCommit(true);
+            }
+            for (int attempt = 0; System.nanoTime() < deadline; attempt++) {
+                if ("t".equals(JdbcOps.queryString(nodes.get(attempt % nodes.size()), sql, false))) {
+                    kills.incrementAndGet();
+                } else {
+                    killMisses.incrementAndGet();
+                }
+                TimeUnit.MILLISECONDS.sleep(killIntervalMillis);
+            }
+        } finally {
+            for (Connection node : nodes) {
+                JdbcOps.closeQuietly(node);
+            }
+        }
+        LOG.info("【后端终止】共终止后端 " + kills.get() + " 个");
+    }
+
+    private Connection connect(ClientRouter router, int workerId, String[] values, boolean useExtended)
+            throws SQLException {
+        Connection conn = router.open(workerId);
+        try {
+            conn.setAutoCommit(true);
+            JdbcOps.execute(conn, "SET application_name = 'churn_" + workerId + "'", useExtended);
+            for (int i = 0; i < values.length; i++) {
+                JdbcOps.execute(conn, "SET " + gucName(i) + " = '" + values[i] + "'", useExtended);
+            }
+            return conn;
+        } catch (SQLException e) {
+            JdbcOps.closeQuietly(conn);
+            throw e;
+        }
+    }
+
+    private void report(List<TestResult> results, AtomicLong reported, int workerId, boolean newBackend,
+                        String expected, String[] row) {
+        if (reported.incrementAndGet() > maxReports) {
+            return;
+        }
+        String actual = row == null ? "无结果" : "pid=" + row[0] + ", 参数=" + row[1];
+        LOG.error("【后端终止】客户端" + workerId + (newBackend ? "在重建的后端上" : "") + "参数不一致，期望 " + expected
+                + "，实际 " + actual);
+        synchronized (results) {
+            results.add(new TestResult("后端终止", "客户端" + workerId + (newBackend ? "（重建的后端）" : ""),
+                    expected, actual, false, "失败"));
+        }
+    }
+
+    /**
+     * 一条语句取后端进程号和全部会话参数（以逗号拼接）
+     */
+    private String checkSql() {
+        StringBuilder sql = new StringBuilder(
+                "SELECT pg_backend_pid(), concat_ws(',', current_setting('application_name')");
+        for (int i = 0; i < gucs; i++) {
+            sql.append(", current_setting('").append(gucName(i)).append("', true)");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static String expectedSettings(int workerId, String[] values) {
+        StringBuilder expected = new StringBuilder("churn_" + workerId);
+        for (String value : values) {
+            expected.append(',').append(value);
+        }
+        return expected.toString();
+    }
+
+    private static String gucName(int i) {
+        return "guc_churn.p" + i;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 负载模式的客户端建连：按客户端序号从 {@link Topology} 取连接池入口和租户，
+ * 在入口URL上追加本模式的连接参数（协议、启动参数等）后建立连接。
+ * 未配置拓扑时所有客户端都连接 db.url，与直接使用 DatabaseConfig.getUrl() 相同。
+ * 指定了固定入口时（如差异对比模式把负载改为直连），所有客户端都连接该入口。
+ */
+public class ClientRouter {
+
+    private final UnaryOperator<String> urlParams;
+    // 非null时所有客户端都连接该入口
+    private final Endpoint target;
+    private final Map<String, String> urls = new ConcurrentHashMap<>();
+
+    /**
+     * @param urlParams 在入口URL上追加连接参数，如 url -> JdbcUrlBuilder.withQueryMode(url, "simple", null)
+     */
+    public ClientRouter(UnaryOperator<String> urlParams) {
+        this(urlParams, null);
+    }
+
+    /**
+     * @param target 所有客户端都连接的入口，为null时按拓扑分布
+     */
+    public ClientRouter(UnaryOperator<String> urlParams, Endpoint target) {
+        this.urlParams = urlParams;
+        this.target = target;
+    }
+
+    /**
+     * 追加 preferQueryMode、默认 options 和可选的 prepareThreshold，见 {@link JdbcUrlBuilder#withQueryMode}
+     */
+    public static ClientRouter withQueryMode(String queryMode, Integer prepareThreshold) {
+        return withQueryMode(queryMode, prepareThreshold, null);
+    }
+
+    public static ClientRouter withQueryMode(String queryMode, Integer prepareThreshold, Endpoint target) {
+        return new ClientRouter(url -> JdbcUrlBuilder.withQueryMode(url, queryMode, prepareThreshold), target);
+    }
+
+    /**
+     * 第 clientIndex 个客户端连接的入口
+     */
+    public Endpoint endpoint(int clientIndex) {
+        return target != null ? target : Topology.client(clientIndex);
+    }
+
+    /**
+     * 第 clientIndex 个客户端的连接，同一序号总是连接同一个入口
+     */
+    public Connection open(int clientIndex) throws SQLException {
+        Endpoint endpoint = endpoint(clientIndex);
+        return DriverManager.getConnection(urlOf(endpoint), endpoint.getUser(), endpoint.getPassword());
+    }
+
+    private String urlOf(Endpoint endpoint) {
+        return urls.computeIfAbsent(endpoint.getUrl(), urlParams);
+    }
+}
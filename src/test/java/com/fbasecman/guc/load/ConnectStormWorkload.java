@@ -0,0 +1,229 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接风暴：多个线程不停地建立连接、执行两条语句、关闭连接，
+ * 分别测量启动参数（options=-c ...）为0/1/10/50个时的建连延迟，以及连接池首次使用连接时同步启动参数的开销。
+ *
+ * 每次连接测三段：
+ * - 建连：DriverManager.getConnection 耗时（含认证与连接池握手）
+ * - 首次使用：第一条语句，连接池在此分配后端并同步客户端启动参数。
+ *   URL带 assumeMinServerVersion=9.0，驱动不在建连时执行 SET extra_float_digits / application_name，
+ *   否则连接池会在建连阶段就分配后端，首次使用测不到同步
+ * - 后续语句：同一连接上的第二条相同语句，作为不含同步的基线
+ * 同步开销 = 首次使用 - 后续语句，与 SET 触发的同步分开统计。
+ *
+ * 可配置：
+ * - guc.storm.optionCounts: 默认 0,1,10,50
+ * - guc.storm.threads: 并发线程数，默认 32
+ * - guc.storm.durationSeconds: 每组持续时间，默认 10
+ * - guc.storm.queryMode: simple / extended，默认 simple
+ */
+public class ConnectStormWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    // 用户级别、值不含空格、且与默认值不同的真实参数；不够时补充自定义占位参数。
+    // 取值写成 SHOW 返回的形式（如 10min 而不是 600000），回放校验只忽略大小写和空白
+    // 不使用驱动自己会设置的参数（extra_float_digits、application_name），否则启动参数会被驱动的值覆盖
+    private static final String[][] REAL_OPTIONS = {
+        {"DateStyle", "ISO,DMY"},
+        {"geqo_threshold", "20"},
+        {"work_mem", "8MB"},
+        {"maintenance_work_mem", "128MB"},
+        {"temp_buffers", "16MB"},
+        {"statement_timeout", "10min"},
+        {"lock_timeout", "10min"},
+        {"enable_seqscan", "off"},
+        {"enable_hashjoin", "off"},
+        {"enable_mergejoin", "off"},
+        {"geqo", "off"},
+        {"bytea_output", "escape"},
+        {"xmloption", "document"},
+        {"default_statistics_target", "200"},
+        {"cursor_tuple_fraction", "0.2"},
+        {"random_page_cost", "1.1"},
+        {"search_path", "public"},
+        {"client_min_messages", "warning"},
+    };
+
+    private static final String PROBE_SQL = "SELECT pg_backend_pid()";
+
+    private final int[] optionCounts = DatabaseConfig.getIntList("guc.storm.optionCounts", "0,1,10,50");
+    private final int threads = DatabaseConfig.getInt("guc.storm.threads", 32);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.storm.durationSeconds", 10);
+    private final String queryMode = DatabaseConfig.getProperty("guc.storm.queryMode", "simple");
+    private final Endpoint target;
+
+    public ConnectStormWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public ConnectStormWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 生成count个启动参数：先取真实参数，再补充 guc_storm.opt_N 占位参数
+     */
+    static Map<String, String> startupOptions(int count) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (i < REAL_OPTIONS.length) {
+                options.put(REAL_OPTIONS[i][0], REAL_OPTIONS[i][1]);
+            } else {
+                options.put("guc_storm.opt_" + i, "v" + i);
+            }
+        }
+        return options;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws InterruptedException {
+        LoadReport report = new LoadReport("连接风暴（启动参数同步开销，单位ms）",
+                new String[] {"启动参数数", "连接数", "连接/秒", "错误", "连接p50", "连接p99",
+                              "首次使用p50", "首次使用p99", "后续语句p50", "同步开销p50"},
+                new int[] {10, 8, 8, 6, 8, 8, 11, 11, 11, 11});
+        double baselineSyncCost = Double.NaN;
+
+        for (int optionCount : optionCounts) {
+            PhaseStats stats = runPhase(optionCount, results);
+            double syncCost = stats.firstUse.getPercentileMillis(50) - stats.warm.getPercentileMillis(50);
+            if (optionCount == 0) {
+                baselineSyncCost = syncCost;
+            }
+            report.addRow(optionCount, stats.connections, String.format("%.0f", stats.connectionsPerSecond),
+                    stats.errors,
+                    TablePrinter.millis(stats.connect.getPercentileMillis(50)),
+                    TablePrinter.millis(stats.connect.getPercentileMillis(99)),
+                    TablePrinter.millis(stats.firstUse.getPercentileMillis(50)),
+                    TablePrinter.millis(stats.firstUse.getPercentileMillis(99)),
+                    TablePrinter.millis(stats.warm.getPercentileMillis(50)),
+                    TablePrinter.millis(syncCost));
+
+            results.add(new TestResult("连接风暴", "启动参数" + optionCount + "个-无错误（" + queryMode + "）",
+                    "错误=0", "错误=" + stats.errors + (stats.lastError == null ? "" : ", " + stats.lastError),
+                    stats.errors == 0, stats.errors == 0 ? "通过" : "失败"));
+        }
+        report.addNote("线程数=" + threads + ", 每组持续" + durationSeconds + "秒, preferQueryMode=" + queryMode);
+        if (!Double.isNaN(baselineSyncCost)) {
+            report.addNote("启动参数带来的同步开销 ≈ 同步开销p50(N) - 同步开销p50(0) = 同步开销p50(N) - "
+                    + TablePrinter.millis(baselineSyncCost));
+        }
+        return report;
+    }
+
+    private PhaseStats runPhase(int optionCount, List<TestResult> results) throws InterruptedException {
+        Map<String, String> options = startupOptions(optionCount);
+        ClientRouter router = new ClientRouter(url -> JdbcUrlBuilder.withStartupOptions(url, queryMode, options),
+                target);
+        boolean useExtended = !"simple".equals(queryMode);
+        LOG.info("【连接风暴】启动参数 " + optionCount + " 个，线程 " + threads + "，持续 " + durationSeconds + " 秒");
+
+        LatencyHistogram[] connect = new LatencyHistogram[threads];
+        LatencyHistogram[] firstUse = new LatencyHistogram[threads];
+        LatencyHistogram[] warm = new LatencyHistogram[threads];
+        long[] errors = new long[threads];
+        String[] lastErrors = new String[threads];
+        for (int i = 0; i < threads; i++) {
+            connect[i] = new LatencyHistogram();
+            firstUse[i] = new LatencyHistogram();
+            warm[i] = new LatencyHistogram();
+        }
+
+        // 最后一个启动参数最容易在同步中被遗漏，用它做一次回放校验
+        String verifyName = null;
+        String verifyValue = null;
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            verifyName = option.getKey();
+            verifyValue = option.getValue();
+        }
+        String[] verifyActual = new String[1];
+
+        final String checkName = verifyName;
+        long start = System.nanoTime();
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+        List<Throwable> failures = LoadRunner.runWorkers("connect-storm", threads, workerId -> {
+            boolean verify = workerId == 0 && checkName != null;
+            while (System.nanoTime() < deadline) {
+                Connection conn = null;
+                long t0 = System.nanoTime();
+                try {
+                    conn = router.open(workerId);
+                    long t1 = System.nanoTime();
+                    JdbcOps.queryString(conn, PROBE_SQL, useExtended);
+                    long t2 = System.nanoTime();
+                    JdbcOps.queryString(conn, PROBE_SQL, useExtended);
+                    long t3 = System.nanoTime();
+                    connect[workerId].record(t1 - t0);
+                    firstUse[workerId].record(t2 - t1);
+                    warm[workerId].record(t3 - t2);
+                    if (verify) {
+                        verifyActual[0] = JdbcOps.show(conn, checkName, useExtended);
+                        verify = false;
+                    }
+                } catch (SQLException e) {
+                    errors[workerId]++;
+                    lastErrors[workerId] = e.getMessage();
+                } finally {
+                    JdbcOps.closeQuietly(conn);
+                }
+            }
+        });
+        double elapsedSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        PhaseStats stats = new PhaseStats();
+        for (int i = 0; i < threads; i++) {
+            stats.connect.merge(connect[i]);
+            stats.firstUse.merge(firstUse[i]);
+            stats.warm.merge(warm[i]);
+            stats.errors += errors[i];
+            if (lastErrors[i] != null) {
+                stats.lastError = lastErrors[i];
+            }
+        }
+        stats.errors += failures.size();
+        stats.connections = stats.connect.getCount();
+        stats.connectionsPerSecond = stats.connections / elapsedSeconds;
+
+        if (checkName != null) {
+            // SHOW DateStyle 返回 "ISO, DMY"，比较时忽略空白和大小写
+            boolean replayed = verifyActual[0] != null && GucValues.equivalent(verifyValue, verifyActual[0]);
+            results.add(new TestResult("连接风暴", "启动参数" + optionCount + "个-回放校验 " + checkName,
+                    verifyValue, String.valueOf(verifyActual[0]), replayed, replayed ? "通过" : "失败"));
+        }
+        return stats;
+    }
+
+    private static class PhaseStats {
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram firstUse = new LatencyHistogram();
+        final LatencyHistogram warm = new LatencyHistogram();
+        long connections;
+        long errors;
+        double connectionsPerSecond;
+        String lastError;
+    }
+}
@@ -0,0 +1,308 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无效参数错误风暴隔离：用例2.8（无效GUC错误）的并发版本。
+ *
+ * 一部分客户端连接（异常客户端）不停发送无效 SET，其余客户端（正常客户端）执行普通的参数同步流量：
+ * - 异常客户端轮流发送 未知参数 / 超出范围的值 / 非法枚举值（client_min_messages）；未知参数和非法枚举值
+ *   带有本客户端独有的标记（客户端编号和序号），超出范围的值是固定的字面量，只能检查错误信息指向该参数；
+ *   错误可以在 SET 时返回，也可以延迟到下一条 SELECT 返回（与用例2.8相同），
+ *   两者都没有报错、或错误信息中没有本条的标记（错误归属到了其他客户端）都计为失败；
+ *   之后检查本客户端之前设置的合法会话值仍然有效
+ * - 正常客户端每次 SET work_mem 为本客户端的值后立即读取 work_mem 和 application_name，
+ *   任何错误都是被错误归属的异常，值不一致是同步错误
+ *
+ * 先执行只有正常客户端的基线阶段，再执行两类客户端同时运行的风暴阶段，比较正常客户端的延迟。
+ *
+ * 可配置：
+ * - guc.errorstorm.clients: 客户端连接总数（每个一个线程），默认 64
+ * - guc.errorstorm.badPercent: 异常客户端百分比，默认 25
+ * - guc.errorstorm.durationSeconds: 每个阶段的持续时间，默认 20
+ * - guc.errorstorm.queryMode: simple / extended，默认 simple
+ * - guc.errorstorm.maxReports: 最多逐条报告的异常数，默认 5
+ */
+public class ErrorStormWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final String CHECK_SQL = "SELECT current_setting('work_mem'), current_setting('application_name')";
+
+    /**
+     * 无效 SET 的种类
+     */
+    enum InvalidKind {
+        UNKNOWN_PARAMETER("未知参数"), OUT_OF_RANGE("超出范围"), INVALID_ENUM("非法枚举值");
+
+        final String label;
+
+        InvalidKind(String label) {
+            this.label = label;
+        }
+
+        /**
+         * 返回 {SET 语句, 错误信息中应出现的标记}
+         */
+        String[] statement(int workerId, long seq) {
+            switch (this) {
+                case UNKNOWN_PARAMETER:
+                    String name = "storm_bad_w" + workerId + "_s" + seq;
+                    return new String[] {"SET " + name + " = 1", name};
+                case OUT_OF_RANGE:
+                    // extra_float_digits 的范围是 -15 .. 3；值固定，避免编码客户端编号后超出 int 而变成“非法整数”错误
+                    return new String[] {"SET extra_float_digits = 1000", "extra_float_digits"};
+                default:
+                    // client_min_messages 是枚举参数，非法取值直接报 invalid value，错误信息带有取值
+                    String word = "bogus_w" + workerId + "_s" + seq;
+                    return new String[] {"SET client_min_messages = '" + word + "'", word};
+            }
+        }
+    }
+
+    private final int clients = DatabaseConfig.getInt("guc.errorstorm.clients", 64);
+    private final int badPercent = DatabaseConfig.getInt("guc.errorstorm.badPercent", 25);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.errorstorm.durationSeconds", 20);
+    private final String queryMode = DatabaseConfig.getProperty("guc.errorstorm.queryMode", "simple");
+    private final int maxReports = DatabaseConfig.getInt("guc.errorstorm.maxReports", 5);
+    private final Endpoint target;
+
+    public ErrorStormWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public ErrorStormWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 单个客户端线程在一个阶段内的统计
+     */
+    private static final class WorkerStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long operations;
+        long unexpectedErrors;
+        long mismatches;
+        String lastError;
+        // 以下只用于异常客户端
+        final long[] errorsAtSet = new long[InvalidKind.values().length];
+        final long[] errorsDeferred = new long[InvalidKind.values().length];
+        long missingErrors;
+        long misattributed;
+        long stateLost;
+
+        void merge(WorkerStats other) {
+            latency.merge(other.latency);
+            operations += other.operations;
+            unexpectedErrors += other.unexpectedErrors;
+            mismatches += other.mismatches;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+            for (int i = 0; i < errorsAtSet.length; i++) {
+                errorsAtSet[i] += other.errorsAtSet[i];
+                errorsDeferred[i] += other.errorsDeferred[i];
+            }
+            missingErrors += other.missingErrors;
+            misattributed += other.misattributed;
+            stateLost += other.stateLost;
+        }
+    }
+
+    /**
+     * 一个阶段的结果：正常客户端与异常客户端分别合并
+     */
+    private static final class PhaseResult {
+        final WorkerStats healthy = new WorkerStats();
+        final WorkerStats bad = new WorkerStats();
+        double seconds;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null, target);
+        int badClients = Math.max(0, Math.min(clients - 1, Math.round(clients * badPercent / 100f)));
+        LOG.info("【错误风暴】客户端连接数=" + clients + "，其中异常客户端" + badClients + "个，每阶段" + durationSeconds
+                + "秒，preferQueryMode=" + queryMode);
+        AtomicLong reported = new AtomicLong();
+
+        PhaseResult baseline = runPhase(router, badClients, false, results, reported);
+        PhaseResult storm = runPhase(router, badClients, true, results, reported);
+
+        LoadReport report = new LoadReport("无效参数错误风暴隔离（单位ms）",
+                new String[] {"阶段", "正常客户端", "操作数", "操作/秒", "p50", "p99", "意外错误", "参数不一致"},
+                new int[] {8, 10, 10, 10, 8, 8, 8, 10});
+        for (PhaseResult phase : new PhaseResult[] {baseline, storm}) {
+            WorkerStats healthy = phase.healthy;
+            report.addRow(phase == baseline ? "基线" : "风暴", clients - badClients, healthy.operations,
+                    String.format("%.0f", healthy.operations / Math.max(phase.seconds, 1e-9)),
+                    TablePrinter.millis(healthy.latency.getPercentileMillis(50)),
+                    TablePrinter.millis(healthy.latency.getPercentileMillis(99)),
+                    healthy.unexpectedErrors, healthy.mismatches);
+        }
+        double p99Baseline = baseline.healthy.latency.getPercentileMillis(99);
+        double p99Storm = storm.healthy.latency.getPercentileMillis(99);
+        report.addNote("正常客户端 p99 变化 = " + (p99Baseline > 0
+                ? String.format("%+.1f%%", (p99Storm / p99Baseline - 1) * 100) : "-")
+                + "（每次操作为 SET work_mem + 读取两个参数）");
+        WorkerStats bad = storm.bad;
+        StringBuilder kinds = new StringBuilder();
+        for (InvalidKind kind : InvalidKind.values()) {
+            kinds.append(kinds.length() == 0 ? "" : "，").append(kind.label).append(" SET时报错=")
+                    .append(bad.errorsAtSet[kind.ordinal()]).append("/延迟报错=").append(bad.errorsDeferred[kind.ordinal()]);
+        }
+        report.addNote("异常客户端无效SET " + bad.operations + " 次：" + kinds);
+        report.addNote("异常客户端 未报错=" + bad.missingErrors + "，错误归属不符=" + bad.misattributed
+                + "，错误后会话值丢失=" + bad.stateLost + "，其他错误=" + bad.unexpectedErrors);
+
+        boolean attributed = bad.missingErrors == 0 && bad.misattributed == 0 && bad.stateLost == 0
+                && storm.healthy.unexpectedErrors == 0;
+        results.add(new TestResult("错误风暴隔离", "错误只返回给发出无效SET的客户端",
+                "未报错=0, 归属不符=0, 会话值丢失=0, 正常客户端错误=0",
+                "未报错=" + bad.missingErrors + ", 归属不符=" + bad.misattributed + ", 会话值丢失=" + bad.stateLost
+                        + ", 正常客户端错误=" + storm.healthy.unexpectedErrors
+                        + (storm.healthy.lastError != null ? "（" + storm.healthy.lastError + "）" : ""),
+                attributed, attributed ? "通过" : "失败"));
+        long mismatches = baseline.healthy.mismatches + storm.healthy.mismatches;
+        results.add(new TestResult("错误风暴隔离", "正常客户端参数同步", "参数不一致=0", "参数不一致=" + mismatches,
+                mismatches == 0, mismatches == 0 ? "通过" : "失败"));
+        return report;
+    }
+
+    private PhaseResult runPhase(ClientRouter router, int badClients, boolean storm, List<TestResult> results,
+                                 AtomicLong reported) throws InterruptedException {
+        String phaseName = storm ? "风暴" : "基线";
+        WorkerStats[] perWorker = new WorkerStats[clients];
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+        long start = System.nanoTime();
+        List<Throwable> failures = LoadRunner.runWorkers("error-storm", clients, workerId -> {
+            boolean isBad = workerId < badClients;
+            if (isBad && !storm) {
+                return;
+            }
+            WorkerStats stats = new WorkerStats();
+            perWorker[workerId] = stats;
+            boolean useExtended = !"simple".equals(queryMode);
+            Connection conn = null;
+            try {
+                conn = router.open(workerId);
+                conn.setAutoCommit(true);
+                String app = (isBad ? "storm_bad_" : "storm_ok_") + workerId;
+                JdbcOps.execute(conn, "SET application_name = '" + app + "'", useExtended);
+                long seq = 0;
+                while (System.nanoTime() < deadline) {
+                    seq++;
+                    try {
+                        if (isBad) {
+                            invalidSet(conn, useExtended, workerId, seq, app, stats, results, reported);
+                        } else {
+                            String workMem = (4 + (workerId + seq) % 8) + "MB";
+                            long t0 = System.nanoTime();
+                            JdbcOps.execute(conn, "SET work_mem = '" + workMem + "'", useExtended);
+                            String[] row = JdbcOps.queryRow(conn, CHECK_SQL, useExtended);
+                            stats.latency.record(System.nanoTime() - t0);
+                            if (row == null || !GucValues.equivalent(workMem, row[0]) || !app.equals(row[1])) {
+                                stats.mismatches++;
+                                report(results, reported, phaseName + "正常客户端" + workerId + "参数不一致",
+                                        "work_mem=" + workMem + ", application_name=" + app,
+                                        row == null ? "无结果" : "work_mem=" + row[0] + ", application_name=" + row[1]);
+                            }
+                        }
+                        stats.operations++;
+                    } catch (SQLException e) {
+                        stats.unexpectedErrors++;
+                        stats.lastError = e.getMessage();
+                        if (!isBad) {
+                            report(results, reported, phaseName + "正常客户端" + workerId + "收到错误", "无错误",
+                                    e.getMessage());
+                        }
+                    }
+                }
+            } finally {
+                JdbcOps.closeQuietly(conn);
+            }
+        });
+        PhaseResult phase = new PhaseResult();
+        for (int i = 0; i < clients; i++) {
+            if (perWorker[i] != null) {
+                (i < badClients ? phase.bad : phase.healthy).merge(perWorker[i]);
+            }
+        }
+        phase.healthy.unexpectedErrors += failures.size();
+        if (!failures.isEmpty() && phase.healthy.lastError == null) {
+            phase.healthy.lastError = String.valueOf(failures.get(0).getMessage());
+        }
+        phase.seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        LOG.info("【错误风暴】" + phaseName + "阶段：正常客户端操作 " + phase.healthy.operations + "，异常客户端无效SET "
+                + phase.bad.operations + "，正常客户端错误 " + phase.healthy.unexpectedErrors);
+        return phase;
+    }
+
+    /**
+     * 异常客户端的一次操作：无效 SET，必要时用下一条 SELECT 取出延迟的错误，再检查会话值仍然有效
+     */
+    private void invalidSet(Connection conn, boolean useExtended, int workerId, long seq, String app,
+                            WorkerStats stats, List<TestResult> results, AtomicLong reported) throws SQLException {
+        InvalidKind kind = InvalidKind.values()[(int) (seq % InvalidKind.values().length)];
+        String[] statement = kind.statement(workerId, seq);
+        String error = null;
+        try {
+            JdbcOps.execute(conn, statement[0], useExtended);
+        } catch (SQLException e) {
+            error = String.valueOf(e.getMessage());
+            stats.errorsAtSet[kind.ordinal()]++;
+        }
+        if (error == null) {
+            try {
+                JdbcOps.queryString(conn, "SELECT 2", useExtended);
+            } catch (SQLException e) {
+                error = String.valueOf(e.getMessage());
+                stats.errorsDeferred[kind.ordinal()]++;
+            }
+        }
+        if (error == null) {
+            stats.missingErrors++;
+            report(results, reported, "异常客户端" + workerId + " " + kind.label + "未报错", "SET时或下一条语句报错",
+                    statement[0] + " 与 SELECT 2 均成功");
+        } else if (!error.contains(statement[1])) {
+            stats.misattributed++;
+            report(results, reported, "异常客户端" + workerId + " " + kind.label + "错误归属不符",
+                    "错误信息包含 " + statement[1], error);
+        }
+        String actual = JdbcOps.queryString(conn, "SELECT current_setting('application_name')", useExtended);
+        if (!app.equals(actual)) {
+            stats.stateLost++;
+            report(results, reported, "异常客户端" + workerId + "错误后会话值丢失", "application_name=" + app,
+                    "application_name=" + actual);
+        }
+    }
+
+    private void report(List<TestResult> results, AtomicLong reported, String parameter, String expected,
+                        String actual) {
+        if (reported.incrementAndGet() > maxReports) {
+            return;
+        }
+        LOG.error("【错误风暴】" + parameter + "：期望 " + expected + "，实际 " + actual);
+        synchronized (results) {
+            results.add(new TestResult("错误风暴隔离", parameter, expected, actual, false, "失败"));
+        }
+    }
+}
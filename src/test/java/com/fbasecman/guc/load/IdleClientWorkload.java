@@ -0,0 +1,240 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.ProcessMemory;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 大量空闲客户端的内存占用：逐级建立到 1k / 5k / 10k / 20k 个客户端连接，每个连接设置一次自己的会话参数后保持空闲，
+ * 每级采样连接池进程内存并折算到每个客户端，再随机唤醒一部分客户端，检查其会话参数仍被正确回放。
+ *
+ * 空闲连接不占用线程：由固定数量的建连线程分段建立连接并设置参数，连接对象保存在数组中，
+ * 唤醒和关闭也由同样数量的线程完成，客户端数量不受线程数限制。
+ *
+ * 可配置：
+ * - guc.idle.steps: 逐级的客户端数，默认 1000,5000,10000,20000
+ * - guc.idle.gucs: 每个客户端设置的自定义参数数，默认 5
+ * - guc.idle.openerThreads: 建连 / 唤醒 / 关闭使用的线程数，默认 32
+ * - guc.idle.settleSeconds: 每级建连完成后等待多久再采样内存，默认 5
+ * - guc.idle.wakeSample: 每级随机唤醒的客户端数，默认 200
+ * - guc.idle.seed: 选择唤醒客户端的随机种子，默认取当前时间
+ * - guc.idle.poolerPid: 连接池进程号（连接池与测试程序在同一台机器上），默认不采样连接池内存
+ * - guc.idle.queryMode: simple / extended，默认 simple
+ * - guc.idle.maxOpenFailurePercent: 每级新建连接中允许失败的百分比，超过时该级判定失败，默认 0
+ */
+public class IdleClientWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int[] steps = DatabaseConfig.getIntList("guc.idle.steps", "1000,5000,10000,20000");
+    private final int gucs = DatabaseConfig.getInt("guc.idle.gucs", 5);
+    private final int openerThreads = DatabaseConfig.getInt("guc.idle.openerThreads", 32);
+    private final long settleSeconds = DatabaseConfig.getLong("guc.idle.settleSeconds", 5);
+    private final int wakeSample = DatabaseConfig.getInt("guc.idle.wakeSample", 200);
+    private final long seed = DatabaseConfig.getLong("guc.idle.seed", System.nanoTime());
+    private final String poolerPid = DatabaseConfig.getProperty("guc.idle.poolerPid", null);
+    private final String queryMode = DatabaseConfig.getProperty("guc.idle.queryMode", "simple");
+    private final double maxOpenFailurePercent = DatabaseConfig.getDouble("guc.idle.maxOpenFailurePercent", 0);
+    private final Endpoint target;
+
+    public IdleClientWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public IdleClientWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null, target);
+        boolean useExtended = !"simple".equals(queryMode);
+        String checkSql = checkSql();
+        int maxClients = 0;
+        for (int step : steps) {
+            maxClients = Math.max(maxClients, step);
+        }
+        Connection[] connections = new Connection[maxClients];
+        LoadReport report = new LoadReport("空闲客户端内存占用（唤醒单位ms）",
+                new String[] {"客户端数", "建连失败", "建连秒数", "连接池RSS", "池内存/客户端", "本机堆/客户端", "唤醒数",
+                              "唤醒p50", "唤醒p99", "不一致", "唤醒错误"},
+                new int[] {8, 8, 8, 12, 14, 14, 6, 8, 8, 6, 8});
+        LOG.info("【空闲客户端】逐级客户端数=" + Arrays.toString(steps) + "，每个客户端" + gucs + "个自定义参数，"
+                + "建连线程数=" + openerThreads + "，随机种子=" + seed);
+        Random random = new Random(seed);
+        long rssBase = ProcessMemory.rssKb(poolerPid);
+        System.gc();
+        long heapBase = usedHeapBytes();
+        int opened = 0;
+        try {
+            for (int step : steps) {
+                if (step <= opened) {
+                    continue;
+                }
+                int from = opened;
+                AtomicLong openFailures = new AtomicLong();
+                AtomicReference<String> openError = new AtomicReference<>();
+                long start = System.nanoTime();
+                List<Throwable> failures = LoadRunner.runWorkers("idle-open", openerThreads, workerId -> {
+                    for (int id = from + workerId; id < step; id += openerThreads) {
+                        try {
+                            connections[id] = open(router, id, useExtended);
+                        } catch (SQLException e) {
+                            openFailures.incrementAndGet();
+                            openError.compareAndSet(null, e.getMessage());
+                        }
+                    }
+                });
+                double openSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+                opened = step;
+                if (openFailures.get() > 0) {
+                    LOG.warn("【空闲客户端】建立到 " + step + " 个客户端时失败 " + openFailures.get() + " 个：" + openError.get());
+                }
+                LOG.info("【空闲客户端】已建立 " + step + " 个客户端连接，等待 " + settleSeconds + " 秒后采样内存");
+                TimeUnit.SECONDS.sleep(settleSeconds);
+                long rss = ProcessMemory.rssKb(poolerPid);
+                System.gc();
+                long heap = usedHeapBytes();
+
+                // 随机唤醒一部分已建立的客户端（包括前几级建立的）
+                List<Integer> candidates = new ArrayList<>();
+                for (int id = 0; id < step; id++) {
+                    if (connections[id] != null) {
+                        candidates.add(id);
+                    }
+                }
+                int alive = candidates.size();
+                Collections.shuffle(candidates, random);
+                List<Integer> woken = candidates.subList(0, Math.min(wakeSample, candidates.size()));
+                LatencyHistogram wake = new LatencyHistogram();
+                AtomicLong mismatches = new AtomicLong();
+                AtomicLong wakeErrors = new AtomicLong();
+                LatencyHistogram[] perThread = new LatencyHistogram[openerThreads];
+                failures.addAll(LoadRunner.runWorkers("idle-wake", openerThreads, workerId -> {
+                    LatencyHistogram latency = new LatencyHistogram();
+                    perThread[workerId] = latency;
+                    for (int i = workerId; i < woken.size(); i += openerThreads) {
+                        int id = woken.get(i);
+                        String expected = expectedSettings(id);
+                        long t0 = System.nanoTime();
+                        try {
+                            String actual = JdbcOps.queryString(connections[id], checkSql, useExtended);
+                            latency.record(System.nanoTime() - t0);
+                            if (!expected.equals(actual)) {
+                                if (mismatches.incrementAndGet() == 1) {
+                                    LOG.error("【空闲客户端】客户端" + id + "唤醒后参数不一致，期望 " + expected + "，实际 " + actual);
+                                }
+                            }
+                        } catch (SQLException e) {
+                            if (wakeErrors.incrementAndGet() == 1) {
+                                LOG.error("【空闲客户端】客户端" + id + "唤醒失败：" + e.getMessage());
+                            }
+                        }
+                    }
+                }));
+                for (LatencyHistogram latency : perThread) {
+                    if (latency != null) {
+                        wake.merge(latency);
+                    }
+                }
+
+                report.addRow(step, openFailures.get(), String.format("%.1f", openSeconds),
+                        rss < 0 ? "-" : String.format("%.1fMB", rss / 1024.0),
+                        rss < 0 || rssBase < 0 || alive == 0 ? "-"
+                                : String.format("%.1fKB", Math.max(0, rss - rssBase) / (double) alive),
+                        alive == 0 ? "-" : String.format("%.1fKB", Math.max(0, heap - heapBase) / 1024.0 / alive),
+                        woken.size(),
+                        TablePrinter.millis(wake.getPercentileMillis(50)),
+                        TablePrinter.millis(wake.getPercentileMillis(99)),
+                        mismatches.get(), wakeErrors.get() + failures.size());
+                // 建连大量失败时空闲客户端数远小于本级规模，内存和唤醒结果不代表该规模
+                boolean openedEnough = openFailures.get() * 100.0 <= maxOpenFailurePercent * (step - from);
+                boolean passed = mismatches.get() == 0 && wakeErrors.get() == 0 && failures.isEmpty() && openedEnough;
+                results.add(new TestResult("空闲客户端", step + "个客户端时唤醒" + woken.size() + "个",
+                        "参数不一致=0, 唤醒错误=0, 建连失败≤" + maxOpenFailurePercent + "%",
+                        "参数不一致=" + mismatches.get() + ", 唤醒错误=" + (wakeErrors.get() + failures.size())
+                                + ", 建连失败=" + openFailures.get(),
+                        passed, passed ? "通过" : "失败"));
+            }
+        } finally {
+            int toClose = opened;
+            LoadRunner.runWorkers("idle-close", openerThreads, workerId -> {
+                for (int id = workerId; id < toClose; id += openerThreads) {
+                    JdbcOps.closeQuietly(connections[id]);
+                }
+            });
+        }
+        report.addNote(poolerPid == null ? "未配置 guc.idle.poolerPid，不采样连接池内存"
+                : "池内存/客户端 = (VmRSS - 建连前 " + rssBase + "KB) ÷ 成功建立的客户端数，进程号 " + poolerPid);
+        report.addNote("本机堆/客户端 为测试程序自身（pgjdbc 连接对象）的堆占用；唤醒为空闲后的第一条语句，"
+                + "客户端数较多时需调大本机与连接池的文件描述符上限");
+        return report;
+    }
+
+    private Connection open(ClientRouter router, int id, boolean useExtended) throws SQLException {
+        Connection conn = router.open(id);
+        try {
+            conn.setAutoCommit(true);
+            for (int i = 0; i < gucs; i++) {
+                JdbcOps.execute(conn, "SET " + gucName(i) + " = '" + gucValue(id, i) + "'", useExtended);
+            }
+            return conn;
+        } catch (SQLException e) {
+            JdbcOps.closeQuietly(conn);
+            throw e;
+        }
+    }
+
+    private static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * 一条语句取全部会话参数（以逗号拼接）
+     */
+    private String checkSql() {
+        StringBuilder sql = new StringBuilder("SELECT concat_ws(','");
+        for (int i = 0; i < gucs; i++) {
+            sql.append(", current_setting('").append(gucName(i)).append("', true)");
+        }
+        return sql.append(")").toString();
+    }
+
+    private String expectedSettings(int id) {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < gucs; i++) {
+            expected.append(i == 0 ? "" : ",").append(gucValue(id, i));
+        }
+        return expected.toString();
+    }
+
+    private static String gucName(int i) {
+        return "guc_idle.p" + i;
+    }
+
+    private static String gucValue(int id, int i) {
+        return "c" + id + "_" + i;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.interleave.GucBaseline;
+import com.fbasecman.guc.interleave.Op;
+import com.fbasecman.guc.interleave.TraceExecutor;
+import com.fbasecman.guc.interleave.TraceFailure;
+import com.fbasecman.guc.interleave.TraceGenerator;
+import com.fbasecman.guc.interleave.TraceShrinker;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.sql.DriverManager;
+import java.util.List;
+
+/**
+ * 随机交错测试：K个客户端连接之间随机交错执行 SET / SET LOCAL / RESET / RESET ALL / DISCARD ALL /
+ * BEGIN / COMMIT / ROLLBACK / SHOW，每次 SHOW 与参考会话模型比较。失败的轨迹自动缩减为最小复现并打印。
+ * 第 t 条轨迹的种子为 seed + t，用同一个种子可以重新生成同一条轨迹。
+ *
+ * 可配置：
+ * - guc.interleave.clients: 客户端连接数K，默认 4
+ * - guc.interleave.steps: 每条轨迹的步数，默认 500
+ * - guc.interleave.traces: 每种协议执行的轨迹数，默认 20
+ * - guc.interleave.seed: 起始种子，默认取当前时间
+ * - guc.interleave.maxOpenTransactions: 同时打开的事务数上限，需小于连接池后端数，默认 1
+ * - guc.interleave.shrinkAttempts: 缩减时最多重新执行的次数，默认 300
+ * - guc.interleave.maxFailures: 每种协议最多缩减并报告的失败数，默认 3
+ */
+public class InterleavingWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int clients = DatabaseConfig.getInt("guc.interleave.clients", 4);
+    private final int steps = DatabaseConfig.getInt("guc.interleave.steps", 500);
+    private final int traces = DatabaseConfig.getInt("guc.interleave.traces", 20);
+    private final long seed = DatabaseConfig.getLong("guc.interleave.seed", System.nanoTime());
+    private final int maxOpenTransactions = DatabaseConfig.getInt("guc.interleave.maxOpenTransactions", 1);
+    private final int shrinkAttempts = DatabaseConfig.getInt("guc.interleave.shrinkAttempts", 300);
+    private final int maxFailures = DatabaseConfig.getInt("guc.interleave.maxFailures", 3);
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        LoadReport report = new LoadReport("随机交错测试",
+                new String[] {"协议", "轨迹数", "总步数", "步/秒", "SHOW检查", "失败", "最小复现步数"},
+                new int[] {12, 8, 10, 8, 10, 6, 12});
+        TraceGenerator generator = new TraceGenerator(clients, maxOpenTransactions);
+        LOG.info("【随机交错】种子=" + seed + "，客户端连接数=" + clients + "，每条轨迹" + steps + "步");
+
+        for (boolean useExtended : new boolean[] {false, true}) {
+            String protocolName = useExtended ? "Extended协议" : "Simple协议";
+            TraceExecutor executor = new TraceExecutor(ext -> DriverManager.getConnection(
+                    JdbcUrlBuilder.withProtocol(DatabaseConfig.getUrl(), ext),
+                    DatabaseConfig.getUser(), DatabaseConfig.getPassword()), useExtended);
+            GucBaseline baseline = executor.captureBaseline();
+
+            int executed = 0;
+            int failures = 0;
+            String minimalSizes = "";
+            long executionNanos = 0;
+            long firstRunSteps = 0;
+            for (int t = 0; t < traces && failures < maxFailures; t++) {
+                long traceSeed = seed + t;
+                List<Op> trace = generator.generate(traceSeed, steps);
+                long stepsBefore = executor.getSteps();
+                long start = System.nanoTime();
+                TraceFailure failure = executor.execute(trace, clients, baseline);
+                executionNanos += System.nanoTime() - start;
+                firstRunSteps += executor.getSteps() - stepsBefore;
+                executed++;
+                if (failure == null) {
+                    continue;
+                }
+                failures++;
+                LOG.error("【随机交错】" + protocolName + " 种子=" + traceSeed + " 失败: " + failure);
+                TraceShrinker shrinker = new TraceShrinker(executor, generator, clients, baseline, shrinkAttempts);
+                List<Op> minimal = shrinker.shrink(trace, failure);
+                TraceFailure minimalFailure = executor.execute(minimal, clients, baseline);
+
+                StringBuilder reproducer = new StringBuilder();
+                for (Op op : minimal) {
+                    reproducer.append("\n    ").append(op);
+                }
+                LOG.error("【随机交错】最小复现（" + minimal.size() + "步，缩减执行" + shrinker.getAttempts() + "次）："
+                        + reproducer);
+                minimalSizes += (minimalSizes.isEmpty() ? "" : ",") + minimal.size();
+                results.add(new TestResult("随机交错测试", "种子" + traceSeed + "（" + protocolName + "）",
+                        "所有SHOW与模型一致",
+                        (minimalFailure != null ? minimalFailure : failure) + "，最小复现" + minimal.size() + "步",
+                        false, "失败"));
+            }
+            double seconds = executionNanos / 1e9;
+            results.add(new TestResult("随机交错测试", "全部轨迹（" + protocolName + "）", "失败=0",
+                    "轨迹=" + executed + ", 失败=" + failures, failures == 0, failures == 0 ? "通过" : "失败"));
+            report.addRow(protocolName, executed, executor.getSteps(),
+                    String.format("%.0f", firstRunSteps / Math.max(seconds, 1e-9)),
+                    executor.getProbes(), failures, minimalSizes.isEmpty() ? "-" : minimalSizes);
+        }
+        report.addNote("种子=" + seed + "（第t条轨迹使用 种子+t），客户端连接数=" + clients
+                + "，同时打开事务上限=" + maxOpenTransactions);
+        report.addNote("总步数与SHOW检查包含缩减过程中的重新执行；步/秒只统计首次执行");
+        return report;
+    }
+}
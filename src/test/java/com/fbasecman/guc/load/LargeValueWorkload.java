@@ -0,0 +1,267 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.ProcessMemory;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 大参数值同步：按值大小（默认 16 B ~ 64 KB）扫描，考察同步路径随参数值变长的开销。
+ *
+ * 每个大小下，多个客户端组在独立线程中执行，每组由一个执行连接和一个占用连接组成。执行连接每轮：
+ * - 事务外设置三个长值参数：search_path（逗号分隔的模式名列表）、application_name、
+ *   guc_large.context（JSON 字符串），值按客户端和轮次区分
+ * - 偶数轮由占用连接开启事务并占住执行连接刚用过的后端，迫使下一条语句切换后端；奇数轮不占用，作为基线
+ * - 查询三个参数的 md5 与本地计算的期望比较，计时（切换轮即包含连接池回放三个长值的开销）
+ * 回放开销 = 切换后首条p50 - 未切换首条p50。回放报文按 simple 协议 Query 消息估算（每条 5 字节消息头 + SQL + 结尾0）。
+ * application_name 超过 63 字节时被服务端截断，期望值按截断后计算。
+ *
+ * 配置 guc.largevalue.poolerPid 时（连接池与测试程序在同一台机器上），从 /proc/&lt;pid&gt;/status 采样连接池进程 VmRSS，
+ * 连接池内存/客户端 = (本轮峰值 - 本轮开始前) ÷ 客户端组数。
+ *
+ * 可配置：
+ * - guc.largevalue.sizes: 值大小（字节），默认 16,256,1024,4096,16384,65536
+ * - guc.largevalue.clients: 客户端组数（线程数），默认 32
+ * - guc.largevalue.rounds: 每组轮数，默认 10
+ * - guc.largevalue.queryMode: simple / extended，默认 simple
+ * - guc.largevalue.poolerPid: 连接池进程号，默认不采样内存
+ */
+public class LargeValueWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /** NAMEDATALEN - 1 */
+    private static final int APPLICATION_NAME_LIMIT = 63;
+
+    private static final String CHECK_SQL = "SELECT md5(current_setting('search_path')), "
+            + "md5(current_setting('application_name')), md5(current_setting('guc_large.context', true))";
+
+    private final int[] sizes = DatabaseConfig.getIntList("guc.largevalue.sizes", "16,256,1024,4096,16384,65536");
+    private final int clients = DatabaseConfig.getInt("guc.largevalue.clients", 32);
+    private final int rounds = DatabaseConfig.getInt("guc.largevalue.rounds", 10);
+    private final String queryMode = DatabaseConfig.getProperty("guc.largevalue.queryMode", "simple");
+    private final String poolerPid = DatabaseConfig.getProperty("guc.largevalue.poolerPid", null);
+    private final Endpoint target;
+
+    public LargeValueWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public LargeValueWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 单个客户端组的统计
+     */
+    private static final class GroupStats {
+        final LatencyHistogram set = new LatencyHistogram();
+        final LatencyHistogram switched = new LatencyHistogram();
+        final LatencyHistogram baseline = new LatencyHistogram();
+        long payloadBytes;
+        long replayBytes;
+        long mismatches;
+        long errors;
+        String lastError;
+
+        void merge(GroupStats other) {
+            set.merge(other.set);
+            switched.merge(other.switched);
+            baseline.merge(other.baseline);
+            payloadBytes = Math.max(payloadBytes, other.payloadBytes);
+            replayBytes = Math.max(replayBytes, other.replayBytes);
+            mismatches += other.mismatches;
+            errors += other.errors;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null, target);
+        LoadReport report = new LoadReport("大参数值同步开销（单位ms）",
+                new String[] {"值大小", "三值合计B", "回放报文B", "SET p50", "切换后p50", "切换后p99", "未切换p50",
+                              "回放开销p50", "不一致", "错误", "池内存/客户端"},
+                new int[] {8, 10, 10, 8, 10, 10, 10, 12, 6, 6, 14});
+        for (int size : sizes) {
+            LOG.info("【大参数值】值大小 " + size + " B，客户端组数=" + clients + "，每组" + rounds + "轮");
+            long rssBefore = ProcessMemory.rssKb(poolerPid);
+            AtomicLong rssPeak = new AtomicLong(rssBefore);
+            AtomicLong running = new AtomicLong(clients);
+            GroupStats[] perGroup = new GroupStats[clients];
+
+            // 最后一个线程采样连接池内存，其余为客户端组
+            List<Throwable> failures = LoadRunner.runWorkers("large-value", clients + 1, workerId -> {
+                if (workerId == clients) {
+                    while (poolerPid != null && running.get() > 0) {
+                        rssPeak.accumulateAndGet(ProcessMemory.rssKb(poolerPid), Math::max);
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    }
+                    return;
+                }
+                try {
+                    perGroup[workerId] = runGroup(router, size, workerId);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+
+            GroupStats total = new GroupStats();
+            for (GroupStats stats : perGroup) {
+                if (stats != null) {
+                    total.merge(stats);
+                }
+            }
+            total.errors += failures.size();
+            if (!failures.isEmpty() && total.lastError == null) {
+                total.lastError = String.valueOf(failures.get(0).getMessage());
+            }
+            double switchedP50 = total.switched.getPercentileMillis(50);
+            double baselineP50 = total.baseline.getPercentileMillis(50);
+            String memory = rssBefore < 0 ? "-"
+                    : String.format("%.1fKB", Math.max(0, rssPeak.get() - rssBefore) / (double) clients);
+            report.addRow(size, total.payloadBytes, total.replayBytes,
+                    TablePrinter.millis(total.set.getPercentileMillis(50)),
+                    TablePrinter.millis(switchedP50),
+                    TablePrinter.millis(total.switched.getPercentileMillis(99)),
+                    TablePrinter.millis(baselineP50),
+                    TablePrinter.millis(switchedP50 - baselineP50),
+                    total.mismatches, total.errors, memory);
+            boolean passed = total.mismatches == 0 && total.errors == 0;
+            results.add(new TestResult("大参数值同步", "值大小 " + size + " B", "不一致=0, 错误=0",
+                    "不一致=" + total.mismatches + ", 错误=" + total.errors
+                            + (total.lastError != null ? "（" + total.lastError + "）" : ""),
+                    passed, passed ? "通过" : "失败"));
+        }
+        report.addNote("三个参数：search_path（模式名列表）、application_name（超过 " + APPLICATION_NAME_LIMIT
+                + " 字节被截断）、guc_large.context（JSON）；回放报文按 simple 协议 Query 消息估算");
+        report.addNote(poolerPid == null ? "未配置 guc.largevalue.poolerPid，不采样连接池内存"
+                : "连接池内存/客户端 = (VmRSS峰值 - 开始前) ÷ " + clients + "，进程号 " + poolerPid);
+        return report;
+    }
+
+    private GroupStats runGroup(ClientRouter router, int size, int group) throws SQLException {
+        GroupStats stats = new GroupStats();
+        boolean useExtended = !"simple".equals(queryMode);
+        Connection mover = null;
+        Connection holder = null;
+        try {
+            // 执行连接和占用连接必须经过同一个连接池入口
+            mover = router.open(group);
+            holder = router.open(group);
+            mover.setAutoCommit(true);
+            holder.setAutoCommit(true);
+            for (int round = 0; round < rounds; round++) {
+                String searchPath = searchPath(size, group, round);
+                String applicationName = padded("app_" + group + "_" + round + "_", size);
+                String context = context(size, group, round);
+                String[] sets = {
+                    "SET search_path = " + searchPath,
+                    "SET application_name = '" + applicationName + "'",
+                    "SET guc_large.context = '" + context + "'",
+                };
+                String[] expected = {
+                    md5(searchPath),
+                    md5(applicationName.substring(0, Math.min(applicationName.length(), APPLICATION_NAME_LIMIT))),
+                    md5(context),
+                };
+                boolean forceSwitch = round % 2 == 0;
+                try {
+                    long t0 = System.nanoTime();
+                    for (String sql : sets) {
+                        JdbcOps.execute(mover, sql, useExtended);
+                    }
+                    stats.set.record(System.nanoTime() - t0);
+                    stats.payloadBytes = searchPath.length() + applicationName.length() + context.length();
+                    long replayBytes = 0;
+                    for (String sql : sets) {
+                        replayBytes += 5 + sql.getBytes(StandardCharsets.UTF_8).length + 1;
+                    }
+                    stats.replayBytes = replayBytes;
+
+                    if (forceSwitch) {
+                        holder.setAutoCommit(false);
+                        JdbcOps.backendIdentity(holder, useExtended);
+                    }
+                    long t1 = System.nanoTime();
+                    String[] row = JdbcOps.queryRow(mover, CHECK_SQL, useExtended);
+                    (forceSwitch ? stats.switched : stats.baseline).record(System.nanoTime() - t1);
+                    if (row == null || !expected[0].equals(row[0]) || !expected[1].equals(row[1])
+                            || !expected[2].equals(row[2])) {
+                        stats.mismatches++;
+                        if (stats.mismatches == 1) {
+                            LOG.error("【大参数值】值大小 " + size + " B 第" + group + "组第" + (round + 1) + "轮"
+                                    + (forceSwitch ? "切换后端后" : "") + "参数 md5 不一致");
+                        }
+                    }
+                } catch (SQLException e) {
+                    stats.errors++;
+                    stats.lastError = e.getMessage();
+                } finally {
+                    if (forceSwitch && !holder.getAutoCommit()) {
+                        holder.commit();
+                        holder.setAutoCommit(true);
+                    }
+                }
+            }
+        } finally {
+            JdbcOps.closeQuietly(mover);
+            JdbcOps.closeQuietly(holder);
+        }
+        return stats;
+    }
+
+    /**
+     * 逗号分隔的模式名列表，长度不小于 size（模式不必存在）
+     */
+    private static String searchPath(int size, int group, int round) {
+        StringBuilder list = new StringBuilder("s" + group + "_" + round + "_0");
+        for (int i = 1; list.length() < size; i++) {
+            list.append(", s").append(group).append('_').append(round).append('_').append(i);
+        }
+        return list.toString();
+    }
+
+    private static String context(int size, int group, int round) {
+        String head = "{\"client\":" + group + ",\"round\":" + round + ",\"pad\":\"";
+        return padded(head, size - 2) + "\"}";
+    }
+
+    private static String padded(String head, int size) {
+        StringBuilder value = new StringBuilder(head);
+        while (value.length() < size) {
+            value.append((char) ('a' + value.length() % 26));
+        }
+        return value.toString();
+    }
+
+    private static String md5(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            return String.format("%032x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.fbasecman.guc.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 负载模式的线程驱动：启动N个工作线程同时开始执行，等待全部结束
+ */
+public class LoadRunner {
+
+    /**
+     * 单个工作线程的执行体，workerId 从0开始，工作线程各自维护自己的统计数据
+     */
+    @FunctionalInterface
+    public interface WorkerBody {
+        void run(int workerId) throws Exception;
+    }
+
+    /**
+     * 启动 threads 个线程执行 body 并等待全部结束
+     * @return 各线程抛出的未处理异常，全部正常结束时为空列表
+     */
+    public static List<Throwable> runWorkers(String name, int threads, WorkerBody body) throws InterruptedException {
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch startGate = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int workerId = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    startGate.await();
+                    body.run(workerId);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }, name + "-" + i);
+            workers[i].start();
+        }
+        startGate.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return failures;
+    }
+
+    /**
+     * 从现在起 seconds 秒后的 System.nanoTime() 截止时间
+     */
+    public static long deadlineAfterSeconds(long seconds) {
+        return System.nanoTime() + seconds * 1_000_000_000L;
+    }
+}
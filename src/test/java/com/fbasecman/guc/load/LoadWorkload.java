@@ -0,0 +1,14 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+
+import java.util.List;
+
+/**
+ * 负载模式：执行压测并返回汇总表格，正确性检查结果追加到 results
+ */
+@FunctionalInterface
+public interface LoadWorkload {
+    LoadReport run(List<TestResult> results) throws Exception;
+}
@@ -0,0 +1,86 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.ScenarioEngine;
+import com.fbasecman.guc.scenario.ScenarioMatrix;
+import com.fbasecman.guc.scenario.ScenarioOutcome;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.DriverManager;
+import java.util.List;
+
+/**
+ * 场景矩阵的一个分片，在 {@link ShardedMatrixWorkload} 启动的子JVM中执行。
+ * 每个单元格的结果写成一行，由父进程合并：下标 \t 是否通过 \t 耗时(ns) \t 语句数 \t 失败详情
+ *
+ * 系统属性（由父进程传入）：
+ * - guc.fullmatrix.shard / guc.fullmatrix.shards: 分片编号（从0开始）和分片总数
+ * - guc.fullmatrix.route: 本分片独占的入口在 {@link Topology#routes()} 中的下标
+ * - guc.fullmatrix.out: 结果文件路径
+ * - guc.fullmatrix.filter: 只执行名称包含该子串的单元格
+ */
+public class MatrixShardWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int shard = DatabaseConfig.getInt("guc.fullmatrix.shard", 0);
+    private final int shards = DatabaseConfig.getInt("guc.fullmatrix.shards", 1);
+    private final int route = DatabaseConfig.getInt("guc.fullmatrix.route", 0);
+    private final String out = DatabaseConfig.getProperty("guc.fullmatrix.out", "target/fullmatrix/shard-0.tsv");
+    private final String filter = DatabaseConfig.getProperty("guc.fullmatrix.filter", "");
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        Endpoint endpoint = Topology.routes().get(route);
+        ScenarioEngine engine = new ScenarioEngine(useExtended -> DriverManager.getConnection(
+                JdbcUrlBuilder.withProtocol(endpoint.getUrl(), useExtended),
+                endpoint.getUser(), endpoint.getPassword()), null, null).honorPauses(false);
+        List<ScenarioMatrix.Cell> cells = ScenarioMatrix.shard(ScenarioMatrix.cells(), shard, shards);
+        LOG.info("【场景矩阵】分片 " + (shard + 1) + "/" + shards + "，入口 " + endpoint + "，单元格数=" + cells.size());
+
+        Path path = Paths.get(out);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        int passed = 0;
+        int executed = 0;
+        // 每个单元格写完立即刷出，子JVM中途退出时父进程仍能合并已完成的部分
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (ScenarioMatrix.Cell cell : cells) {
+                if (!cell.getScenario().getName().contains(filter)) {
+                    continue;
+                }
+                ScenarioOutcome outcome = engine.run(cell.getScenario(), cell.isExtended(), cell.getProtocolName());
+                executed++;
+                if (outcome.isPassed()) {
+                    passed++;
+                } else {
+                    results.add(new TestResult("场景矩阵", cell.getScenario().getParameter()
+                            + "（" + cell.getProtocolName() + "）", "所有检测点通过",
+                            outcome.getFailureDetails(), false, "失败"));
+                }
+                String details = outcome.isPassed() ? "" : String.valueOf(outcome.getFailureDetails());
+                writer.write(cell.getIndex() + "\t" + outcome.isPassed() + "\t" + outcome.getElapsedNanos() + "\t"
+                        + outcome.getStatements() + "\t" + details.replaceAll("\\s+", " ") + "\n");
+                writer.flush();
+            }
+        }
+        results.add(new TestResult("场景矩阵", "分片" + (shard + 1) + "/" + shards, "失败=0",
+                "通过=" + passed + ", 失败=" + (executed - passed), passed == executed,
+                passed == executed ? "通过" : "失败"));
+        LoadReport report = new LoadReport("场景矩阵分片 " + (shard + 1) + "/" + shards,
+                new String[] {"单元格", "通过", "失败", "结果文件"}, new int[] {8, 8, 8, 50});
+        report.addRow(executed, passed, executed - passed, path);
+        return report;
+    }
+}
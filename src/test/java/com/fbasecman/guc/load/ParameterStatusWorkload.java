@@ -0,0 +1,208 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.protocol.ParameterStatusCapture;
+import com.fbasecman.guc.protocol.ParameterStatusLog;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * GUC_REPORT 参数跟踪：两个客户端连接都经由 {@link ParameterStatusCapture} 记录收到的每条 ParameterStatus 消息。
+ * 每轮由一个连接在事务外修改一个 report 参数，另一个连接开启事务占住其后端，迫使前者切换到新后端；
+ * 每次观察到后端切换后，逐个比较 report 参数的三个值：
+ * - 客户端看到的上报值（最后一条 ParameterStatus）与 SHOW 的会话值是否一致
+ * - SHOW 的会话值与该客户端自己设置的值是否一致（即GUC同步是否正确）
+ * 同时统计连接池转发的冗余 ParameterStatus（值与客户端已知值相同）的条数和字节数。
+ *
+ * 可配置：
+ * - guc.paramstatus.rounds: 每种协议的轮数，默认 100
+ * - guc.paramstatus.seed: 选择参数和取值的随机种子，默认取当前时间
+ * - guc.paramstatus.maxReports: 每种协议最多逐条报告的不一致数，默认 5
+ */
+public class ParameterStatusWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 修改的 report 参数及取值（SHOW 形式）；client_encoding 只检查不修改，pgjdbc 要求其为 UTF8
+     */
+    private static final String[][] MUTATIONS = {
+        {"DateStyle", "ISO, MDY", "ISO, DMY", "ISO, YMD"},
+        {"IntervalStyle", "postgres", "iso_8601", "sql_standard"},
+        {"TimeZone", "UTC", "Asia/Tokyo", "America/New_York"},
+        {"application_name", "paramstatus_a", "paramstatus_b"},
+        {"standard_conforming_strings", "on", "off"},
+    };
+
+    private static final String[] CHECKED = {
+        "DateStyle", "IntervalStyle", "TimeZone", "application_name", "standard_conforming_strings", "client_encoding"
+    };
+
+    private final int rounds = DatabaseConfig.getInt("guc.paramstatus.rounds", 100);
+    private final long seed = DatabaseConfig.getLong("guc.paramstatus.seed", System.nanoTime());
+    private final int maxReports = DatabaseConfig.getInt("guc.paramstatus.maxReports", 5);
+
+    /**
+     * 一个被跟踪的客户端连接：连接本身、ParameterStatus 记录、期望的会话值和上次所在的后端
+     */
+    private static final class TrackedClient {
+        final Connection conn;
+        final ParameterStatusLog log;
+        final Map<String, String> expected = new HashMap<>();
+        String lastBackend;
+
+        TrackedClient(Connection conn, ParameterStatusLog log) {
+            this.conn = conn;
+            this.log = log;
+        }
+    }
+
+    /**
+     * 每种协议的统计
+     */
+    private static final class Tally {
+        long switches;
+        long checks;
+        long reportMismatches;
+        long syncMismatches;
+        int reported;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        LoadReport report = new LoadReport("ParameterStatus跟踪",
+                new String[] {"协议", "轮数", "后端切换", "校验", "上报不一致", "会话不一致", "PS消息", "冗余PS", "冗余字节", "PS/切换"},
+                new int[] {12, 6, 8, 6, 10, 10, 8, 8, 8, 8});
+        LOG.info("【ParameterStatus跟踪】种子=" + seed + "，每种协议" + rounds + "轮");
+
+        for (boolean useExtended : new boolean[] {false, true}) {
+            String protocolName = useExtended ? "Extended协议" : "Simple协议";
+            Random random = new Random(seed);
+            Tally tally = new Tally();
+            TrackedClient[] clients = new TrackedClient[2];
+            try {
+                for (int c = 0; c < clients.length; c++) {
+                    clients[c] = open("客户端连接" + (c + 1), useExtended);
+                }
+                for (int round = 0; round < rounds; round++) {
+                    // 奇数轮交换角色，两个连接都会经历修改后切换后端
+                    TrackedClient mover = clients[round % 2];
+                    TrackedClient holder = clients[1 - round % 2];
+                    String[] mutation = MUTATIONS[random.nextInt(MUTATIONS.length)];
+                    String value = mutation[1 + random.nextInt(mutation.length - 1)];
+
+                    JdbcOps.execute(mover.conn, "SET " + mutation[0] + " = '" + value + "'", useExtended);
+                    mover.expected.put(mutation[0], value);
+                    mover.lastBackend = JdbcOps.backendIdentity(mover.conn, useExtended);
+
+                    holder.conn.setAutoCommit(false);
+                    observe(holder, useExtended, tally, protocolName, results);
+                    mover.conn.setAutoCommit(false);
+                    observe(mover, useExtended, tally, protocolName, results);
+                    mover.conn.commit();
+                    mover.conn.setAutoCommit(true);
+                    holder.conn.commit();
+                    holder.conn.setAutoCommit(true);
+                }
+            } finally {
+                for (TrackedClient client : clients) {
+                    if (client != null) {
+                        JdbcOps.closeQuietly(client.conn);
+                    }
+                }
+            }
+
+            long messages = 0;
+            long redundant = 0;
+            long redundantBytes = 0;
+            for (TrackedClient client : clients) {
+                if (client != null) {
+                    messages += client.log.getMessages();
+                    redundant += client.log.getRedundant();
+                    redundantBytes += client.log.getRedundantBytes();
+                }
+            }
+            boolean passed = tally.reportMismatches == 0 && tally.syncMismatches == 0;
+            results.add(new TestResult("ParameterStatus跟踪", "全部轮次（" + protocolName + "）",
+                    "上报不一致=0, 会话不一致=0",
+                    "上报不一致=" + tally.reportMismatches + ", 会话不一致=" + tally.syncMismatches
+                            + ", 冗余PS=" + redundant, passed, passed ? "通过" : "失败"));
+            report.addRow(protocolName, rounds, tally.switches, tally.checks, tally.reportMismatches,
+                    tally.syncMismatches, messages, redundant, redundantBytes,
+                    String.format("%.2f", messages / (double) Math.max(1, tally.switches)));
+        }
+        report.addNote("种子=" + seed + "；PS消息不含启动阶段；冗余PS为值与客户端已知值相同的 ParameterStatus");
+        report.addNote("校验的 report 参数：" + String.join(", ", CHECKED));
+        return report;
+    }
+
+    private static TrackedClient open(String label, boolean useExtended) throws SQLException {
+        ParameterStatusLog log = ParameterStatusCapture.register(label);
+        try {
+            Connection conn = DriverManager.getConnection(
+                    ParameterStatusCapture.captureUrl(JdbcUrlBuilder.withProtocol(DatabaseConfig.getUrl(), useExtended), log),
+                    DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+            conn.setAutoCommit(true);
+            TrackedClient client = new TrackedClient(conn, log);
+            for (String name : CHECKED) {
+                client.expected.put(name, JdbcOps.show(conn, name, useExtended));
+            }
+            client.lastBackend = JdbcOps.backendIdentity(conn, useExtended);
+            return client;
+        } finally {
+            ParameterStatusCapture.release(log);
+        }
+    }
+
+    /**
+     * 探测当前后端，与上次不同则视为一次后端切换并校验所有 report 参数
+     */
+    private void observe(TrackedClient client, boolean useExtended, Tally tally, String protocolName,
+                         List<TestResult> results) throws SQLException {
+        String backend = JdbcOps.backendIdentity(client.conn, useExtended);
+        if (backend == null || backend.equals(client.lastBackend)) {
+            return;
+        }
+        tally.switches++;
+        client.lastBackend = backend;
+        for (String name : CHECKED) {
+            tally.checks++;
+            String shown = JdbcOps.show(client.conn, name, useExtended);
+            String reported = client.log.reported(name);
+            String expected = client.expected.get(name);
+            if (!GucValues.equivalent(shown, reported)) {
+                tally.reportMismatches++;
+                report(tally, results, protocolName, client, name, "上报值与会话值一致",
+                        "上报=" + reported + ", SHOW=" + shown + "（" + backend + "）");
+            }
+            if (!GucValues.equivalent(expected, shown)) {
+                tally.syncMismatches++;
+                report(tally, results, protocolName, client, name, expected,
+                        "SHOW=" + shown + "（" + backend + "）");
+            }
+        }
+    }
+
+    private void report(Tally tally, List<TestResult> results, String protocolName, TrackedClient client,
+                        String name, String expected, String actual) {
+        if (tally.reported++ >= maxReports) {
+            return;
+        }
+        LOG.error("【ParameterStatus跟踪】" + protocolName + " " + client.log.getLabel() + " " + name
+                + " 期望=" + expected + ", 实际=" + actual);
+        results.add(new TestResult("ParameterStatus跟踪", name + "（" + client.log.getLabel() + "，" + protocolName + "）",
+                expected, actual, false, "失败"));
+    }
+}
@@ -0,0 +1,395 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 服务端命名语句与GUC同步：每个客户端连接在 prepareThreshold 很小的 extended 模式下准备数百条命名语句，
+ * 随后反复修改影响执行计划的参数并被迫切换后端，检查命名语句在新后端上是否仍然可用、结果是否使用同步后的参数。
+ *
+ * 命名语句按主键查询表 guc_ps_items，该表在 guc_ps_a、guc_ps_b 两个 schema 中各有一份，val 列分别为 int 和 text：
+ * search_path 决定语句解析到哪张表，切换后同一后端上的缓存计划会因结果类型变化报 0A000；
+ * enable_seqscan / work_mem / random_page_cost 影响这张表上的计划选择。
+ *
+ * 每组客户端由一个执行连接和一个占用连接组成，各组在独立线程中执行，每轮：
+ * - 执行连接在事务外修改一个计划相关参数（search_path / DateStyle / enable_seqscan / work_mem / random_page_cost）
+ * - 偶数轮：占用连接开启事务并占住执行连接刚用过的后端，迫使执行连接切换后端；奇数轮不占用，作为基线
+ * - 执行连接在自动提交模式下逐条执行全部命名语句，按结果分类计数：
+ *   正常 / 语句不存在（26000）/ 缓存计划结果类型变化（0A000）/ 其他错误 / 参数值与设置不一致 / 行来自另一个 schema。
+ *   该语句上次成功时解析到的 schema 与当前 search_path 不同时，0A000 是PostgreSQL的正常行为，
+ *   计数后立即重试一次（驱动会重新解析）；schema 没有变化却报 0A000，说明后端上的 search_path 与客户端不一致，判定失败
+ * - 统计执行连接当前后端上 pg_prepared_statements 的条数，判断连接池是否在新后端上重新准备了语句
+ * 切换开销 = 切换轮整批耗时p50 - 基线轮整批耗时p50。
+ *
+ * 可配置：
+ * - guc.prepared.groups: 客户端组数（线程数），默认 1
+ * - guc.prepared.statements: 每个执行连接准备的命名语句数，默认 200
+ * - guc.prepared.rounds: 每组轮数，默认 20
+ * - guc.prepared.prepareThreshold: pgjdbc 的 prepareThreshold，默认 1（第一次执行即使用命名语句）
+ * - guc.prepared.seed: 选择参数和取值的随机种子，默认取当前时间
+ */
+public class PreparedSwitchWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 计划相关参数及取值（SHOW 形式）；search_path 必须是第一项，见 {@link #schemaOf}
+     */
+    private static final String[][] MUTATIONS = {
+        {"search_path", "guc_ps_a, public", "guc_ps_b, public"},
+        {"DateStyle", "ISO, MDY", "ISO, DMY"},
+        {"enable_seqscan", "on", "off"},
+        {"work_mem", "4MB", "16MB"},
+        {"random_page_cost", "4", "1.1"},
+    };
+
+    private static final String SQLSTATE_NOT_EXIST = "26000";
+    private static final String SQLSTATE_CACHED_PLAN = "0A000";
+
+    private static final String[] SCHEMAS = {"guc_ps_a", "guc_ps_b"};
+    private static final String[] VAL_TYPES = {"int", "text"};
+    // 表的行数，使计划参数对扫描方式有实际影响
+    private static final int TABLE_ROWS = 10000;
+
+    private final int groups = DatabaseConfig.getInt("guc.prepared.groups", 1);
+    private final int statements = DatabaseConfig.getInt("guc.prepared.statements", 200);
+    private final int rounds = DatabaseConfig.getInt("guc.prepared.rounds", 20);
+    private final int prepareThreshold = DatabaseConfig.getInt("guc.prepared.prepareThreshold", 1);
+    private final long seed = DatabaseConfig.getLong("guc.prepared.seed", System.nanoTime());
+    private final Endpoint target;
+
+    public PreparedSwitchWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public PreparedSwitchWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 单个线程的统计，结束后合并
+     */
+    private static final class GroupStats {
+        final LatencyHistogram switchedBatch = new LatencyHistogram();
+        final LatencyHistogram baselineBatch = new LatencyHistogram();
+        final LatencyHistogram firstAfterSwitch = new LatencyHistogram();
+        long switchedRounds;
+        long baselineRounds;
+        long executions;
+        long notExist;
+        long cachedPlan;
+        long unexpectedCachedPlan;
+        long otherErrors;
+        long valueMismatches;
+        long wrongSchema;
+        long serverPreparedSum;
+        long serverPreparedSamples;
+        String lastError;
+
+        void merge(GroupStats other) {
+            switchedBatch.merge(other.switchedBatch);
+            baselineBatch.merge(other.baselineBatch);
+            firstAfterSwitch.merge(other.firstAfterSwitch);
+            switchedRounds += other.switchedRounds;
+            baselineRounds += other.baselineRounds;
+            executions += other.executions;
+            notExist += other.notExist;
+            cachedPlan += other.cachedPlan;
+            unexpectedCachedPlan += other.unexpectedCachedPlan;
+            otherErrors += other.otherErrors;
+            valueMismatches += other.valueMismatches;
+            wrongSchema += other.wrongSchema;
+            serverPreparedSum += other.serverPreparedSum;
+            serverPreparedSamples += other.serverPreparedSamples;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        // 语句缓存需能容纳全部命名语句，否则驱动自己会淘汰并重新准备
+        ClientRouter router = new ClientRouter(url -> {
+            url = JdbcUrlBuilder.withQueryMode(url, "extended", prepareThreshold);
+            url = JdbcUrlBuilder.appendParam(url, "preparedStatementCacheQueries", String.valueOf(statements + 16));
+            return JdbcUrlBuilder.appendParam(url, "preparedStatementCacheSizeMiB", "64");
+        }, target);
+        LOG.info("【命名语句切换】组数=" + groups + "，每组命名语句" + statements + "条，轮数=" + rounds
+                + "，prepareThreshold=" + prepareThreshold + "，种子=" + seed);
+        // 各组可能经过不同的租户（库），每个入口建一次表
+        Set<Endpoint> prepared = new HashSet<>();
+        for (int group = 0; group < groups; group++) {
+            if (prepared.add(router.endpoint(group))) {
+                try (Connection conn = router.open(group)) {
+                    createTables(conn);
+                }
+            }
+        }
+
+        GroupStats[] perGroup = new GroupStats[groups];
+        List<Throwable> failures = LoadRunner.runWorkers("prepared-switch", groups, groupId -> {
+            perGroup[groupId] = runGroup(router, groupId, new Random(seed + groupId));
+        });
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("命名语句切换工作线程异常", failures.get(0));
+        }
+
+        GroupStats total = new GroupStats();
+        for (GroupStats stats : perGroup) {
+            total.merge(stats);
+        }
+        long errors = total.notExist + total.unexpectedCachedPlan + total.otherErrors;
+        results.add(new TestResult("命名语句切换", "切换后端后命名语句可用", "错误=0",
+                "语句不存在=" + total.notExist + ", 意外的缓存计划变化=" + total.unexpectedCachedPlan
+                        + ", 其他=" + total.otherErrors
+                        + (total.lastError == null ? "" : "（" + total.lastError + "）"),
+                errors == 0, errors == 0 ? "通过" : "失败"));
+        long mismatches = total.valueMismatches + total.wrongSchema;
+        results.add(new TestResult("命名语句切换", "命名语句使用同步后的参数", "不一致=0",
+                "参数不一致=" + total.valueMismatches + ", 错误schema=" + total.wrongSchema, mismatches == 0,
+                mismatches == 0 ? "通过" : "失败"));
+
+        LoadReport report = new LoadReport("命名语句跨后端切换（单位ms）",
+                new String[] {"执行次数", "语句不存在率", "缓存计划变化率", "意外计划变化", "其他错误", "参数不一致",
+                              "错误schema", "后端已准备", "切换批p50", "基线批p50", "切换开销p50", "切换后首条p99"},
+                new int[] {8, 12, 14, 12, 8, 10, 10, 10, 10, 10, 12, 14});
+        double switchCost = total.switchedBatch.getPercentileMillis(50) - total.baselineBatch.getPercentileMillis(50);
+        report.addRow(total.executions,
+                percent(total.notExist, total.executions),
+                percent(total.cachedPlan, total.executions),
+                total.unexpectedCachedPlan, total.otherErrors, total.valueMismatches, total.wrongSchema,
+                total.serverPreparedSamples == 0 ? "-"
+                        : String.format("%.1f", total.serverPreparedSum / (double) total.serverPreparedSamples),
+                TablePrinter.millis(total.switchedBatch.getPercentileMillis(50)),
+                TablePrinter.millis(total.baselineBatch.getPercentileMillis(50)),
+                TablePrinter.millis(switchCost),
+                TablePrinter.millis(total.firstAfterSwitch.getPercentileMillis(99)));
+        report.addNote("切换轮=" + total.switchedRounds + "，基线轮=" + total.baselineRounds + "，每批" + statements
+                + "条命名语句；后端已准备 = 切换轮中执行连接所在后端上 pg_prepared_statements 的平均条数");
+        report.addNote("缓存计划变化率 = search_path 切换 schema 后首次执行报 0A000 的比例（PostgreSQL的正常行为，已重试）；"
+                + "意外计划变化 = schema 未变却报 0A000");
+        report.addNote("种子=" + seed + "，prepareThreshold=" + prepareThreshold);
+        return report;
+    }
+
+    private GroupStats runGroup(ClientRouter router, int group, Random random) throws SQLException {
+        GroupStats stats = new GroupStats();
+        Connection mover = null;
+        Connection holder = null;
+        PreparedStatement[] prepared = new PreparedStatement[statements];
+        try {
+            // 执行连接和占用连接必须经过同一个连接池入口
+            mover = router.open(group);
+            holder = router.open(group);
+            mover.setAutoCommit(true);
+            holder.setAutoCommit(true);
+            JdbcOps.execute(mover, "SET search_path = " + MUTATIONS[0][1], true);
+            String[] expected = new String[MUTATIONS.length];
+            for (int m = 0; m < MUTATIONS.length; m++) {
+                expected[m] = JdbcOps.show(mover, MUTATIONS[m][0], true);
+            }
+            for (int i = 0; i < statements; i++) {
+                prepared[i] = mover.prepareStatement(statementSql(i));
+            }
+            // 预热：每条执行到超过 prepareThreshold，使其成为服务端命名语句
+            for (int pass = 0; pass <= prepareThreshold; pass++) {
+                for (int i = 0; i < statements; i++) {
+                    executeQuietly(prepared[i]);
+                }
+            }
+            // 每条语句上次成功执行时解析到的 schema
+            int[] lastSchema = new int[statements];
+            Arrays.fill(lastSchema, schemaOf(expected[0]));
+
+            for (int round = 0; round < rounds; round++) {
+                int m = random.nextInt(MUTATIONS.length);
+                String value = MUTATIONS[m][1 + random.nextInt(MUTATIONS[m].length - 1)];
+                JdbcOps.execute(mover, "SET " + MUTATIONS[m][0] + " = " + literal(MUTATIONS[m][0], value), true);
+                expected[m] = value;
+                String before = JdbcOps.backendIdentity(mover, true);
+
+                boolean forceSwitch = round % 2 == 0;
+                if (forceSwitch) {
+                    holder.setAutoCommit(false);
+                    JdbcOps.backendIdentity(holder, true);
+                }
+                long batchStart = System.nanoTime();
+                for (int i = 0; i < statements; i++) {
+                    long t0 = System.nanoTime();
+                    executeChecked(prepared[i], i, expected, lastSchema, stats);
+                    if (i == 0 && forceSwitch) {
+                        stats.firstAfterSwitch.record(System.nanoTime() - t0);
+                    }
+                }
+                long batchNanos = System.nanoTime() - batchStart;
+                String after = JdbcOps.backendIdentity(mover, true);
+                if (forceSwitch) {
+                    stats.switchedRounds++;
+                    stats.switchedBatch.record(batchNanos);
+                    stats.serverPreparedSum += Long.parseLong(JdbcOps.queryString(mover,
+                            "SELECT count(*) FROM pg_prepared_statements", true));
+                    stats.serverPreparedSamples++;
+                    holder.commit();
+                    holder.setAutoCommit(true);
+                    if (after != null && after.equals(before)) {
+                        LOG.warn("【命名语句切换】第" + (round + 1) + "轮占用后端后执行连接仍在 " + after
+                                + "，连接池可能不是事务级复用");
+                    }
+                } else {
+                    stats.baselineRounds++;
+                    stats.baselineBatch.record(batchNanos);
+                }
+            }
+        } finally {
+            for (PreparedStatement statement : prepared) {
+                if (statement != null) {
+                    try {
+                        statement.close();
+                    } catch (SQLException ignored) {
+                        // 连接已失效
+                    }
+                }
+            }
+            JdbcOps.closeQuietly(mover);
+            JdbcOps.closeQuietly(holder);
+        }
+        return stats;
+    }
+
+    /**
+     * 在两个 schema 中各建一张同名表：主键相同，val 列类型不同（int 为 id*10，text 为 'b' || id）
+     */
+    private static void createTables(Connection conn) throws SQLException {
+        conn.setAutoCommit(true);
+        for (int s = 0; s < SCHEMAS.length; s++) {
+            String table = SCHEMAS[s] + ".guc_ps_items";
+            JdbcOps.execute(conn, "CREATE SCHEMA IF NOT EXISTS " + SCHEMAS[s], true);
+            JdbcOps.execute(conn, "DROP TABLE IF EXISTS " + table, true);
+            JdbcOps.execute(conn, "CREATE TABLE " + table + " (id int PRIMARY KEY, val " + VAL_TYPES[s] + ")", true);
+            JdbcOps.execute(conn, "INSERT INTO " + table + " SELECT g, " + (s == 0 ? "g * 10" : "'b' || g")
+                    + " FROM generate_series(0, " + (TABLE_ROWS - 1) + ") g", true);
+            JdbcOps.execute(conn, "ANALYZE " + table, true);
+        }
+    }
+
+    /**
+     * 第 i 条命名语句：文本各不相同，按主键查询 guc_ps_items（表由 search_path 决定），
+     * 返回编号、val 和全部计划相关参数的当前值
+     */
+    private static String statementSql(int i) {
+        StringBuilder sql = new StringBuilder("SELECT t.id, t.val");
+        for (String[] mutation : MUTATIONS) {
+            sql.append(", current_setting('").append(mutation[0]).append("')");
+        }
+        return sql.append(" FROM guc_ps_items t WHERE t.id = ").append(i % TABLE_ROWS).toString();
+    }
+
+    /**
+     * search_path 取值对应的 schema 下标
+     */
+    private static int schemaOf(String searchPath) {
+        return searchPath.trim().startsWith(SCHEMAS[1]) ? 1 : 0;
+    }
+
+    private static String expectedVal(int schema, int id) {
+        int key = id % TABLE_ROWS;
+        return schema == 0 ? String.valueOf(key * 10) : "b" + key;
+    }
+
+    private static String literal(String name, String value) {
+        // search_path 的取值本身是标识符列表，不能整体加引号
+        return "search_path".equals(name) ? value : "'" + value + "'";
+    }
+
+    private static void executeQuietly(PreparedStatement statement) {
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+        } catch (SQLException ignored) {
+            // 预热阶段的错误在正式轮次中统计
+        }
+    }
+
+    private static void executeChecked(PreparedStatement statement, int id, String[] expected, int[] lastSchema,
+                                       GroupStats stats) {
+        stats.executions++;
+        int schema = schemaOf(expected[0]);
+        try {
+            fetchAndCheck(statement, id, expected, schema, lastSchema, stats);
+        } catch (SQLException e) {
+            if (SQLSTATE_CACHED_PLAN.equals(e.getSQLState()) && lastSchema[id] != schema) {
+                stats.cachedPlan++;
+                try {
+                    fetchAndCheck(statement, id, expected, schema, lastSchema, stats);
+                } catch (SQLException retry) {
+                    countError(retry, stats);
+                }
+            } else if (SQLSTATE_CACHED_PLAN.equals(e.getSQLState())) {
+                stats.unexpectedCachedPlan++;
+                stats.lastError = e.getSQLState() + " " + e.getMessage() + "（search_path 未切换 schema）";
+            } else {
+                countError(e, stats);
+            }
+        }
+    }
+
+    private static void fetchAndCheck(PreparedStatement statement, int id, String[] expected, int schema,
+                                      int[] lastSchema, GroupStats stats) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) != id % TABLE_ROWS) {
+                stats.otherErrors++;
+                stats.lastError = "第" + id + "条命名语句返回了错误的行";
+                return;
+            }
+            lastSchema[id] = schema;
+            String val = rs.getString(2);
+            if (!expectedVal(schema, id).equals(val)) {
+                stats.wrongSchema++;
+                stats.lastError = "search_path=" + expected[0] + " 时 val=" + val + "，期望 " + expectedVal(schema, id);
+                return;
+            }
+            for (int m = 0; m < MUTATIONS.length; m++) {
+                if (!GucValues.equivalent(expected[m], rs.getString(m + 3))) {
+                    stats.valueMismatches++;
+                    stats.lastError = MUTATIONS[m][0] + " 期望=" + expected[m] + ", 实际=" + rs.getString(m + 3);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void countError(SQLException e, GroupStats stats) {
+        if (SQLSTATE_NOT_EXIST.equals(e.getSQLState())) {
+            stats.notExist++;
+        } else {
+            stats.otherErrors++;
+        }
+        stats.lastError = e.getSQLState() + " " + e.getMessage();
+    }
+
+    private static String percent(long count, long total) {
+        return String.format("%.2f%%", total == 0 ? 0.0 : count * 100.0 / total);
+    }
+}
@@ -0,0 +1,279 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 读写分离路由压测：用例2.8 / 2.10 的读写切换放大为多客户端并发。
+ *
+ * 每个客户端连接建立后在事务外设置 application_name 和 N 个自定义参数（guc_rw.p0 ...，值按客户端区分），
+ * 之后按只读比例随机选择每个事务的读写属性，与上一个事务不同时先执行
+ * SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY / READ WRITE 切换，再执行事务：
+ * - BEGIN
+ * - 首条语句查询 pg_is_in_recovery()、inet_server_port() 和全部会话参数（计时，切换后的首条包含连接池选后端和回放参数的开销）
+ * - 读写事务再执行 SELECT txid_current()，分配事务号，落在只读节点上会报错
+ * - COMMIT
+ * 只读事务应落在读节点（pg_is_in_recovery = true 或端口为读节点端口），读写事务应落在写节点，参数应与客户端设置一致。
+ * 报错 25006（read-only transaction，如读写事务在备库上执行 txid_current()）说明被路由到了只读节点，计为节点不符而不是执行错误。
+ *
+ * 客户端始终经连接池的读写分离路由取后端，不支持像其他负载模式那样固定连接某个入口（固定入口后没有路由可测）。
+ *
+ * 回放开销 = 切换后首条p50 - 同一读写属性未切换的首条p50。
+ *
+ * 可配置：
+ * - guc.rwsplit.clients: 客户端连接数（每个一个线程），默认 64
+ * - guc.rwsplit.durationSeconds: 持续时间，默认 30
+ * - guc.rwsplit.readPercent: 只读事务百分比，默认 50
+ * - guc.rwsplit.gucs: 每个客户端设置的自定义参数数，默认 19
+ * - guc.rwsplit.readPort: 多活场景下读节点的端口，默认 25432
+ * - guc.rwsplit.queryMode: simple / extended，默认 simple
+ * - guc.rwsplit.maxReports: 最多逐条报告的不一致数，默认 5
+ */
+public class ReadWriteSplitWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final String SQLSTATE_READ_ONLY = "25006";
+
+    private final int clients = DatabaseConfig.getInt("guc.rwsplit.clients", 64);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.rwsplit.durationSeconds", 30);
+    private final int readPercent = DatabaseConfig.getInt("guc.rwsplit.readPercent", 50);
+    private final int gucs = DatabaseConfig.getInt("guc.rwsplit.gucs", 19);
+    private final int readPort = DatabaseConfig.getInt("guc.rwsplit.readPort", 25432);
+    private final String queryMode = DatabaseConfig.getProperty("guc.rwsplit.queryMode", "simple");
+    private final int maxReports = DatabaseConfig.getInt("guc.rwsplit.maxReports", 5);
+
+    /**
+     * 单个客户端线程的统计。下标 [只读?1:0][切换?1:0]
+     */
+    private static final class WorkerStats {
+        final LatencyHistogram[][] firstStatement = new LatencyHistogram[2][2];
+        final LatencyHistogram[] flip = {new LatencyHistogram(), new LatencyHistogram()};
+        final long[][] transactions = new long[2][2];
+        long roleMismatches;
+        long gucMismatches;
+        long errors;
+        String lastError;
+
+        WorkerStats() {
+            for (LatencyHistogram[] row : firstStatement) {
+                row[0] = new LatencyHistogram();
+                row[1] = new LatencyHistogram();
+            }
+        }
+
+        void merge(WorkerStats other) {
+            for (int ro = 0; ro < 2; ro++) {
+                flip[ro].merge(other.flip[ro]);
+                for (int flipped = 0; flipped < 2; flipped++) {
+                    firstStatement[ro][flipped].merge(other.firstStatement[ro][flipped]);
+                    transactions[ro][flipped] += other.transactions[ro][flipped];
+                }
+            }
+            roleMismatches += other.roleMismatches;
+            gucMismatches += other.gucMismatches;
+            errors += other.errors;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+
+        long totalTransactions() {
+            return transactions[0][0] + transactions[0][1] + transactions[1][0] + transactions[1][1];
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null);
+        String checkSql = checkSql();
+        LOG.info("【读写分离】客户端连接数=" + clients + "，" + durationSeconds + "秒，只读比例=" + readPercent
+                + "%，每个客户端" + gucs + "个自定义参数，preferQueryMode=" + queryMode);
+
+        WorkerStats[] perWorker = new WorkerStats[clients];
+        AtomicLong reported = new AtomicLong();
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+        long start = System.nanoTime();
+        List<Throwable> failures = LoadRunner.runWorkers("rw-split", clients, workerId -> {
+            WorkerStats stats = new WorkerStats();
+            perWorker[workerId] = stats;
+            Random random = new Random(workerId);
+            boolean useExtended = !"simple".equals(queryMode);
+            Connection conn = null;
+            try {
+                conn = router.open(workerId);
+                conn.setAutoCommit(true);
+                JdbcOps.execute(conn, "SET application_name = 'rwsplit_" + workerId + "'", useExtended);
+                for (int i = 0; i < gucs; i++) {
+                    JdbcOps.execute(conn, "SET " + gucName(i) + " = '" + gucValue(workerId, i) + "'", useExtended);
+                }
+                String expected = expectedSettings(workerId);
+                boolean readOnly = false;
+                while (System.nanoTime() < deadline) {
+                    boolean nextReadOnly = random.nextInt(100) < readPercent;
+                    try {
+                        boolean flipped = nextReadOnly != readOnly;
+                        int ro = nextReadOnly ? 1 : 0;
+                        if (flipped) {
+                            long t0 = System.nanoTime();
+                            JdbcOps.execute(conn, "SET SESSION CHARACTERISTICS AS TRANSACTION "
+                                    + (nextReadOnly ? "READ ONLY" : "READ WRITE"), useExtended);
+                            stats.flip[ro].record(System.nanoTime() - t0);
+                            readOnly = nextReadOnly;
+                        }
+                        JdbcOps.execute(conn, "BEGIN", useExtended);
+                        long t1 = System.nanoTime();
+                        String[] row = JdbcOps.queryRow(conn, checkSql, useExtended);
+                        stats.firstStatement[ro][flipped ? 1 : 0].record(System.nanoTime() - t1);
+                        if (!readOnly) {
+                            JdbcOps.queryString(conn, "SELECT txid_current()", useExtended);
+                        }
+                        JdbcOps.execute(conn, "COMMIT", useExtended);
+                        stats.transactions[ro][flipped ? 1 : 0]++;
+                        verify(row, readOnly, expected, workerId, stats, results, reported);
+                    } catch (SQLException e) {
+                        if (SQLSTATE_READ_ONLY.equals(e.getSQLState())) {
+                            stats.roleMismatches++;
+                            report(workerId, nextReadOnly, "落在只读节点", expected, "报错: " + e.getMessage(),
+                                    results, reported);
+                        } else {
+                            stats.errors++;
+                            stats.lastError = e.getMessage();
+                        }
+                        try {
+                            JdbcOps.execute(conn, "ROLLBACK", useExtended);
+                        } catch (SQLException ignored) {
+                            // 连接已失效，由下一次循环报错
+                        }
+                    }
+                }
+            } finally {
+                JdbcOps.closeQuietly(conn);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        WorkerStats total = new WorkerStats();
+        for (WorkerStats stats : perWorker) {
+            if (stats != null) {
+                total.merge(stats);
+            }
+        }
+        total.errors += failures.size();
+        if (!failures.isEmpty() && total.lastError == null) {
+            total.lastError = String.valueOf(failures.get(0).getMessage());
+        }
+
+        LoadReport report = new LoadReport("读写分离路由与参数回放（单位ms）",
+                new String[] {"事务属性", "切换", "事务数", "切换语句p50", "切换语句p99", "首条p50", "首条p99", "回放开销p50"},
+                new int[] {8, 6, 10, 12, 12, 8, 8, 12});
+        for (int ro = 1; ro >= 0; ro--) {
+            double steady = total.firstStatement[ro][0].getPercentileMillis(50);
+            for (int flipped = 0; flipped < 2; flipped++) {
+                LatencyHistogram first = total.firstStatement[ro][flipped];
+                report.addRow(ro == 1 ? "只读" : "读写", flipped == 1 ? "是" : "否", total.transactions[ro][flipped],
+                        flipped == 1 ? TablePrinter.millis(total.flip[ro].getPercentileMillis(50)) : "-",
+                        flipped == 1 ? TablePrinter.millis(total.flip[ro].getPercentileMillis(99)) : "-",
+                        TablePrinter.millis(first.getPercentileMillis(50)),
+                        TablePrinter.millis(first.getPercentileMillis(99)),
+                        flipped == 1 && first.getCount() > 0 && total.firstStatement[ro][0].getCount() > 0
+                                ? TablePrinter.millis(first.getPercentileMillis(50) - steady) : "-");
+            }
+        }
+        long transactions = total.totalTransactions();
+        report.addNote("事务/秒=" + String.format("%.0f", transactions / Math.max(seconds, 1e-9))
+                + "，节点不符=" + total.roleMismatches + "（" + rate(total.roleMismatches, transactions) + "）"
+                + "，参数不一致=" + total.gucMismatches + "（" + rate(total.gucMismatches, transactions) + "）"
+                + "，错误=" + total.errors);
+        report.addNote("客户端连接数=" + clients + "，只读比例=" + readPercent + "%，每个客户端" + gucs
+                + "个自定义参数，读节点判定：pg_is_in_recovery = true 或端口 = " + readPort);
+
+        boolean clean = total.roleMismatches == 0 && total.gucMismatches == 0;
+        results.add(new TestResult("读写分离路由", "读写属性与节点一致、参数随切换回放",
+                "节点不符=0, 参数不一致=0",
+                "节点不符=" + total.roleMismatches + ", 参数不一致=" + total.gucMismatches, clean, clean ? "通过" : "失败"));
+        results.add(new TestResult("读写分离路由", "无执行错误", "错误=0",
+                "错误=" + total.errors + (total.lastError != null ? "（" + total.lastError + "）" : ""),
+                total.errors == 0, total.errors == 0 ? "通过" : "失败"));
+        return report;
+    }
+
+    private void verify(String[] row, boolean readOnly, String expected, int workerId, WorkerStats stats,
+                        List<TestResult> results, AtomicLong reported) {
+        boolean onReadNode = row != null && ("t".equals(row[0]) || String.valueOf(readPort).equals(row[1]));
+        String problem = null;
+        if (row == null || onReadNode != readOnly) {
+            stats.roleMismatches++;
+            problem = "期望" + (readOnly ? "读" : "写") + "节点";
+        } else if (!expected.equals(row[2])) {
+            stats.gucMismatches++;
+            problem = "参数不一致";
+        }
+        if (problem == null) {
+            return;
+        }
+        String actual = row == null ? "无结果"
+                : "pg_is_in_recovery=" + row[0] + ", port=" + row[1] + ", 参数=" + row[2];
+        report(workerId, readOnly, problem, expected, actual, results, reported);
+    }
+
+    /**
+     * 逐条报告前 maxReports 个不一致
+     */
+    private void report(int workerId, boolean readOnly, String problem, String expected, String actual,
+                        List<TestResult> results, AtomicLong reported) {
+        if (reported.incrementAndGet() > maxReports) {
+            return;
+        }
+        LOG.error("【读写分离】客户端" + workerId + " " + (readOnly ? "只读" : "读写") + "事务" + problem
+                + "，期望参数=" + expected + "，实际 " + actual);
+        synchronized (results) {
+            results.add(new TestResult("读写分离路由", "客户端" + workerId + (readOnly ? "只读" : "读写") + "事务",
+                    (readOnly ? "读" : "写") + "节点, 参数=" + expected, actual, false, "失败"));
+        }
+    }
+
+    /**
+     * 一条语句同时取节点角色、端口和全部会话参数（以逗号拼接）
+     */
+    private String checkSql() {
+        StringBuilder sql = new StringBuilder(
+                "SELECT pg_is_in_recovery(), inet_server_port(), concat_ws(',', current_setting('application_name')");
+        for (int i = 0; i < gucs; i++) {
+            sql.append(", current_setting('").append(gucName(i)).append("', true)");
+        }
+        return sql.append(")").toString();
+    }
+
+    private String expectedSettings(int workerId) {
+        StringBuilder expected = new StringBuilder("rwsplit_" + workerId);
+        for (int i = 0; i < gucs; i++) {
+            expected.append(',').append(gucValue(workerId, i));
+        }
+        return expected.toString();
+    }
+
+    private static String gucName(int i) {
+        return "guc_rw.p" + i;
+    }
+
+    private static String gucValue(int workerId, int i) {
+        return "c" + workerId + "_" + i;
+    }
+
+    private static String rate(long count, long total) {
+        return total == 0 ? "-" : String.format("%.3f%%", count * 100.0 / total);
+    }
+}
@@ -0,0 +1,194 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.SyncAmplification;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.stats.ClientStatementStats;
+import com.fbasecman.guc.stats.StatementKind;
+import com.fbasecman.guc.stats.SyncAmplificationCollector;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 三种重置方式的开销对比：逐个 RESET、RESET ALL、DISCARD ALL。
+ *
+ * 对每个脏参数数 N 和每种重置方式，单个客户端连接重复：
+ * - 事务外 SET N 个参数（DISCARD ALL 另外创建临时表和命名预备语句，作为需要一并清理的会话对象）
+ * - 执行重置并计时（逐个 RESET 为 N 条 RESET 的总耗时）
+ * - 紧接着执行一条 SELECT 1 并计时，连接池如果在重置后才同步会体现在这里
+ * - 抽查最后一个参数已恢复为连接初始值
+ * 配置了 db.direct.url 时，另外通过 pg_stat_statements 统计每次重置后连接池额外注入的 SET / RESET / DISCARD 条数
+ * （后端执行数 - 客户端发送数）。
+ *
+ * 可配置：
+ * - guc.reset.dirtyCounts: 脏参数数，默认 1,5,20,50
+ * - guc.reset.iterations: 每种组合的重复次数，默认 200
+ * - guc.reset.queryMode: simple / extended，默认 simple
+ * - guc.reset.sessionObjects: DISCARD ALL 每次创建的临时表数和预备语句数，默认 5
+ */
+public class ResetCostWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 重置方式
+     */
+    enum ResetStyle {
+        RESET_EACH("逐个RESET"), RESET_ALL("RESET ALL"), DISCARD_ALL("DISCARD ALL");
+
+        final String label;
+
+        ResetStyle(String label) {
+            this.label = label;
+        }
+    }
+
+    private final int[] dirtyCounts = DatabaseConfig.getIntList("guc.reset.dirtyCounts", "1,5,20,50");
+    private final int iterations = DatabaseConfig.getInt("guc.reset.iterations", 200);
+    private final String queryMode = DatabaseConfig.getProperty("guc.reset.queryMode", "simple");
+    private final int sessionObjects = DatabaseConfig.getInt("guc.reset.sessionObjects", 5);
+    private final Endpoint target;
+
+    public ResetCostWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public ResetCostWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        boolean useExtended = !"simple".equals(queryMode);
+        ClientRouter router = new ClientRouter(
+                url -> JdbcUrlBuilder.withoutDriverInitSets(JdbcUrlBuilder.withQueryMode(url, queryMode, null)),
+                target);
+        LoadReport report = new LoadReport("重置方式开销对比（单位ms）",
+                new String[] {"脏参数数", "重置方式", "次数", "重置p50", "重置p99", "后续首条p50", "后续首条p99",
+                              "注入同步/次", "未恢复"},
+                new int[] {8, 12, 6, 8, 8, 12, 12, 12, 6});
+        ClientStatementStats clientStats = new ClientStatementStats();
+
+        try (SyncAmplificationCollector collector = SyncAmplificationCollector.createIfConfigured();
+             Connection conn = router.open(0)) {
+            conn.setAutoCommit(true);
+            if (collector == null) {
+                LOG.warn("【重置开销】未配置 db.direct.url，不统计连接池注入的同步语句");
+            }
+            for (int dirtyCount : dirtyCounts) {
+                Map<String, String> dirty = ConnectStormWorkload.startupOptions(dirtyCount);
+                Map<String, String> defaults = new HashMap<>();
+                for (String name : dirty.keySet()) {
+                    // 自定义占位参数在 SET 之前不存在，SHOW 会报错，恢复后同样不可见，不参与抽查
+                    if (!name.contains(".")) {
+                        defaults.put(name, JdbcOps.show(conn, name, useExtended));
+                    }
+                }
+                String checked = lastRealParameter(dirty);
+                for (ResetStyle style : ResetStyle.values()) {
+                    LOG.info("【重置开销】脏参数 " + dirtyCount + " 个，" + style.label);
+                    LatencyHistogram reset = new LatencyHistogram();
+                    LatencyHistogram followUp = new LatencyHistogram();
+                    long notRestored = 0;
+
+                    long[] clientBefore = clientStats.snapshot();
+                    SyncAmplificationCollector.Snapshot before = collector == null ? null : collector.snapshot();
+                    for (int i = 0; i < iterations; i++) {
+                        for (Map.Entry<String, String> entry : dirty.entrySet()) {
+                            execute(conn, "SET " + entry.getKey() + " = '" + entry.getValue() + "'", useExtended, clientStats);
+                        }
+                        if (style == ResetStyle.DISCARD_ALL) {
+                            for (int k = 0; k < sessionObjects; k++) {
+                                execute(conn, "CREATE TEMP TABLE guc_reset_tmp_" + k + " (id int)", useExtended, clientStats);
+                                execute(conn, "PREPARE guc_reset_ps_" + k + " AS SELECT " + k, useExtended, clientStats);
+                            }
+                        }
+
+                        long t0 = System.nanoTime();
+                        switch (style) {
+                            case RESET_EACH:
+                                for (String name : dirty.keySet()) {
+                                    execute(conn, "RESET " + name, useExtended, clientStats);
+                                }
+                                break;
+                            case RESET_ALL:
+                                execute(conn, "RESET ALL", useExtended, clientStats);
+                                break;
+                            default:
+                                execute(conn, "DISCARD ALL", useExtended, clientStats);
+                                break;
+                        }
+                        long t1 = System.nanoTime();
+                        clientStats.record(StatementKind.SELECT);
+                        JdbcOps.queryString(conn, "SELECT 1", useExtended);
+                        long t2 = System.nanoTime();
+                        reset.record(t1 - t0);
+                        followUp.record(t2 - t1);
+
+                        if (checked != null) {
+                            clientStats.record(StatementKind.SHOW);
+                            String actual = JdbcOps.show(conn, checked, useExtended);
+                            if (!GucValues.equivalent(defaults.get(checked), actual)) {
+                                notRestored++;
+                            }
+                        }
+                    }
+                    String injected = "-";
+                    if (collector != null) {
+                        SyncAmplificationCollector.Snapshot after = collector.snapshotAfterSettle();
+                        SyncAmplification amplification = SyncAmplificationCollector.compare("重置开销", style.label,
+                                before, after, clientBefore, clientStats.snapshot());
+                        injected = String.format("%.2f", amplification.getInjectedSyncCount() / (double) iterations);
+                    }
+                    report.addRow(dirtyCount, style.label, iterations,
+                            TablePrinter.millis(reset.getPercentileMillis(50)),
+                            TablePrinter.millis(reset.getPercentileMillis(99)),
+                            TablePrinter.millis(followUp.getPercentileMillis(50)),
+                            TablePrinter.millis(followUp.getPercentileMillis(99)),
+                            injected, notRestored);
+                    results.add(new TestResult("重置开销", style.label + "（脏参数" + dirtyCount + "个）",
+                            "全部恢复初始值", "未恢复=" + notRestored, notRestored == 0,
+                            notRestored == 0 ? "通过" : "失败"));
+                }
+            }
+        }
+        report.addNote("preferQueryMode=" + queryMode + "；DISCARD ALL 每次另建 " + sessionObjects
+                + " 个临时表和 " + sessionObjects + " 个预备语句；后续首条为重置后紧接的 SELECT 1");
+        report.addNote("注入同步/次 = (后端SET+RESET+DISCARD执行数 - 客户端发送数) ÷ 次数，需配置 db.direct.url 且无其他负载");
+        report.addNote(SyncAmplificationCollector.COUNTING_NOTE);
+        return report;
+    }
+
+    private static void execute(Connection conn, String sql, boolean useExtended, ClientStatementStats clientStats)
+            throws SQLException {
+        clientStats.record(sql);
+        JdbcOps.execute(conn, sql, useExtended);
+    }
+
+    private static String lastRealParameter(Map<String, String> dirty) {
+        List<String> names = new ArrayList<>(dirty.keySet());
+        for (int i = names.size() - 1; i >= 0; i--) {
+            if (!names.get(i).contains(".")) {
+                return names.get(i);
+            }
+        }
+        return null;
+    }
+}
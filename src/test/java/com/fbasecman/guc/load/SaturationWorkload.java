@@ -0,0 +1,311 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.SyncAmplification;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.stats.ClientStatementStats;
+import com.fbasecman.guc.stats.SyncAmplificationCollector;
+import com.fbasecman.guc.util.ClientConnectionPool;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 连接池饱和：客户端连接数为连接池后端数的若干倍（默认 2 / 10 / 100 倍），每个客户端带有自己独有的会话参数，
+ * 把每个事务的耗时拆成 排队+同步 与 查询 两部分，判断高峰期是参数回放还是排队占主导。
+ *
+ * 每个事务：BEGIN；SELECT now() 与全部会话参数；SELECT pg_sleep（模拟查询）；COMMIT。
+ * now() 是事务在后端开始执行的时间，即连接池分配到后端并完成参数同步之后，因此：
+ * - 排队+同步 = now()（换算为本机时钟）- 客户端发出 BEGIN 的时间
+ * - 查询 = 事务总耗时 - 排队+同步
+ * 本机与数据库的时钟偏差在每个比例开始前于辅助连接池的空闲连接上校准（取往返最短的一次，误差不超过其往返时间的一半）。
+ * 配置 db.direct.url 时另外通过 pg_stat_statements 取连接池注入的 SET / RESET / DISCARD 条数与后端执行耗时，
+ * 同步 = 注入语句的后端耗时 ÷ 事务数，排队 = 排队+同步均值 - 同步；后端耗时不含连接池与后端之间的往返。
+ *
+ * 可配置：
+ * - guc.saturation.backends: 连接池后端连接数（需与连接池配置一致），默认 10
+ * - guc.saturation.ratios: 客户端数 / 后端数，默认 2,10,100
+ * - guc.saturation.durationSeconds: 每个比例的持续时间，默认 20
+ * - guc.saturation.gucs: 每个客户端设置的自定义参数数，默认 5
+ * - guc.saturation.queryMillis: 模拟查询的耗时，默认 1
+ * - guc.saturation.queryMode: simple / extended，默认 simple
+ */
+public class SaturationWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final int CALIBRATION_SAMPLES = 50;
+
+    private final int backends = DatabaseConfig.getInt("guc.saturation.backends", 10);
+    private final int[] ratios = DatabaseConfig.getIntList("guc.saturation.ratios", "2,10,100");
+    private final long durationSeconds = DatabaseConfig.getLong("guc.saturation.durationSeconds", 20);
+    private final int gucs = DatabaseConfig.getInt("guc.saturation.gucs", 5);
+    private final int queryMillis = DatabaseConfig.getInt("guc.saturation.queryMillis", 1);
+    private final String queryMode = DatabaseConfig.getProperty("guc.saturation.queryMode", "simple");
+    private final Endpoint target;
+
+    public SaturationWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public SaturationWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 单个客户端线程的统计
+     */
+    private static final class WorkerStats {
+        final LatencyHistogram waitAndSync = new LatencyHistogram();
+        final LatencyHistogram query = new LatencyHistogram();
+        final LatencyHistogram total = new LatencyHistogram();
+        long mismatches;
+        long errors;
+        String lastError;
+
+        void merge(WorkerStats other) {
+            waitAndSync.merge(other.waitAndSync);
+            query.merge(other.query);
+            total.merge(other.total);
+            mismatches += other.mismatches;
+            errors += other.errors;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = new ClientRouter(
+                url -> JdbcUrlBuilder.withoutDriverInitSets(JdbcUrlBuilder.withQueryMode(url, queryMode, null)),
+                target);
+        LoadReport report = new LoadReport("连接池饱和下的排队与同步（单位ms）",
+                new String[] {"比例", "客户端", "事务数", "事务/秒", "排队+同步p50", "排队+同步p99", "查询p50", "查询p99",
+                              "注入/事务", "同步均值", "排队均值", "不一致", "错误"},
+                new int[] {6, 8, 10, 8, 12, 12, 8, 8, 10, 8, 8, 6, 6});
+        ClientStatementStats clientStats = new ClientStatementStats();
+        try (SyncAmplificationCollector collector = SyncAmplificationCollector.createIfConfigured()) {
+            if (collector == null) {
+                LOG.warn("【连接池饱和】未配置 db.direct.url，不拆分同步与排队");
+            }
+            for (int ratio : ratios) {
+                int clients = backends * ratio;
+                long offsetMicros = calibrateClockOffset();
+                LOG.info("【连接池饱和】" + ratio + ":1，客户端连接数=" + clients + "，时钟偏差=" + offsetMicros + "us");
+
+                WorkerStats[] perWorker = new WorkerStats[clients];
+                CountDownLatch ready = new CountDownLatch(clients);
+                CountDownLatch go = new CountDownLatch(1);
+                AtomicLong deadline = new AtomicLong();
+                SyncAmplificationCollector.Snapshot[] before = new SyncAmplificationCollector.Snapshot[1];
+                long[][] clientBefore = new long[1][];
+                long[] window = new long[2];
+
+                // 最后一个线程等全部客户端建连并设置参数后再取快照、放行，建连时的 SET 不计入统计窗口
+                List<Throwable> failures = LoadRunner.runWorkers("saturation", clients + 1, workerId -> {
+                    if (workerId == clients) {
+                        try {
+                            ready.await();
+                            clientBefore[0] = clientStats.snapshot();
+                            before[0] = collector == null ? null : collector.snapshot();
+                        } finally {
+                            window[0] = System.nanoTime();
+                            deadline.set(LoadRunner.deadlineAfterSeconds(durationSeconds));
+                            go.countDown();
+                        }
+                        return;
+                    }
+                    WorkerStats stats = new WorkerStats();
+                    perWorker[workerId] = stats;
+                    boolean useExtended = !"simple".equals(queryMode);
+                    Connection conn = null;
+                    try {
+                        try {
+                            conn = router.open(workerId);
+                            conn.setAutoCommit(true);
+                            for (int i = 0; i < gucs; i++) {
+                                JdbcOps.execute(conn, "SET " + gucName(i) + " = '" + gucValue(workerId, i) + "'",
+                                        useExtended);
+                            }
+                        } catch (SQLException e) {
+                            stats.errors++;
+                            stats.lastError = e.getMessage();
+                            JdbcOps.closeQuietly(conn);
+                            conn = null;
+                        } finally {
+                            ready.countDown();
+                        }
+                        go.await();
+                        if (conn == null) {
+                            return;
+                        }
+                        String checkSql = checkSql();
+                        String expected = expectedSettings(workerId);
+                        while (System.nanoTime() < deadline.get()) {
+                            transaction(conn, useExtended, checkSql, expected, offsetMicros, stats, clientStats);
+                        }
+                    } finally {
+                        JdbcOps.closeQuietly(conn);
+                    }
+                });
+                window[1] = System.nanoTime();
+
+                WorkerStats total = new WorkerStats();
+                for (WorkerStats stats : perWorker) {
+                    if (stats != null) {
+                        total.merge(stats);
+                    }
+                }
+                total.errors += failures.size();
+                if (!failures.isEmpty() && total.lastError == null) {
+                    total.lastError = String.valueOf(failures.get(0).getMessage());
+                }
+                long transactions = total.total.getCount();
+                double seconds = (window[1] - window[0]) / (double) TimeUnit.SECONDS.toNanos(1);
+                String injected = "-";
+                String syncMean = "-";
+                String waitMean = "-";
+                if (collector != null && before[0] != null && transactions > 0) {
+                    SyncAmplification amplification = SyncAmplificationCollector.compare("连接池饱和", ratio + ":1",
+                            before[0], collector.snapshotAfterSettle(), clientBefore[0], clientStats.snapshot());
+                    double sync = amplification.getInjectedSyncTimeMs() / transactions;
+                    injected = String.format("%.2f", amplification.getAmplificationRatio());
+                    syncMean = TablePrinter.millis(sync);
+                    waitMean = TablePrinter.millis(Math.max(0, total.waitAndSync.getMeanNanos() / 1e6 - sync));
+                }
+                report.addRow(ratio + ":1", clients, transactions,
+                        String.format("%.0f", transactions / Math.max(seconds, 1e-9)),
+                        TablePrinter.millis(total.waitAndSync.getPercentileMillis(50)),
+                        TablePrinter.millis(total.waitAndSync.getPercentileMillis(99)),
+                        TablePrinter.millis(total.query.getPercentileMillis(50)),
+                        TablePrinter.millis(total.query.getPercentileMillis(99)),
+                        injected, syncMean, waitMean, total.mismatches, total.errors);
+                boolean passed = total.mismatches == 0 && total.errors == 0;
+                results.add(new TestResult("连接池饱和", ratio + ":1（" + clients + "个客户端）", "不一致=0, 错误=0",
+                        "不一致=" + total.mismatches + ", 错误=" + total.errors
+                                + (total.lastError != null ? "（" + total.lastError + "）" : ""),
+                        passed, passed ? "通过" : "失败"));
+            }
+        }
+        report.addNote("后端数=" + backends + "（guc.saturation.backends，需与连接池配置一致），每个客户端" + gucs
+                + "个自定义参数，模拟查询 " + queryMillis + "ms，preferQueryMode=" + queryMode);
+        report.addNote("排队+同步 按数据库 now() 与本机时钟换算；同步均值 / 排队均值 需配置 db.direct.url，"
+                + "同步只含注入语句的后端执行耗时");
+        report.addNote(SyncAmplificationCollector.COUNTING_NOTE);
+        return report;
+    }
+
+    private void transaction(Connection conn, boolean useExtended, String checkSql, String expected,
+                             long offsetMicros, WorkerStats stats, ClientStatementStats clientStats) {
+        long sentMicros = nowMicros();
+        long t0 = System.nanoTime();
+        try {
+            execute(conn, "BEGIN", useExtended, clientStats);
+            clientStats.record(checkSql);
+            String[] row = JdbcOps.queryRow(conn, checkSql, useExtended);
+            String sleep = "SELECT pg_sleep(" + queryMillis / 1000.0 + ")";
+            clientStats.record(sleep);
+            JdbcOps.queryString(conn, sleep, useExtended);
+            execute(conn, "COMMIT", useExtended, clientStats);
+            clientStats.recordTransaction();
+            long totalNanos = System.nanoTime() - t0;
+            // 事务开始时间换算为本机时钟后与发出 BEGIN 的时间之差；时钟误差可能使其略小于0或大于总耗时
+            long waitNanos = row == null ? 0
+                    : Math.max(0, Math.min(totalNanos, (Long.parseLong(row[0]) - offsetMicros - sentMicros) * 1000));
+            stats.total.record(totalNanos);
+            stats.waitAndSync.record(waitNanos);
+            stats.query.record(totalNanos - waitNanos);
+            if (row == null || !expected.equals(row[1])) {
+                stats.mismatches++;
+                if (stats.mismatches == 1) {
+                    LOG.error("【连接池饱和】参数不一致，期望 " + expected + "，实际 " + (row == null ? null : row[1]));
+                }
+            }
+        } catch (SQLException e) {
+            stats.errors++;
+            stats.lastError = e.getMessage();
+            try {
+                JdbcOps.execute(conn, "ROLLBACK", useExtended);
+            } catch (SQLException ignored) {
+                // 连接已失效，由下一次循环报错
+            }
+        }
+    }
+
+    /**
+     * 数据库时钟 - 本机时钟（微秒）：取往返最短的一次采样，假设请求和响应各占一半往返时间
+     */
+    private static long calibrateClockOffset() throws SQLException {
+        try (ClientConnectionPool.Lease lease = ClientConnectionPool.shared().borrow()) {
+            Connection conn = lease.connection();
+            long bestRtt = Long.MAX_VALUE;
+            long offset = 0;
+            for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+                long sent = nowMicros();
+                long server = Long.parseLong(JdbcOps.queryString(conn,
+                        "SELECT (extract(epoch FROM clock_timestamp()) * 1000000)::bigint", false));
+                long received = nowMicros();
+                if (received - sent < bestRtt) {
+                    bestRtt = received - sent;
+                    offset = server - (sent + received) / 2;
+                }
+            }
+            return offset;
+        }
+    }
+
+    private static void execute(Connection conn, String sql, boolean useExtended, ClientStatementStats clientStats)
+            throws SQLException {
+        clientStats.record(sql);
+        JdbcOps.execute(conn, sql, useExtended);
+    }
+
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /**
+     * 一条语句取事务开始时间（微秒）和全部会话参数（以逗号拼接）
+     */
+    private String checkSql() {
+        StringBuilder sql = new StringBuilder("SELECT (extract(epoch FROM now()) * 1000000)::bigint, concat_ws(','");
+        for (int i = 0; i < gucs; i++) {
+            sql.append(", current_setting('").append(gucName(i)).append("', true)");
+        }
+        return sql.append(")").toString();
+    }
+
+    private String expectedSettings(int workerId) {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < gucs; i++) {
+            expected.append(i == 0 ? "" : ",").append(gucValue(workerId, i));
+        }
+        return expected.toString();
+    }
+
+    private static String gucName(int i) {
+        return "guc_sat.p" + i;
+    }
+
+    private static String gucValue(int workerId, int i) {
+        return "c" + workerId + "_" + i;
+    }
+}
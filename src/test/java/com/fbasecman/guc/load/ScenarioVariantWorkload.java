@@ -0,0 +1,86 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.CompiledScenario;
+import com.fbasecman.guc.scenario.ScenarioCatalog;
+import com.fbasecman.guc.scenario.ScenarioEngine;
+import com.fbasecman.guc.scenario.ScenarioOutcome;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.DriverManager;
+import java.util.List;
+
+/**
+ * 批量执行预编译的声明式场景变体：两种协议下各执行 rounds 轮，不等待 PAUSE 步骤。
+ * 每个失败的场景记录一行测试结果，每种协议另记录一行汇总。
+ *
+ * 可配置：
+ * - guc.scenario.rounds: 执行轮数，默认 1
+ * - guc.scenario.filter: 只执行名称包含该子串的变体，默认全部
+ */
+public class ScenarioVariantWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int rounds = DatabaseConfig.getInt("guc.scenario.rounds", 1);
+    private final String filter = DatabaseConfig.getProperty("guc.scenario.filter", "");
+
+    @Override
+    public LoadReport run(List<TestResult> results) {
+        ScenarioEngine engine = new ScenarioEngine(useExtended -> DriverManager.getConnection(
+                JdbcUrlBuilder.withProtocol(DatabaseConfig.getUrl(), useExtended),
+                DatabaseConfig.getUser(), DatabaseConfig.getPassword()), null, null).honorPauses(false);
+
+        LoadReport report = new LoadReport("声明式场景变体（单位ms）",
+                new String[] {"协议", "执行次数", "通过", "失败", "场景/秒", "语句/秒", "场景p50", "场景p99"},
+                new int[] {12, 8, 8, 6, 8, 8, 8, 8});
+        int variantCount = 0;
+
+        for (boolean useExtended : new boolean[] {false, true}) {
+            String protocolName = useExtended ? "Extended协议" : "Simple协议";
+            LatencyHistogram latency = new LatencyHistogram();
+            long passed = 0;
+            long failed = 0;
+            long statements = 0;
+            variantCount = 0;
+            long start = System.nanoTime();
+
+            for (int round = 0; round < rounds; round++) {
+                for (CompiledScenario scenario : ScenarioCatalog.variants()) {
+                    if (!scenario.getName().contains(filter)) {
+                        continue;
+                    }
+                    variantCount++;
+                    ScenarioOutcome outcome = engine.run(scenario, useExtended, protocolName);
+                    latency.record(outcome.getElapsedNanos());
+                    statements += outcome.getStatements();
+                    if (outcome.isPassed()) {
+                        passed++;
+                    } else {
+                        failed++;
+                        results.add(new TestResult(scenario.getCategory(),
+                                scenario.getParameter() + "（" + protocolName + "，第" + (round + 1) + "轮）",
+                                "所有检测点通过", outcome.getFailureDetails(), false, "失败"));
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOG.info("【声明式场景变体】" + protocolName + " 执行 " + (passed + failed) + " 次，失败 " + failed);
+
+            results.add(new TestResult("声明式场景变体", "全部变体（" + protocolName + "）",
+                    "失败=0", "通过=" + passed + ", 失败=" + failed, failed == 0, failed == 0 ? "通过" : "失败"));
+            report.addRow(protocolName, passed + failed, passed, failed,
+                    String.format("%.1f", (passed + failed) / seconds),
+                    String.format("%.0f", statements / seconds),
+                    TablePrinter.millis(latency.getPercentileMillis(50)),
+                    TablePrinter.millis(latency.getPercentileMillis(99)));
+        }
+        report.addNote("变体数=" + variantCount / Math.max(1, rounds) + ", 轮数=" + rounds + "，变体不等待PAUSE步骤");
+        return report;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.interleave.GucBaseline;
+import com.fbasecman.guc.interleave.Schedule;
+import com.fbasecman.guc.interleave.ScheduleReplayer;
+import com.fbasecman.guc.interleave.TraceExecutor;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.ConnectionSource;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.DriverManager;
+import java.util.List;
+
+/**
+ * 确定性回放录制的并发调度（见 {@link ScheduleSoakWorkload}），重复若干次统计复现情况。
+ * 回放使用录制文件中的协议和参数初始值，连接地址取当前配置。
+ *
+ * 可配置：
+ * - guc.replay.file: 录制文件路径（必填）
+ * - guc.replay.repeat: 回放次数，默认 3
+ * - guc.replay.stallSeconds: 某一步等待超过该时间即判定调度偏离并中止，默认 30
+ */
+public class ScheduleReplayWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final String file = DatabaseConfig.getProperty("guc.replay.file", "");
+    private final int repeat = DatabaseConfig.getInt("guc.replay.repeat", 3);
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("replay 模式需要用 -Dguc.replay.file 指定录制文件");
+        }
+        Path path = Paths.get(file);
+        Schedule schedule = Schedule.read(path);
+        LOG.info("【调度回放】" + path + "：种子=" + schedule.getSeed() + "，第" + schedule.getEpoch() + "段，"
+                + schedule.getClients() + "个客户端，" + schedule.getSteps().size() + "步，录制失败序号="
+                + schedule.getFailureSeq());
+        ConnectionSource source = ext -> DriverManager.getConnection(
+                JdbcUrlBuilder.withProtocol(DatabaseConfig.getUrl(), ext),
+                DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+        if (!schedule.getBaseline().isResetRecorded()) {
+            // 旧格式只有初始值，RESET 之后的期望会错用驱动设置过的值（extra_float_digits、application_name）
+            LOG.warn("【调度回放】录制文件中没有 reset.* 行，在当前目标上重新采集 RESET 之后的恢复值");
+            GucBaseline live = new TraceExecutor(source, schedule.isExtended()).captureBaseline();
+            schedule = schedule.withBaseline(new GucBaseline(schedule.getBaseline().getInitial(), live.getReset()));
+        }
+        return replayRepeatedly(source, schedule, repeat, path.getFileName().toString(), results);
+    }
+
+    /**
+     * 回放 times 次，每次一行：录制时有失败的以“同一序号再次失败”为复现，录制时通过的以“无偏离且无失败”为复现
+     */
+    static LoadReport replayRepeatedly(ConnectionSource source, Schedule schedule, int times, String label,
+                                       List<TestResult> results) throws Exception {
+        LoadReport report = new LoadReport("并发调度回放 " + label,
+                new String[] {"次序", "步数", "耗时", "结果偏离", "模型失败序号", "复现", "说明"},
+                new int[] {6, 8, 10, 8, 12, 6, 60});
+        long stallMillis = DatabaseConfig.getLong("guc.replay.stallSeconds", 30) * 1000L;
+        boolean recordedFailure = schedule.getFailureSeq() >= 0;
+        int reproduced = 0;
+        for (int i = 1; i <= times; i++) {
+            ScheduleReplayer.Result result = new ScheduleReplayer(source, stallMillis).replay(schedule);
+            boolean same = result.getStalled() == null && (recordedFailure
+                    ? result.getFailureSeq() == schedule.getFailureSeq()
+                    : result.getFailure() == null && result.getDivergences() == 0);
+            if (same) {
+                reproduced++;
+            }
+            String detail = result.getStalled() != null ? result.getStalled()
+                    : result.getFailure() != null ? result.getFailure()
+                    : result.getFirstDivergence() != null ? "首个偏离: " + result.getFirstDivergence() : "-";
+            report.addRow(i, result.getSteps(), TablePrinter.millis(result.getElapsedNanos() / 1e6) + "ms",
+                    result.getDivergences(), result.getFailureSeq(), same ? "是" : "否", detail);
+            LOG.info("【调度回放】第" + i + "次：" + (same ? "复现" : "未复现") + "，" + detail);
+        }
+        results.add(new TestResult("调度回放", label + "（" + (schedule.isExtended() ? "Extended协议" : "Simple协议") + "）",
+                recordedFailure ? "序号" + schedule.getFailureSeq() + "处再次失败" : "回放无偏离",
+                "复现 " + reproduced + "/" + times, reproduced == times, reproduced == times ? "通过" : "失败"));
+        report.addNote("录制失败序号=" + schedule.getFailureSeq() + "；结果偏离为执行结果与录制结果不同的步数");
+        return report;
+    }
+}
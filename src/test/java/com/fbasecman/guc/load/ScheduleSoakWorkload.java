@@ -0,0 +1,165 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.interleave.ClientSession;
+import com.fbasecman.guc.interleave.GucBaseline;
+import com.fbasecman.guc.interleave.Op;
+import com.fbasecman.guc.interleave.Schedule;
+import com.fbasecman.guc.interleave.ScheduleRecorder;
+import com.fbasecman.guc.interleave.TraceExecutor;
+import com.fbasecman.guc.interleave.TraceGenerator;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.ConnectionSource;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 并发压测 + 调度录制：每个客户端一个线程，按各自的随机操作流执行 SET / SET LOCAL / RESET / BEGIN / COMMIT / SHOW，
+ * 语句之间随机休眠，由线程时序决定全局顺序。每条语句的全局先后顺序由 {@link ScheduleRecorder} 录制。
+ *
+ * 压测按段执行：每段开始时所有客户端按编号顺序新建连接，段结束时各自关闭连接，会话状态不跨段，
+ * 因此出现失败时只需保存失败所在的一段调度，长时间压测中的偶发失败也能在几秒内回放。
+ * 失败的调度写入文件后立即回放若干次，确认能否稳定复现（也可用 replay 模式单独回放）。
+ *
+ * 可配置：
+ * - guc.record.clients: 客户端连接数，默认 8
+ * - guc.record.durationSeconds: 压测总时长，默认 60
+ * - guc.record.epochSeconds: 每段时长，默认 30
+ * - guc.record.seed: 起始种子，默认取当前时间
+ * - guc.record.maxGapMillis: 语句之间的最大随机休眠，默认 5
+ * - guc.record.protocol: simple / extended，默认 simple
+ * - guc.record.dir: 录制文件目录，默认 target/schedules
+ * - guc.record.replays: 失败后立即回放的次数，默认 3，为0时不回放
+ */
+public class ScheduleSoakWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private final int clients = DatabaseConfig.getInt("guc.record.clients", 8);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.record.durationSeconds", 60);
+    private final long epochSeconds = DatabaseConfig.getLong("guc.record.epochSeconds", 30);
+    private final long seed = DatabaseConfig.getLong("guc.record.seed", System.nanoTime());
+    private final int maxGapMillis = DatabaseConfig.getInt("guc.record.maxGapMillis", 5);
+    private final boolean useExtended = "extended".equalsIgnoreCase(
+            DatabaseConfig.getProperty("guc.record.protocol", "simple"));
+    private final String directory = DatabaseConfig.getProperty("guc.record.dir", "target/schedules");
+    private final int replays = DatabaseConfig.getInt("guc.record.replays", 3);
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        String protocolName = useExtended ? "Extended协议" : "Simple协议";
+        LoadReport report = new LoadReport("并发压测调度录制",
+                new String[] {"协议", "段数", "客户端", "总步数", "步/秒", "失败段", "录制文件"},
+                new int[] {12, 6, 6, 10, 8, 6, 50});
+        ConnectionSource source = ext -> DriverManager.getConnection(
+                JdbcUrlBuilder.withProtocol(DatabaseConfig.getUrl(), ext),
+                DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+        GucBaseline baseline = new TraceExecutor(source, useExtended).captureBaseline();
+        TraceGenerator generator = new TraceGenerator(clients, clients);
+        LOG.info("【调度录制】种子=" + seed + "，客户端连接数=" + clients + "，" + protocolName
+                + "，总时长" + durationSeconds + "秒，每段" + epochSeconds + "秒");
+
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+        AtomicLong totalSteps = new AtomicLong();
+        long executionNanos = 0;
+        int epoch = 0;
+        Schedule failed = null;
+        Path failedPath = null;
+        while (System.nanoTime() < deadline && failed == null) {
+            long epochDeadline = Math.min(deadline, LoadRunner.deadlineAfterSeconds(epochSeconds));
+            ScheduleRecorder recorder = new ScheduleRecorder();
+            AtomicBoolean stop = new AtomicBoolean();
+            AtomicLong failureSeq = new AtomicLong(-1);
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            ClientSession[] sessions = new ClientSession[clients];
+            try {
+                for (int c = 0; c < clients; c++) {
+                    sessions[c] = new ClientSession(c, source.open(useExtended), useExtended, baseline);
+                }
+                final int currentEpoch = epoch;
+                long start = System.nanoTime();
+                List<Throwable> errors = LoadRunner.runWorkers("guc-soak", clients, workerId -> {
+                    ClientSession session = sessions[workerId];
+                    long clientSeed = Schedule.clientSeed(seed, currentEpoch, clients, workerId);
+                    TraceGenerator.ClientStream stream = generator.streamFor(workerId, clientSeed);
+                    // 休眠间隔使用独立的随机数，操作流只由种子决定
+                    Random gaps = new Random(~clientSeed);
+                    try {
+                        while (!stop.get() && System.nanoTime() < epochDeadline) {
+                            Op op = stream.next();
+                            String expected = session.expected(op);
+                            long startSeq = recorder.enter();
+                            String actual = session.execute(op);
+                            recorder.leave(startSeq, op, actual);
+                            totalSteps.incrementAndGet();
+                            if (!ClientSession.matches(op, expected, actual)) {
+                                if (failure.compareAndSet(null, op + " 期望=" + expected + ", 实际=" + actual)) {
+                                    failureSeq.set(startSeq);
+                                }
+                                stop.set(true);
+                                break;
+                            }
+                            if (maxGapMillis > 0) {
+                                Thread.sleep(gaps.nextInt(maxGapMillis + 1));
+                            }
+                        }
+                    } finally {
+                        session.close(recorder);
+                    }
+                });
+                executionNanos += System.nanoTime() - start;
+                if (!errors.isEmpty()) {
+                    throw new IllegalStateException("调度录制工作线程异常", errors.get(0));
+                }
+            } finally {
+                for (ClientSession session : sessions) {
+                    if (session != null) {
+                        session.closeQuietly();
+                    }
+                }
+            }
+
+            if (failure.get() != null) {
+                failed = new Schedule(seed, epoch, clients, useExtended, failureSeq.get(), baseline, recorder.steps());
+                failedPath = Paths.get(directory, "schedule-" + seed + "-e" + epoch + "-"
+                        + (useExtended ? "extended" : "simple") + ".tsv");
+                failed.write(failedPath);
+                LOG.error("【调度录制】第" + epoch + "段失败（序号" + failureSeq.get() + "）: " + failure.get()
+                        + "，本段" + failed.getSteps().size() + "步已录制到 " + failedPath);
+                results.add(new TestResult("调度录制", "种子" + seed + "第" + epoch + "段（" + protocolName + "）",
+                        "所有SHOW与模型一致", failure.get() + "，调度文件 " + failedPath, false, "失败"));
+            }
+            epoch++;
+        }
+
+        double seconds = executionNanos / 1e9;
+        results.add(new TestResult("调度录制", "全部" + epoch + "段（" + protocolName + "）", "失败=0",
+                "失败=" + (failed == null ? 0 : 1), failed == null, failed == null ? "通过" : "失败"));
+        report.addRow(protocolName, epoch, clients, totalSteps.get(),
+                String.format("%.0f", totalSteps.get() / Math.max(seconds, 1e-9)),
+                failed == null ? 0 : 1, failedPath == null ? "-" : failedPath.toString());
+        report.addNote("种子=" + seed + "（第e段客户端c的操作流种子为 种子 + e*客户端数 + c），语句间最大休眠="
+                + maxGapMillis + "ms；出现失败即停止压测");
+
+        if (failed != null && replays > 0) {
+            LoadReport replayReport = ScheduleReplayWorkload.replayRepeatedly(source, failed, replays,
+                    failedPath.getFileName().toString(), results);
+            report.addNote("失败调度立即回放" + replays + "次：");
+            for (String[] row : replayReport.getRows()) {
+                report.addNote("  " + String.join(" | ", row));
+            }
+        }
+        return report;
+    }
+}
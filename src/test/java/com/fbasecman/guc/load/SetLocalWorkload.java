@@ -0,0 +1,252 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 高并发 SET LOCAL 与保存点回滚：大量客户端连接各自在事务中执行 SET LOCAL、在保存点内 SET 后 ROLLBACK TO SAVEPOINT，
+ * 模拟 ORM 每个请求设置事务级参数的用法，校验连接池从不把事务级的值记入会话同步状态。
+ *
+ * 每个客户端连接建立后先在事务外设置自己独有的会话值（work_mem / application_name / statement_timeout），
+ * 之后每个事务：
+ * - SET LOCAL work_mem，检查事务内可见
+ * - SAVEPOINT；SET application_name；检查可见；ROLLBACK TO SAVEPOINT；检查已撤销
+ * - 一半事务再执行普通 SET statement_timeout（不在保存点内），随后以 3:1 的比例 COMMIT / ROLLBACK
+ * - 事务结束后在自动提交模式下检查三个参数：只有提交了的普通 SET 应保留，
+ *   事务结束后连接池可能分配到其他后端，此时读到的就是连接池同步的值
+ *
+ * 先执行语句数相同、用 SELECT 1 代替 SET 的基线阶段，再执行上述阶段，
+ * 跟踪开销 = 1 - 跟踪阶段事务/秒 ÷ 基线阶段事务/秒。
+ *
+ * 可配置：
+ * - guc.setlocal.clients: 客户端连接数（每个一个线程），默认 256
+ * - guc.setlocal.durationSeconds: 每个阶段的持续时间，默认 30
+ * - guc.setlocal.queryMode: simple / extended，默认 simple
+ * - guc.setlocal.maxReports: 最多逐条报告的不一致数，默认 5
+ */
+public class SetLocalWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final String CHECK_SQL =
+            "SELECT current_setting('work_mem'), current_setting('application_name'), current_setting('statement_timeout')";
+    private static final String LOCAL_WORK_MEM = "64MB";
+    private static final String[] TIMEOUTS = {"30s", "45s", "1min", "90s"};
+
+    private final int clients = DatabaseConfig.getInt("guc.setlocal.clients", 256);
+    private final long durationSeconds = DatabaseConfig.getLong("guc.setlocal.durationSeconds", 30);
+    private final String queryMode = DatabaseConfig.getProperty("guc.setlocal.queryMode", "simple");
+    private final int maxReports = DatabaseConfig.getInt("guc.setlocal.maxReports", 5);
+    private final Endpoint target;
+
+    public SetLocalWorkload() {
+        this(null);
+    }
+
+    /**
+     * @param target 所有客户端都连接该入口，为null时按 {@link Topology} 分布
+     */
+    public SetLocalWorkload(Endpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * 一个阶段的统计
+     */
+    private static final class PhaseStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long transactions;
+        long insideMismatches;
+        long leaks;
+        long errors;
+        String lastError;
+        double seconds;
+
+        double tps() {
+            return transactions / Math.max(seconds, 1e-9);
+        }
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        ClientRouter router = ClientRouter.withQueryMode(queryMode, null, target);
+        LOG.info("【SET LOCAL并发】客户端连接数=" + clients + "，每阶段" + durationSeconds + "秒，preferQueryMode=" + queryMode);
+        AtomicLong reported = new AtomicLong();
+
+        PhaseStats baseline = runPhase(router, false, results, reported);
+        PhaseStats tracked = runPhase(router, true, results, reported);
+
+        LoadReport report = new LoadReport("SET LOCAL与保存点回滚（单位ms）",
+                new String[] {"阶段", "事务数", "事务/秒", "事务p50", "事务p99", "事务内不一致", "事务后泄漏", "错误"},
+                new int[] {10, 10, 10, 8, 8, 12, 10, 6});
+        for (PhaseStats stats : new PhaseStats[] {baseline, tracked}) {
+            report.addRow(stats == baseline ? "基线" : "SET LOCAL", stats.transactions,
+                    String.format("%.0f", stats.tps()),
+                    TablePrinter.millis(stats.latency.getPercentileMillis(50)),
+                    TablePrinter.millis(stats.latency.getPercentileMillis(99)),
+                    stats.insideMismatches, stats.leaks, stats.errors);
+        }
+        double overhead = baseline.tps() > 0 ? 1 - tracked.tps() / baseline.tps() : Double.NaN;
+        report.addNote("跟踪开销 = 1 - SET LOCAL阶段事务/秒 ÷ 基线事务/秒 = " + String.format("%.1f%%", overhead * 100)
+                + "（两阶段每个事务的语句数相同）");
+        report.addNote("客户端连接数=" + clients + "，每阶段" + durationSeconds + "秒，preferQueryMode=" + queryMode);
+
+        boolean clean = tracked.leaks == 0 && tracked.insideMismatches == 0;
+        results.add(new TestResult("SET LOCAL并发", "事务级参数不进入会话同步状态", "泄漏=0, 事务内不一致=0",
+                "泄漏=" + tracked.leaks + ", 事务内不一致=" + tracked.insideMismatches, clean, clean ? "通过" : "失败"));
+        long errors = baseline.errors + tracked.errors;
+        results.add(new TestResult("SET LOCAL并发", "无执行错误", "错误=0",
+                "错误=" + errors + (tracked.lastError != null ? "（" + tracked.lastError + "）"
+                        : baseline.lastError != null ? "（" + baseline.lastError + "）" : ""),
+                errors == 0, errors == 0 ? "通过" : "失败"));
+        return report;
+    }
+
+    private PhaseStats runPhase(ClientRouter router, boolean trackGuc, List<TestResult> results, AtomicLong reported)
+            throws InterruptedException {
+        String phaseName = trackGuc ? "SET LOCAL" : "基线";
+        PhaseStats[] perWorker = new PhaseStats[clients];
+        long deadline = LoadRunner.deadlineAfterSeconds(durationSeconds);
+        long start = System.nanoTime();
+        List<Throwable> failures = LoadRunner.runWorkers("set-local", clients, workerId -> {
+            PhaseStats stats = new PhaseStats();
+            perWorker[workerId] = stats;
+            Random random = new Random(workerId);
+            boolean useExtended = !"simple".equals(queryMode);
+            Connection conn = null;
+            try {
+                conn = router.open(workerId);
+                conn.setAutoCommit(true);
+                // 每个客户端独有的会话值：work_mem, application_name, statement_timeout
+                String[] session = {(4 + workerId % 8) + "MB", "setlocal_" + workerId,
+                        JdbcOps.show(conn, "statement_timeout", useExtended)};
+                JdbcOps.execute(conn, "SET work_mem = '" + session[0] + "'", useExtended);
+                JdbcOps.execute(conn, "SET application_name = '" + session[1] + "'", useExtended);
+                while (System.nanoTime() < deadline) {
+                    long t0 = System.nanoTime();
+                    try {
+                        transaction(conn, useExtended, trackGuc, workerId, session, random, stats, phaseName,
+                                results, reported);
+                        stats.transactions++;
+                        stats.latency.record(System.nanoTime() - t0);
+                    } catch (SQLException e) {
+                        stats.errors++;
+                        stats.lastError = e.getMessage();
+                        try {
+                            conn.rollback();
+                            conn.setAutoCommit(true);
+                        } catch (SQLException ignored) {
+                            // 连接已失效，由下一次循环报错
+                        }
+                    }
+                }
+            } finally {
+                JdbcOps.closeQuietly(conn);
+            }
+        });
+        PhaseStats total = new PhaseStats();
+        for (PhaseStats stats : perWorker) {
+            if (stats == null) {
+                continue;
+            }
+            total.latency.merge(stats.latency);
+            total.transactions += stats.transactions;
+            total.insideMismatches += stats.insideMismatches;
+            total.leaks += stats.leaks;
+            total.errors += stats.errors;
+            if (stats.lastError != null) {
+                total.lastError = stats.lastError;
+            }
+        }
+        total.errors += failures.size();
+        if (!failures.isEmpty() && total.lastError == null) {
+            total.lastError = String.valueOf(failures.get(0).getMessage());
+        }
+        total.seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        LOG.info("【SET LOCAL并发】" + phaseName + "阶段：事务 " + total.transactions + "，泄漏 " + total.leaks
+                + "，错误 " + total.errors);
+        return total;
+    }
+
+    /**
+     * 一个事务；基线阶段把每条 SET 换成 SELECT 1，其余语句与检查相同
+     */
+    private void transaction(Connection conn, boolean useExtended, boolean trackGuc, int workerId, String[] session,
+                             Random random, PhaseStats stats, String phaseName, List<TestResult> results,
+                             AtomicLong reported) throws SQLException {
+        String localWorkMem = trackGuc ? LOCAL_WORK_MEM : session[0];
+        String savepointApp = trackGuc ? "setlocal_tmp_" + workerId : session[1];
+        conn.setAutoCommit(false);
+        JdbcOps.execute(conn, trackGuc ? "SET LOCAL work_mem = '" + LOCAL_WORK_MEM + "'" : "SELECT 1", useExtended);
+        check(conn, useExtended, localWorkMem, session[1], session[2], false, stats, phaseName, "SET LOCAL后",
+                results, reported);
+        JdbcOps.execute(conn, "SAVEPOINT sp", useExtended);
+        JdbcOps.execute(conn, trackGuc ? "SET application_name = '" + savepointApp + "'" : "SELECT 1", useExtended);
+        check(conn, useExtended, localWorkMem, savepointApp, session[2], false, stats, phaseName, "保存点内SET后",
+                results, reported);
+        JdbcOps.execute(conn, "ROLLBACK TO SAVEPOINT sp", useExtended);
+        check(conn, useExtended, localWorkMem, session[1], session[2], false, stats, phaseName, "回滚到保存点后",
+                results, reported);
+
+        String timeout = TIMEOUTS[random.nextInt(TIMEOUTS.length)];
+        boolean setTimeout = random.nextBoolean();
+        JdbcOps.execute(conn, trackGuc && setTimeout ? "SET statement_timeout = '" + timeout + "'" : "SELECT 1",
+                useExtended);
+        boolean commit = random.nextInt(4) != 0;
+        if (commit) {
+            conn.commit();
+        } else {
+            conn.rollback();
+        }
+        conn.setAutoCommit(true);
+        if (trackGuc && setTimeout && commit) {
+            session[2] = timeout;
+        }
+        check(conn, useExtended, session[0], session[1], session[2], true, stats, phaseName,
+                commit ? "提交后" : "回滚后", results, reported);
+    }
+
+    private void check(Connection conn, boolean useExtended, String workMem, String app, String timeout,
+                       boolean afterTransaction, PhaseStats stats, String phaseName, String where,
+                       List<TestResult> results, AtomicLong reported) throws SQLException {
+        String[] row = JdbcOps.queryRow(conn, CHECK_SQL, useExtended);
+        String[] expected = {workMem, app, timeout};
+        for (int i = 0; i < expected.length; i++) {
+            if (row != null && GucValues.equivalent(expected[i], row[i])) {
+                continue;
+            }
+            if (afterTransaction) {
+                stats.leaks++;
+            } else {
+                stats.insideMismatches++;
+            }
+            if (reported.incrementAndGet() <= maxReports) {
+                String actual = "work_mem=" + (row == null ? null : row[0]) + ", application_name="
+                        + (row == null ? null : row[1]) + ", statement_timeout=" + (row == null ? null : row[2]);
+                LOG.error("【SET LOCAL并发】" + phaseName + " " + where + " 期望 work_mem=" + workMem
+                        + ", application_name=" + app + ", statement_timeout=" + timeout + "，实际 " + actual);
+                synchronized (results) {
+                    results.add(new TestResult("SET LOCAL并发", where + "（" + phaseName + "）",
+                            "work_mem=" + workMem + ", application_name=" + app + ", statement_timeout=" + timeout,
+                            actual, false, "失败"));
+                }
+            }
+            return;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.fbasecman.guc.load;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.scenario.ScenarioMatrix;
+import com.fbasecman.guc.util.ForkedJvm;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.LatencyHistogram;
+import com.fbasecman.guc.util.TablePrinter;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 场景矩阵全量执行：把 {@link ScenarioMatrix} 展开的所有单元格按下标分片，每个分片在独立的子JVM中执行
+ * （见 {@link MatrixShardWorkload}），全部结束后合并为一张报告，按各维度取值分别统计通过率和场景耗时。
+ * 子JVM之间不共享连接和统计数据，一个分片异常退出不影响其他分片，已完成的单元格仍计入报告。
+ *
+ * 单元格的检测点假定连接池中没有其他客户端（“后端2复用后端1”），并发的分片共用一个连接池时会互相抢占后端，
+ * 结果不可信。因此每个分片独占 {@link Topology#routes()} 中的一个入口（连接池实例或租户），
+ * 分片数不超过入口数；只有一个入口时所有单元格在同一个子JVM中顺序执行。
+ *
+ * 可配置：
+ * - guc.fullmatrix.forks: 子JVM数量上限，默认 min(4, CPU数)，实际不超过拓扑中的入口数
+ * - guc.fullmatrix.dir: 分片结果和日志目录，默认 target/fullmatrix
+ * - guc.fullmatrix.timeoutMinutes: 单个分片的超时时间，超时强制结束，默认 60
+ * - guc.fullmatrix.filter: 只执行名称包含该子串的单元格，默认全部
+ */
+public class ShardedMatrixWorkload implements LoadWorkload {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /** 子JVM的启动模式参数 */
+    public static final String SHARD_MODE = "fullmatrix-shard";
+
+    private final Class<?> mainClass;
+    private final int maxForks = DatabaseConfig.getInt("guc.fullmatrix.forks",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private final String directory = DatabaseConfig.getProperty("guc.fullmatrix.dir", "target/fullmatrix");
+    private final long timeoutMinutes = DatabaseConfig.getLong("guc.fullmatrix.timeoutMinutes", 60);
+    private final String filter = DatabaseConfig.getProperty("guc.fullmatrix.filter", "");
+
+    /**
+     * @param mainClass 子JVM的入口类，以 {@link #SHARD_MODE} 为第一个参数执行分片
+     */
+    public ShardedMatrixWorkload(Class<?> mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    /**
+     * 单元格结果，未执行（分片异常退出）时为null
+     */
+    private static final class CellOutcome {
+        boolean passed;
+        long elapsedNanos;
+        String details;
+    }
+
+    @Override
+    public LoadReport run(List<TestResult> results) throws Exception {
+        List<ScenarioMatrix.Cell> cells = ScenarioMatrix.cells();
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        List<Endpoint> routes = Topology.routes();
+        int forks = Math.max(1, Math.min(maxForks, routes.size()));
+        if (forks < maxForks) {
+            LOG.warn("【场景矩阵】拓扑中只有 " + routes.size() + " 个入口，分片数由 " + maxForks + " 降为 " + forks
+                    + "（分片共用连接池会互相抢占后端，见 db.endpoints / db.tenants）");
+        }
+        LOG.info("【场景矩阵】单元格数=" + cells.size() + "，分片数=" + forks + "，结果目录=" + dir.toAbsolutePath());
+
+        long start = System.nanoTime();
+        Process[] processes = new Process[forks];
+        for (int shard = 0; shard < forks; shard++) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("guc.fullmatrix.shard", String.valueOf(shard));
+            properties.put("guc.fullmatrix.shards", String.valueOf(forks));
+            properties.put("guc.fullmatrix.route", String.valueOf(shard));
+            properties.put("guc.fullmatrix.out", resultPath(dir, shard).toString());
+            properties.put("guc.fullmatrix.filter", filter);
+            processes[shard] = ForkedJvm.start(mainClass, properties, Collections.singletonList(SHARD_MODE),
+                    dir.resolve("shard-" + shard + ".log"));
+        }
+
+        String[] shardStatus = new String[forks];
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        for (int shard = 0; shard < forks; shard++) {
+            Process process = processes[shard];
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            if (!process.waitFor(remaining, TimeUnit.NANOSECONDS)) {
+                process.destroyForcibly().waitFor();
+                shardStatus[shard] = "超时";
+            } else {
+                shardStatus[shard] = process.exitValue() == 0 ? "正常" : "退出码" + process.exitValue();
+            }
+            if (!"正常".equals(shardStatus[shard])) {
+                results.add(new TestResult("场景矩阵", "分片" + (shard + 1) + "/" + forks, "正常结束",
+                        shardStatus[shard] + "，日志 " + dir.resolve("shard-" + shard + ".log"), false, "失败"));
+            }
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        CellOutcome[] outcomes = new CellOutcome[cells.size()];
+        for (int shard = 0; shard < forks; shard++) {
+            readShard(resultPath(dir, shard), outcomes);
+        }
+        return buildReport(cells, outcomes, shardStatus, routes.subList(0, forks), wallSeconds, results);
+    }
+
+    private static Path resultPath(Path dir, int shard) {
+        return dir.resolve("shard-" + shard + ".tsv");
+    }
+
+    private static void readShard(Path path, CellOutcome[] outcomes) throws Exception {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cols = line.split("\t", 5);
+                if (cols.length < 4) {
+                    // 子JVM被强制结束时最后一行可能不完整
+                    continue;
+                }
+                CellOutcome outcome = new CellOutcome();
+                outcome.passed = Boolean.parseBoolean(cols[1]);
+                outcome.elapsedNanos = Long.parseLong(cols[2]);
+                outcome.details = cols.length > 4 ? cols[4] : "";
+                outcomes[Integer.parseInt(cols[0])] = outcome;
+            }
+        }
+    }
+
+    private LoadReport buildReport(List<ScenarioMatrix.Cell> cells, CellOutcome[] outcomes, String[] shardStatus,
+                                   List<Endpoint> shardRoutes, double wallSeconds, List<TestResult> results) {
+        LoadReport report = new LoadReport("场景矩阵（单位ms）",
+                new String[] {"维度", "取值", "单元格", "通过", "失败", "未执行", "场景p50", "场景p99"},
+                new int[] {10, 24, 8, 6, 6, 8, 8, 8});
+        Map<String, Function<ScenarioMatrix.Cell, String>> dimensions = new LinkedHashMap<>();
+        dimensions.put("协议", ScenarioMatrix.Cell::getProtocolName);
+        dimensions.put("参数类别", ScenarioMatrix.Cell::getCategoryLabel);
+        dimensions.put("事务形态", cell -> cell.getShape().getLabel());
+        dimensions.put("事务控制", cell -> cell.getControl().getLabel());
+
+        int selected = 0;
+        int passed = 0;
+        int failed = 0;
+        double cellSeconds = 0;
+        for (ScenarioMatrix.Cell cell : cells) {
+            if (!cell.getScenario().getName().contains(filter)) {
+                continue;
+            }
+            selected++;
+            CellOutcome outcome = outcomes[cell.getIndex()];
+            if (outcome == null) {
+                continue;
+            }
+            cellSeconds += outcome.elapsedNanos / 1e9;
+            if (outcome.passed) {
+                passed++;
+            } else {
+                failed++;
+                results.add(new TestResult("场景矩阵", cell.getScenario().getParameter()
+                        + "（" + cell.getProtocolName() + "）", "所有检测点通过", outcome.details, false, "失败"));
+            }
+        }
+
+        for (Map.Entry<String, Function<ScenarioMatrix.Cell, String>> dimension : dimensions.entrySet()) {
+            Map<String, int[]> counts = new LinkedHashMap<>();
+            Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+            for (ScenarioMatrix.Cell cell : cells) {
+                if (!cell.getScenario().getName().contains(filter)) {
+                    continue;
+                }
+                String value = dimension.getValue().apply(cell);
+                // 单元格, 通过, 失败, 未执行
+                int[] count = counts.computeIfAbsent(value, k -> new int[4]);
+                LatencyHistogram latency = latencies.computeIfAbsent(value, k -> new LatencyHistogram());
+                count[0]++;
+                CellOutcome outcome = outcomes[cell.getIndex()];
+                if (outcome == null) {
+                    count[3]++;
+                } else {
+                    count[outcome.passed ? 1 : 2]++;
+                    latency.record(outcome.elapsedNanos);
+                }
+            }
+            for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+                int[] count = entry.getValue();
+                LatencyHistogram latency = latencies.get(entry.getKey());
+                report.addRow(dimension.getKey(), entry.getKey(), count[0], count[1], count[2], count[3],
+                        TablePrinter.millis(latency.getPercentileMillis(50)),
+                        TablePrinter.millis(latency.getPercentileMillis(99)));
+            }
+        }
+
+        int missing = selected - passed - failed;
+        results.add(new TestResult("场景矩阵", "全部单元格", "失败=0, 未执行=0",
+                "通过=" + passed + ", 失败=" + failed + ", 未执行=" + missing,
+                failed == 0 && missing == 0, failed == 0 && missing == 0 ? "通过" : "失败"));
+        report.addNote("单元格=" + selected + "，分片=" + shardStatus.length + "（" + String.join("，", Arrays.asList(shardStatus))
+                + "），墙钟耗时 " + String.format("%.1f", wallSeconds) + "s，单元格累计耗时 "
+                + String.format("%.1f", cellSeconds) + "s");
+        StringBuilder routeNames = new StringBuilder();
+        for (Endpoint route : shardRoutes) {
+            routeNames.append(routeNames.length() == 0 ? "" : "，").append(route.getName());
+        }
+        report.addNote("各分片独占的入口：" + routeNames);
+        report.addNote("int / real 类型没有可由会话修改的 report 参数；事务外SET只有自动提交一种控制方式；各分片日志见 "
+                + directory);
+        return report;
+    }
+}
@@ -0,0 +1,45 @@
+package com.fbasecman.guc.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 负载模式的统计报告：一个标题、若干列和行，以及表格下方的补充说明
+ */
+public class LoadReport {
+    private final String title;
+    private final String[] headers;
+    private final int[] widths;
+    private final List<String[]> rows = new ArrayList<>();
+    private final List<String> notes = new ArrayList<>();
+
+    /**
+     * @param widths 各列显示宽度（全角字符占2）
+     */
+    public LoadReport(String title, String[] headers, int[] widths) {
+        if (headers.length != widths.length) {
+            throw new IllegalArgumentException("列名与列宽数量不一致");
+        }
+        this.title = title;
+        this.headers = headers;
+        this.widths = widths;
+    }
+
+    public void addRow(Object... cells) {
+        String[] row = new String[headers.length];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i < cells.length ? String.valueOf(cells[i]) : "";
+        }
+        rows.add(row);
+    }
+
+    public void addNote(String note) {
+        notes.add(note);
+    }
+
+    public String getTitle() { return title; }
+    public String[] getHeaders() { return headers; }
+    public int[] getWidths() { return widths; }
+    public List<String[]> getRows() { return rows; }
+    public List<String> getNotes() { return notes; }
+}
@@ -0,0 +1,48 @@
+package com.fbasecman.guc.model;
+
+import com.fbasecman.guc.stats.StatementKind;
+import com.fbasecman.guc.util.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 矩阵模式中一个单元格的结果：场景通过/失败数，以及按语句类别的延迟分布
+ */
+public class MatrixCellResult {
+    private final String cell;
+    private int passed;
+    private int failed;
+    private final StringBuilder failures = new StringBuilder();
+    private final Map<StatementKind, LatencyHistogram> latencies = new EnumMap<>(StatementKind.class);
+
+    public MatrixCellResult(String cell) {
+        this.cell = cell;
+    }
+
+    public void recordScenario(String scenario, boolean scenarioPassed) {
+        if (scenarioPassed) {
+            passed++;
+        } else {
+            failed++;
+            failures.append(scenario).append("; ");
+        }
+    }
+
+    public void addLatency(StatementKind kind, LatencyHistogram histogram) {
+        latencies.computeIfAbsent(kind, k -> new LatencyHistogram()).merge(histogram);
+    }
+
+    public String getCell() { return cell; }
+    public int getPassed() { return passed; }
+    public int getFailed() { return failed; }
+    public String getFailures() { return failures.toString(); }
+
+    /**
+     * 该类别没有语句时返回空直方图
+     */
+    public LatencyHistogram getLatency(StatementKind kind) {
+        LatencyHistogram histogram = latencies.get(kind);
+        return histogram == null ? new LatencyHistogram() : histogram;
+    }
+}
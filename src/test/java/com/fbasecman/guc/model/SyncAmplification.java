@@ -0,0 +1,105 @@
+package com.fbasecman.guc.model;
+
+import com.fbasecman.guc.stats.StatementKind;
+
+/**
+ * GUC同步放大统计 - 对比客户端发出的语句与后端实际执行的语句
+ *
+ * 后端多出来的 SET/RESET/DISCARD 即为连接池为同步GUC而注入的语句。
+ */
+public class SyncAmplification {
+    private final String scenario;
+    private final String protocol;
+    private final long clientTransactions;
+    private final long backendTransactions;
+    private final long[] clientCounts;
+    private final long[] backendCounts;
+    private final double[] backendTimeMs;
+
+    public SyncAmplification(String scenario, String protocol, long clientTransactions, long backendTransactions,
+                             long[] clientCounts, long[] backendCounts, double[] backendTimeMs) {
+        this.scenario = scenario;
+        this.protocol = protocol;
+        this.clientTransactions = clientTransactions;
+        this.backendTransactions = backendTransactions;
+        this.clientCounts = clientCounts;
+        this.backendCounts = backendCounts;
+        this.backendTimeMs = backendTimeMs;
+    }
+
+    /**
+     * 合并多条统计（用于按协议汇总）
+     */
+    public SyncAmplification merge(SyncAmplification other, String mergedScenario) {
+        int n = StatementKind.all().length;
+        long[] client = new long[n];
+        long[] backend = new long[n];
+        double[] time = new double[n];
+        for (int i = 0; i < n; i++) {
+            client[i] = clientCounts[i] + other.clientCounts[i];
+            backend[i] = backendCounts[i] + other.backendCounts[i];
+            time[i] = backendTimeMs[i] + other.backendTimeMs[i];
+        }
+        return new SyncAmplification(mergedScenario, protocol,
+                clientTransactions + other.clientTransactions,
+                backendTransactions + other.backendTransactions, client, backend, time);
+    }
+
+    public String getScenario() { return scenario; }
+    public String getProtocol() { return protocol; }
+    public long getClientTransactions() { return clientTransactions; }
+    public long getBackendTransactions() { return backendTransactions; }
+
+    public long getClientCount(StatementKind kind) {
+        return clientCounts[kind.ordinal()];
+    }
+
+    public long getBackendCount(StatementKind kind) {
+        return backendCounts[kind.ordinal()];
+    }
+
+    /**
+     * 注入语句数 = 后端执行数 - 客户端发出数（不小于0）
+     */
+    public long getInjectedCount(StatementKind kind) {
+        return Math.max(0, backendCounts[kind.ordinal()] - clientCounts[kind.ordinal()]);
+    }
+
+    public long getInjectedSyncCount() {
+        long total = 0;
+        for (StatementKind kind : StatementKind.all()) {
+            if (kind.isSyncKind()) {
+                total += getInjectedCount(kind);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 注入语句的后端耗时，按该类别平均耗时折算
+     */
+    public double getInjectedTimeMs(StatementKind kind) {
+        long backend = backendCounts[kind.ordinal()];
+        if (backend == 0) {
+            return 0;
+        }
+        return backendTimeMs[kind.ordinal()] * getInjectedCount(kind) / backend;
+    }
+
+    public double getInjectedSyncTimeMs() {
+        double total = 0;
+        for (StatementKind kind : StatementKind.all()) {
+            if (kind.isSyncKind()) {
+                total += getInjectedTimeMs(kind);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 放大比：每个客户端事务平均注入的同步语句数
+     */
+    public double getAmplificationRatio() {
+        return clientTransactions == 0 ? 0 : getInjectedSyncCount() * 1.0 / clientTransactions;
+    }
+}
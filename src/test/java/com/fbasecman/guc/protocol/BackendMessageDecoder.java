@@ -0,0 +1,125 @@
+package com.fbasecman.guc.protocol;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 被动解码服务端发往客户端的字节流：驱动读到的字节原样返回，同时按消息边界（类型1字节 + 长度4字节）
+ * 切分，只缓存 ParameterStatus('S') 的消息体，其余消息只跳过长度。ReadyForQuery('Z') 标记启动阶段结束。
+ * 要求连接不使用SSL（字节流需为明文）。
+ */
+final class BackendMessageDecoder extends FilterInputStream {
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final ParameterStatusLog log;
+    private final byte[] header = new byte[HEADER_LENGTH];
+    private int headerFilled;
+    private byte type;
+    // 当前消息体剩余的字节数，-1 表示正在读取消息头
+    private int bodyRemaining = -1;
+    private byte[] body;
+    private int bodyFilled;
+
+    BackendMessageDecoder(InputStream in, ParameterStatusLog log) {
+        super(in);
+        this.log = log;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            consume(new byte[] {(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            consume(buffer, offset, n);
+        }
+        return n;
+    }
+
+    /**
+     * 跳过的字节同样需要解码，否则会丢失消息边界
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] scratch = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    private void consume(byte[] buffer, int offset, int length) {
+        int pos = offset;
+        int end = offset + length;
+        while (pos < end) {
+            if (bodyRemaining < 0) {
+                int take = Math.min(HEADER_LENGTH - headerFilled, end - pos);
+                System.arraycopy(buffer, pos, header, headerFilled, take);
+                headerFilled += take;
+                pos += take;
+                if (headerFilled == HEADER_LENGTH) {
+                    type = header[0];
+                    bodyRemaining = ((header[1] & 0xff) << 24 | (header[2] & 0xff) << 16
+                            | (header[3] & 0xff) << 8 | (header[4] & 0xff)) - 4;
+                    headerFilled = 0;
+                    if (type == 'S') {
+                        body = new byte[bodyRemaining];
+                        bodyFilled = 0;
+                    }
+                    if (bodyRemaining == 0) {
+                        finishMessage();
+                    }
+                }
+            } else {
+                int take = Math.min(bodyRemaining, end - pos);
+                if (type == 'S') {
+                    System.arraycopy(buffer, pos, body, bodyFilled, take);
+                    bodyFilled += take;
+                }
+                bodyRemaining -= take;
+                pos += take;
+                if (bodyRemaining == 0) {
+                    finishMessage();
+                }
+            }
+        }
+    }
+
+    private void finishMessage() {
+        if (type == 'S') {
+            int nameEnd = indexOfZero(body, 0);
+            int valueEnd = indexOfZero(body, nameEnd + 1);
+            log.onParameterStatus(new String(body, 0, nameEnd, StandardCharsets.UTF_8),
+                    new String(body, nameEnd + 1, valueEnd - nameEnd - 1, StandardCharsets.UTF_8),
+                    body.length + HEADER_LENGTH);
+            body = null;
+        } else if (type == 'Z') {
+            log.onReadyForQuery();
+        }
+        bodyRemaining = -1;
+    }
+
+    private static int indexOfZero(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+}
@@ -0,0 +1,75 @@
+package com.fbasecman.guc.protocol;
+
+import javax.net.SocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * 供 pgjdbc 的 socketFactory 连接参数使用：驱动为每个连接实例化一次，
+ * 构造参数（socketFactoryArg）是 {@link ParameterStatusCapture} 中登记的记录键。
+ * 返回的 Socket 在输入流上套一层 {@link BackendMessageDecoder}，不改变驱动读到的任何字节。
+ */
+public class CapturingSocketFactory extends SocketFactory {
+
+    private final ParameterStatusLog log;
+
+    public CapturingSocketFactory(String key) {
+        this.log = ParameterStatusCapture.lookup(key);
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new CapturingSocket(log);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        Socket socket = createSocket();
+        socket.bind(new InetSocketAddress(localHost, localPort));
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+        Socket socket = createSocket();
+        socket.bind(new InetSocketAddress(localAddress, localPort));
+        socket.connect(new InetSocketAddress(address, port));
+        return socket;
+    }
+
+    private static final class CapturingSocket extends Socket {
+        private final ParameterStatusLog log;
+        private InputStream decoded;
+
+        CapturingSocket(ParameterStatusLog log) {
+            this.log = log;
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (decoded == null) {
+                decoded = new BackendMessageDecoder(super.getInputStream(), log);
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.fbasecman.guc.protocol;
+
+import com.fbasecman.guc.util.JdbcUrlBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ParameterStatus 记录的登记处：为每个待建立的客户端连接登记一个 {@link ParameterStatusLog}，
+ * 并生成带 socketFactory 参数的连接URL，驱动建连时由 {@link CapturingSocketFactory} 按键取回记录。
+ */
+public final class ParameterStatusCapture {
+
+    private static final Map<String, ParameterStatusLog> LOGS = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_KEY = new AtomicLong();
+
+    private ParameterStatusCapture() {
+    }
+
+    /**
+     * 登记一个新的记录
+     */
+    public static ParameterStatusLog register(String label) {
+        ParameterStatusLog log = new ParameterStatusLog("ps" + NEXT_KEY.incrementAndGet(), label);
+        LOGS.put(log.getKey(), log);
+        return log;
+    }
+
+    /**
+     * 连接建立后不再需要按键查找，释放登记
+     */
+    public static void release(ParameterStatusLog log) {
+        LOGS.remove(log.getKey());
+    }
+
+    /**
+     * 在基础URL上追加 socketFactory 参数；捕获需要明文字节流，同时追加 sslmode=disable
+     */
+    public static String captureUrl(String url, ParameterStatusLog log) {
+        url = JdbcUrlBuilder.appendParam(url, "socketFactory", CapturingSocketFactory.class.getName());
+        url = JdbcUrlBuilder.appendParam(url, "socketFactoryArg", log.getKey());
+        return JdbcUrlBuilder.appendParam(url, "sslmode", "disable");
+    }
+
+    static ParameterStatusLog lookup(String key) {
+        ParameterStatusLog log = LOGS.get(key);
+        if (log == null) {
+            throw new IllegalStateException("未登记的ParameterStatus记录: " + key);
+        }
+        return log;
+    }
+}
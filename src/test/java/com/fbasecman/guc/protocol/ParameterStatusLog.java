@@ -0,0 +1,80 @@
+package com.fbasecman.guc.protocol;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一个客户端连接收到的所有 ParameterStatus 消息。
+ *
+ * 启动阶段（第一个 ReadyForQuery 之前）的消息单独计数；之后值与客户端已知值相同的消息计为冗余，
+ * 它们只消耗带宽和驱动的解析时间，不改变客户端看到的任何状态。
+ */
+public final class ParameterStatusLog {
+
+    private final String key;
+    private final String label;
+    private final Map<String, String> reported = new LinkedHashMap<>();
+    private final Map<String, Integer> perParameter = new HashMap<>();
+    private boolean ready;
+    private long startupMessages;
+    private long messages;
+    private long bytes;
+    private long redundant;
+    private long redundantBytes;
+
+    ParameterStatusLog(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    String getKey() { return key; }
+
+    public String getLabel() { return label; }
+
+    synchronized void onParameterStatus(String name, String value, int messageBytes) {
+        String previous = reported.put(name, value);
+        if (!ready) {
+            startupMessages++;
+            return;
+        }
+        messages++;
+        bytes += messageBytes;
+        perParameter.merge(name, 1, Integer::sum);
+        if (value.equals(previous)) {
+            redundant++;
+            redundantBytes += messageBytes;
+        }
+    }
+
+    synchronized void onReadyForQuery() {
+        ready = true;
+    }
+
+    /**
+     * 客户端此刻看到的上报值（最后一条 ParameterStatus），未收到过时为null
+     */
+    public synchronized String reported(String name) {
+        for (Map.Entry<String, String> entry : reported.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public synchronized Map<String, String> snapshot() {
+        return new LinkedHashMap<>(reported);
+    }
+
+    public synchronized long getStartupMessages() { return startupMessages; }
+    /** 启动阶段之后收到的消息数 */
+    public synchronized long getMessages() { return messages; }
+    public synchronized long getBytes() { return bytes; }
+    public synchronized long getRedundant() { return redundant; }
+    public synchronized long getRedundantBytes() { return redundantBytes; }
+
+    public synchronized Map<String, Integer> getPerParameter() {
+        return new HashMap<>(perParameter);
+    }
+}
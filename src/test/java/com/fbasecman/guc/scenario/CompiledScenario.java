@@ -0,0 +1,41 @@
+package com.fbasecman.guc.scenario;
+
+/**
+ * 预编译的场景，不可变，可在多个线程、两种协议下重复执行
+ */
+public final class CompiledScenario {
+    private final String name;
+    private final String category;
+    private final String parameter;
+    final ScenarioStep[] steps;
+    final int clientCount;
+    final String[] backendSlotNames;
+    final String[] valueSlotNames;
+
+    CompiledScenario(String name, String category, String parameter, ScenarioStep[] steps,
+                     int clientCount, String[] backendSlotNames, String[] valueSlotNames) {
+        this.name = name;
+        this.category = category;
+        this.parameter = parameter;
+        this.steps = steps;
+        this.clientCount = clientCount;
+        this.backendSlotNames = backendSlotNames;
+        this.valueSlotNames = valueSlotNames;
+    }
+
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    public String getParameter() { return parameter; }
+    public int getStepCount() { return steps.length; }
+    public int getClientCount() { return clientCount; }
+
+    public int getCheckpointCount() {
+        int count = 0;
+        for (ScenarioStep step : steps) {
+            if (step.kind.isCheckpoint()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,12 @@
+package com.fbasecman.guc.scenario;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 为场景中的客户端连接建立JDBC连接（URL上的协议参数由调用方决定）
+ */
+@FunctionalInterface
+public interface ConnectionSource {
+    Connection open(boolean useExtendedProtocol) throws SQLException;
+}
@@ -0,0 +1,598 @@
+package com.fbasecman.guc.scenario;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 从测试用例文档（doc/guc参数测试用例.md）直接生成可执行的声明式场景
+ *
+ * 解析规则：
+ * - 每个含 SQL 代码块的标题小节是一个场景，名称取标题，类别取上一级标题
+ * - 代码块前的说明文字中 "客户端连接N" / "连接N" 决定代码块在哪个客户端连接上执行，"（k）" 为步骤编号
+ * - 语句以 ; 或 ； 结束，未写分号的行在行尾结束；BEGIN/END/COMMIT 转为事务控制，
+ *   带 pg_backend_pid() 的 SELECT 转为后端探测
+ * - "-- 检测点N：..." / "-- 检查点N：..." 注释生成检测点：
+ *   说明后端关系的（复用 / 新的后端 / 另一个 / 切换）挂到相邻的后端探测上，
+ *   探测语句旁说明后端关系的普通注释同样生成检查（名称为 "注释检查"），
+ *   说明参数值的挂到紧随其后（没有则紧挨其前）的一组 SHOW 上，
+ *   说明报错的检查本代码块中此前的语句是否报错；只写 "记录" 的检测点只记录不检查
+ * - SHOW 的期望值：注释提到默认值/未同步/还原时为场景开始前记录的初始值，否则为该客户端连接此前 SET 的值
+ * - 含 "..." 省略号占位的小节无法自动执行，跳过并说明原因（执行时记为失败，使缺口出现在结果表中）；
+ *   没有任何检测点的小节（如 2.7 内存泄漏、2.9 简单用例）执行后无从判定，同样跳过，不在结果表中显示为空的通过；
+ *   "循环执行N次" 的代码块生成重复步骤：前 N-1 次不带检测点，最后一次带检测点
+ *
+ * 解析结果按文件路径缓存，文件修改时间或大小变化后重新解析。
+ */
+public class DocScenarioLoader {
+
+    public static final String DEFAULT_PATH = "doc/guc参数测试用例.md";
+
+    private static final Pattern HEADING = Pattern.compile("^(#{1,6})\\s*(.+?)\\s*$");
+    private static final Pattern CLIENT = Pattern.compile("连接\\s*(\\d+)");
+    private static final Pattern STEP_NUMBER = Pattern.compile("^\\s*[（(]?\\s*(\\d+)\\s*[)）]");
+    private static final Pattern LOOP = Pattern.compile("循环执行\\s*(\\d+)\\s*次");
+    private static final Pattern CHECKPOINT_LABEL = Pattern.compile("检[测查]点\\s*(\\d*)");
+    private static final Pattern REUSE_STEP = Pattern.compile("步骤\\s*[（(]\\s*(\\d+)\\s*[)）]");
+    private static final Pattern SET_PARAMETER = Pattern.compile(
+            "(?i)^set\\s+(?:session\\s+)?([a-z_][\\w.]*)\\s*(?:=|\\s+to\\s+)\\s*(.+)$");
+    private static final Pattern RESET_PARAMETER = Pattern.compile("(?i)^reset\\s+([a-z_][\\w.]*)$");
+    private static final Pattern SHOW_PARAMETER = Pattern.compile("(?i)^show\\s+([a-z_][\\w.]*)$");
+
+    // lastProbeByClient 中记录任意客户端连接最近一次探测的键（客户端编号从1开始）
+    private static final int ANY_CLIENT = 0;
+
+    private static final Map<Path, Cached> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 解析结果：可执行的场景，以及被跳过的小节和原因
+     */
+    public static class Result {
+        private final List<CompiledScenario> scenarios;
+        private final Map<String, String> skipped;
+
+        Result(List<CompiledScenario> scenarios, Map<String, String> skipped) {
+            this.scenarios = Collections.unmodifiableList(scenarios);
+            this.skipped = Collections.unmodifiableMap(skipped);
+        }
+
+        public List<CompiledScenario> getScenarios() { return scenarios; }
+        public Map<String, String> getSkipped() { return skipped; }
+    }
+
+    private static class Cached {
+        final FileTime modified;
+        final long size;
+        final Result result;
+
+        Cached(FileTime modified, long size, Result result) {
+            this.modified = modified;
+            this.size = size;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 代码块：所在客户端连接、步骤编号、重复次数和逐行内容
+     */
+    private static class Block {
+        final int client;
+        final int step;
+        final int repeat;
+        final List<String> lines;
+
+        Block(int client, int step, int repeat, List<String> lines) {
+            this.client = client;
+            this.step = step;
+            this.repeat = repeat;
+            this.lines = lines;
+        }
+    }
+
+    private static class Section {
+        final String title;
+        final String category;
+        final List<Block> blocks = new ArrayList<>();
+
+        Section(String title, String category) {
+            this.title = title;
+            this.category = category;
+        }
+    }
+
+    /**
+     * 代码块中的一项：语句（可带同一行的注释）或独占一行的注释
+     */
+    private static class Item {
+        final String sql;
+        String comment;
+        // 挂到该语句上的检测点说明
+        final List<String> checks = new ArrayList<>();
+        boolean tolerateError;
+
+        Item(String sql, String comment) {
+            this.sql = sql;
+            this.comment = comment;
+        }
+
+        boolean isStatement() { return sql != null; }
+        boolean isShow() { return sql != null && SHOW_PARAMETER.matcher(sql).matches(); }
+        boolean isProbe() { return sql != null && sql.toLowerCase(Locale.ROOT).contains("pg_backend_pid"); }
+    }
+
+    public static Result load(Path path) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(path);
+        long size = Files.size(path);
+        Cached cached = CACHE.get(path);
+        if (cached != null && cached.modified.equals(modified) && cached.size == size) {
+            return cached.result;
+        }
+        Result result = parse(Files.readAllLines(path, StandardCharsets.UTF_8));
+        CACHE.put(path, new Cached(modified, size, result));
+        return result;
+    }
+
+    static Result parse(List<String> lines) {
+        List<Section> sections = splitSections(lines);
+        List<CompiledScenario> scenarios = new ArrayList<>();
+        Map<String, String> skipped = new LinkedHashMap<>();
+        for (Section section : sections) {
+            if (section.blocks.isEmpty()) {
+                continue;
+            }
+            try {
+                ScenarioSpec spec = toSpec(section);
+                if (spec == null) {
+                    continue;
+                }
+                CompiledScenario scenario = ScenarioEngine.compile(spec);
+                if (scenario.getCheckpointCount() == 0) {
+                    skipped.put(section.title, "没有检测点，执行后无从判定结果");
+                } else {
+                    scenarios.add(scenario);
+                }
+            } catch (IllegalArgumentException e) {
+                skipped.put(section.title, e.getMessage());
+            }
+        }
+        return new Result(scenarios, skipped);
+    }
+
+    // ==================== 第一步：按标题和代码块切分 ====================
+
+    private static List<Section> splitSections(List<String> lines) {
+        List<Section> sections = new ArrayList<>();
+        String[] headings = new String[7];
+        Section current = null;
+        List<String> blockLines = null;
+        List<String> proseSinceBlock = new ArrayList<>();
+        int lastClient = 1;
+
+        for (String raw : lines) {
+            String line = raw.trim();
+            Matcher heading = HEADING.matcher(line);
+            // 标题行同时结束未闭合的代码块（文档中偶有漏写结束标记）
+            if (heading.matches()) {
+                if (blockLines != null) {
+                    current.blocks.add(newBlock(current, blockLines, proseSinceBlock, lastClient));
+                    blockLines = null;
+                }
+                int level = heading.group(1).length();
+                headings[level] = heading.group(2);
+                for (int i = level + 1; i < headings.length; i++) {
+                    headings[i] = null;
+                }
+                String category = heading.group(2);
+                for (int i = level - 1; i >= 1; i--) {
+                    if (headings[i] != null) {
+                        category = headings[i];
+                        break;
+                    }
+                }
+                current = new Section(heading.group(2), category);
+                sections.add(current);
+                proseSinceBlock = new ArrayList<>();
+                lastClient = 1;
+                continue;
+            }
+            if (current == null) {
+                continue;
+            }
+            if (line.startsWith("```")) {
+                if (blockLines == null) {
+                    blockLines = new ArrayList<>();
+                } else {
+                    Block block = newBlock(current, blockLines, proseSinceBlock, lastClient);
+                    current.blocks.add(block);
+                    lastClient = block.client;
+                    blockLines = null;
+                    proseSinceBlock = new ArrayList<>();
+                }
+            } else if (blockLines != null) {
+                blockLines.add(line);
+            } else {
+                proseSinceBlock.add(line);
+            }
+        }
+        if (blockLines != null && current != null) {
+            current.blocks.add(newBlock(current, blockLines, proseSinceBlock, lastClient));
+        }
+        return sections;
+    }
+
+    private static Block newBlock(Section section, List<String> lines, List<String> prose, int lastClient) {
+        int client = lastClient;
+        int step = section.blocks.size() + 1;
+        for (int i = prose.size() - 1; i >= 0; i--) {
+            Matcher m = CLIENT.matcher(prose.get(i));
+            if (m.find()) {
+                client = Integer.parseInt(m.group(1));
+                Matcher s = STEP_NUMBER.matcher(prose.get(i));
+                if (s.find()) {
+                    step = Integer.parseInt(s.group(1));
+                }
+                break;
+            }
+        }
+        int repeat = 1;
+        for (String line : lines) {
+            Matcher m = LOOP.matcher(line);
+            if (m.find()) {
+                repeat = Integer.parseInt(m.group(1));
+            }
+        }
+        return new Block(client, step, repeat, lines);
+    }
+
+    // ==================== 第二步：代码块拆分为语句和注释 ====================
+
+    private static List<Item> parseItems(Block block) {
+        List<Item> items = new ArrayList<>();
+        for (String line : block.lines) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int commentAt = commentStart(line);
+            String code = (commentAt < 0 ? line : line.substring(0, commentAt)).trim();
+            String comment = commentAt < 0 ? null : line.substring(commentAt).replaceFirst("^-+", "").trim();
+
+            if (code.startsWith("...") || code.startsWith("…")) {
+                throw new IllegalArgumentException("含省略号占位，需要人工补全SQL");
+            }
+            if (!code.isEmpty() && !isAsciiLetter(code.charAt(0))) {
+                // 代码块中的说明文字，接在上一条注释之后
+                Item last = items.isEmpty() ? null : items.get(items.size() - 1);
+                if (last != null && !last.isStatement()) {
+                    last.comment = last.comment + code;
+                }
+                continue;
+            }
+            Item lastStatement = null;
+            for (String sql : code.split("[;；]")) {
+                sql = sql.trim();
+                if (!sql.isEmpty()) {
+                    lastStatement = new Item(sql, null);
+                    items.add(lastStatement);
+                }
+            }
+            if (comment != null && !comment.isEmpty()) {
+                if (lastStatement != null) {
+                    lastStatement.comment = comment;
+                } else {
+                    items.add(new Item(null, comment));
+                }
+            }
+        }
+        return items;
+    }
+
+    private static int commentStart(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length() - 1; i++) {
+            char c = line.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '-' && line.charAt(i + 1) == '-') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // ==================== 第三步：检测点挂到语句上 ====================
+
+    private static boolean isCheckpoint(String comment) {
+        return comment != null && CHECKPOINT_LABEL.matcher(comment).find();
+    }
+
+    private static boolean isErrorCheck(String text) {
+        return text.contains("错误") || text.contains("报错");
+    }
+
+    private static boolean isBackendCheck(String text) {
+        return text.contains("复用") || text.contains("切换") || text.contains("另一个")
+                || text.contains("新的后端") || text.contains("新分配");
+    }
+
+    private static void attachCheckpoints(List<Item> items) {
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item.isStatement()) {
+                // 同一行的注释：检测点，或探测语句上说明后端关系的普通注释
+                if (item.comment != null && (isCheckpoint(item.comment)
+                        || (item.isProbe() && isBackendCheck(item.comment)))) {
+                    item.checks.add(item.comment);
+                }
+                continue;
+            }
+            String text = item.comment;
+            Item previous = previousStatement(items, i);
+            if (!isCheckpoint(text) && !(previous != null && previous.isProbe() && isBackendCheck(text))) {
+                continue;
+            }
+            if (isErrorCheck(text)) {
+                for (int j = 0; j < i; j++) {
+                    if (items.get(j).isStatement()) {
+                        items.get(j).tolerateError = true;
+                    }
+                }
+            } else if (isBackendCheck(text)) {
+                Item probe = previous != null && previous.isProbe() ? previous : nextProbe(items, i);
+                if (probe != null) {
+                    probe.checks.add(text);
+                }
+            } else {
+                List<Item> shows = showRun(items, i, 1);
+                if (shows.isEmpty()) {
+                    shows = showRun(items, i, -1);
+                }
+                for (Item show : shows) {
+                    show.checks.add(text);
+                }
+            }
+        }
+    }
+
+    private static Item previousStatement(List<Item> items, int index) {
+        for (int j = index - 1; j >= 0; j--) {
+            if (items.get(j).isStatement()) {
+                return items.get(j);
+            }
+        }
+        return null;
+    }
+
+    private static Item nextProbe(List<Item> items, int index) {
+        for (int j = index + 1; j < items.size(); j++) {
+            if (items.get(j).isProbe()) {
+                return items.get(j);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从 index 起沿 direction 方向连续的 SHOW 语句（跳过非检测点注释，遇到其他语句或检测点停止）
+     */
+    private static List<Item> showRun(List<Item> items, int index, int direction) {
+        List<Item> run = new ArrayList<>();
+        for (int j = index + direction; j >= 0 && j < items.size(); j += direction) {
+            Item item = items.get(j);
+            if (!item.isStatement()) {
+                if (isCheckpoint(item.comment)) {
+                    break;
+                }
+                continue;
+            }
+            if (!item.isShow()) {
+                break;
+            }
+            run.add(item);
+        }
+        return run;
+    }
+
+    // ==================== 第四步：生成场景定义 ====================
+
+    private static ScenarioSpec toSpec(Section section) {
+        List<List<Item>> blockItems = new ArrayList<>();
+        Map<String, String> shownParameters = new LinkedHashMap<>();
+        boolean hasStatements = false;
+        for (Block block : section.blocks) {
+            List<Item> items = parseItems(block);
+            attachCheckpoints(items);
+            blockItems.add(items);
+            for (Item item : items) {
+                hasStatements |= item.isStatement();
+                Matcher show = item.sql == null ? null : SHOW_PARAMETER.matcher(item.sql);
+                if (show != null && show.matches()) {
+                    shownParameters.putIfAbsent(key(show.group(1)), show.group(1));
+                }
+            }
+        }
+        if (!hasStatements) {
+            return null;
+        }
+
+        ScenarioSpec spec = ScenarioSpec.named("文档-" + section.title)
+                .category(section.category)
+                .parameter(section.title);
+        // 场景开始前在第一个客户端连接上记录所有涉及参数的初始值，作为 "默认值" 检测点的期望
+        if (!shownParameters.isEmpty()) {
+            spec.stage("步骤0：记录参数初始值").on(section.blocks.get(0).client);
+            for (Map.Entry<String, String> parameter : shownParameters.entrySet()) {
+                spec.captureGuc(parameter.getValue(), defaultSlot(parameter.getKey()));
+            }
+        }
+
+        Map<Integer, Map<String, String>> sessionValues = new HashMap<>();
+        Map<Integer, String> lastProbeByClient = new HashMap<>();
+        Map<Integer, String> lastProbeByStep = new HashMap<>();
+        int[] counters = new int[2];
+
+        for (int b = 0; b < section.blocks.size(); b++) {
+            Block block = section.blocks.get(b);
+            List<Item> items = blockItems.get(b);
+            spec.stage("步骤" + block.step + "：客户端连接" + block.client + "执行"
+                    + (block.repeat > 1 ? "（循环" + block.repeat + "次）" : "")).on(block.client);
+            Map<String, String> values = sessionValues.computeIfAbsent(block.client, c -> new HashMap<>());
+            if (block.repeat > 1) {
+                spec.repeat(block.repeat - 1);
+                addBlock(spec, items, block, values, lastProbeByClient, lastProbeByStep, counters, false);
+                spec.endRepeat();
+            }
+            addBlock(spec, items, block, values, lastProbeByClient, lastProbeByStep, counters, true);
+        }
+        return spec;
+    }
+
+    private static void addBlock(ScenarioSpec spec, List<Item> items, Block block, Map<String, String> values,
+                                 Map<Integer, String> lastProbeByClient, Map<Integer, String> lastProbeByStep,
+                                 int[] counters, boolean withChecks) {
+        for (Item item : items) {
+            if (!item.isStatement()) {
+                if (withChecks && item.comment != null && isCheckpoint(item.comment) && isErrorCheck(item.comment)) {
+                    spec.expectErrorSeen(label(item.comment));
+                }
+                continue;
+            }
+            addStatement(spec, item, block, values, lastProbeByClient, lastProbeByStep, counters, withChecks);
+        }
+    }
+
+    private static void addStatement(ScenarioSpec spec, Item item, Block block, Map<String, String> values,
+                                     Map<Integer, String> lastProbeByClient, Map<Integer, String> lastProbeByStep,
+                                     int[] counters, boolean withChecks) {
+        String sql = item.sql;
+        String lower = sql.toLowerCase(Locale.ROOT);
+        if (lower.equals("begin") || lower.startsWith("start transaction")) {
+            spec.begin();
+        } else if (lower.equals("commit") || lower.equals("end")) {
+            spec.commit();
+        } else if (lower.equals("rollback") || lower.equals("abort")) {
+            spec.rollback();
+        } else if (item.isProbe()) {
+            String slot = "客户端" + block.client + "-探测" + (++counters[0]);
+            spec.probe(slot);
+            if (withChecks && !item.checks.isEmpty()) {
+                addBackendCheck(spec, item.checks.get(0), slot, block.client, lastProbeByClient, lastProbeByStep);
+            }
+            lastProbeByClient.put(block.client, slot);
+            lastProbeByStep.put(block.step, slot);
+            lastProbeByClient.put(ANY_CLIENT, slot);
+        } else if (item.isShow()) {
+            Matcher show = SHOW_PARAMETER.matcher(sql);
+            show.matches();
+            String parameter = show.group(1);
+            String text = withChecks && !item.checks.isEmpty() ? item.checks.get(0) : null;
+            if (text == null || isRecordOnly(text)) {
+                spec.captureGuc(parameter, "显示" + (++counters[1]));
+            } else {
+                String expected = mentionsDefault(text) ? null : values.get(key(parameter));
+                spec.expectGuc(parameter, expected != null ? expected : "$" + defaultSlot(key(parameter)), label(text));
+            }
+        } else {
+            trackSessionValue(sql, values);
+            if (item.tolerateError) {
+                spec.executeTolerant(sql);
+            } else {
+                spec.execute(sql);
+            }
+        }
+    }
+
+    private static void addBackendCheck(ScenarioSpec spec, String text, String slot, int client,
+                                        Map<Integer, String> lastProbeByClient, Map<Integer, String> lastProbeByStep) {
+        if (isRecordOnly(text)) {
+            return;
+        }
+        String label = isCheckpoint(text) ? label(text) : "注释检查";
+        if (text.contains("复用")) {
+            String ref = null;
+            Matcher step = REUSE_STEP.matcher(text);
+            Matcher other = CLIENT.matcher(text);
+            if (step.find()) {
+                ref = lastProbeByStep.get(Integer.parseInt(step.group(1)));
+            } else if (other.find()) {
+                ref = lastProbeByClient.get(Integer.parseInt(other.group(1)));
+            } else {
+                ref = lastProbeByClient.get(ANY_CLIENT);
+            }
+            if (ref != null) {
+                spec.expectSameBackend(slot, ref, label);
+            }
+        } else {
+            String ref = lastProbeByClient.getOrDefault(client, lastProbeByClient.get(ANY_CLIENT));
+            if (ref != null) {
+                spec.expectDifferentBackend(slot, ref, label);
+            }
+        }
+    }
+
+    /**
+     * 按会话语义跟踪客户端连接上SET过的值：RESET ALL / DISCARD ALL 清空，RESET x 删除
+     */
+    private static void trackSessionValue(String sql, Map<String, String> values) {
+        String lower = sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        if (lower.equals("reset all") || lower.equals("discard all")) {
+            values.clear();
+            return;
+        }
+        Matcher reset = RESET_PARAMETER.matcher(sql);
+        if (reset.matches()) {
+            values.remove(key(reset.group(1)));
+            return;
+        }
+        if (lower.startsWith("set local ")) {
+            return;
+        }
+        Matcher set = SET_PARAMETER.matcher(sql);
+        if (set.matches()) {
+            values.put(key(set.group(1)), set.group(2).trim());
+        }
+    }
+
+    private static boolean isRecordOnly(String text) {
+        return text.contains("记录") && !text.contains("期望") && !text.contains("应");
+    }
+
+    private static boolean mentionsDefault(String text) {
+        return text.contains("默认") || text.contains("没同步") || text.contains("未同步")
+                || text.contains("还原") || text.contains("重置");
+    }
+
+    /**
+     * 检测点名称，未编号时返回null，由编译时自动编号
+     */
+    private static String label(String text) {
+        Matcher m = CHECKPOINT_LABEL.matcher(text);
+        if (m.find() && !m.group(1).isEmpty()) {
+            return "检测点" + m.group(1);
+        }
+        return null;
+    }
+
+    private static String key(String parameter) {
+        return parameter.toLowerCase(Locale.ROOT);
+    }
+
+    private static String defaultSlot(String key) {
+        return "初始值:" + key;
+    }
+}
@@ -0,0 +1,191 @@
+package com.fbasecman.guc.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内置的声明式场景，以及按参数表批量生成的场景变体。所有场景在类加载时预编译一次。
+ */
+public class ScenarioCatalog {
+
+    /**
+     * 生成变体使用的参数表：参数名、SET 使用的字面量、SHOW 返回的值。
+     * 都是用户级别参数，取值与PostgreSQL默认值和驱动建连时设置的值（extra_float_digits = 3）都不同
+     */
+    private static final String[][] VARIANT_PARAMETERS = {
+        {"extra_float_digits", "1", "1"},
+        {"DateStyle", "'ISO, DMY'", "ISO, DMY"},
+        {"IntervalStyle", "iso_8601", "iso_8601"},
+        {"TimeZone", "'Asia/Tokyo'", "Asia/Tokyo"},
+        {"application_name", "'guc_variant'", "guc_variant"},
+        {"search_path", "public", "public"},
+        {"work_mem", "'8MB'", "8MB"},
+        {"statement_timeout", "'10min'", "10min"},
+        {"lock_timeout", "'5s'", "5s"},
+        {"bytea_output", "escape", "escape"},
+        {"client_min_messages", "warning", "warning"},
+        {"enable_seqscan", "off", "off"},
+        {"enable_hashjoin", "off", "off"},
+        {"random_page_cost", "1.1", "1.1"},
+        {"cursor_tuple_fraction", "0.2", "0.2"},
+        {"default_statistics_target", "200", "200"},
+        {"geqo", "off", "off"},
+        {"xmloption", "document", "document"},
+    };
+
+    private static final CompiledScenario EXTRA_FLOAT_DIGITS = ScenarioEngine.compile(
+            ScenarioSpec.named("用例1-非report参数同步")
+                    .category("测试非guc report参数同步")
+                    .parameter("extra_float_digits参数")
+                    .stage("步骤1：客户端连接1开始执行...")
+                    .on(1).begin()
+                    .captureGuc("extra_float_digits", "initial")
+                    .execute("SET extra_float_digits = 3")
+                    .probe("后端1")
+                    .commit()
+                    // 连接1提交之后等待1秒，再由连接2获取后端连接
+                    .pause(1000)
+                    .stage("步骤2：客户端连接2开始执行（事务不提交，保持后端连接被占用）...")
+                    .on(2).begin()
+                    .probe("后端2")
+                    .expectSameBackend("后端2", "后端1")
+                    .expectGuc("extra_float_digits", "$initial")
+                    .pause(100)
+                    .stage("步骤3：连接1继续执行...")
+                    .on(1).begin()
+                    .probe("后端3")
+                    .expectDifferentBackend("后端3", "后端1")
+                    .expectGuc("extra_float_digits", "3")
+                    .commit());
+
+    private static final CompiledScenario DATE_STYLE = ScenarioEngine.compile(
+            ScenarioSpec.named("用例2-DateStyle同步")
+                    .category("guc report参数同步")
+                    .parameter("DateStyle参数")
+                    .stage("步骤1：客户端连接1开始执行（事务外）...")
+                    .on(1).captureGuc("DateStyle", "initial")
+                    .expectGuc("DateStyle", "ISO, MDY", "检测点1")
+                    .execute("SET DateStyle = ISO, DMY")
+                    .probe("后端1")
+                    .pause(100)
+                    .stage("步骤2：客户端连接2开始执行（保持事务未提交）...")
+                    .on(2).begin()
+                    .probe("后端2")
+                    .expectSameBackend("后端2", "后端1", "检测点4")
+                    .expectGuc("DateStyle", "$initial", "检测点5")
+                    .pause(100)
+                    .stage("步骤3：连接1再次执行...")
+                    .on(1).begin()
+                    .probe("后端3")
+                    .expectDifferentBackend("后端3", "后端1", "检测点6")
+                    .expectGuc("DateStyle", "ISO, DMY", "检测点7")
+                    .commit()
+                    .stage("步骤4：连接2收尾...")
+                    .on(2).expectGuc("DateStyle", "ISO, MDY", "检测点8")
+                    .commit());
+
+    private static final CompiledScenario TIME_ZONE_RESET = ScenarioEngine.compile(
+            ScenarioSpec.named("用例2-TimeZone重置")
+                    .category("guc report参数同步")
+                    .parameter("TimeZone参数——RESET恢复默认值")
+                    .stage("步骤1：客户端连接1执行（事务外SET，才能同步）...")
+                    .on(1).captureGuc("TimeZone", "default")
+                    .execute("SET TimeZone = UTC")
+                    .expectGuc("TimeZone", "UTC", "检测点2")
+                    .probe("后端1")
+                    .pause(100)
+                    .stage("步骤2：客户端连接2执行（保持事务未提交，继续占用后端连接）...")
+                    .on(2).begin()
+                    .probe("后端2")
+                    .expectSameBackend("后端2", "后端1", "检测点4")
+                    .expectGuc("TimeZone", "$default", "检测点5")
+                    .pause(100)
+                    .stage("步骤3：客户端连接1再次执行...")
+                    .on(1).begin()
+                    .probe("后端3")
+                    .expectGuc("TimeZone", "UTC", "检测点6")
+                    .commit()
+                    // 在事务外执行RESET（才能同步）
+                    .execute("RESET TimeZone")
+                    .expectGuc("TimeZone", "$default", "检测点7")
+                    .pause(100)
+                    .stage("步骤4：客户端连接2收尾（释放后端连接）...")
+                    .on(2).commit()
+                    .pause(100)
+                    .stage("步骤5：客户端连接1再次执行...")
+                    .on(1).begin()
+                    .probe("后端4")
+                    .expectSameBackend("后端4", "后端2", "检测点8")
+                    .expectGuc("TimeZone", "$default", "检测点8")
+                    .commit());
+
+    private static final List<CompiledScenario> VARIANTS = Collections.unmodifiableList(buildVariants());
+
+    public static CompiledScenario extraFloatDigitsSync() { return EXTRA_FLOAT_DIGITS; }
+    public static CompiledScenario dateStyleSync() { return DATE_STYLE; }
+    public static CompiledScenario timeZoneReset() { return TIME_ZONE_RESET; }
+
+    /**
+     * 参数表中每个参数生成两个变体：事务外SET、事务内SET后提交
+     */
+    public static List<CompiledScenario> variants() {
+        return VARIANTS;
+    }
+
+    private static List<CompiledScenario> buildVariants() {
+        List<CompiledScenario> variants = new ArrayList<>();
+        for (String[] parameter : VARIANT_PARAMETERS) {
+            variants.add(ScenarioEngine.compile(syncOutsideTransaction(parameter[0], parameter[1], parameter[2])));
+            variants.add(ScenarioEngine.compile(syncInsideTransaction(parameter[0], parameter[1], parameter[2])));
+        }
+        return variants;
+    }
+
+    /**
+     * 与用例2-DateStyle同构：连接1事务外SET，连接2复用后端看到默认值，连接1在新后端上看到同步后的值
+     */
+    static ScenarioSpec syncOutsideTransaction(String name, String literal, String shown) {
+        return ScenarioSpec.named("变体-事务外SET-" + name)
+                .category("声明式场景变体")
+                .parameter(name + "（事务外SET）")
+                .on(1).captureGuc(name, "initial")
+                .execute("SET " + name + " = " + literal)
+                .probe("后端1")
+                .on(2).begin()
+                .probe("后端2")
+                .expectSameBackend("后端2", "后端1")
+                .expectGuc(name, "$initial")
+                .on(1).begin()
+                .probe("后端3")
+                .expectDifferentBackend("后端3", "后端1")
+                .expectGuc(name, shown)
+                .commit()
+                .on(2).expectGuc(name, "$initial")
+                .commit();
+    }
+
+    /**
+     * 与用例1同构：连接1事务内SET后提交，其余检查与事务外SET相同
+     */
+    static ScenarioSpec syncInsideTransaction(String name, String literal, String shown) {
+        return ScenarioSpec.named("变体-事务内SET-" + name)
+                .category("声明式场景变体")
+                .parameter(name + "（事务内SET）")
+                .on(1).begin()
+                .captureGuc(name, "initial")
+                .execute("SET " + name + " = " + literal)
+                .probe("后端1")
+                .commit()
+                .on(2).begin()
+                .probe("后端2")
+                .expectSameBackend("后端2", "后端1")
+                .expectGuc(name, "$initial")
+                .on(1).begin()
+                .probe("后端3")
+                .expectDifferentBackend("后端3", "后端1")
+                .expectGuc(name, shown)
+                .commit()
+                .on(2).commit();
+    }
+}
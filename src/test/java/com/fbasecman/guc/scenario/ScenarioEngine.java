@@ -0,0 +1,436 @@
+package com.fbasecman.guc.scenario;
+
+import com.fbasecman.guc.stats.ClientStatementStats;
+import com.fbasecman.guc.stats.StatementLatencyStats;
+import com.fbasecman.guc.util.GucValues;
+import com.fbasecman.guc.util.HarnessLogger;
+import com.fbasecman.guc.util.JdbcOps;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 声明式场景执行引擎
+ *
+ * {@link #compile(ScenarioSpec)} 把场景定义预编译为步骤数组（校验槽位引用、提前拼好SHOW语句和语句类型），
+ * {@link #run(CompiledScenario, boolean, String)} 按顺序执行步骤，检测点失败不中断场景，SQL异常时中止场景。
+ * 引擎不可变：执行选项（是否执行 PAUSE、是否检查后端复用关系）通过 {@link #honorPauses} / {@link #checkBackends}
+ * 得到新的引擎，不会影响共享同一引擎的其他调用方；同一个编译结果可以被多个线程、两种协议重复执行。
+ *
+ * 日志格式与手写用例一致：SQL在DEBUG级别打印（红色），检测点在INFO级别打印，失败在ERROR级别打印。
+ */
+public class ScenarioEngine {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final String RED = "\u001B[31m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String BLUE = "\u001B[34m";
+    private static final String RESET = "\u001B[0m";
+    private static final String CHECKPOINT_LINE = "─".repeat(100);
+
+    static final String BACKEND_SQL = "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid(), current_user";
+
+    private final ConnectionSource connectionSource;
+    private final ClientStatementStats clientStats;
+    private final StatementLatencyStats statementLatency;
+    private final boolean honorPauses;
+    private final boolean checkBackends;
+
+    /**
+     * @param clientStats 客户端语句计数，可为null
+     * @param statementLatency 语句延迟统计，可为null
+     */
+    public ScenarioEngine(ConnectionSource connectionSource, ClientStatementStats clientStats,
+                          StatementLatencyStats statementLatency) {
+        this(connectionSource, clientStats, statementLatency, true, true);
+    }
+
+    private ScenarioEngine(ConnectionSource connectionSource, ClientStatementStats clientStats,
+                           StatementLatencyStats statementLatency, boolean honorPauses, boolean checkBackends) {
+        this.connectionSource = connectionSource;
+        this.clientStats = clientStats;
+        this.statementLatency = statementLatency;
+        this.honorPauses = honorPauses;
+        this.checkBackends = checkBackends;
+    }
+
+    /**
+     * 是否执行 PAUSE 步骤；批量执行生成的变体时关闭以提高执行速率
+     * @return 只有该选项不同的新引擎
+     */
+    public ScenarioEngine honorPauses(boolean honorPauses) {
+        return new ScenarioEngine(connectionSource, clientStats, statementLatency, honorPauses, checkBackends);
+    }
+
+    /**
+     * 是否检查后端复用关系；直连PostgreSQL时每个客户端连接独占一个后端，复用关系没有意义，
+     * 关闭后只比较参数值和报错等检测点
+     * @return 只有该选项不同的新引擎
+     */
+    public ScenarioEngine checkBackends(boolean checkBackends) {
+        return new ScenarioEngine(connectionSource, clientStats, statementLatency, honorPauses, checkBackends);
+    }
+
+    /**
+     * 预编译场景定义
+     * @throws IllegalArgumentException 引用了未定义的槽位，或 repeat / endRepeat 不配对
+     */
+    public static CompiledScenario compile(ScenarioSpec spec) {
+        List<ScenarioSpec.StepSpec> specs = spec.getSteps();
+        Map<String, Integer> backendSlots = new LinkedHashMap<>();
+        Map<String, Integer> valueSlots = new LinkedHashMap<>();
+        ScenarioStep[] steps = new ScenarioStep[specs.size()];
+        Deque<Integer> openRepeats = new ArrayDeque<>();
+        int clientCount = 0;
+        int checkpoint = 0;
+
+        for (int i = 0; i < steps.length; i++) {
+            ScenarioSpec.StepSpec s = specs.get(i);
+            int client = s.client - 1;
+            clientCount = Math.max(clientCount, s.client);
+            String label = s.label;
+            if (s.kind.isCheckpoint()) {
+                checkpoint++;
+                if (label == null) {
+                    label = "检测点" + checkpoint;
+                }
+            }
+            String where = "场景[" + spec.getName() + "]第" + (i + 1) + "步";
+            switch (s.kind) {
+                case STAGE:
+                    steps[i] = new ScenarioStep(s.kind, client, null, null, null, -1, -1, s.text, 0);
+                    break;
+                case CAPTURE_GUC:
+                    steps[i] = new ScenarioStep(s.kind, client, "SHOW " + s.text, s.text, null,
+                            defineSlot(valueSlots, s.slot), -1, label, 0);
+                    break;
+                case EXPECT_GUC:
+                    steps[i] = new ScenarioStep(s.kind, client, "SHOW " + s.text, s.text, s.expected, -1,
+                            s.refSlot == null ? -1 : requireSlot(valueSlots, s.refSlot, where), label, 0);
+                    break;
+                case PROBE_BACKEND:
+                    steps[i] = new ScenarioStep(s.kind, client, BACKEND_SQL, null, null,
+                            defineSlot(backendSlots, s.slot), -1, label, 0);
+                    break;
+                case EXPECT_SAME_BACKEND:
+                case EXPECT_DIFFERENT_BACKEND:
+                    steps[i] = new ScenarioStep(s.kind, client, null, null, null,
+                            requireSlot(backendSlots, s.slot, where), requireSlot(backendSlots, s.refSlot, where),
+                            label, 0);
+                    break;
+                case PAUSE:
+                case CLOSE:
+                case EXPECT_ERROR_SEEN:
+                    steps[i] = new ScenarioStep(s.kind, client, null, null, null, -1, -1, label, s.pauseMillis);
+                    break;
+                case REPEAT:
+                    // refSlot 在遇到匹配的 END_REPEAT 时补上
+                    openRepeats.push(i);
+                    break;
+                case END_REPEAT: {
+                    if (openRepeats.isEmpty()) {
+                        throw new IllegalArgumentException(where + "的 endRepeat 没有匹配的 repeat");
+                    }
+                    int start = openRepeats.pop();
+                    ScenarioSpec.StepSpec repeat = specs.get(start);
+                    steps[start] = new ScenarioStep(StepKind.REPEAT, repeat.client - 1, null, null, null,
+                            -1, i, null, repeat.pauseMillis);
+                    steps[i] = new ScenarioStep(s.kind, client, null, null, null, -1, start, null, 0);
+                    break;
+                }
+                default:
+                    // BEGIN / COMMIT / ROLLBACK / EXECUTE / EXECUTE_EXPECT_ERROR / EXECUTE_TOLERATE_ERROR
+                    steps[i] = new ScenarioStep(s.kind, client, s.text, null, null, -1, -1, label, 0);
+                    break;
+            }
+        }
+        if (!openRepeats.isEmpty()) {
+            throw new IllegalArgumentException("场景[" + spec.getName() + "]第" + (openRepeats.peek() + 1)
+                    + "步的 repeat 没有匹配的 endRepeat");
+        }
+        return new CompiledScenario(spec.getName(), spec.getCategory(), spec.getParameter(), steps, clientCount,
+                backendSlots.keySet().toArray(new String[0]), valueSlots.keySet().toArray(new String[0]));
+    }
+
+    private static int defineSlot(Map<String, Integer> slots, String name) {
+        return slots.computeIfAbsent(name, k -> slots.size());
+    }
+
+    private static int requireSlot(Map<String, Integer> slots, String name, String where) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException(where + "引用了未定义的槽位: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * 执行场景；客户端连接在第一次使用时建立，结束时全部关闭（未提交的事务随之回滚）
+     */
+    public ScenarioOutcome run(CompiledScenario scenario, boolean useExtended, String protocolName) {
+        Connection[] conns = new Connection[scenario.clientCount];
+        String[] backends = new String[scenario.backendSlotNames.length];
+        String[] values = new String[scenario.valueSlotNames.length];
+        String[] errors = new String[scenario.clientCount];
+        // 按 REPEAT 步骤下标记录剩余次数
+        long[] remaining = null;
+        StringBuilder failures = new StringBuilder();
+        int checkpoints = 0;
+        int statements = 0;
+        boolean verbose = LOG.isEnabled(HarnessLogger.Level.INFO);
+        long start = System.nanoTime();
+
+        ScenarioStep step = null;
+        try {
+            for (int i = 0; i < scenario.steps.length; i++) {
+                step = scenario.steps[i];
+                switch (step.kind) {
+                    case STAGE:
+                        if (verbose) {
+                            LOG.info(YELLOW + step.label + RESET);
+                        }
+                        break;
+                    case BEGIN:
+                        printSql(step, protocolName);
+                        connection(conns, step.client, useExtended).setAutoCommit(false);
+                        break;
+                    case COMMIT:
+                    case ROLLBACK:
+                        printSql(step, protocolName);
+                        endTransaction(connection(conns, step.client, useExtended), step);
+                        statements++;
+                        break;
+                    case EXECUTE:
+                        execute(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        statements++;
+                        break;
+                    case EXECUTE_EXPECT_ERROR: {
+                        checkpoints++;
+                        String error = null;
+                        try {
+                            execute(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        } catch (SQLException e) {
+                            error = e.getMessage();
+                        }
+                        statements++;
+                        checkpoint(step, "执行应报错: " + step.sql, "报错",
+                                error == null ? "执行成功" : "报错: " + error, error != null, failures, verbose);
+                        break;
+                    }
+                    case EXECUTE_TOLERATE_ERROR:
+                        try {
+                            execute(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        } catch (SQLException e) {
+                            errors[step.client] = e.getMessage();
+                            if (verbose) {
+                                LOG.info(BLUE + "  → 客户端连接" + (step.client + 1) + " 报错: " + e.getMessage() + RESET);
+                            }
+                        }
+                        statements++;
+                        break;
+                    case EXPECT_ERROR_SEEN: {
+                        checkpoints++;
+                        String error = errors[step.client];
+                        errors[step.client] = null;
+                        checkpoint(step, "客户端连接" + (step.client + 1) + " 收到错误信息", "报错",
+                                error == null ? "未报错" : "报错: " + error, error != null, failures, verbose);
+                        break;
+                    }
+                    case CAPTURE_GUC:
+                        values[step.slot] = query(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        statements++;
+                        if (verbose) {
+                            LOG.info(BLUE + "  → 客户端连接" + (step.client + 1) + " " + step.parameter
+                                    + " = " + values[step.slot] + RESET);
+                        }
+                        break;
+                    case EXPECT_GUC: {
+                        checkpoints++;
+                        String actual = query(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        statements++;
+                        String expected = step.expected != null ? step.expected : values[step.refSlot];
+                        checkpoint(step, "客户端连接" + (step.client + 1) + " " + step.parameter, expected, actual,
+                                GucValues.equivalent(expected, actual), failures, verbose);
+                        break;
+                    }
+                    case PROBE_BACKEND:
+                        backends[step.slot] = probe(connection(conns, step.client, useExtended), step, useExtended, protocolName);
+                        statements++;
+                        if (verbose) {
+                            LOG.info(BLUE + "  → 客户端连接" + (step.client + 1) + "的后端连接["
+                                    + scenario.backendSlotNames[step.slot] + "]: " + backends[step.slot] + RESET);
+                        }
+                        break;
+                    case EXPECT_SAME_BACKEND:
+                    case EXPECT_DIFFERENT_BACKEND: {
+                        if (!checkBackends) {
+                            break;
+                        }
+                        checkpoints++;
+                        boolean same = backends[step.slot] != null && backends[step.slot].equals(backends[step.refSlot]);
+                        boolean expectSame = step.kind == StepKind.EXPECT_SAME_BACKEND;
+                        String slotName = scenario.backendSlotNames[step.slot];
+                        String refName = scenario.backendSlotNames[step.refSlot];
+                        checkpoint(step, slotName + (expectSame ? " 复用 " : " 不同于 ") + refName,
+                                expectSame ? "同一后端连接" : "不同后端连接",
+                                slotName + "=" + backends[step.slot] + ", " + refName + "=" + backends[step.refSlot],
+                                same == expectSame, failures, verbose);
+                        break;
+                    }
+                    case PAUSE:
+                        if (honorPauses) {
+                            Thread.sleep(step.pauseMillis);
+                        }
+                        break;
+                    case CLOSE:
+                        JdbcOps.closeQuietly(conns[step.client]);
+                        conns[step.client] = null;
+                        break;
+                    case REPEAT:
+                        if (remaining == null) {
+                            remaining = new long[scenario.steps.length];
+                        }
+                        remaining[i] = step.pauseMillis;
+                        if (remaining[i] <= 0) {
+                            i = step.refSlot;
+                        }
+                        break;
+                    case END_REPEAT:
+                        if (--remaining[step.refSlot] > 0) {
+                            i = step.refSlot;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("未知步骤类型: " + step.kind);
+                }
+            }
+        } catch (SQLException e) {
+            String sql = step.sql == null ? step.kind.name() : step.sql;
+            LOG.error(RED + "  ✗ 客户端连接" + (step.client + 1) + " 执行异常: " + sql + " - " + e.getMessage() + RESET);
+            failures.append("执行异常(客户端连接").append(step.client + 1).append(": ").append(sql)
+                    .append(", ").append(e.getMessage()).append("); ");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.append("执行被中断; ");
+        } finally {
+            for (Connection conn : conns) {
+                JdbcOps.closeQuietly(conn);
+            }
+        }
+        return new ScenarioOutcome(failures.length() == 0, failures.toString(), checkpoints, statements,
+                System.nanoTime() - start);
+    }
+
+    private Connection connection(Connection[] conns, int client, boolean useExtended) throws SQLException {
+        Connection conn = conns[client];
+        if (conn == null) {
+            conn = connectionSource.open(useExtended);
+            conn.setAutoCommit(true);
+            conns[client] = conn;
+        }
+        return conn;
+    }
+
+    private void endTransaction(Connection conn, ScenarioStep step) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (step.kind == StepKind.COMMIT) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+            conn.setAutoCommit(true);
+        } finally {
+            if (clientStats != null) {
+                clientStats.record(step.statementKind);
+                clientStats.recordTransaction();
+            }
+            if (statementLatency != null) {
+                statementLatency.record(step.statementKind, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void execute(Connection conn, ScenarioStep step, boolean useExtended, String protocolName) throws SQLException {
+        long start = beforeStatement(conn, step, protocolName);
+        try {
+            JdbcOps.execute(conn, step.sql, useExtended);
+        } finally {
+            afterStatement(step, start);
+        }
+    }
+
+    private String query(Connection conn, ScenarioStep step, boolean useExtended, String protocolName) throws SQLException {
+        long start = beforeStatement(conn, step, protocolName);
+        try {
+            return JdbcOps.queryString(conn, step.sql, useExtended);
+        } finally {
+            afterStatement(step, start);
+        }
+    }
+
+    /**
+     * 后端连接标识：pid 与 ip:port，比较时三者都要相同
+     */
+    private String probe(Connection conn, ScenarioStep step, boolean useExtended, String protocolName) throws SQLException {
+        long start = beforeStatement(conn, step, protocolName);
+        try {
+            String[] row = JdbcOps.queryRow(conn, step.sql, useExtended);
+            return row == null ? null : "pid=" + row[2] + "@" + row[0] + ":" + row[1];
+        } finally {
+            afterStatement(step, start);
+        }
+    }
+
+    private long beforeStatement(Connection conn, ScenarioStep step, String protocolName) throws SQLException {
+        printSql(step, protocolName);
+        if (clientStats != null) {
+            clientStats.record(step.statementKind);
+            if (conn.getAutoCommit()) {
+                clientStats.recordTransaction();
+            }
+        }
+        return System.nanoTime();
+    }
+
+    private void afterStatement(ScenarioStep step, long start) {
+        if (statementLatency != null) {
+            statementLatency.record(step.statementKind, System.nanoTime() - start);
+        }
+    }
+
+    private void printSql(ScenarioStep step, String protocolName) {
+        if (LOG.isEnabled(HarnessLogger.Level.DEBUG)) {
+            LOG.debug(RED + "[客户端连接" + (step.client + 1) + " - " + protocolName + "] SQL: " + step.sql + RESET);
+        }
+    }
+
+    private void checkpoint(ScenarioStep step, String subject, String expected, String actual,
+                            boolean passed, StringBuilder failures, boolean verbose) {
+        if (verbose) {
+            LOG.info("\n" + CHECKPOINT_LINE);
+            LOG.info("【" + step.label + "】" + subject + ":");
+            LOG.info("  期望: " + expected);
+            LOG.info("  实际: " + actual);
+            if (passed) {
+                LOG.info(GREEN + "  结果: ✓ 通过" + RESET);
+            }
+        }
+        if (!passed) {
+            LOG.error(RED + "  结果: ✗ 失败 - 【" + step.label + "】" + subject + "，期望=" + expected
+                    + ", 实际=" + actual + RESET);
+            failures.append(step.label).append("失败(期望:").append(expected)
+                    .append(", 实际:").append(actual).append("); ");
+        }
+        if (verbose) {
+            LOG.info(CHECKPOINT_LINE + "\n");
+        }
+    }
+}
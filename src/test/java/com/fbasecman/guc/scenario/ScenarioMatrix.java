@@ -0,0 +1,227 @@
+package com.fbasecman.guc.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 场景矩阵展开：以“连接1修改参数、连接2复用其后端、连接1切换到新后端”这一同步场景为模板，
+ * 按 参数类别（report / 非report × bool/enum/int/real/string）× 事务形态 × 事务控制方式 × 协议
+ * 生成全部单元格。单元格顺序固定，下标在各个进程中一致，可按下标分片执行后再合并。
+ *
+ * 不存在的组合不生成：PostgreSQL 中没有可由会话修改的 int / real 类型 report 参数；
+ * 事务外 SET 只有自动提交一种控制方式。
+ *
+ * 范围：矩阵只展开上面这一个模板，场景维度只有一种。GucSyncScenarioTest 中的手写同步场景
+ * （RESET ALL、DISCARD ALL、读写切换等）是参数和步骤固定的 Java 方法，无法按参数 × 事务形态展开，
+ * 仍由 querymodes / differential 等模式按协议逐个执行。
+ */
+public final class ScenarioMatrix {
+
+    /** GUC 取值类型，对应 pg_settings.vartype */
+    public enum ValueType { BOOL, ENUM, INT, REAL, STRING }
+
+    /** 连接1修改参数的事务形态 */
+    public enum TxShape {
+        OUTSIDE("事务外SET", true),
+        COMMIT("事务内SET后提交", true),
+        ROLLBACK("事务内SET后回滚", false),
+        LOCAL("SET LOCAL后提交", false);
+
+        final String label;
+        /** 事务结束后修改是否保留在会话中 */
+        final boolean persists;
+
+        TxShape(String label, boolean persists) {
+            this.label = label;
+            this.persists = persists;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    /** 连接1开启、结束事务的方式 */
+    public enum TxControl {
+        /** 自动提交模式下发送 BEGIN / COMMIT / ROLLBACK 语句 */
+        SQL("自动提交+事务语句"),
+        /** setAutoCommit(false) 后由驱动隐式开启事务，commit() / rollback() 结束 */
+        JDBC("关闭自动提交");
+
+        final String label;
+
+        TxControl(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    /**
+     * 矩阵使用的参数：名称、SET 字面量、SHOW 返回值、是否 GUC_REPORT、取值类型
+     */
+    static final class MatrixParameter {
+        final String name;
+        final String literal;
+        final String shown;
+        final boolean report;
+        final ValueType type;
+
+        MatrixParameter(String name, String literal, String shown, boolean report, ValueType type) {
+            this.name = name;
+            this.literal = literal;
+            this.shown = shown;
+            this.report = report;
+            this.type = type;
+        }
+    }
+
+    private static final MatrixParameter[] PARAMETERS = {
+        // report 参数（pgjdbc 要求 DateStyle 以 ISO 开头、client_encoding 为 UTF8，因此不修改 client_encoding）
+        new MatrixParameter("standard_conforming_strings", "off", "off", true, ValueType.BOOL),
+        new MatrixParameter("IntervalStyle", "iso_8601", "iso_8601", true, ValueType.ENUM),
+        new MatrixParameter("DateStyle", "'ISO, DMY'", "ISO, DMY", true, ValueType.STRING),
+        new MatrixParameter("TimeZone", "'Asia/Tokyo'", "Asia/Tokyo", true, ValueType.STRING),
+        new MatrixParameter("application_name", "'guc_matrix'", "guc_matrix", true, ValueType.STRING),
+        // 非 report 参数
+        new MatrixParameter("enable_seqscan", "off", "off", false, ValueType.BOOL),
+        new MatrixParameter("geqo", "off", "off", false, ValueType.BOOL),
+        new MatrixParameter("bytea_output", "escape", "escape", false, ValueType.ENUM),
+        new MatrixParameter("client_min_messages", "warning", "warning", false, ValueType.ENUM),
+        // 不用 3：pgjdbc 建连时已执行 SET extra_float_digits = 3，取 3 时同步失效也能通过
+        new MatrixParameter("extra_float_digits", "1", "1", false, ValueType.INT),
+        new MatrixParameter("work_mem", "'8MB'", "8MB", false, ValueType.INT),
+        new MatrixParameter("random_page_cost", "1.1", "1.1", false, ValueType.REAL),
+        new MatrixParameter("cursor_tuple_fraction", "0.2", "0.2", false, ValueType.REAL),
+        new MatrixParameter("search_path", "public", "public", false, ValueType.STRING),
+    };
+
+    /**
+     * 矩阵中的一个单元格
+     */
+    public static final class Cell {
+        private final int index;
+        private final CompiledScenario scenario;
+        private final boolean extended;
+        private final MatrixParameter parameter;
+        private final TxShape shape;
+        private final TxControl control;
+
+        Cell(int index, CompiledScenario scenario, boolean extended, MatrixParameter parameter,
+             TxShape shape, TxControl control) {
+            this.index = index;
+            this.scenario = scenario;
+            this.extended = extended;
+            this.parameter = parameter;
+            this.shape = shape;
+            this.control = control;
+        }
+
+        public int getIndex() { return index; }
+        public CompiledScenario getScenario() { return scenario; }
+        public boolean isExtended() { return extended; }
+        public String getProtocolName() { return extended ? "Extended协议" : "Simple协议"; }
+        public String getParameterName() { return parameter.name; }
+        public String getCategoryLabel() {
+            return (parameter.report ? "report" : "非report") + "/" + parameter.type.name().toLowerCase();
+        }
+        public TxShape getShape() { return shape; }
+        public TxControl getControl() { return control; }
+
+        @Override
+        public String toString() {
+            return scenario.getName() + "（" + getProtocolName() + "）";
+        }
+    }
+
+    private static final List<Cell> CELLS = Collections.unmodifiableList(buildCells());
+
+    private ScenarioMatrix() {
+    }
+
+    /**
+     * 全部单元格，下标从0开始连续
+     */
+    public static List<Cell> cells() {
+        return CELLS;
+    }
+
+    /**
+     * 第 shard 个分片（从0开始）负责的单元格：按下标轮流分配，使各分片的参数类别和事务形态分布均匀
+     */
+    public static List<Cell> shard(List<Cell> cells, int shard, int shards) {
+        List<Cell> selected = new ArrayList<>();
+        for (Cell cell : cells) {
+            if (cell.index % shards == shard) {
+                selected.add(cell);
+            }
+        }
+        return selected;
+    }
+
+    private static List<Cell> buildCells() {
+        List<Cell> cells = new ArrayList<>();
+        for (MatrixParameter parameter : PARAMETERS) {
+            for (TxShape shape : TxShape.values()) {
+                for (TxControl control : TxControl.values()) {
+                    if (shape == TxShape.OUTSIDE && control == TxControl.JDBC) {
+                        continue;
+                    }
+                    CompiledScenario scenario = ScenarioEngine.compile(spec(parameter, shape, control));
+                    for (boolean extended : new boolean[] {false, true}) {
+                        cells.add(new Cell(cells.size(), scenario, extended, parameter, shape, control));
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * 按维度生成单元格场景。只有连接1修改参数的步骤随事务形态和控制方式变化，
+     * 连接2占用后端、连接1切换后端的步骤与 {@link ScenarioCatalog} 中的变体相同
+     */
+    static ScenarioSpec spec(MatrixParameter p, TxShape shape, TxControl control) {
+        String name = p.name;
+        String expectedAfter = shape.persists ? p.shown : "$initial";
+        ScenarioSpec spec = ScenarioSpec.named("矩阵-" + shape.label + "-" + control.label + "-" + name)
+                .category("场景矩阵")
+                .parameter(name + "（" + (p.report ? "report" : "非report") + "/" + p.type.name().toLowerCase()
+                        + "，" + shape.label + "，" + control.label + "）")
+                .on(1).captureGuc(name, "initial");
+        if (shape == TxShape.OUTSIDE) {
+            spec.execute("SET " + name + " = " + p.literal);
+        } else {
+            if (control == TxControl.SQL) {
+                spec.execute("BEGIN");
+            } else {
+                spec.begin();
+            }
+            spec.execute((shape == TxShape.LOCAL ? "SET LOCAL " : "SET ") + name + " = " + p.literal)
+                    .expectGuc(name, p.shown, "事务内可见");
+            if (shape == TxShape.ROLLBACK) {
+                if (control == TxControl.SQL) {
+                    spec.execute("ROLLBACK");
+                } else {
+                    spec.rollback();
+                }
+            } else if (control == TxControl.SQL) {
+                spec.execute("COMMIT");
+            } else {
+                spec.commit();
+            }
+            spec.expectGuc(name, expectedAfter, "事务结束后");
+        }
+        return spec.probe("后端1")
+                .on(2).begin()
+                .probe("后端2")
+                .expectSameBackend("后端2", "后端1")
+                .expectGuc(name, "$initial")
+                .on(1).begin()
+                .probe("后端3")
+                .expectDifferentBackend("后端3", "后端1")
+                .expectGuc(name, expectedAfter)
+                .commit()
+                .on(2).expectGuc(name, "$initial")
+                .commit();
+    }
+}
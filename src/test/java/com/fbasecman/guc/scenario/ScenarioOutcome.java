@@ -0,0 +1,26 @@
+package com.fbasecman.guc.scenario;
+
+/**
+ * 单次执行场景的结果
+ */
+public class ScenarioOutcome {
+    private final boolean passed;
+    private final String failureDetails;
+    private final int checkpoints;
+    private final int statements;
+    private final long elapsedNanos;
+
+    ScenarioOutcome(boolean passed, String failureDetails, int checkpoints, int statements, long elapsedNanos) {
+        this.passed = passed;
+        this.failureDetails = failureDetails;
+        this.checkpoints = checkpoints;
+        this.statements = statements;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isPassed() { return passed; }
+    public String getFailureDetails() { return failureDetails; }
+    public int getCheckpoints() { return checkpoints; }
+    public int getStatements() { return statements; }
+    public long getElapsedNanos() { return elapsedNanos; }
+}
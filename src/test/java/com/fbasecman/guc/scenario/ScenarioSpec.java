@@ -0,0 +1,195 @@
+package com.fbasecman.guc.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 声明式场景定义：按顺序列出各客户端连接执行的步骤、期望的后端关系（同一/不同后端）以及期望的GUC值。
+ *
+ * 写法示例（用例2-DateStyle同步）：
+ * <pre>
+ * ScenarioSpec.named("用例2-DateStyle同步")
+ *     .on(1).captureGuc("DateStyle", "initial")
+ *            .execute("SET DateStyle = ISO, DMY").probe("b1")
+ *     .on(2).begin().probe("b2").expectSameBackend("b2", "b1").expectGuc("DateStyle", "$initial")
+ *     .on(1).begin().probe("b3").expectDifferentBackend("b3", "b1").expectGuc("DateStyle", "ISO, DMY").commit()
+ * </pre>
+ * 期望值以 $ 开头时引用 captureGuc 保存的值。客户端连接在第一次使用时建立。
+ * 重复的步骤写在 repeat(n) 与 endRepeat() 之间（可嵌套），编译后仍只占一份步骤，执行时循环 n 次。
+ * 定义本身不执行任何SQL，需要先经 {@link ScenarioEngine#compile(ScenarioSpec)} 预编译。
+ */
+public class ScenarioSpec {
+
+    /**
+     * 未编译的步骤，槽位仍以名称表示
+     */
+    static class StepSpec {
+        final StepKind kind;
+        final int client;
+        final String text;
+        final String expected;
+        final String slot;
+        final String refSlot;
+        final String label;
+        /** PAUSE 的等待时长；REPEAT 的重复次数 */
+        final long pauseMillis;
+
+        StepSpec(StepKind kind, int client, String text, String expected,
+                 String slot, String refSlot, String label, long pauseMillis) {
+            this.kind = kind;
+            this.client = client;
+            this.text = text;
+            this.expected = expected;
+            this.slot = slot;
+            this.refSlot = refSlot;
+            this.label = label;
+            this.pauseMillis = pauseMillis;
+        }
+    }
+
+    private final String name;
+    private String category;
+    private String parameter;
+    private int currentClient = 1;
+    private final List<StepSpec> steps = new ArrayList<>();
+
+    private ScenarioSpec(String name) {
+        this.name = name;
+        this.category = "声明式场景";
+        this.parameter = name;
+    }
+
+    public static ScenarioSpec named(String name) {
+        return new ScenarioSpec(name);
+    }
+
+    /**
+     * 结果表格中的测试类别
+     */
+    public ScenarioSpec category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    /**
+     * 结果表格中的测试参数列（不含协议名）
+     */
+    public ScenarioSpec parameter(String parameter) {
+        this.parameter = parameter;
+        return this;
+    }
+
+    /**
+     * 后续步骤在第 client 个客户端连接上执行（从1开始）
+     */
+    public ScenarioSpec on(int client) {
+        if (client < 1) {
+            throw new IllegalArgumentException("客户端连接编号从1开始: " + client);
+        }
+        this.currentClient = client;
+        return this;
+    }
+
+    public ScenarioSpec stage(String description) {
+        return add(StepKind.STAGE, description, null, null, null, null, 0);
+    }
+
+    public ScenarioSpec begin() {
+        return add(StepKind.BEGIN, "BEGIN", null, null, null, null, 0);
+    }
+
+    public ScenarioSpec commit() {
+        return add(StepKind.COMMIT, "COMMIT", null, null, null, null, 0);
+    }
+
+    public ScenarioSpec rollback() {
+        return add(StepKind.ROLLBACK, "ROLLBACK", null, null, null, null, 0);
+    }
+
+    public ScenarioSpec execute(String sql) {
+        return add(StepKind.EXECUTE, sql, null, null, null, null, 0);
+    }
+
+    public ScenarioSpec executeExpectingError(String sql) {
+        return add(StepKind.EXECUTE_EXPECT_ERROR, sql, null, null, null, null, 0);
+    }
+
+    public ScenarioSpec executeExpectingError(String sql, String label) {
+        return add(StepKind.EXECUTE_EXPECT_ERROR, sql, null, null, null, label, 0);
+    }
+
+    public ScenarioSpec executeTolerant(String sql) {
+        return add(StepKind.EXECUTE_TOLERATE_ERROR, sql, null, null, null, null, 0);
+    }
+
+    public ScenarioSpec expectErrorSeen(String label) {
+        return add(StepKind.EXPECT_ERROR_SEEN, null, null, null, null, label, 0);
+    }
+
+    public ScenarioSpec captureGuc(String parameter, String slot) {
+        return add(StepKind.CAPTURE_GUC, parameter, null, slot, null, null, 0);
+    }
+
+    public ScenarioSpec expectGuc(String parameter, String expected) {
+        return expectGuc(parameter, expected, null);
+    }
+
+    public ScenarioSpec expectGuc(String parameter, String expected, String label) {
+        String refSlot = expected.startsWith("$") ? expected.substring(1) : null;
+        return add(StepKind.EXPECT_GUC, parameter, refSlot == null ? expected : null, null, refSlot, label, 0);
+    }
+
+    public ScenarioSpec probe(String slot) {
+        return add(StepKind.PROBE_BACKEND, null, null, slot, null, null, 0);
+    }
+
+    public ScenarioSpec expectSameBackend(String slot, String refSlot) {
+        return expectSameBackend(slot, refSlot, null);
+    }
+
+    public ScenarioSpec expectSameBackend(String slot, String refSlot, String label) {
+        return add(StepKind.EXPECT_SAME_BACKEND, null, null, slot, refSlot, label, 0);
+    }
+
+    public ScenarioSpec expectDifferentBackend(String slot, String refSlot) {
+        return expectDifferentBackend(slot, refSlot, null);
+    }
+
+    public ScenarioSpec expectDifferentBackend(String slot, String refSlot, String label) {
+        return add(StepKind.EXPECT_DIFFERENT_BACKEND, null, null, slot, refSlot, label, 0);
+    }
+
+    public ScenarioSpec pause(long millis) {
+        return add(StepKind.PAUSE, null, null, null, null, null, millis);
+    }
+
+    public ScenarioSpec close() {
+        return add(StepKind.CLOSE, null, null, null, null, null, 0);
+    }
+
+    /**
+     * 之后到 {@link #endRepeat()} 之间的步骤重复执行 times 次（times 为0时跳过）
+     */
+    public ScenarioSpec repeat(int times) {
+        if (times < 0) {
+            throw new IllegalArgumentException("重复次数不能为负数: " + times);
+        }
+        return add(StepKind.REPEAT, null, null, null, null, null, times);
+    }
+
+    public ScenarioSpec endRepeat() {
+        return add(StepKind.END_REPEAT, null, null, null, null, null, 0);
+    }
+
+    private ScenarioSpec add(StepKind kind, String text, String expected,
+                             String slot, String refSlot, String label, long pauseMillis) {
+        steps.add(new StepSpec(kind, currentClient, text, expected, slot, refSlot, label, pauseMillis));
+        return this;
+    }
+
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    public String getParameter() { return parameter; }
+    List<StepSpec> getSteps() { return Collections.unmodifiableList(steps); }
+}
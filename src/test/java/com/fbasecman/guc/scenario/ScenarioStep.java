@@ -0,0 +1,41 @@
+package com.fbasecman.guc.scenario;
+
+import com.fbasecman.guc.stats.StatementKind;
+
+/**
+ * 预编译后的步骤：客户端编号转为下标，槽位名称转为数组下标，SQL与语句类型提前算好，
+ * 执行时不再做字符串拼接和查找
+ */
+final class ScenarioStep {
+    final StepKind kind;
+    /** 客户端连接下标（从0开始） */
+    final int client;
+    /** 要执行的SQL；STAGE 为步骤标题 */
+    final String sql;
+    final StatementKind statementKind;
+    /** GUC 参数名（CAPTURE_GUC / EXPECT_GUC） */
+    final String parameter;
+    /** 字面期望值；为null时使用 refSlot 指向的值槽位 */
+    final String expected;
+    final int slot;
+    /** 引用的槽位；REPEAT / END_REPEAT 为匹配的另一端的步骤下标 */
+    final int refSlot;
+    /** 检测点名称 */
+    final String label;
+    /** PAUSE 的等待时长；REPEAT 的重复次数 */
+    final long pauseMillis;
+
+    ScenarioStep(StepKind kind, int client, String sql, String parameter, String expected,
+                 int slot, int refSlot, String label, long pauseMillis) {
+        this.kind = kind;
+        this.client = client;
+        this.sql = sql;
+        this.statementKind = sql == null ? null : StatementKind.classify(sql);
+        this.parameter = parameter;
+        this.expected = expected;
+        this.slot = slot;
+        this.refSlot = refSlot;
+        this.label = label;
+        this.pauseMillis = pauseMillis;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fbasecman.guc.scenario;
+
+/**
+ * 声明式场景中的步骤类型
+ */
+public enum StepKind {
+    /** 打印步骤标题，不执行SQL */
+    STAGE,
+    /** 关闭自动提交，由驱动在下一条语句前发送BEGIN */
+    BEGIN,
+    /** 提交事务并恢复自动提交 */
+    COMMIT,
+    /** 回滚事务并恢复自动提交 */
+    ROLLBACK,
+    /** 执行一条语句 */
+    EXECUTE,
+    /** 执行一条语句，期望报错 */
+    EXECUTE_EXPECT_ERROR,
+    /** 执行一条语句，报错时记录到该客户端连接上而不中止场景，由 EXPECT_ERROR_SEEN 检查 */
+    EXECUTE_TOLERATE_ERROR,
+    /** 检测点：该客户端连接上一次检查以来，EXECUTE_TOLERATE_ERROR 至少报错一次 */
+    EXPECT_ERROR_SEEN,
+    /** SHOW 参数并保存到值槽位，供后续检测点引用 */
+    CAPTURE_GUC,
+    /** 检测点：SHOW 参数并与期望值比较 */
+    EXPECT_GUC,
+    /** 查询后端连接标识（ip/port/pid）并保存到后端槽位 */
+    PROBE_BACKEND,
+    /** 检测点：两个后端槽位是同一个后端连接 */
+    EXPECT_SAME_BACKEND,
+    /** 检测点：两个后端槽位是不同的后端连接 */
+    EXPECT_DIFFERENT_BACKEND,
+    /** 等待一段时间（高速执行生成的变体时可以跳过） */
+    PAUSE,
+    /** 关闭客户端连接 */
+    CLOSE,
+    /** 循环开始：到匹配的 END_REPEAT 之间的步骤重复执行指定次数 */
+    REPEAT,
+    /** 循环结束：次数未满时跳回匹配的 REPEAT 之后 */
+    END_REPEAT;
+
+    public boolean isCheckpoint() {
+        return this == EXPECT_GUC || this == EXPECT_SAME_BACKEND
+                || this == EXPECT_DIFFERENT_BACKEND || this == EXECUTE_EXPECT_ERROR
+                || this == EXPECT_ERROR_SEEN;
+    }
+}
@@ -0,0 +1,45 @@
+package com.fbasecman.guc.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 客户端侧语句计数 - 记录测试程序自己发出的语句，用于和后端 pg_stat_statements 对比
+ */
+public class ClientStatementStats {
+
+    private final LongAdder[] counts = new LongAdder[StatementKind.all().length];
+    private final LongAdder transactions = new LongAdder();
+
+    public ClientStatementStats() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(String sql) {
+        record(StatementKind.classify(sql));
+    }
+
+    public void record(StatementKind kind) {
+        counts[kind.ordinal()].increment();
+    }
+
+    /**
+     * 记录一个客户端事务（显式提交，或自动提交模式下的单条语句）
+     */
+    public void recordTransaction() {
+        transactions.increment();
+    }
+
+    /**
+     * 当前计数快照：下标为 StatementKind.ordinal()，最后一个元素为事务数
+     */
+    public long[] snapshot() {
+        long[] result = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = counts[i].sum();
+        }
+        result[counts.length] = transactions.sum();
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fbasecman.guc.stats;
+
+/**
+ * SQL语句类别 - 按首个关键字归类，用于客户端/后端语句计数对比
+ */
+public enum StatementKind {
+    SET, RESET, DISCARD, SHOW, BEGIN, COMMIT, ROLLBACK, SELECT, OTHER;
+
+    private static final StatementKind[] VALUES = values();
+
+    public static StatementKind[] all() {
+        return VALUES;
+    }
+
+    /**
+     * 根据SQL首个关键字分类（忽略前导空白和大小写，不做完整解析）
+     */
+    public static StatementKind classify(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        int start = 0;
+        int len = sql.length();
+        while (start < len && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < len && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        switch (end - start) {
+            case 3:
+                if (sql.regionMatches(true, start, "SET", 0, 3)) return SET;
+                if (sql.regionMatches(true, start, "END", 0, 3)) return COMMIT;
+                return OTHER;
+            case 4:
+                if (sql.regionMatches(true, start, "SHOW", 0, 4)) return SHOW;
+                return OTHER;
+            case 5:
+                if (sql.regionMatches(true, start, "RESET", 0, 5)) return RESET;
+                if (sql.regionMatches(true, start, "BEGIN", 0, 5)) return BEGIN;
+                if (sql.regionMatches(true, start, "START", 0, 5)) return BEGIN;
+                return OTHER;
+            case 6:
+                if (sql.regionMatches(true, start, "COMMIT", 0, 6)) return COMMIT;
+                if (sql.regionMatches(true, start, "SELECT", 0, 6)) return SELECT;
+                return OTHER;
+            case 7:
+                if (sql.regionMatches(true, start, "DISCARD", 0, 7)) return DISCARD;
+                return OTHER;
+            case 8:
+                if (sql.regionMatches(true, start, "ROLLBACK", 0, 8)) return ROLLBACK;
+                return OTHER;
+            default:
+                return OTHER;
+        }
+    }
+
+    /**
+     * 连接池做GUC同步时可能注入的语句类别
+     */
+    public boolean isSyncKind() {
+        return this == SET || this == RESET || this == DISCARD;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fbasecman.guc.stats;
+
+import com.fbasecman.guc.util.LatencyHistogram;
+
+/**
+ * 按语句类别统计的客户端往返延迟
+ */
+public class StatementLatencyStats {
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[StatementKind.all().length];
+
+    public StatementLatencyStats() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public synchronized void record(StatementKind kind, long nanos) {
+        histograms[kind.ordinal()].record(nanos);
+    }
+
+    public synchronized void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 复制当前统计（调用方可自由读取，不受后续记录影响）
+     */
+    public synchronized LatencyHistogram copyOf(StatementKind kind) {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.merge(histograms[kind.ordinal()]);
+        return copy;
+    }
+}
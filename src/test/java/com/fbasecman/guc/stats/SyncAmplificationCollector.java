@@ -0,0 +1,145 @@
+package com.fbasecman.guc.stats;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+import com.fbasecman.guc.config.Endpoint;
+import com.fbasecman.guc.config.Topology;
+import com.fbasecman.guc.model.SyncAmplification;
+import com.fbasecman.guc.util.HarnessLogger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * GUC同步放大采集器 - 通过直连（不经过连接池）查询 pg_stat_statements / pg_stat_database，
+ * 在场景执行前后各取一次快照，差值即为后端在此期间实际执行的语句。
+ *
+ * 前提：目标库已安装 pg_stat_statements 扩展，且 pg_stat_statements.track_utility = on（默认）。
+ * 注意：快照窗口内其他客户端的流量也会被计入，测试期间应避免无关负载。
+ * pgjdbc 默认在每次建连后执行 SET extra_float_digits 和 SET application_name，数量随连接数增长而与连接池无关，
+ * 被统计的客户端连接应使用 {@link com.fbasecman.guc.util.JdbcUrlBuilder#withoutDriverInitSets} 去掉这两条语句。
+ */
+public class SyncAmplificationCollector implements AutoCloseable {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 报告说明：注入语句的统计口径
+     */
+    public static final String COUNTING_NOTE = "客户端连接使用 assumeMinServerVersion=9.0，驱动建连时的 "
+            + "SET extra_float_digits / SET application_name 改由启动包发送，不计入注入语句；采集器自身的查询已排除";
+
+    /**
+     * 一次快照：按语句类别累计的调用次数、耗时，以及事务数
+     */
+    public static class Snapshot {
+        final long[] calls = new long[StatementKind.all().length];
+        final double[] timeMs = new double[StatementKind.all().length];
+        long transactions;
+    }
+
+    private final Connection conn;
+    private final String timeColumn;
+    private final long settleMillis;
+
+    public SyncAmplificationCollector(String url, String user, String password) throws SQLException {
+        this.conn = DriverManager.getConnection(url, user, password);
+        this.conn.setAutoCommit(true);
+        this.timeColumn = detectTimeColumn();
+        // pg_stat_database 的计数不是实时刷新的，取"后"快照前等待一小段时间
+        this.settleMillis = Long.parseLong(DatabaseConfig.getProperty("guc.stats.settleMillis", "600"));
+    }
+
+    /**
+     * 连接直连主库（db.direct.url）创建采集器，未配置直连时返回null
+     */
+    public static SyncAmplificationCollector createIfConfigured() throws SQLException {
+        Endpoint primary = Topology.primary();
+        if (primary == null) {
+            return null;
+        }
+        return new SyncAmplificationCollector(primary.getUrl(), primary.getUser(), primary.getPassword());
+    }
+
+    /**
+     * PostgreSQL 13 起 total_time 拆分为 total_plan_time / total_exec_time
+     */
+    private String detectTimeColumn() throws SQLException {
+        String sql = "SELECT count(*) FROM pg_attribute " +
+                     "WHERE attrelid = 'pg_stat_statements'::regclass AND attname = 'total_exec_time'";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1) > 0 ? "total_exec_time" : "total_time";
+        }
+    }
+
+    public Snapshot snapshot() throws SQLException {
+        Snapshot snapshot = new Snapshot();
+        String statementsSql = "SELECT s.query, s.calls, s." + timeColumn + " " +
+                               "FROM pg_stat_statements s JOIN pg_database d ON d.oid = s.dbid " +
+                               "WHERE d.datname = current_database() " +
+                               "AND s.query NOT LIKE '%pg_stat_statements%' " +
+                               "AND s.query NOT LIKE '%pg_stat_database%' " +
+                               "AND s.query NOT LIKE '%pg_stat_clear_snapshot%'";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT pg_stat_clear_snapshot()");
+            try (ResultSet rs = stmt.executeQuery(statementsSql)) {
+                while (rs.next()) {
+                    int kind = StatementKind.classify(rs.getString(1)).ordinal();
+                    snapshot.calls[kind] += rs.getLong(2);
+                    snapshot.timeMs[kind] += rs.getDouble(3);
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()")) {
+                if (rs.next()) {
+                    snapshot.transactions = rs.getLong(1);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 等待统计落盘后取"后"快照
+     */
+    public Snapshot snapshotAfterSettle() throws SQLException, InterruptedException {
+        if (settleMillis > 0) {
+            Thread.sleep(settleMillis);
+        }
+        return snapshot();
+    }
+
+    /**
+     * 计算一次场景执行的放大统计
+     * @param clientBefore / clientAfter ClientStatementStats.snapshot() 的结果
+     */
+    public static SyncAmplification compare(String scenario, String protocol,
+                                            Snapshot before, Snapshot after,
+                                            long[] clientBefore, long[] clientAfter) {
+        int n = StatementKind.all().length;
+        long[] client = new long[n];
+        long[] backend = new long[n];
+        double[] time = new double[n];
+        for (int i = 0; i < n; i++) {
+            client[i] = clientAfter[i] - clientBefore[i];
+            // pg_stat_statements 条目被淘汰时差值可能为负，按0处理
+            backend[i] = Math.max(0, after.calls[i] - before.calls[i]);
+            time[i] = Math.max(0, after.timeMs[i] - before.timeMs[i]);
+        }
+        long clientTxns = clientAfter[n] - clientBefore[n];
+        long backendTxns = after.transactions - before.transactions;
+        return new SyncAmplification(scenario, protocol, clientTxns, backendTxns, client, backend, time);
+    }
+
+    @Override
+    public void close() {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOG.error("关闭统计直连失败", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.fbasecman.guc.util;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 测试程序自己的客户端连接池：只用于查询目录、探测、时钟校准等辅助工作，
+ * 避免每次辅助查询都经连接池新建一个客户端连接。场景中的客户端连接仍然各自新建，不经过这里；
+ * 场景中需要的目录查询也不经过这里：本池固定连接 db.url，借用和归还时的 RESET ALL、指纹查询不计入客户端语句数，
+ * 在同步放大统计中会被误算为连接池注入的语句，差异对比的直连运行中也会绕回连接池。
+ *
+ * 归还时保证会话干净：结束未完成的事务、恢复自动提交，执行 RESET ALL，
+ * 再比较 pg_settings 的指纹与该连接刚建立时是否一致；不一致（连接池没有把会话恢复干净）或出错的连接直接关闭，不再复用。
+ * 建连时的指纹同样在 RESET ALL 之后取：连接以 assumeMinServerVersion=9.0 建立，extra_float_digits 和 application_name
+ * 随启动包发送而不是建连后 SET，RESET ALL 不会改变它们，借出的新连接和复用的连接看到的参数值相同。
+ *
+ * 可配置：
+ * - guc.clientPool.maxIdle: 最多保留的空闲连接数，默认 4；为 0 时每次借用都新建、归还即关闭
+ */
+public final class ClientConnectionPool {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    /**
+     * 会话可修改参数的指纹；transaction_* 随当前事务和节点（读写分离时可能落到只读节点）变化，不参与比较
+     */
+    private static final String FINGERPRINT_SQL =
+            "SELECT md5(string_agg(name || '=' || setting, ',' ORDER BY name)) FROM pg_settings "
+            + "WHERE context IN ('user', 'superuser') AND name NOT LIKE 'transaction\\_%'";
+
+    private static final ClientConnectionPool SHARED = new ClientConnectionPool(
+            DatabaseConfig.getUrl(), DatabaseConfig.getInt("guc.clientPool.maxIdle", 4));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SHARED::closeAll, "client-pool-close"));
+    }
+
+    private final String url;
+    private final int maxIdle;
+    private final Deque<Lease> idle = new ArrayDeque<>();
+    private long created;
+    private long reused;
+    private long discarded;
+
+    ClientConnectionPool(String url, int maxIdle) {
+        this.url = JdbcUrlBuilder.withoutDriverInitSets(url);
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * 进程内共享的连接池，连接到 db.url（协议参数不变，去掉驱动建连后的 SET），JVM 退出时关闭全部空闲连接
+     */
+    public static ClientConnectionPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * 借用一个干净的客户端连接（自动提交模式），用完后 close() 归还
+     */
+    public Lease borrow() throws SQLException {
+        synchronized (this) {
+            Lease lease = idle.pollFirst();
+            if (lease != null) {
+                reused++;
+                lease.returned = false;
+                return lease;
+            }
+            created++;
+        }
+        Connection conn = DriverManager.getConnection(url, DatabaseConfig.getUser(), DatabaseConfig.getPassword());
+        try {
+            conn.setAutoCommit(true);
+            JdbcOps.execute(conn, "RESET ALL", false);
+            return new Lease(conn, JdbcOps.queryString(conn, FINGERPRINT_SQL, false));
+        } catch (SQLException e) {
+            JdbcOps.closeQuietly(conn);
+            throw e;
+        }
+    }
+
+    /**
+     * 是否保留空闲连接（guc.clientPool.maxIdle 大于 0）
+     */
+    public boolean isReuseEnabled() {
+        return maxIdle > 0;
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    public synchronized long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * 关闭全部空闲连接
+     */
+    public void closeAll() {
+        Lease[] leases;
+        synchronized (this) {
+            leases = idle.toArray(new Lease[0]);
+            idle.clear();
+        }
+        for (Lease lease : leases) {
+            JdbcOps.closeQuietly(lease.conn);
+        }
+        if (created > 0) {
+            LOG.debug("辅助连接池：新建 " + created + "，复用 " + reused + "，会话未恢复干净而丢弃 " + discarded);
+        }
+    }
+
+    private void giveBack(Lease lease) {
+        boolean clean = false;
+        try {
+            if (!lease.conn.isClosed()) {
+                if (!lease.conn.getAutoCommit()) {
+                    lease.conn.rollback();
+                    lease.conn.setAutoCommit(true);
+                }
+                JdbcOps.execute(lease.conn, "RESET ALL", false);
+                clean = lease.fingerprint.equals(JdbcOps.queryString(lease.conn, FINGERPRINT_SQL, false));
+                if (!clean) {
+                    LOG.warn("辅助连接池：RESET ALL 后 pg_settings 与建连时不一致，丢弃该连接");
+                }
+            }
+        } catch (SQLException e) {
+            LOG.warn("辅助连接池：归还时恢复会话失败，丢弃该连接: " + e.getMessage());
+        }
+        synchronized (this) {
+            if (clean && idle.size() < maxIdle) {
+                idle.addFirst(lease);
+                return;
+            }
+            if (!clean) {
+                discarded++;
+            }
+        }
+        JdbcOps.closeQuietly(lease.conn);
+    }
+
+    /**
+     * 一次借用，close() 时归还连接池
+     */
+    public final class Lease implements AutoCloseable {
+        private final Connection conn;
+        private final String fingerprint;
+        private boolean returned;
+
+        private Lease(Connection conn, String fingerprint) {
+            this.conn = conn;
+            this.fingerprint = fingerprint;
+        }
+
+        public Connection connection() {
+            return conn;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                giveBack(this);
+            }
+        }
+    }
+}
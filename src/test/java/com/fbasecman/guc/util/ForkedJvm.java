@@ -0,0 +1,125 @@
+package com.fbasecman.guc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 以当前进程的类路径和 guc.* / db.* 系统属性启动子JVM。
+ *
+ * 通过 mvn exec:java 运行时测试类由插件的类加载器加载，java.class.path 只有Maven自身，
+ * 因此优先从类加载器链上的 URLClassLoader 收集类路径。
+ *
+ * 名称中含 password 的属性不放在命令行上（ps 可见），而是以 Properties 格式放在子进程的环境变量
+ * {@link #SECRETS_ENV} 中，由子进程的 DatabaseConfig 读回为系统属性。
+ */
+public final class ForkedJvm {
+
+    public static final String SECRETS_ENV = "GUC_FORKED_SECRETS";
+
+    private ForkedJvm() {
+    }
+
+    /**
+     * 启动子JVM执行 mainClass，标准输出和错误输出写入 log
+     * @param properties 额外的系统属性，覆盖从当前进程继承的同名属性
+     */
+    public static Process start(Class<?> mainClass, Map<String, String> properties, List<String> args, Path log)
+            throws IOException {
+        Map<String, String> inherited = new TreeMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("guc.") || name.startsWith("db.")) {
+                inherited.put(name, System.getProperty(name));
+            }
+        }
+        inherited.putAll(properties);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        Properties secrets = new Properties();
+        for (Map.Entry<String, String> entry : inherited.entrySet()) {
+            if (isSecret(entry.getKey())) {
+                secrets.setProperty(entry.getKey(), entry.getValue());
+            } else {
+                command.add("-D" + entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        command.add("-cp");
+        command.add(classpath(mainClass.getClassLoader()));
+        command.add(mainClass.getName());
+        command.addAll(args);
+
+        File logFile = log.toFile();
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.to(logFile));
+        if (!secrets.isEmpty()) {
+            StringWriter encoded = new StringWriter();
+            secrets.store(encoded, null);
+            builder.environment().put(SECRETS_ENV, encoded.toString());
+        }
+        return builder.start();
+    }
+
+    /**
+     * 把父进程通过 {@link #SECRETS_ENV} 传来的属性设为系统属性（已有同名系统属性时不覆盖）；不是子JVM时什么也不做
+     */
+    public static void loadInheritedSecrets() {
+        String encoded = System.getenv(SECRETS_ENV);
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        Properties secrets = new Properties();
+        try {
+            secrets.load(new StringReader(encoded));
+        } catch (IOException e) {
+            throw new IllegalStateException("无法解析环境变量 " + SECRETS_ENV, e);
+        }
+        for (String name : secrets.stringPropertyNames()) {
+            if (System.getProperty(name) == null) {
+                System.setProperty(name, secrets.getProperty(name));
+            }
+        }
+    }
+
+    private static boolean isSecret(String name) {
+        return name.toLowerCase(Locale.ROOT).contains("password");
+    }
+
+    static String classpath(ClassLoader loader) {
+        Set<String> entries = new LinkedHashSet<>();
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            if (current instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) current).getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            entries.add(Paths.get(url.toURI()).toString());
+                        } catch (URISyntaxException e) {
+                            entries.add(url.getPath());
+                        }
+                    }
+                }
+            }
+        }
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fbasecman.guc.util;
+
+/**
+ * GUC参数值比较工具
+ */
+public class GucValues {
+
+    /**
+     * 规范化GUC参数值：去除首尾空格和成对的单引号、双引号
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        value = value.trim();
+        if (value.startsWith("'") && value.endsWith("'") && value.length() >= 2) {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.startsWith("\"") && value.endsWith("\"") && value.length() >= 2) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value.trim();
+    }
+
+    /**
+     * 规范化后忽略大小写和空白比较，SET DateStyle = 'iso,dmy' 与 SHOW 返回的 "ISO, DMY" 视为相同
+     */
+    public static boolean equivalent(String expected, String actual) {
+        return stripWhitespace(normalize(expected)).equalsIgnoreCase(stripWhitespace(normalize(actual)));
+    }
+
+    private static String stripWhitespace(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.fbasecman.guc.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志 - 基于预分配环形缓冲区，由后台线程统一输出到控制台
+ *
+ * 调用方只负责把消息写入环形缓冲区，真正的控制台I/O由后台线程批量完成，
+ * 避免高并发负载模式下压测结果被终端输出速度限制。
+ *
+ * 配置（系统属性，-D 传入）：
+ * - guc.log.level: TRACE / DEBUG / INFO / WARN / ERROR / SUMMARY，默认 DEBUG（与原有输出一致）；
+ *   取值无效时输出一条警告并使用 INFO
+ * - guc.log.quiet: true 时只保留失败信息和汇总结果，等价于 guc.log.level=ERROR
+ * - guc.log.bufferSize: 环形缓冲区大小，自动向上取2的幂，默认 8192
+ */
+public final class HarnessLogger {
+
+    /**
+     * 日志级别，从低到高
+     */
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, SUMMARY
+    }
+
+    private static final HarnessLogger INSTANCE = create();
+
+    private final String[] messages;
+    private final Level[] levels;
+    // 每个槽位已发布的序号（序号+1），消费线程据此判断槽位是否写入完成
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int capacity;
+
+    // 生产者已申请的下一个序号
+    private final AtomicLong head = new AtomicLong();
+    // 消费者已输出的下一个序号
+    private final AtomicLong tail = new AtomicLong();
+    // 缓冲区满时被丢弃的低级别日志数量
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Level threshold;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Thread drainer;
+
+    private HarnessLogger(Level threshold, int requestedSize) {
+        int size = Integer.highestOneBit(Math.max(64, requestedSize - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.messages = new String[size];
+        this.levels = new Level[size];
+        this.published = new AtomicLongArray(size);
+        this.threshold = threshold;
+        this.out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false, StandardCharsets.UTF_8);
+        this.err = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), 1 << 14),
+                false, StandardCharsets.UTF_8);
+
+        this.drainer = new Thread(this::drainLoop, "harness-logger");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "harness-logger-flush"));
+    }
+
+    public static HarnessLogger get() {
+        return INSTANCE;
+    }
+
+    private static HarnessLogger create() {
+        String configured = System.getProperty("guc.log.level");
+        Level level = Level.DEBUG;
+        boolean invalid = false;
+        if (Boolean.getBoolean("guc.log.quiet")) {
+            level = Level.ERROR;
+        } else if (configured != null && !configured.isBlank()) {
+            try {
+                level = Level.valueOf(configured.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // 日志级别写错不应导致整个测试程序无法启动
+                level = Level.INFO;
+                invalid = true;
+            }
+        }
+        HarnessLogger logger = new HarnessLogger(level, Integer.getInteger("guc.log.bufferSize", 8192));
+        if (invalid) {
+            logger.warn("guc.log.level 取值无效: " + configured + "，可选 TRACE / DEBUG / INFO / WARN / ERROR / SUMMARY，已改用 INFO");
+        }
+        return logger;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    public Level getLevel() {
+        return threshold;
+    }
+
+    public void setLevel(Level level) {
+        this.threshold = level;
+    }
+
+    /**
+     * 安静模式：只保留失败和汇总
+     */
+    public void setQuiet(boolean quiet) {
+        this.threshold = quiet ? Level.ERROR : Level.DEBUG;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void trace(String message) { log(Level.TRACE, message); }
+    public void debug(String message) { log(Level.DEBUG, message); }
+    public void info(String message) { log(Level.INFO, message); }
+    public void warn(String message) { log(Level.WARN, message); }
+    public void error(String message) { log(Level.ERROR, message); }
+    public void summary(String message) { log(Level.SUMMARY, message); }
+
+    /**
+     * ERROR 级别，附带异常堆栈（代替 e.printStackTrace()，使其同样经过缓冲区并受日志级别控制）
+     */
+    public void error(String message, Throwable t) {
+        if (!isEnabled(Level.ERROR)) {
+            return;
+        }
+        StringWriter trace = new StringWriter();
+        t.printStackTrace(new PrintWriter(trace));
+        log(Level.ERROR, message + System.lineSeparator() + trace.toString().stripTrailing());
+    }
+
+    /**
+     * 写入一条日志；缓冲区满时 TRACE/DEBUG 直接丢弃并计数，其余级别等待消费线程腾出空间
+     */
+    public void log(Level level, String message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        long seq;
+        while (true) {
+            seq = head.get();
+            if (seq - tail.get() >= capacity) {
+                if (level.ordinal() <= Level.DEBUG.ordinal()) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                LockSupport.unpark(drainer);
+                LockSupport.parkNanos(10_000L);
+                continue;
+            }
+            if (head.compareAndSet(seq, seq + 1)) {
+                break;
+            }
+        }
+        int index = (int) (seq & mask);
+        messages[index] = message;
+        levels[index] = level;
+        // 不在热路径上唤醒消费线程，消费线程空闲时每毫秒轮询一次
+        published.lazySet(index, seq + 1);
+    }
+
+    /**
+     * 等待当前已写入的日志全部输出完毕（打印汇总表格、退出前调用）
+     */
+    public void flush() {
+        long target = head.get();
+        while (tail.get() < target && drainer.isAlive()) {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(100_000L);
+        }
+        out.flush();
+        err.flush();
+    }
+
+    private void drainLoop() {
+        PrintStream last = out;
+        while (true) {
+            long seq = tail.get();
+            int index = (int) (seq & mask);
+            if (published.get(index) != seq + 1) {
+                out.flush();
+                err.flush();
+                LockSupport.parkNanos(1_000_000L);
+                continue;
+            }
+            String message = messages[index];
+            Level level = levels[index];
+            messages[index] = null;
+            PrintStream target = level == Level.ERROR ? err : out;
+            if (target != last) {
+                // 切换输出流前先刷出另一路，保持stdout/stderr之间的先后顺序
+                last.flush();
+                last = target;
+            }
+            target.println(message);
+            tail.lazySet(seq + 1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.fbasecman.guc.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 负载模式使用的精简SQL执行工具：不打印、不计数，执行方式与 GucSyncScenarioTest 中的同名辅助方法一致
+ * （useExtended=true 使用PreparedStatement，false 使用Statement）
+ */
+public class JdbcOps {
+
+    public static void execute(Connection conn, String sql, boolean useExtended) throws SQLException {
+        if (useExtended) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.execute();
+            }
+        } else {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * 返回第一行第一列，无结果时返回null
+     */
+    public static String queryString(Connection conn, String sql, boolean useExtended) throws SQLException {
+        if (useExtended) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } else {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * 返回第一行所有列（按字符串读取），无结果时返回null
+     */
+    public static String[] queryRow(Connection conn, String sql, boolean useExtended) throws SQLException {
+        if (useExtended) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                return readRow(rs);
+            }
+        } else {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                return readRow(rs);
+            }
+        }
+    }
+
+    private static String[] readRow(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        String[] row = new String[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getString(i + 1);
+        }
+        return row;
+    }
+
+    public static String show(Connection conn, String parameter, boolean useExtended) throws SQLException {
+        return queryString(conn, "SHOW " + parameter, useExtended);
+    }
+
+    public static int backendPid(Connection conn, boolean useExtended) throws SQLException {
+        return Integer.parseInt(queryString(conn, "SELECT pg_backend_pid()", useExtended));
+    }
+
+    /**
+     * 后端连接标识 pid=X@ip:port，与声明式场景的后端探测格式一致；pid 和 ip:port 都相同才是同一个后端
+     */
+    public static String backendIdentity(Connection conn, boolean useExtended) throws SQLException {
+        String[] row = queryRow(conn, "SELECT inet_server_addr(), inet_server_port(), pg_backend_pid()", useExtended);
+        return row == null ? null : "pid=" + row[2] + "@" + row[0] + ":" + row[1];
+    }
+
+    /**
+     * 关闭连接，忽略关闭时的异常（负载模式中连接可能已被后端断开）
+     */
+    public static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // 连接已失效
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fbasecman.guc.util;
+
+import java.util.Map;
+
+/**
+ * JDBC URL拼接工具 - 在配置的基础URL上追加 pgjdbc 连接参数
+ */
+public class JdbcUrlBuilder {
+
+    // 所有场景默认通过 options 固定 DateStyle 初始值为 ISO, MDY
+    private static final String DEFAULT_OPTIONS = "-c DateStyle=ISO,MDY";
+
+    /**
+     * Simple协议强制使用simple模式，Extended协议使用extended模式
+     */
+    public static String withProtocol(String baseUrl, boolean useExtended) {
+        return withQueryMode(baseUrl, useExtended ? "extended" : "simple", null);
+    }
+
+    /**
+     * 追加 preferQueryMode、默认 options，以及可选的 prepareThreshold（为null时使用驱动默认值）
+     */
+    public static String withQueryMode(String baseUrl, String queryMode, Integer prepareThreshold) {
+        String url = appendParam(baseUrl, "preferQueryMode", queryMode);
+        url = appendParam(url, "options", encodeOptions(DEFAULT_OPTIONS));
+        if (prepareThreshold != null) {
+            url = appendParam(url, "prepareThreshold", String.valueOf(prepareThreshold));
+        }
+        return url;
+    }
+
+    /**
+     * 追加 preferQueryMode 和指定的启动参数（每项生成一个 "-c name=value"，值中不能含空格）；
+     * options为空时不追加 options 参数。
+     * 同时去掉驱动建连后的两条 SET（见 {@link #withoutDriverInitSets}），使连接建立后的第一条语句就是客户端自己的语句
+     */
+    public static String withStartupOptions(String baseUrl, String queryMode, Map<String, String> options) {
+        String url = withoutDriverInitSets(appendParam(baseUrl, "preferQueryMode", queryMode));
+        if (options.isEmpty()) {
+            return url;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append("-c ").append(option.getKey()).append('=').append(option.getValue());
+        }
+        return appendParam(url, "options", encodeOptions(sb.toString()));
+    }
+
+    /**
+     * 追加 assumeMinServerVersion=9.0：pgjdbc 改为在启动包中发送 extra_float_digits=3 和 application_name，
+     * 不再在建连后执行 SET extra_float_digits / SET application_name，
+     * 使后端语句统计和首条语句的耗时只包含客户端和连接池自己的语句
+     */
+    public static String withoutDriverInitSets(String url) {
+        return appendParam(url, "assumeMinServerVersion", "9.0");
+    }
+
+    /**
+     * 如果URL中已有参数，使用&连接，否则使用?
+     */
+    public static String appendParam(String url, String key, String value) {
+        String separator = url.contains("?") ? "&" : "?";
+        return url + separator + key + "=" + value;
+    }
+
+    private static String encodeOptions(String options) {
+        return options.replace(" ", "%20");
+    }
+}
@@ -0,0 +1,509 @@
+package com.fbasecman.guc.util;
+
+import com.fbasecman.guc.config.DatabaseConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内的延迟注入TCP代理：监听本机回环地址，把收到的连接转发到连接池，按方向注入固定延迟、随机抖动和带宽限制，
+ * 模拟客户端与连接池相距 1~5 ms RTT 的部署，使GUC回放额外增加的往返次数在同一局域网内也能测出来。
+ *
+ * 单个选择器线程处理全部连接，连接上游也是非阻塞的（OP_CONNECT），上游建连慢不会拖住其他连接；
+ * 上游连通之前不读取客户端的数据。每个方向读到的数据按到达时间排队：
+ * 发送开始 = max(读到的时刻, 该方向链路空闲时刻)，传输时间 = 字节数 ÷ 带宽，
+ * 送达时刻 = 发送结束 + 延迟 + [0, 抖动] 的随机值，且不早于同方向上一块数据的送达时刻（TCP不会乱序）。
+ * 距送达不足 1 ms 时自旋等待，定时精度约为几十微秒（代价是有数据待送达时占用一个CPU核）。
+ * 单方向排队超过 4 MB 时暂停读取，形成反压。
+ *
+ * 透明接入：配置 guc.proxy.enabled=true 后，DatabaseConfig.getUrl() 和 db.endpoints 的入口URL
+ * 改写为指向本代理（每个上游主机:端口一个代理），直连URL（db.direct.url、db.replicas）不经过代理。
+ *
+ * 可配置：
+ * - guc.proxy.enabled: 是否让连接池入口经过代理，默认 false
+ * - guc.proxy.latencyMillis: 单程延迟（两个方向），默认 0；guc.proxy.upLatencyMillis / downLatencyMillis 分别覆盖
+ *   客户端→连接池、连接池→客户端方向
+ * - guc.proxy.jitterMillis: 单程随机抖动上限，默认 0；可用 upJitterMillis / downJitterMillis 分别覆盖
+ * - guc.proxy.bandwidthKBps: 单方向带宽（KB/s），0 为不限，默认 0；可用 upBandwidthKBps / downBandwidthKBps 分别覆盖
+ */
+public final class LatencyProxy implements AutoCloseable {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_QUEUED_BYTES = 4L << 20;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final String LOOPBACK = "127.0.0.1";
+    // 最后这段时间自旋等待：select 的超时只有毫秒精度，部分虚拟化环境中定时器误差可达数毫秒
+    private static final long SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // 每个上游 host:port 一个代理，进程内共享
+    private static final Map<String, LatencyProxy> RUNNING = new LinkedHashMap<>();
+    private static volatile boolean enabled = Boolean.parseBoolean(DatabaseConfig.getProperty("guc.proxy.enabled", "false"));
+    private static Shaping defaultUp = configured("up");
+    private static Shaping defaultDown = configured("down");
+
+    /**
+     * 单个方向的网络条件
+     */
+    public static final class Shaping {
+        public static final Shaping NONE = new Shaping(0, 0, 0);
+
+        final long latencyNanos;
+        final long jitterNanos;
+        final long bytesPerSecond;
+
+        /**
+         * @param bytesPerSecond 带宽，0 为不限
+         */
+        public Shaping(double latencyMillis, double jitterMillis, long bytesPerSecond) {
+            if (latencyMillis < 0 || jitterMillis < 0 || bytesPerSecond < 0) {
+                throw new IllegalArgumentException("延迟、抖动和带宽不能为负数");
+            }
+            this.latencyNanos = (long) (latencyMillis * 1_000_000);
+            this.jitterNanos = (long) (jitterMillis * 1_000_000);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        /**
+         * 保留抖动和带宽，替换单程延迟
+         */
+        public Shaping withLatencyMillis(double latencyMillis) {
+            return new Shaping(latencyMillis, jitterNanos / 1e6, bytesPerSecond);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("延迟%.2fms", latencyNanos / 1e6)
+                    + (jitterNanos > 0 ? String.format("+抖动%.2fms", jitterNanos / 1e6) : "")
+                    + (bytesPerSecond > 0 ? "，带宽" + bytesPerSecond / 1024 + "KB/s" : "");
+        }
+    }
+
+    /**
+     * 一块待送达的数据，data为null表示源端已关闭写方向
+     */
+    private static final class Chunk {
+        final long deliverAt;
+        final ByteBuffer data;
+
+        Chunk(long deliverAt, ByteBuffer data) {
+            this.deliverAt = deliverAt;
+            this.data = data;
+        }
+    }
+
+    /**
+     * 一个方向：从 source 读取，延迟后写入 sink
+     */
+    private final class Pipe {
+        final SocketChannel source;
+        final SocketChannel sink;
+        final boolean up;
+        final ArrayDeque<Chunk> queue = new ArrayDeque<>();
+        long queuedBytes;
+        long linkFreeAt;
+        long lastDeliverAt;
+        boolean sourceEof;
+        boolean readPaused;
+        // sink 暂时写不进去，等待 OP_WRITE
+        boolean blocked;
+
+        Pipe(SocketChannel source, SocketChannel sink, boolean up) {
+            this.source = source;
+            this.sink = sink;
+            this.up = up;
+        }
+
+        boolean reading() {
+            return !sourceEof && !readPaused;
+        }
+
+        boolean finished() {
+            return sourceEof && queue.isEmpty();
+        }
+    }
+
+    /**
+     * 一个被代理的客户端连接
+     */
+    private final class Session {
+        final SocketChannel client;
+        final SocketChannel server;
+        final Pipe up;
+        final Pipe down;
+        // 正在连接上游，超过 connectDeadline 仍未连通则放弃
+        boolean connecting;
+        long connectDeadline;
+
+        Session(SocketChannel client, SocketChannel server) {
+            this.client = client;
+            this.server = server;
+            this.up = new Pipe(client, server, true);
+            this.down = new Pipe(server, client, false);
+        }
+
+        void updateInterest() {
+            if (connecting) {
+                interest(client, 0);
+                interest(server, SelectionKey.OP_CONNECT);
+                return;
+            }
+            interest(client, (up.reading() ? SelectionKey.OP_READ : 0) | (down.blocked ? SelectionKey.OP_WRITE : 0));
+            interest(server, (down.reading() ? SelectionKey.OP_READ : 0) | (up.blocked ? SelectionKey.OP_WRITE : 0));
+        }
+
+        private void interest(SocketChannel channel, int ops) {
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null && key.isValid()) {
+                key.interestOps(ops);
+            }
+        }
+
+        void close() {
+            closeQuietly(client);
+            closeQuietly(server);
+        }
+    }
+
+    private final InetSocketAddress upstream;
+    private final Selector selector;
+    private final ServerSocketChannel listener;
+    private final Thread thread;
+    private final int port;
+    private final List<Session> sessions = new ArrayList<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private volatile Shaping upShaping;
+    private volatile Shaping downShaping;
+    private volatile boolean closed;
+    private long accepted;
+
+    /**
+     * 在本机回环地址的随机端口上启动代理
+     */
+    public LatencyProxy(InetSocketAddress upstream, Shaping up, Shaping down) throws IOException {
+        this.upstream = upstream;
+        this.upShaping = up;
+        this.downShaping = down;
+        this.selector = Selector.open();
+        this.listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress(LOOPBACK, 0));
+        this.port = listener.socket().getLocalPort();
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::loop, "latency-proxy-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * 修改网络条件，对之后读到的数据生效（已排队的数据按原时刻送达）
+     */
+    public void setShaping(Shaping up, Shaping down) {
+        this.upShaping = up;
+        this.downShaping = down;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 连接池入口是否经过代理
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 打开或关闭代理接入；只影响之后取得的URL，已经改写过的URL仍然指向代理
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * 修改全部代理（包括之后启动的）的网络条件
+     */
+    public static synchronized void setDefaultShaping(Shaping up, Shaping down) {
+        defaultUp = up;
+        defaultDown = down;
+        for (LatencyProxy proxy : RUNNING.values()) {
+            proxy.setShaping(up, down);
+        }
+    }
+
+    public static synchronized Shaping getDefaultUp() {
+        return defaultUp;
+    }
+
+    public static synchronized Shaping getDefaultDown() {
+        return defaultDown;
+    }
+
+    /**
+     * 把 JDBC URL 的主机和端口改写为指向代理（同一上游只启动一个代理）；
+     * 多主机URL或无法解析时原样返回
+     */
+    public static synchronized String route(String jdbcUrl) {
+        int hostStart = jdbcUrl.indexOf("//");
+        if (hostStart < 0) {
+            return jdbcUrl;
+        }
+        hostStart += 2;
+        int hostEnd = hostStart;
+        while (hostEnd < jdbcUrl.length() && "/?".indexOf(jdbcUrl.charAt(hostEnd)) < 0) {
+            hostEnd++;
+        }
+        String hostPort = jdbcUrl.substring(hostStart, hostEnd);
+        if (hostPort.isEmpty() || hostPort.contains(",")) {
+            LOG.warn("【延迟代理】不支持空主机或多主机URL，不经过代理: " + jdbcUrl);
+            return jdbcUrl;
+        }
+        int portAt = hostPort.lastIndexOf(':');
+        if (portAt < hostPort.lastIndexOf(']')) {
+            portAt = -1;
+        }
+        String host = portAt < 0 ? hostPort : hostPort.substring(0, portAt);
+        int port = portAt < 0 ? 5432 : Integer.parseInt(hostPort.substring(portAt + 1));
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        String key = host + ":" + port;
+        LatencyProxy proxy = RUNNING.get(key);
+        if (proxy == null) {
+            try {
+                proxy = new LatencyProxy(new InetSocketAddress(host, port), defaultUp, defaultDown);
+            } catch (IOException e) {
+                throw new IllegalStateException("启动延迟代理失败: " + key, e);
+            }
+            RUNNING.put(key, proxy);
+            LOG.info("【延迟代理】" + LOOPBACK + ":" + proxy.getPort() + " → " + key + "，上行" + defaultUp
+                    + "，下行" + defaultDown);
+        }
+        return jdbcUrl.substring(0, hostStart) + LOOPBACK + ":" + proxy.getPort() + jdbcUrl.substring(hostEnd);
+    }
+
+    private static Shaping configured(String direction) {
+        double latency = DatabaseConfig.getDouble("guc.proxy.latencyMillis", 0);
+        double jitter = DatabaseConfig.getDouble("guc.proxy.jitterMillis", 0);
+        long bandwidth = DatabaseConfig.getLong("guc.proxy.bandwidthKBps", 0);
+        return new Shaping(DatabaseConfig.getDouble("guc.proxy." + direction + "LatencyMillis", latency),
+                DatabaseConfig.getDouble("guc.proxy." + direction + "JitterMillis", jitter),
+                DatabaseConfig.getLong("guc.proxy." + direction + "BandwidthKBps", bandwidth) * 1024);
+    }
+
+    private void loop() {
+        try {
+            while (!closed) {
+                long next = deliverDue(System.nanoTime());
+                long wait = next - System.nanoTime();
+                if (next == Long.MAX_VALUE) {
+                    selector.select();
+                } else if (wait > SPIN_NANOS) {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait - SPIN_NANOS)));
+                } else {
+                    while (System.nanoTime() < next) {
+                        Thread.onSpinWait();
+                    }
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            session.connecting = !session.server.finishConnect();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            // 写方向恢复，数据在下一轮 deliverDue 中写出
+                            (key.channel() == session.server ? session.up : session.down).blocked = false;
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(key.channel() == session.client ? session.up : session.down, System.nanoTime());
+                        }
+                        session.updateInterest();
+                    } catch (IOException e) {
+                        if (session.connecting) {
+                            LOG.warn("【延迟代理】连接上游 " + upstream + " 失败: " + e.getMessage());
+                        } else {
+                            LOG.debug("【延迟代理】连接异常关闭: " + e.getMessage());
+                        }
+                        session.close();
+                        sessions.remove(session);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 选择器线程退出后代理不再转发，关闭全部连接，让客户端立即报错而不是挂起
+            LOG.error("【延迟代理】选择器线程异常退出，关闭 " + sessions.size() + " 个连接", e);
+        } finally {
+            for (Session session : sessions) {
+                session.close();
+            }
+            sessions.clear();
+            closeQuietly(listener);
+            closeQuietly(selector);
+            LOG.debug("【延迟代理】端口 " + getPort() + " 已关闭，共代理 " + accepted + " 个连接");
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = listener.accept();
+        if (client == null) {
+            return;
+        }
+        SocketChannel server = SocketChannel.open();
+        Session session = new Session(client, server);
+        try {
+            for (SocketChannel channel : new SocketChannel[] {client, server}) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            session.connecting = !server.connect(upstream);
+        } catch (IOException e) {
+            LOG.warn("【延迟代理】连接上游 " + upstream + " 失败: " + e.getMessage());
+            session.close();
+            return;
+        }
+        session.connectDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        client.register(selector, 0, session);
+        server.register(selector, 0, session);
+        session.updateInterest();
+        sessions.add(session);
+        accepted++;
+    }
+
+    private void read(Pipe pipe, long now) throws IOException {
+        readBuffer.clear();
+        int n = pipe.source.read(readBuffer);
+        if (n == 0) {
+            return;
+        }
+        Shaping shaping = pipe.up ? upShaping : downShaping;
+        long start = Math.max(now, pipe.linkFreeAt);
+        long transfer = n > 0 && shaping.bytesPerSecond > 0 ? n * 1_000_000_000L / shaping.bytesPerSecond : 0;
+        pipe.linkFreeAt = start + transfer;
+        long jitter = shaping.jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(shaping.jitterNanos + 1) : 0;
+        long deliverAt = Math.max(pipe.lastDeliverAt, pipe.linkFreeAt + shaping.latencyNanos + jitter);
+        pipe.lastDeliverAt = deliverAt;
+        if (n < 0) {
+            pipe.sourceEof = true;
+            pipe.queue.addLast(new Chunk(deliverAt, null));
+            return;
+        }
+        readBuffer.flip();
+        ByteBuffer data = ByteBuffer.allocate(n);
+        data.put(readBuffer).flip();
+        pipe.queue.addLast(new Chunk(deliverAt, data));
+        pipe.queuedBytes += n;
+        if (pipe.queuedBytes > MAX_QUEUED_BYTES) {
+            pipe.readPaused = true;
+        }
+    }
+
+    /**
+     * 写出全部到期的数据，关闭已结束的连接
+     * @return 最早一块未到期数据的送达时刻，没有时为 Long.MAX_VALUE
+     */
+    private long deliverDue(long now) {
+        long next = Long.MAX_VALUE;
+        Iterator<Session> it = sessions.iterator();
+        while (it.hasNext()) {
+            Session session = it.next();
+            if (session.connecting) {
+                if (now - session.connectDeadline >= 0) {
+                    LOG.warn("【延迟代理】连接上游 " + upstream + " 超时（" + CONNECT_TIMEOUT_MILLIS + "ms）");
+                    session.close();
+                    it.remove();
+                } else {
+                    next = Math.min(next, session.connectDeadline);
+                }
+                continue;
+            }
+            try {
+                next = Math.min(next, deliver(session.up, now));
+                next = Math.min(next, deliver(session.down, now));
+                if (session.up.finished() && session.down.finished()) {
+                    session.close();
+                    it.remove();
+                    continue;
+                }
+                session.updateInterest();
+            } catch (IOException e) {
+                LOG.debug("【延迟代理】连接异常关闭: " + e.getMessage());
+                session.close();
+                it.remove();
+            }
+        }
+        return next;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 连接已被对端关闭
+        }
+    }
+
+    private long deliver(Pipe pipe, long now) throws IOException {
+        while (!pipe.blocked && !pipe.queue.isEmpty()) {
+            Chunk head = pipe.queue.peekFirst();
+            if (head.deliverAt > now) {
+                return head.deliverAt;
+            }
+            if (head.data == null) {
+                pipe.sink.shutdownOutput();
+                pipe.queue.pollFirst();
+                continue;
+            }
+            pipe.sink.write(head.data);
+            if (head.data.hasRemaining()) {
+                pipe.blocked = true;
+                break;
+            }
+            pipe.queue.pollFirst();
+            pipe.queuedBytes -= head.data.capacity();
+        }
+        if (pipe.readPaused && pipe.queuedBytes < MAX_QUEUED_BYTES / 2) {
+            pipe.readPaused = false;
+        }
+        return Long.MAX_VALUE;
+    }
+}
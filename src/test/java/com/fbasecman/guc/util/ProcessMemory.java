@@ -0,0 +1,37 @@
+package com.fbasecman.guc.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 读取本机其他进程（如连接池）的内存占用，仅支持 Linux /proc
+ */
+public final class ProcessMemory {
+
+    private static final HarnessLogger LOG = HarnessLogger.get();
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * 进程当前 VmRSS（KB），pid 为 null 或读取失败时返回 -1
+     */
+    public static long rssKb(String pid) {
+        if (pid == null) {
+            return -1;
+        }
+        Path status = Paths.get("/proc", pid, "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOG.warn("读取 " + status + " 失败: " + e.getMessage());
+        }
+        return -1;
+    }
+}
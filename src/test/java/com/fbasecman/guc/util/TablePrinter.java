@@ -1,7 +1,14 @@
 package com.fbasecman.guc.util;
 
+import com.fbasecman.guc.model.LoadReport;
+import com.fbasecman.guc.model.MatrixCellResult;
+import com.fbasecman.guc.model.SyncAmplification;
 import com.fbasecman.guc.model.TestResult;
+import com.fbasecman.guc.stats.StatementKind;
+import com.fbasecman.guc.stats.SyncAmplificationCollector;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 表格打印工具 - 格式化输出测试结果
@@ -23,6 +30,9 @@ public class TablePrinter {
     private static final int COL3_WIDTH = 10;  // 结果
     
     public static void printResults(List<TestResult> results) {
+        // 整张表格拼成一条汇总日志，安静模式下也会输出，且不会与其他线程的日志交错
+        StringBuilder out = new StringBuilder(4096);
+        
         // 统计
         int passed = 0;
         int failed = 0;
@@ -42,8 +52,8 @@ public class TablePrinter {
         final String MID_BORDER = "╠════════════════════════════════════════════════════════════════════════════════════════╣";
         final String BOT_BORDER = "╚════════════════════════════════════════════════════════════════════════════════════════╝";
         
-        System.out.println("\n");
-        System.out.println(BOLD + CYAN + TOP_BORDER + RESET);
+        out.append("\n\n");
+        out.append(BOLD + CYAN + TOP_BORDER + RESET).append('\n');
         
         // 标题居中
         String title = "GUC参数测试结果汇总";
@@ -52,20 +62,20 @@ public class TablePrinter {
         int leftPad = (totalContentWidth - titleWidth) / 2;
         int rightPad = totalContentWidth - titleWidth - leftPad;
         
-        System.out.println(BOLD + CYAN + "║" + RESET + BOLD + 
+        out.append(BOLD + CYAN + "║" + RESET + BOLD + 
                 " ".repeat(leftPad) + title + " ".repeat(rightPad) +
-                BOLD + CYAN + "║" + RESET);
+                BOLD + CYAN + "║" + RESET).append('\n');
         
-        System.out.println(BOLD + CYAN + MID_BORDER + RESET);
+        out.append(BOLD + CYAN + MID_BORDER + RESET).append('\n');
         
         // 表头
-        System.out.println(BOLD + CYAN + "║" + RESET + BOLD + 
+        out.append(BOLD + CYAN + "║" + RESET + BOLD + 
                 " " + padString("测试用例类别", COL1_WIDTH) + " │ " + 
                 padString("测试用例名称", COL2_WIDTH) + " │ " + 
                 padString("结果", COL3_WIDTH) + " " + 
-                BOLD + CYAN + "║" + RESET);
+                BOLD + CYAN + "║" + RESET).append('\n');
         
-        System.out.println(BOLD + CYAN + MID_BORDER + RESET);
+        out.append(BOLD + CYAN + MID_BORDER + RESET).append('\n');
         
         // 打印每一行
         for (TestResult result : results) {
@@ -75,14 +85,14 @@ public class TablePrinter {
             String category = result.getTestCase();
             String name = result.getParameter();
             
-            System.out.println(BOLD + CYAN + "║" + RESET +
+            out.append(BOLD + CYAN + "║" + RESET +
                     " " + padString(category, COL1_WIDTH) + " │ " +
                     padString(name, COL2_WIDTH) + " │ " +
                     statusColored + " ".repeat(COL3_WIDTH - getDisplayWidth(statusText)) + " " +
-                    BOLD + CYAN + "║" + RESET);
+                    BOLD + CYAN + "║" + RESET).append('\n');
         }
         
-        System.out.println(BOLD + CYAN + MID_BORDER + RESET);
+        out.append(BOLD + CYAN + MID_BORDER + RESET).append('\n');
         
         // 统计信息
         String passRate = String.format("%.2f", results.size() > 0 ? (passed * 100.0 / results.size()) : 0);
@@ -97,15 +107,163 @@ public class TablePrinter {
         int summaryWidth = getDisplayWidth(summary);
         String padding = " ".repeat(totalContentWidth - summaryWidth);
         
-        System.out.println(BOLD + CYAN + "║" + RESET + summaryColored + padding + BOLD + CYAN + "║" + RESET);
-        System.out.println(BOLD + CYAN + BOT_BORDER + RESET);
-        System.out.println();
+        out.append(BOLD + CYAN + "║" + RESET + summaryColored + padding + BOLD + CYAN + "║" + RESET).append('\n');
+        out.append(BOLD + CYAN + BOT_BORDER + RESET).append('\n');
+        
+        HarnessLogger logger = HarnessLogger.get();
+        if (logger.getDroppedCount() > 0) {
+            out.append(YELLOW + "日志缓冲区已满时丢弃的调试日志条数: " + logger.getDroppedCount() + RESET).append('\n');
+        }
+        logger.summary(out.toString());
+        logger.flush();
+    }
+    
+    /**
+     * 打印GUC同步放大统计表格：每个场景一行，并按协议汇总
+     */
+    public static void printAmplification(List<SyncAmplification> reports) {
+        final String[] headers = {"场景", "协议", "客户端事务", "注入SET", "注入RESET", "注入DISCARD", "注入耗时ms", "放大比"};
+        final int[] widths = {26, 12, 10, 8, 9, 11, 10, 8};
+        
+        // 按协议汇总
+        Map<String, SyncAmplification> totals = new LinkedHashMap<>();
+        for (SyncAmplification report : reports) {
+            totals.merge(report.getProtocol(), report, (a, b) -> a.merge(b, "合计"));
+        }
+        
+        StringBuilder out = new StringBuilder(4096);
+        out.append("\n");
+        appendTableHeader(out, "GUC同步放大统计（后端注入语句/客户端事务）", headers, widths);
+        for (SyncAmplification report : reports) {
+            appendRow(out, amplificationCells(report, report.getScenario()), widths);
+        }
+        out.append(BOLD + CYAN + tableBorder('╠', '╣', widths) + RESET).append('\n');
+        for (SyncAmplification total : totals.values()) {
+            appendRow(out, amplificationCells(total, "合计"), widths);
+        }
+        out.append(BOLD + CYAN + tableBorder('╚', '╝', widths) + RESET).append('\n');
+        out.append("注：").append(SyncAmplificationCollector.COUNTING_NOTE).append('\n');
+        
+        HarnessLogger logger = HarnessLogger.get();
+        logger.summary(out.toString());
+        logger.flush();
+    }
+    
+    /**
+     * 打印查询模式矩阵：每个单元格的场景通过情况及 SET / SHOW / 探测语句的 p50、p99 延迟（毫秒）
+     */
+    public static void printQueryModeMatrix(List<MatrixCellResult> cells) {
+        final String[] headers = {"单元格", "通过/总数", "SET p50", "SET p99", "SHOW p50", "SHOW p99", "探测 p50", "探测 p99"};
+        final int[] widths = {44, 9, 8, 8, 8, 8, 8, 8};
+        
+        StringBuilder out = new StringBuilder(4096);
+        out.append("\n");
+        appendTableHeader(out, "查询模式矩阵（preferQueryMode × prepareThreshold）", headers, widths);
+        for (MatrixCellResult cell : cells) {
+            LatencyHistogram set = cell.getLatency(StatementKind.SET);
+            LatencyHistogram show = cell.getLatency(StatementKind.SHOW);
+            LatencyHistogram probe = cell.getLatency(StatementKind.SELECT);
+            appendRow(out, new String[] {
+                cell.getCell(),
+                cell.getPassed() + "/" + (cell.getPassed() + cell.getFailed()),
+                millis(set.getPercentileMillis(50)), millis(set.getPercentileMillis(99)),
+                millis(show.getPercentileMillis(50)), millis(show.getPercentileMillis(99)),
+                millis(probe.getPercentileMillis(50)), millis(probe.getPercentileMillis(99))
+            }, widths);
+        }
+        out.append(BOLD + CYAN + tableBorder('╚', '╝', widths) + RESET).append('\n');
+        for (MatrixCellResult cell : cells) {
+            if (cell.getFailed() > 0) {
+                out.append(RED + "✗ " + cell.getCell() + " 失败场景: " + cell.getFailures() + RESET).append('\n');
+            }
+        }
+        
+        HarnessLogger logger = HarnessLogger.get();
+        logger.summary(out.toString());
+        logger.flush();
+    }
+    
+    /**
+     * 打印负载模式的统计报告
+     */
+    public static void printLoadReport(LoadReport report) {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("\n");
+        appendTableHeader(out, report.getTitle(), report.getHeaders(), report.getWidths());
+        for (String[] row : report.getRows()) {
+            appendRow(out, row, report.getWidths());
+        }
+        out.append(BOLD + CYAN + tableBorder('╚', '╝', report.getWidths()) + RESET).append('\n');
+        for (String note : report.getNotes()) {
+            out.append("  " + note).append('\n');
+        }
+        
+        HarnessLogger logger = HarnessLogger.get();
+        logger.summary(out.toString());
+        logger.flush();
+    }
+    
+    /**
+     * 毫秒数统一保留3位小数
+     */
+    public static String millis(double value) {
+        return String.format("%.3f", value);
+    }
+    
+    private static String[] amplificationCells(SyncAmplification report, String scenario) {
+        return new String[] {
+            scenario,
+            report.getProtocol(),
+            String.valueOf(report.getClientTransactions()),
+            String.valueOf(report.getInjectedCount(StatementKind.SET)),
+            String.valueOf(report.getInjectedCount(StatementKind.RESET)),
+            String.valueOf(report.getInjectedCount(StatementKind.DISCARD)),
+            String.format("%.2f", report.getInjectedSyncTimeMs()),
+            String.format("%.2f", report.getAmplificationRatio())
+        };
+    }
+    
+    /**
+     * 输出带标题和表头的表格上半部分
+     */
+    static void appendTableHeader(StringBuilder out, String title, String[] headers, int[] widths) {
+        int contentWidth = tableContentWidth(widths);
+        int titleWidth = getDisplayWidth(title);
+        int leftPad = Math.max(0, (contentWidth - titleWidth) / 2);
+        int rightPad = Math.max(0, contentWidth - titleWidth - leftPad);
+        
+        out.append(BOLD + CYAN + tableBorder('╔', '╗', widths) + RESET).append('\n');
+        out.append(BOLD + CYAN + "║" + RESET + BOLD + " ".repeat(leftPad) + title + " ".repeat(rightPad) +
+                BOLD + CYAN + "║" + RESET).append('\n');
+        out.append(BOLD + CYAN + tableBorder('╠', '╣', widths) + RESET).append('\n');
+        appendRow(out, headers, widths);
+        out.append(BOLD + CYAN + tableBorder('╠', '╣', widths) + RESET).append('\n');
+    }
+    
+    static void appendRow(StringBuilder out, String[] cells, int[] widths) {
+        out.append(BOLD + CYAN + "║" + RESET);
+        for (int i = 0; i < widths.length; i++) {
+            out.append(i == 0 ? " " : " │ ").append(padString(cells[i], widths[i]));
+        }
+        out.append(" " + BOLD + CYAN + "║" + RESET).append('\n');
+    }
+    
+    static String tableBorder(char left, char right, int[] widths) {
+        return left + "═".repeat(tableContentWidth(widths)) + right;
+    }
+    
+    private static int tableContentWidth(int[] widths) {
+        int total = 2 + 3 * (widths.length - 1);
+        for (int width : widths) {
+            total += width;
+        }
+        return total;
     }
     
     /**
      * 填充字符串到指定显示宽度（考虑全角字符占2个字符宽度）
      */
-    private static String padString(String str, int displayWidth) {
+    static String padString(String str, int displayWidth) {
         if (str == null) {
             str = "";
         }
@@ -126,7 +284,7 @@ public class TablePrinter {
     /**
      * 计算字符串的显示宽度（全角字符占2个字符宽度）
      */
-    private static int getDisplayWidth(String str) {
+    static int getDisplayWidth(String str) {
         if (str == null) {
             return 0;
         }